@@ -0,0 +1,117 @@
+package benchmarks;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH microbenchmarks of the core operations that every search agent relies on: copying the game state,
+ * computing the available actions, applying an action and the heuristic score.
+ * <p>
+ * Each benchmark is run for every GameType (unless restricted with -p gameType=...), at each of the player counts
+ * in nPlayers. A player count the game does not support fails in setup, which JMH reports before going on to the
+ * next combination. The state measured is reached by playing up to warmupActions random actions from the start of
+ * the game, with all randomness coming from the seed, so that results are comparable across runs and commits.
+ * <p>
+ * Run from the command line with the benchmark profile, for example:
+ * <pre>
+ *     mvn -P benchmark compile exec:exec -Djmh.args="-p gameType=Dominion,Uno -p nPlayers=3 -rf json"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForwardModelBenchmark {
+
+    /**
+     * The game, and the state in it that is measured.
+     */
+    @State(Scope.Thread)
+    public static class Position {
+
+        // Left empty, so that JMH runs every value of the enum
+        @Param
+        public GameType gameType;
+
+        @Param({"2", "3", "4"})
+        public int nPlayers;
+
+        @Param({"42"})
+        public long seed;
+
+        @Param({"20"})
+        public int warmupActions;
+
+        AbstractForwardModel forwardModel;
+        AbstractGameState state;
+        AbstractAction nextAction;
+
+        @Setup(Level.Trial)
+        public void setupGame() {
+            Game game = gameType.createGameInstance(nPlayers, seed);
+            forwardModel = game.getForwardModel();
+            state = game.getGameState();
+            Random rnd = new Random(seed);
+            for (int i = 0; i < warmupActions; i++) {
+                // short games (TicTacToe...) stop at the last state before the end
+                List<AbstractAction> actions = forwardModel.computeAvailableActions(state);
+                AbstractGameState nextState = state.copy();
+                forwardModel.next(nextState, actions.get(rnd.nextInt(actions.size())));
+                if (!nextState.isNotTerminal())
+                    break;
+                state = nextState;
+            }
+            List<AbstractAction> actions = forwardModel.computeAvailableActions(state);
+            nextAction = actions.get(rnd.nextInt(actions.size()));
+        }
+    }
+
+    /**
+     * The Position with a fresh copy of its state for each call of next(), which changes the state it is given.
+     * This is kept apart so that only next() pays the timing overhead of a per-invocation setup.
+     */
+    @State(Scope.Thread)
+    public static class PositionToAdvance extends Position {
+        AbstractGameState stateToAdvance;
+
+        @Setup(Level.Invocation)
+        public void copyState() {
+            stateToAdvance = state.copy();
+        }
+    }
+
+    @Benchmark
+    public AbstractGameState copy(Position position) {
+        return position.state.copy();
+    }
+
+    @Benchmark
+    public AbstractGameState copyForPlayer(Position position) {
+        return position.state.copy(position.state.getCurrentPlayer());
+    }
+
+    @Benchmark
+    public List<AbstractAction> computeAvailableActions(Position position) {
+        return position.forwardModel.computeAvailableActions(position.state);
+    }
+
+    @Benchmark
+    public AbstractGameState next(PositionToAdvance position) {
+        position.forwardModel.next(position.stateToAdvance, position.nextAction.copy());
+        return position.stateToAdvance;
+    }
+
+    @Benchmark
+    public double getHeuristicScore(Position position) {
+        return position.state.getHeuristicScore(position.state.getCurrentPlayer());
+    }
+}
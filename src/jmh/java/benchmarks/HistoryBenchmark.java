@@ -0,0 +1,78 @@
+package benchmarks;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH microbenchmark of what a search does on every iteration: copy a state that has already been copied many times
+ * (the root of the search), and apply an action to the copy. The cost of carrying the history over from the state
+ * copied grows with the length of the game unless copies share it, so this is measured at points through a full
+ * random game, given by progress (0 is the start of the game and 1 is the last state before the end).
+ * <p>
+ * Run from the command line with the benchmark profile, for example:
+ * <pre>
+ *     mvn -P benchmark compile exec:exec -Djmh.args="HistoryBenchmark -p gameType=Dominion"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HistoryBenchmark {
+
+    @Param({"Dominion", "Catan", "LoveLetter"})
+    public GameType gameType;
+
+    @Param({"3"})
+    public int nPlayers;
+
+    @Param({"42"})
+    public long seed;
+
+    @Param({"0", "0.5", "1"})
+    public double progress;
+
+    // random play does not always finish a game, so it is stopped after this many actions
+    @Param({"5000"})
+    public int maxActions;
+
+    AbstractForwardModel forwardModel;
+    AbstractGameState state;
+    AbstractAction nextAction;
+
+    @Setup(Level.Trial)
+    public void playGame() {
+        Game game = gameType.createGameInstance(nPlayers, seed);
+        forwardModel = game.getForwardModel();
+        AbstractGameState current = game.getGameState();
+        Random rnd = new Random(seed);
+        List<AbstractGameState> states = new ArrayList<>();
+        while (current.isNotTerminal() && states.size() < maxActions) {
+            states.add(current);
+            List<AbstractAction> actions = forwardModel.computeAvailableActions(current);
+            current = current.copy();
+            forwardModel.next(current, actions.get(rnd.nextInt(actions.size())));
+        }
+        state = states.get((int) Math.round(progress * (states.size() - 1)));
+        List<AbstractAction> actions = forwardModel.computeAvailableActions(state);
+        nextAction = actions.get(rnd.nextInt(actions.size()));
+    }
+
+    @Benchmark
+    public AbstractGameState copyAndNext() {
+        AbstractGameState copy = state.copy();
+        forwardModel.next(copy, nextAction.copy());
+        return copy;
+    }
+}
@@ -162,6 +162,97 @@ public abstract class AbstractForwardModel {
         currentState.advanceGameTick();
     }
 
+    /**
+     * Applies the given action to the game state in the same way as next(), and returns what undo() needs to take
+     * it back again. This lets a search apply and unmake actions on one state instead of copying it for each one.
+     * Only for states where supportsUndo(state) is true.
+     * <p>
+     * Actions cannot be undone while an extended action sequence (IExtendedSequence) is in progress. Neither the
+     * random number generator nor the player timers are rewound by undo(), and events already sent to listeners
+     * stay sent.
+     *
+     * @param currentState - current game state, to be modified by the action.
+     * @param action       - action requested to be played by a player.
+     * @return - the record to pass to undo() to take back the action
+     */
+    public final UndoRecord nextUndoable(AbstractGameState currentState, AbstractAction action) {
+        if (!supportsUndo())
+            throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support undo");
+        if (action == null)
+            throw new AssertionError("No action to apply");
+        if (!supportsUndo(currentState))
+            throw new AssertionError("Actions cannot be undone in this state" + (currentState.isActionInProgress() ?
+                    ", as an action is in progress: " + currentState.currentActionInProgress() : ""));
+        UndoRecord record = new UndoRecord(currentState, action, _saveForUndo(currentState, action));
+        next(currentState, action);
+        return record;
+    }
+
+    /**
+     * Takes back the action applied by nextUndoable(), so that the state is as it was before.
+     * Actions must be undone in the reverse order to that in which they were applied.
+     *
+     * @param currentState - the game state the action was applied to
+     * @param record       - returned by nextUndoable() when the action was applied
+     */
+    public final void undo(AbstractGameState currentState, UndoRecord record) {
+        _undo(currentState, record.action, record.gameData);
+        currentState.restore(record);
+    }
+
+    /**
+     * @return true if this forward model implements _saveForUndo() and _undo(), so that nextUndoable() and undo()
+     * can be used.
+     */
+    public boolean supportsUndo() {
+        return false;
+    }
+
+    /**
+     * @return true if an action taken in this state can be undone, which needs supportsUndo(), and no extended
+     * action sequence to be in progress. An action that starts a sequence (such as a deep action) can itself be
+     * undone, but the actions taken within the sequence cannot, so a search should copy the state instead of using
+     * nextUndoable() whenever this is false.
+     */
+    public boolean supportsUndo(AbstractGameState state) {
+        return supportsUndo() && !state.isActionInProgress();
+    }
+
+    /**
+     * @return true if computeAvailableActions() never changes the state it is given (including through any
+     * IExtendedSequence in progress), and gives the same actions for the game state as for the current player's copy
+     * of it. Game then computes the actions for a player that does not read its observation (see
+     * AbstractPlayer.needsObservation()) from the game state itself, instead of from a copy.
+     */
+    public boolean computesActionsWithoutSideEffects() {
+        return false;
+    }
+
+    /**
+     * Called before an action is applied by nextUndoable(), to save anything about the game-specific state that
+     * _undo() will need to take the action back and that cannot be worked out from the action itself.
+     * (The core state, such as the current player and game status, is saved and restored by the framework.)
+     *
+     * @param currentState - current game state, before the action is applied.
+     * @param action       - action about to be applied.
+     * @return - anything _undo() needs, or null if nothing.
+     */
+    protected Object _saveForUndo(AbstractGameState currentState, AbstractAction action) {
+        return null;
+    }
+
+    /**
+     * Reverses all game-specific changes made to the state by applying the action (including any made by the
+     * rules after the action, such as registering a winner).
+     *
+     * @param currentState - game state the action was applied to.
+     * @param action       - the action to take back.
+     * @param savedData    - what _saveForUndo() returned before the action was applied.
+     */
+    protected void _undo(AbstractGameState currentState, AbstractAction action, Object savedData) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support undo");
+    }
+
     /**
      * Computes the available actions and updates the game state accordingly.
      *
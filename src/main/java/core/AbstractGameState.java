@@ -14,6 +14,7 @@ import evaluation.metrics.Event;
 import games.GameType;
 import utilities.ElapsedCpuChessTimer;
 import utilities.Pair;
+import utilities.SharedPrefixList;
 
 import java.util.*;
 import java.util.function.BiFunction;
@@ -42,6 +43,8 @@ public abstract class AbstractGameState {
 
     // Game tick, number of iterations of game loop
     private int tick = 0;
+    // Changed every time the forward model changes this state, and (unlike tick) never goes back, even on undo()
+    private long version = 0;
 
     // Migrated from TurnOrder...may move later
     protected int roundCounter, turnCounter, turnOwner, firstPlayer;
@@ -55,8 +58,9 @@ public abstract class AbstractGameState {
     // A record of all actions taken to reach this game state
     // The history is stored as a list of pairs, where the first element is the player who took the action
     // this is in chronological order
-    private List<Pair<Integer, AbstractAction>> history = new ArrayList<>();
-    private List<String> historyText = new ArrayList<>();
+    // These are shared with (and between) copies of the state, so that copying does not cost more as the game goes on
+    private SharedPrefixList<Pair<Integer, AbstractAction>> history = new SharedPrefixList<>();
+    private SharedPrefixList<String> historyText = new SharedPrefixList<>();
 
     // Status of the game, and status for each player (in cooperative games, the game status is also each player's status)
     protected CoreConstants.GameResult gameStatus;
@@ -94,10 +98,11 @@ public abstract class AbstractGameState {
         gameStatus = GAME_ONGOING;
         playerResults = new CoreConstants.GameResult[getNPlayers()];
         Arrays.fill(playerResults, GAME_ONGOING);
-        history = new ArrayList<>();
-        historyText = new ArrayList<>();
+        history = new SharedPrefixList<>();
+        historyText = new SharedPrefixList<>();
         playerTimer = new ElapsedCpuChessTimer[getNPlayers()];
         tick = 0;
+        version++;
         turnOwner = 0;
         turnCounter = 0;
         roundCounter = 0;
@@ -171,6 +176,8 @@ public abstract class AbstractGameState {
     public List<String> getHistoryAsText() {
         return new ArrayList<>(historyText);
     }
+    int getHistorySize() {return history.size();}
+    int getHistoryTextSize() {return historyText.size();}
     public int getGameID() {
         return gameID;
     }
@@ -202,7 +209,30 @@ public abstract class AbstractGameState {
     void setGameID(int id) {
         gameID = id;
     } // package level deliberately
-    void advanceGameTick() {tick++;}
+    void advanceGameTick() {
+        tick++;
+        version++;
+    }
+
+    /**
+     * Puts back the framework's part of the state as it was before the action in the record was applied.
+     * Used by AbstractForwardModel.undo(), which also undoes the game-specific part.
+     */
+    void restore(UndoRecord record) {
+        tick = record.tick;
+        version++;
+        roundCounter = record.roundCounter;
+        turnCounter = record.turnCounter;
+        turnOwner = record.turnOwner;
+        firstPlayer = record.firstPlayer;
+        gameStatus = record.gameStatus;
+        System.arraycopy(record.playerResults, 0, playerResults, 0, playerResults.length);
+        gamePhase = record.gamePhase;
+        // actions can only be undone if no extended action sequence was in progress when they were taken
+        actionsInProgress.clear();
+        history.truncate(record.historySize);
+        historyText.truncate(record.historyTextSize);
+    }
 
     public void setTurnOwner(int newTurnOwner) {turnOwner = newTurnOwner;}
     public void setFirstPlayer(int newFirstPlayer) {
@@ -238,6 +268,12 @@ public abstract class AbstractGameState {
         return playerResults[player] == GAME_ONGOING && gameStatus == GAME_ONGOING;
     }
     public final int getGameTick() {return tick;}
+
+    /**
+     * @return a number that changes whenever the forward model changes this state (including undo()), so that
+     * something computed from the state can be cached against the state and its version
+     */
+    public final long getVersion() {return version;}
     public final Component getComponentById(int id) {
         Component c = allComponents.getComponent(id);
         if (c == null) {
@@ -312,9 +348,10 @@ public abstract class AbstractGameState {
         s.rnd = playerId == -1 ? rnd : new Random(System.currentTimeMillis());
 
         if (!coreGameParameters.competitionMode) {
-            s.history = new ArrayList<>(history);
-            s.historyText = new ArrayList<>(historyText);
+            s.history = history.copy();
+            s.historyText = historyText.copy();
             // we do not copy individual actions in history, as these are now dead and should not change
+            // (and the lists themselves are shared until either state changes them - see SharedPrefixList)
             // History is for debugging and spectation of games. There is a risk that History might contain information
             // formally hidden to some participants. For this reason, in COMPETITION_MODE we explicitly do not copy
             // any history over in case a sneaky agent tries to take advantage of it.
@@ -332,8 +369,24 @@ public abstract class AbstractGameState {
             s.playerTimer[i] = playerTimer[i].copy();
         }
 
-        // Update the list of components for ID matching in actions.
-        s.addAllComponents();
+        // The map of components for ID matching in actions is left empty, and is only built when
+        // getComponentById() first needs it. Most copies (for example in MCTS rollouts) never need it.
+        return s;
+    }
+
+    /**
+     * A full copy of the state that also keeps the game ID and random seed of the original.
+     * This is for use when the state is needed after the original has moved on, for example when listener
+     * events are recorded on one thread and processed later on another. The copy has its own rnd, so
+     * that nothing done with it can affect the original game.
+     *
+     * @return - full copy of this game state, with the same game ID and seed.
+     */
+    public final AbstractGameState snapshot() {
+        AbstractGameState s = copy();
+        s.gameID = gameID;
+        s.gameParameters.randomSeed = gameParameters.randomSeed;
+        s.rnd = new Random(gameParameters.randomSeed);
         return s;
     }
 
@@ -6,6 +6,7 @@ import evaluation.metrics.Event;
 import players.PlayerParameters;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 public abstract class AbstractPlayer {
 
@@ -17,6 +18,9 @@ public abstract class AbstractPlayer {
     private AbstractForwardModel forwardModel;
     public PlayerParameters parameters;
     protected List<IPlayerDecorator> decorators;
+    // Makes the observation for the current decision, if the Game has not already done so (see needsObservation())
+    private Supplier<AbstractGameState> observationSupplier;
+    private AbstractGameState observation;
 
     public AbstractPlayer(PlayerParameters params, String name) {
         this.parameters = params != null ? params : new PlayerParameters();
@@ -58,7 +62,8 @@ public abstract class AbstractPlayer {
             case 1 -> observedActions.get(0);
             default -> {
                 // we then use our Random for any random choices
-                gameState.rnd = this.rnd;
+                if (gameState != null)
+                    gameState.rnd = this.rnd;
                 yield _getAction(gameState, observedActions);
             }
         };
@@ -101,6 +106,35 @@ public abstract class AbstractPlayer {
         return forwardModel;
     }
 
+    /**
+     * Used by Game to give this player a way to make its observation of the state for the current decision
+     * (or null once the decision is made). See needsObservation().
+     */
+    final void setObservation(Supplier<AbstractGameState> observationSupplier) {
+        this.observationSupplier = observationSupplier;
+        this.observation = null;
+    }
+
+    /**
+     * For a player that does not need the observation (see needsObservation()), this makes the copy of the game
+     * state (with the information this player cannot see hidden) for the current decision, the first time it is
+     * called for that decision.
+     *
+     * @return - observation of the current game state, or null if there is no decision in progress
+     */
+    protected final AbstractGameState getObservation() {
+        if (observation == null && observationSupplier != null) {
+            observation = observationSupplier.get();
+            observation.rnd = this.rnd;
+        }
+        return observation;
+    }
+
+    // true if Game must make a copy of the state for each decision; decorators may read it too
+    final boolean observationRequired() {
+        return needsObservation() || !decorators.isEmpty();
+    }
+
     public final void addDecorator(IPlayerDecorator decorator) {
         decorators.add(decorator);
     }
@@ -131,6 +165,19 @@ public abstract class AbstractPlayer {
 
     /* Methods that can be implemented in subclass */
 
+    /**
+     * Most players need an observation of the game state to make a decision. Copying the state (and hiding
+     * the information this player cannot see) can cost much more than the decision itself for a player that only
+     * looks at the list of actions, so such a player can override this to return false. Game then passes null
+     * as the state to _getAction(), and does not call registerUpdatedObservation(); the player can still ask for
+     * the observation with getObservation(), and it is only copied if it does.
+     *
+     * @return - true if _getAction() reads the game state passed to it (the default)
+     */
+    public boolean needsObservation() {
+        return true;
+    }
+
     /**
      * Initialize agent given an observation of the initial game state.
      * e.g. load weights, initialize neural network
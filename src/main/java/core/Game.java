@@ -523,13 +523,25 @@ public class Game {
         double s = System.nanoTime();
         // copying the gamestate also copies the game parameters and resets the random seed (so agents cannot use this
         // to reconstruct the starting hands etc.)
-        AbstractGameState observation = gameState.copy(activePlayer);
+        // If the player does not read the state, then the copy is only made if it asks for it (see AbstractPlayer.needsObservation()),
+        // as long as the actions can safely be computed from the game state itself
+        boolean lazyObservation = forwardModel.computesActionsWithoutSideEffects() && !currentPlayer.observationRequired()
+                && !(currentPlayer instanceof HumanGUIPlayer || currentPlayer instanceof HumanConsolePlayer);
+        AbstractGameState observation = lazyObservation ? null : gameState.copy(activePlayer);
         copyTime = (System.nanoTime() - s);
         //      System.out.printf("Total copyTime in ms = %.2f at tick %d (Avg %.3f) %n", copyTime / 1e6, tick, copyTime / (tick +1.0) / 1e6);
+        if (lazyObservation) {
+            currentPlayer.setObservation(() -> {
+                double copyStart = System.nanoTime();
+                AbstractGameState copy = gameState.copy(activePlayer);
+                copyTime = (System.nanoTime() - copyStart);
+                return copy;
+            });
+        }
 
-        // Get actions for the player
+        // Get actions for the player (from the state itself if there is no copy, see AbstractForwardModel.computesActionsWithoutSideEffects())
         s = System.nanoTime();
-        List<AbstractAction> observedActions = forwardModel.computeAvailableActions(observation, currentPlayer.getParameters().actionSpace);
+        List<AbstractAction> observedActions = forwardModel.computeAvailableActions(lazyObservation ? gameState : observation, currentPlayer.getParameters().actionSpace);
         if (observedActions.isEmpty()) {
             Stack<IExtendedSequence> actionsInProgress = gameState.getActionsInProgress();
             IExtendedSequence topOfStack = null;
@@ -566,7 +578,8 @@ public class Game {
             if (observedActions.size() == 1 && (!(currentPlayer instanceof HumanGUIPlayer || currentPlayer instanceof HumanConsolePlayer) || observedActions.get(0) instanceof DoNothing)) {
                 // Can only do 1 action, so do it.
                 action = observedActions.get(0);
-                currentPlayer.registerUpdatedObservation(observation);
+                if (!lazyObservation)
+                    currentPlayer.registerUpdatedObservation(observation);
             } else {
                 // Get action from player, and time it
                 s = System.nanoTime();
@@ -589,11 +602,14 @@ public class Game {
             }
             // We publish an ACTION_CHOSEN message before we implement the action, so that observers can record the state that led to the decision
             AbstractAction finalAction = action;
-            listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.ACTION_CHOSEN, gameState, finalAction, activePlayer)));
+            int actionIndex = observedActions.indexOf(action);
+            listeners.forEach(l -> l.onEvent(Event.createEvent(Event.GameEvent.ACTION_CHOSEN, gameState, finalAction, activePlayer, actionIndex)));
 
-        } else {
+        } else if (!lazyObservation) {
             currentPlayer.registerUpdatedObservation(observation);
         }
+        if (lazyObservation)
+            currentPlayer.setObservation(null);
 
         // End the timer for this decision
         gameState.playerTimer[activePlayer].pause();
@@ -606,7 +622,7 @@ public class Game {
             throw new AssertionError("We have a NULL action in the Game loop");
 
         // Check player timeout
-        if (observation.playerTimer[activePlayer].exceededMaxTime()) {
+        if (gameState.playerTimer[activePlayer].exceededMaxTime()) {
             action = forwardModel.disqualifyOrRandomAction(gameState.coreGameParameters.disqualifyPlayerOnTimeout, gameState);
         } else {
             // Resolve action and game rules, time it
@@ -0,0 +1,276 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.actions.ActionSpace;
+import games.GameType;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * A compact record of a game that has been played: the game, a hash of its parameters, the random seed, the number
+ * of players and the action space each used, and for each decision the index of the action chosen in the list of
+ * actions the player was given by Game (computed in that player's action space, and from their copy of the state
+ * unless the forward model computesActionsWithoutSideEffects()).
+ * <p>
+ * As the game is deterministic given the seed, this is enough to rebuild any state of the game by re-running the
+ * forward model, see {@link #replay(AbstractParameters, int)} and {@link #replay(AbstractParameters, BiConsumer)}.
+ * The parameters themselves are not stored; the same parameters must be used to replay the game (the hash is used to
+ * check this). Records are usually made by evaluation.listeners.GameRecordListener.
+ * <p>
+ * The binary format is: int MAGIC, byte VERSION, the name of the game (UTF), int parameters hash, long seed,
+ * byte number of players, for each player the structure, flexibility and context of their action space (a byte each,
+ * the ordinal of the value), then the number of actions and each action index as unsigned variable-length integers
+ * (7 bits per byte, least significant first), so that most actions take a single byte.
+ */
+public class GameRecord {
+
+    static final int MAGIC = 0x54414752;  // "TAGR"
+    static final byte VERSION = 1;
+
+    public final GameType gameType;
+    public final int parametersHash;
+    public final long seed;
+    public final int nPlayers;
+    private final ActionSpace[] actionSpaces;
+    private int[] actions;
+    private int nActions;
+
+    /**
+     * A record of a game in which all players use the default action space.
+     */
+    public GameRecord(GameType gameType, AbstractParameters params, long seed, int nPlayers) {
+        this(gameType, params, seed, defaultActionSpaces(nPlayers));
+    }
+
+    /**
+     * @param actionSpaces - the action space of each player, in player order
+     */
+    public GameRecord(GameType gameType, AbstractParameters params, long seed, ActionSpace[] actionSpaces) {
+        this(gameType, params.hashCode(), seed, actionSpaces.clone(), new int[64], 0);
+    }
+
+    private GameRecord(GameType gameType, int parametersHash, long seed, ActionSpace[] actionSpaces, int[] actions, int nActions) {
+        this.gameType = gameType;
+        this.parametersHash = parametersHash;
+        this.seed = seed;
+        this.nPlayers = actionSpaces.length;
+        this.actionSpaces = actionSpaces;
+        this.actions = actions;
+        this.nActions = nActions;
+    }
+
+    private static ActionSpace[] defaultActionSpaces(int nPlayers) {
+        ActionSpace[] retValue = new ActionSpace[nPlayers];
+        Arrays.fill(retValue, ActionSpace.Default);
+        return retValue;
+    }
+
+    /**
+     * @return - the action space the player's actions were chosen from
+     */
+    public ActionSpace getActionSpace(int player) {
+        return actionSpaces[player];
+    }
+
+    /**
+     * Records the next action taken in the game, as its index in the list of actions the player chose from (see
+     * Event.actionIndex).
+     */
+    public void addAction(int index) {
+        if (index < 0)
+            throw new IllegalArgumentException("Action index must not be negative: " + index);
+        if (nActions == actions.length)
+            actions = Arrays.copyOf(actions, actions.length * 2);
+        actions[nActions++] = index;
+    }
+
+    public int getNActions() {
+        return nActions;
+    }
+
+    public int getAction(int i) {
+        if (i < 0 || i >= nActions)
+            throw new IndexOutOfBoundsException("Action " + i + " of " + nActions);
+        return actions[i];
+    }
+
+    /**
+     * Re-runs the game from the start, taking the first nActions of the recorded actions.
+     *
+     * @param params   - the parameters the game was played with (if null, the default parameters for the game)
+     * @param nActions - the number of actions to take
+     * @return - the Game, with no players, with its state after nActions have been taken (and the end of game
+     * processing done, if this ends the game)
+     */
+    public Game replay(AbstractParameters params, int nActions) {
+        if (nActions < 0 || nActions > this.nActions)
+            throw new IllegalArgumentException("Can only replay between 0 and " + this.nActions + " actions: " + nActions);
+        Game game = createGame(params);
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        for (int i = 0; i < nActions; i++)
+            forwardModel.next(state, nextAction(forwardModel, state, i));
+        finish(forwardModel, state);
+        return game;
+    }
+
+    /**
+     * Re-runs the whole game, calling visitor with the state before each action, and the action then taken.
+     * The state is the live state of the replay, so visitor must copy it if it needs to keep it.
+     *
+     * @param params  - the parameters the game was played with (if null, the default parameters for the game)
+     * @param visitor - called before each action
+     * @return - the Game, with no players, with its final state
+     */
+    public Game replay(AbstractParameters params, BiConsumer<AbstractGameState, AbstractAction> visitor) {
+        Game game = createGame(params);
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        for (int i = 0; i < nActions; i++) {
+            AbstractAction action = nextAction(forwardModel, state, i);
+            visitor.accept(state, action);
+            forwardModel.next(state, action);
+        }
+        finish(forwardModel, state);
+        return game;
+    }
+
+    // As Game does once the game is over, so that the final results are set
+    private void finish(AbstractForwardModel forwardModel, AbstractGameState state) {
+        if (!state.isNotTerminal())
+            forwardModel.endGame(state);
+    }
+
+    private Game createGame(AbstractParameters params) {
+        if (params == null)
+            params = gameType.createParameters(seed);
+        if (params.hashCode() != parametersHash)
+            throw new IllegalArgumentException("The parameters do not match those the game was played with: " + params);
+        Game game = gameType.createGameInstance(nPlayers, seed, params);
+        game.reset(Collections.emptyList(), seed);
+        return game;
+    }
+
+    private AbstractAction nextAction(AbstractForwardModel forwardModel, AbstractGameState state, int i) {
+        if (!state.isNotTerminal())
+            throw new AssertionError("Game is over after " + i + " of " + nActions + " actions");
+        // the actions are computed in the same way as Game does for the player
+        int player = state.getCurrentPlayer();
+        AbstractGameState view = forwardModel.computesActionsWithoutSideEffects() ? state : state.copy(player);
+        List<AbstractAction> available = forwardModel.computeAvailableActions(view, actionSpaces[player]);
+        if (actions[i] >= available.size())
+            throw new AssertionError("Action " + i + " has index " + actions[i] + " but only " + available.size() + " actions are available");
+        // The forward model may change the action, so (as Game does) we use a copy
+        return available.get(actions[i]).copy();
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeUTF(gameType.name());
+        out.writeInt(parametersHash);
+        out.writeLong(seed);
+        out.writeByte(nPlayers);
+        for (ActionSpace actionSpace : actionSpaces) {
+            out.writeByte(actionSpace.structure.ordinal());
+            out.writeByte(actionSpace.flexibility.ordinal());
+            out.writeByte(actionSpace.context.ordinal());
+        }
+        writeVarInt(out, nActions);
+        for (int i = 0; i < nActions; i++)
+            writeVarInt(out, actions[i]);
+    }
+
+    /**
+     * @return - the next record in the stream, or null at the end of the stream
+     */
+    public static GameRecord read(DataInputStream in) throws IOException {
+        int magic;
+        try {
+            magic = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (magic != MAGIC)
+            throw new IOException("Not a game record");
+        byte version = in.readByte();
+        if (version != VERSION)
+            throw new IOException("Unsupported game record version " + version);
+        GameType gameType = GameType.valueOf(in.readUTF());
+        int parametersHash = in.readInt();
+        long seed = in.readLong();
+        int nPlayers = in.readUnsignedByte();
+        ActionSpace[] actionSpaces = new ActionSpace[nPlayers];
+        for (int p = 0; p < nPlayers; p++) {
+            actionSpaces[p] = new ActionSpace(ActionSpace.Structure.values()[in.readUnsignedByte()],
+                    ActionSpace.Flexibility.values()[in.readUnsignedByte()],
+                    ActionSpace.Context.values()[in.readUnsignedByte()]);
+        }
+        int nActions = readVarInt(in);
+        int[] actions = new int[Math.max(nActions, 1)];
+        for (int i = 0; i < nActions; i++)
+            actions[i] = readVarInt(in);
+        return new GameRecord(gameType, parametersHash, seed, actionSpaces, actions, nActions);
+    }
+
+    /**
+     * @return - all the records in the file, in the order they were written
+     */
+    public static List<GameRecord> readAll(File file) {
+        List<GameRecord> retValue = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            for (GameRecord record = read(in); record != null; record = read(in))
+                retValue.add(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return retValue;
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GameRecord other)) return false;
+        return gameType == other.gameType && parametersHash == other.parametersHash && seed == other.seed
+                && nPlayers == other.nPlayers && Arrays.equals(actionSpaces, other.actionSpaces)
+                && Arrays.equals(actions, 0, nActions, other.actions, 0, other.nActions);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(gameType, parametersHash, seed, nPlayers, Arrays.hashCode(actionSpaces));
+        for (int i = 0; i < nActions; i++)
+            result = 31 * result + actions[i];
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%d players, seed %d): %d actions", gameType, nPlayers, seed, nActions);
+    }
+}
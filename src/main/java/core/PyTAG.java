@@ -21,6 +21,8 @@ import utilities.ActionTreeNode;
 import games.explodingkittens.*;
 
 
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -177,6 +179,19 @@ public class PyTAG {
         else throw new Exception("Observation vectoriser function is not implemented");
     }
 
+    // Writes the observation vector into the buffer from offset, as floats (used by VectorisedPyTAG)
+    void writeObservationVector(FloatBuffer buffer, int offset) throws Exception {
+        double[] observation = getObservationVector();
+        for (int i = 0; i < observation.length; i++)
+            buffer.put(offset + i, (float) observation[i]);
+    }
+
+    // Writes the action mask into the buffer from offset, one byte per action (used by VectorisedPyTAG)
+    void writeActionMask(ByteBuffer buffer, int offset) {
+        for (int i = 0; i < leaves.size(); i++)
+            buffer.put(offset + i, (byte) leaves.get(i).getValue());
+    }
+
     // Gets the action space size as an integer
     public int getActionSpace(){
         return leaves.size();
@@ -0,0 +1,46 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.interfaces.IGamePhase;
+
+/**
+ * Everything that AbstractForwardModel.undo() needs to take back one action applied with
+ * AbstractForwardModel.nextUndoable().
+ * <p>
+ * This holds the framework's part of the state from before the action (game tick, turn and round counters,
+ * game status and results, phase, and the length of the history), and whatever the game's forward model saved
+ * in _saveForUndo() to undo the game-specific part.
+ */
+public final class UndoRecord {
+
+    final AbstractAction action;
+    final Object gameData;
+
+    final int tick, roundCounter, turnCounter, turnOwner, firstPlayer;
+    final CoreConstants.GameResult gameStatus;
+    final CoreConstants.GameResult[] playerResults;
+    final IGamePhase gamePhase;
+    final int historySize, historyTextSize;
+
+    UndoRecord(AbstractGameState state, AbstractAction action, Object gameData) {
+        this.action = action;
+        this.gameData = gameData;
+        tick = state.getGameTick();
+        roundCounter = state.roundCounter;
+        turnCounter = state.turnCounter;
+        turnOwner = state.turnOwner;
+        firstPlayer = state.firstPlayer;
+        gameStatus = state.gameStatus;
+        playerResults = state.playerResults.clone();
+        gamePhase = state.gamePhase;
+        historySize = state.getHistorySize();
+        historyTextSize = state.getHistoryTextSize();
+    }
+
+    /**
+     * @return the action that this record undoes
+     */
+    public AbstractAction getAction() {
+        return action;
+    }
+}
@@ -0,0 +1,172 @@
+package core;
+
+import games.GameType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Runs a number of PyTAG environments of the same game side by side, and steps them all with one call.
+ * <p>
+ * Everything passed to and from Python is held in direct buffers (in native byte order) that are allocated once, so
+ * that Python can map them as numpy arrays without copying (for example with numpy.frombuffer() on the buffer, using
+ * JPype). Environment i uses these parts of each buffer:
+ * <ul>
+ *     <li>observations: float32[i * getObservationSpace() ... (i+1) * getObservationSpace()]</li>
+ *     <li>actionMasks: uint8[i * getActionSpace() ... (i+1) * getActionSpace()], 1 for each valid action</li>
+ *     <li>rewards: float32[i]</li>
+ *     <li>dones: uint8[i]</li>
+ *     <li>playerIDs: int32[i], the player who is to decide next</li>
+ *     <li>actions: int32[i], the action to take in the next step(), written by Python</li>
+ * </ul>
+ * When a game ends, its reward is the result (GameResult.value) for the player who took the last action, its done
+ * flag is set, and it is immediately reset; the observation and action mask are then those of the new game.
+ * Otherwise the reward is 0. The environments are reset when this is constructed.
+ */
+public class VectorisedPyTAG {
+
+    private final List<PyTAG> envs;
+    private final int observationSize;
+    private final int actionSpaceSize;
+
+    private final ByteBuffer observations, actionMasks, rewards, dones, playerIDs, actions;
+    private final FloatBuffer observationValues, rewardValues;
+    private final IntBuffer playerIDValues, actionValues;
+
+    /**
+     * @param players the players for each game; each environment plays with its own copies of these
+     * @param nEnvs   the number of games to run side by side
+     * @param seed    the seed from which the seed of each environment is drawn
+     */
+    public VectorisedPyTAG(GameType gameToPlay, String parameterConfigFile, List<AbstractPlayer> players,
+                           int nEnvs, long seed, boolean isNormalized) throws Exception {
+        Random seedRandom = new Random(seed);
+        envs = new ArrayList<>(nEnvs);
+        for (int i = 0; i < nEnvs; i++) {
+            List<AbstractPlayer> envPlayers = new ArrayList<>(players.size());
+            for (AbstractPlayer player : players)
+                envPlayers.add(player.copy());
+            envs.add(new PyTAG(gameToPlay, parameterConfigFile, envPlayers, seedRandom.nextLong(), isNormalized));
+        }
+        observationSize = envs.get(0).getObservationSpace();
+        if (observationSize == 0)
+            throw new Exception("Game does not implement the state feature vector interface");
+        // The action tree has the same leaves throughout the game, but only exists once an environment is reset
+        envs.get(0).reset();
+        actionSpaceSize = envs.get(0).getActionSpace();
+
+        observations = allocate(nEnvs * observationSize * Float.BYTES);
+        actionMasks = allocate(nEnvs * actionSpaceSize);
+        rewards = allocate(nEnvs * Float.BYTES);
+        dones = allocate(nEnvs);
+        playerIDs = allocate(nEnvs * Integer.BYTES);
+        actions = allocate(nEnvs * Integer.BYTES);
+        observationValues = observations.asFloatBuffer();
+        rewardValues = rewards.asFloatBuffer();
+        playerIDValues = playerIDs.asIntBuffer();
+        actionValues = actions.asIntBuffer();
+
+        reset();
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Resets all the environments, and writes their first observations and action masks.
+     */
+    public void reset() throws Exception {
+        for (int i = 0; i < envs.size(); i++) {
+            envs.get(i).reset();
+            rewardValues.put(i, 0.0f);
+            dones.put(i, (byte) 0);
+            writeDecision(i);
+        }
+    }
+
+    /**
+     * Takes the actions in the actions buffer, one in each environment.
+     */
+    public void step() throws Exception {
+        for (int i = 0; i < envs.size(); i++)
+            step(i, actionValues.get(i));
+    }
+
+    /**
+     * Takes the given actions, one in each environment.
+     */
+    public void step(int[] actionIDs) throws Exception {
+        if (actionIDs.length != envs.size())
+            throw new IllegalArgumentException("Expected " + envs.size() + " actions, but got " + actionIDs.length);
+        for (int i = 0; i < envs.size(); i++)
+            step(i, actionIDs[i]);
+    }
+
+    private void step(int i, int actionID) throws Exception {
+        PyTAG env = envs.get(i);
+        int player = env.getPlayerID();
+        env.step(actionID);
+        if (env.isDone()) {
+            rewardValues.put(i, (float) env.getPlayerResults()[player].value);
+            dones.put(i, (byte) 1);
+            env.reset();
+        } else {
+            rewardValues.put(i, 0.0f);
+            dones.put(i, (byte) 0);
+        }
+        writeDecision(i);
+    }
+
+    private void writeDecision(int i) throws Exception {
+        PyTAG env = envs.get(i);
+        env.writeObservationVector(observationValues, i * observationSize);
+        env.writeActionMask(actionMasks, i * actionSpaceSize);
+        playerIDValues.put(i, env.getPlayerID());
+    }
+
+    public int getNumEnvs() {
+        return envs.size();
+    }
+
+    public int getObservationSpace() {
+        return observationSize;
+    }
+
+    public int getActionSpace() {
+        return actionSpaceSize;
+    }
+
+    public PyTAG getEnv(int i) {
+        return envs.get(i);
+    }
+
+    public ByteBuffer getObservations() {
+        return observations;
+    }
+
+    public ByteBuffer getActionMasks() {
+        return actionMasks;
+    }
+
+    public ByteBuffer getRewards() {
+        return rewards;
+    }
+
+    public ByteBuffer getDones() {
+        return dones;
+    }
+
+    public ByteBuffer getPlayerIDs() {
+        return playerIDs;
+    }
+
+    public ByteBuffer getActions() {
+        return actions;
+    }
+}
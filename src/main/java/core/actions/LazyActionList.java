@@ -0,0 +1,98 @@
+package core.actions;
+
+import java.util.*;
+
+/**
+ * A list of actions that only creates each action when it is first asked for.
+ * <p>
+ * Some games have action spaces that are very large but have a regular structure (for example every quantity of
+ * every resource that could be offered in a trade), of which most entries are never looked at: a random player or
+ * rollout only draws one of them. A game can return one of these from _computeAvailableActions() instead of an
+ * ArrayList, giving the number of actions and a way to build the action at any index. size(), get() and sample()
+ * then cost nothing for the actions that are not drawn, while anything that iterates over the list (such as a
+ * search tree that indexes all actions) still sees a normal List, in the same order as the full list would be.
+ * <p>
+ * Each action is built at most once, so get() returns the same object each time for the same index. The list has
+ * a fixed size: set() is supported (so it can be shuffled or sorted), but add() and remove() are not.
+ */
+public abstract class LazyActionList extends AbstractList<AbstractAction> implements RandomAccess {
+
+    private final int size;
+    private AbstractAction[] built;
+
+    protected LazyActionList(int size) {
+        if (size < 0) throw new IllegalArgumentException("Negative size: " + size);
+        this.size = size;
+    }
+
+    /**
+     * Creates the action at the given index. Called at most once for each index.
+     *
+     * @param index - from 0 to size() - 1
+     * @return - the action at that index
+     */
+    protected abstract AbstractAction build(int index);
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public AbstractAction get(int index) {
+        Objects.checkIndex(index, size);
+        if (built == null) built = new AbstractAction[size];
+        if (built[index] == null) built[index] = build(index);
+        return built[index];
+    }
+
+    @Override
+    public AbstractAction set(int index, AbstractAction action) {
+        AbstractAction previous = get(index);
+        built[index] = action;
+        return previous;
+    }
+
+    /**
+     * @return - one of the actions, chosen uniformly at random, without building any of the others
+     */
+    public AbstractAction sample(Random rnd) {
+        return get(rnd.nextInt(size));
+    }
+
+    /**
+     * @return - how many of the actions have been built so far
+     */
+    public int nBuilt() {
+        if (built == null) return 0;
+        int retValue = 0;
+        for (AbstractAction a : built) {
+            if (a != null) retValue++;
+        }
+        return retValue;
+    }
+
+    /**
+     * Joins lists of actions together, in order, without building the actions of any that are themselves lazy.
+     *
+     * @param parts - lists of actions, which must not change after this
+     * @return - a list of all the actions in the parts
+     */
+    public static LazyActionList concat(List<? extends List<AbstractAction>> parts) {
+        int[] starts = new int[parts.size() + 1];
+        for (int i = 0; i < parts.size(); i++) {
+            starts[i + 1] = starts[i] + parts.get(i).size();
+        }
+        List<List<AbstractAction>> lists = new ArrayList<>(parts);
+        return new LazyActionList(starts[parts.size()]) {
+            @Override
+            protected AbstractAction build(int index) {
+                // the last part that starts at or before this index
+                int part = Arrays.binarySearch(starts, index);
+                if (part < 0) part = -part - 2;
+                while (starts[part + 1] == index) part++;  // skip any empty parts
+                return lists.get(part).get(index - starts[part]);
+            }
+        };
+    }
+}
@@ -7,6 +7,7 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.RingBufferList;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -34,7 +35,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     public Deck(String name, int ownerId, VisibilityMode visibility) {
         super(CoreConstants.ComponentType.DECK, name);
-        this.components = new LinkedList<>();   // we always add new components to element 0...so an ArrayList is inefficient
+        this.components = new RingBufferList<>();   // we always add new components to element 0...so an ArrayList is inefficient
         this.ownerId = ownerId;
         this.capacity = -1;
         this.visibility = visibility;
@@ -42,7 +43,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     protected Deck(String name, int ownerId, int ID, VisibilityMode visibility) {
         super(CoreConstants.ComponentType.DECK, name, ID);
-        this.components = new LinkedList<>();
+        this.components = new RingBufferList<>();
         this.capacity = -1;
         this.ownerId = ownerId;
         this.visibility = visibility;
@@ -142,9 +143,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public T pick(int idx) {
         if (!components.isEmpty() && idx < components.size() && idx >= 0) {
-            T c = components.get(idx);
-            components.remove(idx);
-            return c;
+            return components.remove(idx);
         }
         return null;
     }
@@ -342,13 +341,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @param rnd       - random number generator used for shuffling
      */
     public void shuffle(int fromIndex, int toIndex, Random rnd) {
-        List<T> subList = components.subList(fromIndex, toIndex);
-        Collections.shuffle(subList, rnd);
-        int i = 0;
-        for (T component : subList) {
-            components.set(fromIndex + i, component);
-            i++;
-        }
+        Collections.shuffle(components.subList(fromIndex, toIndex), rnd);
     }
 
     /**
@@ -360,12 +353,13 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     }
 
     /**
-     * Set the components in this deck.
+     * Set the components in this deck. They are copied into the deck's own list, so later changes to the
+     * given list do not change the deck.
      *
      * @param components - new components for the deck, overrides old content.
      */
     public void setComponents(List<T> components) {
-        this.components = components;
+        this.components = new RingBufferList<>(components);
         for (T comp : components) {
             comp.setOwnerId(ownerId);
         }
@@ -437,7 +431,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     @SuppressWarnings("unchecked")
     protected void copyTo(Deck<T> deck) {
-        List<T> newComponents = new LinkedList<>();
+        List<T> newComponents = new RingBufferList<>(components.size());
         for (T c : components) {
             newComponents.add((T) c.copy());
         }
@@ -451,7 +445,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
 
     @SuppressWarnings("unchecked")
     protected void copyTo(Deck<T> deck, int playerId) {
-        List<T> newComponents = new LinkedList<>();
+        List<T> newComponents = new RingBufferList<>(components.size());
         for (T c : components) {
             newComponents.add((T) c.copy(playerId));
         }
@@ -9,6 +9,7 @@ import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import utilities.Pair;
+import utilities.Utils;
 import utilities.Vector2D;
 
 import java.io.FileReader;
@@ -26,6 +27,10 @@ public class GridBoard<T extends Component> extends Component implements ICompon
 
     private Component[][] grid;  // 2D grid representation of this board
 
+    // Zobrist hash of the contents, kept up to date by setElement() once it has been calculated
+    private long zobristHash;
+    private boolean zobristHashValid;
+
     protected GridBoard() {
         super(CoreConstants.ComponentType.BOARD);
     }
@@ -116,6 +121,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
 
         this.width = width;
         this.height = height;
+        zobristHashValid = false;
 
         Component[][] grid = new Component[height][width];
         for (int i = 0; i < h; i++) {
@@ -134,6 +140,8 @@ public class GridBoard<T extends Component> extends Component implements ICompon
      */
     public boolean setElement(int x, int y, T value) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
+            if (zobristHashValid)
+                zobristHash ^= cellHash(x, y, grid[y][x]) ^ cellHash(x, y, value);
             grid[y][x] = value;
             return true;
         } else
@@ -162,12 +170,40 @@ public class GridBoard<T extends Component> extends Component implements ICompon
     }
 
     /**
-     * Retrieves the grid.
+     * Retrieves a copy of the grid. Changing this does not change the board (use setElement() for that), so that the
+     * Zobrist hash stays up to date.
      *
      * @return - 2D grid.
      */
     public Component[][] getGridValues() {
-        return grid;
+        Component[][] retValue = new Component[height][];
+        for (int y = 0; y < height; y++)
+            retValue[y] = grid[y].clone();
+        return retValue;
+    }
+
+    /**
+     * A Zobrist hash of the contents of the grid: the XOR of a hash of each cell's position and the hashCode() of
+     * its element. This is calculated in full the first time it is needed, and is then updated by setElement() in
+     * constant time.
+     * Elements are hashed when they are set, so this is only kept up to date if elements are not changed in place
+     * while on the grid (as is the case with the Tokens used by TicTacToe and Connect4, for example).
+     *
+     * @return - 64-bit hash of the grid contents
+     */
+    public long getZobristHash() {
+        if (!zobristHashValid) {
+            zobristHash = 0;
+            for (int y = 0; y < height; y++)
+                for (int x = 0; x < width; x++)
+                    zobristHash ^= cellHash(x, y, grid[y][x]);
+            zobristHashValid = true;
+        }
+        return zobristHash;
+    }
+
+    private long cellHash(int x, int y, Component value) {
+        return value == null ? 0 : Utils.zobristHash((long) y * width + x, value.hashCode());
     }
 
     public List<Vector2D> getEmptyCells(T defaultElement) {
@@ -237,6 +273,8 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         }
         GridBoard<T> g = new GridBoard<>(gridCopy, componentID);
         copyComponentTo(g);
+        g.zobristHash = zobristHash;
+        g.zobristHashValid = zobristHashValid;
         return g;
     }
 
@@ -302,6 +340,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         }
 
         this.grid = new Component[height][width];
+        zobristHashValid = false;
 
         JSONArray grids = (JSONArray) board.get("grid");
         int y = 0;
@@ -4,7 +4,7 @@ import core.AbstractGameState;
 import core.CoreConstants.VisibilityMode;
 import org.jetbrains.annotations.NotNull;
 import utilities.DeterminisationUtilities;
-import utilities.Pair;
+import utilities.LongRingBuffer;
 
 import java.util.*;
 
@@ -15,25 +15,52 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     protected boolean[] deckVisibility;
 
     // Visibility of each component in the deck, order corresponds to order of elements in the deck;
-    protected List<boolean[]> elementVisibility = new LinkedList<>();
+    // each is a bitset, with bit p set if player p can see the component
+    protected LongRingBuffer elementVisibility = new LongRingBuffer();
 
     public boolean getVisibilityForPlayer(int elementIdx, int playerID) {
-        return elementVisibility.get(elementIdx)[playerID];
+        if (playerID < 0 || playerID >= deckVisibility.length)
+            throw new ArrayIndexOutOfBoundsException("playerID " + playerID + " needs to be in range [0," + (deckVisibility.length - 1) + "]");
+        return (elementVisibility.get(elementIdx) & (1L << playerID)) != 0;
     }
 
+    /**
+     * @return a new array with the visibility of the component for each player
+     */
     public boolean[] getVisibilityOfComponent(int elementIdx) {
-        return elementVisibility.get(elementIdx);
+        return unpack(elementVisibility.get(elementIdx));
+    }
+
+    private long pack(boolean[] visibility) {
+        long retValue = 0;
+        for (int p = 0; p < visibility.length; p++)
+            if (visibility[p])
+                retValue |= 1L << p;
+        return retValue;
+    }
+
+    private boolean[] unpack(long visibility) {
+        boolean[] retValue = new boolean[deckVisibility.length];
+        for (int p = 0; p < retValue.length; p++)
+            retValue[p] = (visibility & (1L << p)) != 0;
+        return retValue;
+    }
+
+    private static boolean[] checkPlayers(boolean[] visibility) {
+        if (visibility.length > 64)
+            throw new IllegalArgumentException("PartialObservableDeck supports at most 64 players, not " + visibility.length);
+        return visibility;
     }
 
 
     public PartialObservableDeck(String id, int ownerID, boolean[] defaultVisibility) {
         super(id, ownerID, VisibilityMode.MIXED_VISIBILITY);
-        this.deckVisibility = defaultVisibility;
+        this.deckVisibility = checkPlayers(defaultVisibility);
     }
 
     public PartialObservableDeck(String id, int ownerID, int nPlayers, VisibilityMode visibilityMode) {
         super(id, ownerID, visibilityMode);
-        deckVisibility = new boolean[nPlayers];
+        deckVisibility = checkPlayers(new boolean[nPlayers]);
         switch (visibilityMode) {
             case VISIBLE_TO_ALL:
                 for (int i = 0; i < nPlayers; i++)
@@ -66,12 +93,12 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
             throw new IllegalArgumentException("playerID " + playerID + " needs to be in range [0," + (deckVisibility.length - 1) + "]");
 
         List<T> visibleComponents = new ArrayList<>(components.size());
+        long bit = 1L << playerID;
         for (int i = 0; i < components.size(); i++) {
-            boolean[] b = elementVisibility.get(i);
-            if (b[playerID])
-                visibleComponents.add(i, components.get(i));
+            if ((elementVisibility.get(i) & bit) != 0)
+                visibleComponents.add(components.get(i));
             else
-                visibleComponents.add(i, null);
+                visibleComponents.add(null);
         }
         return visibleComponents;
     }
@@ -86,7 +113,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     public boolean isComponentVisible(int idx, int playerID) {
         if (playerID < 0 || playerID >= deckVisibility.length)
             throw new IllegalArgumentException("playerID " + playerID + " needs to be in range [0," + (deckVisibility.length - 1) + "]");
-        return elementVisibility.get(idx)[playerID];
+        return (elementVisibility.get(idx) & (1L << playerID)) != 0;
     }
 
 
@@ -106,7 +133,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     public void setComponents(List<T> components, List<boolean[]> visibilityPerPlayer) {
         super.setComponents(components);
-        this.elementVisibility = visibilityPerPlayer;
+        setVisibility(visibilityPerPlayer);
     }
 
 
@@ -120,15 +147,23 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
             if (b.length != this.deckVisibility.length)
                 throw new IllegalArgumentException("All entries of visibility need to have length " + deckVisibility.length +
                         " but at least one entry is of length " + b.length);
-        this.elementVisibility = visibility;
+        LongRingBuffer newVisibility = new LongRingBuffer(visibility.size());
+        for (boolean[] b : visibility)
+            newVisibility.add(newVisibility.size(), pack(b));
+        this.elementVisibility = newVisibility;
+    }
+
+    private long visibleToAll() {
+        return deckVisibility.length == 64 ? -1L : (1L << deckVisibility.length) - 1;
     }
+
     private void applyVisibilityMode() {
+        if (elementVisibility.size() == 0)
+            return;
         if (getVisibilityMode() == VisibilityMode.TOP_VISIBLE_TO_ALL)
-            for (int j = 0; j < deckVisibility.length; j++)
-                elementVisibility.get(0)[j] = true;
+            elementVisibility.set(0, visibleToAll());
         if (getVisibilityMode() == VisibilityMode.BOTTOM_VISIBLE_TO_ALL)
-            for (int j = 0; j < deckVisibility.length; j++)
-                elementVisibility.get(components.size() - 1)[j] = true;
+            elementVisibility.set(components.size() - 1, visibleToAll());
     }
 
     /**
@@ -140,9 +175,10 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     public void setVisibilityOfComponent(int index, int playerID, boolean visibility) {
         if (index >= 0 && index < elementVisibility.size()) {
-            if (playerID >= 0 && playerID < deckVisibility.length)
-                this.elementVisibility.get(index)[playerID] = visibility;
-            else
+            if (playerID >= 0 && playerID < deckVisibility.length) {
+                long bits = elementVisibility.get(index);
+                elementVisibility.set(index, visibility ? bits | (1L << playerID) : bits & ~(1L << playerID));
+            } else
                 throw new IllegalArgumentException("playerID " + playerID + "needs to be in range [0," + (deckVisibility.length - 1) + "]");
         } else {
             throw new IllegalArgumentException("component index " + index + " needs to be in range [0," + (components.size() - 1) + "]");
@@ -157,7 +193,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     public void setVisibilityOfComponent(int index, boolean[] visibility) {
         if (index >= 0 && index < elementVisibility.size() && visibility.length == deckVisibility.length) {
-            this.elementVisibility.set(index, visibility.clone());
+            this.elementVisibility.set(index, pack(visibility));
         } else {
             throw new IllegalArgumentException("component index " + index + " needs to be in range [0," + components.size() + "]");
         }
@@ -185,7 +221,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @return true if not over capacity, false otherwise.
      */
     public boolean add(T c, int index, boolean[] visibilityPerPlayer) {
-        this.elementVisibility.add(index, visibilityPerPlayer.clone());
+        this.elementVisibility.add(index, pack(visibilityPerPlayer));
         boolean retValue = super.add(c, index);
         applyVisibilityMode();
         return retValue;
@@ -201,16 +237,13 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     @Override
     public boolean add(Deck<T> d, int index) {
         if (d instanceof PartialObservableDeck<T> pod) {
-            int length = d.components.size();
-            for (int i = 0; i < length; i++) {
-                // Add in reverse order to keep the order of the deck
-                // this is to ties up with addAll() of components in super.add() a few lines down
-                this.elementVisibility.add(index, pod.elementVisibility.get(length - i - 1).clone());
-            }
+            // in the same order as the components, to tie up with addAll() of components in super.add() a few lines down
+            long[] visibility = new long[pod.elementVisibility.size()];
+            for (int i = 0; i < visibility.length; i++)
+                visibility[i] = pod.elementVisibility.get(i);
+            this.elementVisibility.addAll(index, visibility);
         } else {
-            for (int i = 0; i < d.components.size(); i++) {
-                this.elementVisibility.add(index, deckVisibility.clone());
-            }
+            this.elementVisibility.add(index, d.components.size(), pack(deckVisibility));
         }
         boolean retValue = super.add(d, index);
         applyVisibilityMode();
@@ -219,9 +252,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
 
     @Override
     public boolean add(Collection<T> d, int index) {
-        for (int i = 0; i < d.size(); i++) {
-            this.elementVisibility.add(index, deckVisibility.clone());
-        }
+        this.elementVisibility.add(index, d.size(), pack(deckVisibility));
         return super.add(d, index);
     }
 
@@ -234,9 +265,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     public void setComponents(List<T> components) {
         super.setComponents(components);
         elementVisibility.clear();
-        for (int i = 0; i < components.size(); i++) {
-            elementVisibility.add(deckVisibility.clone());
-        }
+        elementVisibility.add(0, components.size(), pack(deckVisibility));
         applyVisibilityMode();
     }
 
@@ -290,7 +319,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     @Override
     public void shuffle(Random rnd) {
-        elementVisibility.replaceAll(ignored -> deckVisibility.clone());
+        elementVisibility.fill(pack(deckVisibility));
         super.shuffle(rnd);
         applyVisibilityMode();
     }
@@ -301,37 +330,13 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @param rnd random number generator to be used in shuffling.
      */
     public void shuffleAndKeepVisibility(Random rnd) {
-        Pair<List<T>, List<boolean[]>> shuffled = shuffleLists(components, elementVisibility, rnd);
-        components = shuffled.a;
-        elementVisibility = shuffled.b;
-        applyVisibilityMode();
-    }
-
-
-    /**
-     * Shuffles a list of components and associated visibility
-     *
-     * @param comps - list of components
-     * @param vis   - associated visibility
-     * @param rnd   - random number generator to be used in shuffling.
-     * @return - both lists shuffled, keeping the mapping from component to visibility at the same index.
-     */
-    private Pair<List<T>, List<boolean[]>> shuffleLists(List<T> comps, List<boolean[]> vis, Random rnd) {
-        List<T> tmp_components = new LinkedList<>();
-        List<boolean[]> tmp_visibility = new LinkedList<>();
-
-        List<Integer> indexList = new ArrayList<>(comps.size());
-        for (int i = 0; i < comps.size(); i++)
-            indexList.add(i);
-        Collections.shuffle(indexList, rnd);
-
-        for (int targetIndex = 0; targetIndex < indexList.size(); targetIndex++) {
-            int sourceIndex = indexList.get(targetIndex);
-            tmp_components.add(targetIndex, comps.get(sourceIndex));
-            tmp_visibility.add(targetIndex, vis.get(sourceIndex));
+        // the same swaps as Collections.shuffle(), applied to the components and their visibility together
+        for (int i = components.size(); i > 1; i--) {
+            int j = rnd.nextInt(i);
+            Collections.swap(components, i - 1, j);
+            elementVisibility.swap(i - 1, j);
         }
-
-        return new Pair<>(tmp_components, tmp_visibility);
+        applyVisibilityMode();
     }
 
     /**
@@ -367,11 +372,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     private PartialObservableDeck<T> commonCopy(PartialObservableDeck<T> dp) {
         dp.deckVisibility = deckVisibility.clone();
 
-        ArrayList<boolean[]> newVisibility = new ArrayList<>();
-        for (boolean[] visibility : elementVisibility) {
-            newVisibility.add(visibility.clone());
-        }
-        dp.elementVisibility = newVisibility;
+        dp.elementVisibility = new LongRingBuffer(elementVisibility);
 
         return dp;
     }
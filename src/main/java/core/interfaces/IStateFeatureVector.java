@@ -6,6 +6,17 @@ public interface IStateFeatureVector extends IStateKey {
 
     double[] featureVector(AbstractGameState state, int playerID);
 
+    /**
+     * The feature vectors of every player, indexed by player. Implementations that can share work between the players
+     * should override this to compute them all in one pass.
+     */
+    default double[][] featureVectors(AbstractGameState state) {
+        double[][] retValue = new double[state.getNPlayers()][];
+        for (int p = 0; p < retValue.length; p++)
+            retValue[p] = featureVector(state, p);
+        return retValue;
+    }
+
     String[] names();
 
     @Override
@@ -0,0 +1,14 @@
+package core.interfaces;
+
+/**
+ * A game state that keeps a 64-bit Zobrist-style hash of itself up to date as it changes, so that this can be used
+ * as a key (for example in the MCGS transposition table, via evaluation.features.ZobristStateKey) without traversing
+ * the whole state as hashCode() does.
+ * <p>
+ * States that are equal must have the same hash. As with any 64-bit hash, different states can (very rarely)
+ * have the same hash.
+ */
+public interface IZobristState {
+
+    long getZobristHash();
+}
@@ -111,7 +111,7 @@ public enum RunArg {
             "\t 'random' will have a random matchup, while ensuring no duplicates, and that all players get the\n" +
             "\t the same number of games in total. (Unless the number of agents is less than the number of players, \n" +
             "\t in which case self-play will be allowed.)\n" +
-            "\t 'sequential' will run tournaments on a ONE_VS_ALL basis between each pair of agents.\n" +
+            "\t 'sequential' will run tournaments on a ONE_VS_ALL basis between each pair of agents (this cannot use workDir).\n" +
             "\t If a focusPlayer is provided, then 'mode' is ignored.",
             "random",
             new Usage[]{Usage.RunGames}),
@@ -121,6 +121,13 @@ public enum RunArg {
     nPlayers("The number of players in each game. Overrides playerRange.",
             -1,
             new Usage[]{Usage.ParameterSearch, Usage.RunGames}),
+    nThreads("The number of threads to use to run the games of a tournament in parallel. Defaults to 1 (no parallelism).\n" +
+            "\t Each game is then played with its own copies of the agents, and results are merged in the same order\n" +
+            "\t as a single-threaded run. Any listeners only see the events of each game after it has finished.\n" +
+            "\t In ParameterSearch, NTBEA evaluates batches of up to nThreads settings at once (and the evaluation games\n" +
+            "\t of the winner in parallel), and MultiNTBEA runs up to nThreads of its repeats at the same time.",
+            1,
+            new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
     neighbourhood("The size of neighbourhood to look at in NTBEA. Default is min(50, |searchSpace|/100) ",
             50,
             new Usage[]{Usage.ParameterSearch}),
@@ -181,7 +188,19 @@ public enum RunArg {
             new Usage[]{Usage.ParameterSearch}),
     verbose("If true, then the result of each game is reported. Default is false.",
             false,
-            new Usage[]{Usage.RunGames, Usage.ParameterSearch});
+            new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
+    workDir("(Optional) A directory shared with worker processes, which then play the games of the tournament.\n" +
+            "\t The tournament puts the games on a queue in this directory, and records their results as the workers\n" +
+            "\t report them. If a worker dies, its games are put back on the queue for the others.\n" +
+            "\t Workers are started (on this or any machine that can see the directory) with the same arguments\n" +
+            "\t plus worker=true, once the tournament is running. Listeners are not given any game events.\n" +
+            "\t This is not supported with mode=sequential (unless there is a focusPlayer), or by SkillLadder.",
+            "",
+            new Usage[]{Usage.RunGames}),
+    worker("If true, then rather than running a tournament, this plays games for the tournament using workDir,\n" +
+            "\t until the tournament is finished. All other arguments must be the same as for the tournament.",
+            false,
+            new Usage[]{Usage.RunGames});
 
     public final String helpText;
     public final Object defaultValue;
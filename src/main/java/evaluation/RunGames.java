@@ -6,6 +6,8 @@ import core.interfaces.IGameRunner;
 import evaluation.listeners.IGameListener;
 import evaluation.tournaments.RoundRobinTournament;
 import evaluation.tournaments.SkillGrid;
+import evaluation.tournaments.TournamentWorker;
+import evaluation.tournaments.WorkQueue;
 import games.GameType;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -71,6 +73,10 @@ public class RunGames implements IGameRunner {
                 throw new RuntimeException(e);
             }
         }
+        // SkillGrid runs its own series of tournaments, which (unlike a single tournament) cannot be shared out
+        if (!runGames.config.get(workDir).equals("") && runGames.config.get(mode).equals("sequential")
+                && runGames.config.get(focusPlayer).equals(""))
+            throw new IllegalArgumentException("workDir cannot be used with mode=sequential, as its games can only be played locally");
         runGames.initialiseGamesAndPlayerCount();
         if (!runGames.config.get(RunArg.gameParams).equals("") && runGames.gamesAndPlayerCounts.keySet().size() > 1)
             throw new IllegalArgumentException("Cannot yet provide a gameParams argument if running multiple games");
@@ -99,12 +105,19 @@ public class RunGames implements IGameRunner {
         runGames.timeDir = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
 
         // 3. Run!
-        if (runGames.config.get(mode).equals("sequential")) {
+        if ((boolean) runGames.config.get(worker)) {
+            if (runGames.config.get(workDir).equals(""))
+                throw new IllegalArgumentException("A worker needs the workDir of the tournament");
+            new TournamentWorker(agents, runGames.config).run();
+        } else if (runGames.config.get(mode).equals("sequential")) {
             SkillGrid main = new SkillGrid(agents, runGames.config);
             main.run();
         } else {
             runGames.run();
         }
+        // tell any workers that the tournament is over
+        if (!(boolean) runGames.config.get(worker) && !runGames.config.get(workDir).equals(""))
+            new WorkQueue((String) runGames.config.get(workDir)).stop();
     }
 
 
@@ -0,0 +1,132 @@
+package evaluation.features;
+
+import core.AbstractGameState;
+import core.interfaces.IStateFeatureVector;
+
+/**
+ * Wraps an IStateFeatureVector, and remembers the feature vectors of the states it has recently been asked about,
+ * so that evaluating the same state again (for another player, for each action from it, or at back-up) does not
+ * compute them again. The heuristics built on an IStateFeatureVector wrap it in one of these (see wrap()).
+ * <p>
+ * A state is recognised by its identity and AbstractGameState.getVersion(), which changes whenever the forward model
+ * changes the state. The cache is direct-mapped, with a fixed number of slots: a state replaces whatever was in its
+ * slot, so the cache never grows and needs no bookkeeping. Each thread has its own slots, as a heuristic is shared by
+ * all the threads of a parallel search.
+ * <p>
+ * With allPlayers, the first request for a state computes the vectors of all players with featureVectors(), which is
+ * cheaper when the search goes on to evaluate the state for each player, or when the features share work between players.
+ * <p>
+ * The arrays returned are the ones held in the cache, so they must not be changed.
+ */
+public class CachedStateFeatures implements IStateFeatureVector {
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    public final IStateFeatureVector features;
+    public final boolean allPlayers;
+    private final int mask;
+    private final ThreadLocal<Slots> slots;
+
+    private static class Slots {
+        final AbstractGameState[] states;
+        final long[] versions;
+        // for each slot, the vector of each player (null until computed)
+        final double[][][] vectors;
+
+        Slots(int capacity) {
+            states = new AbstractGameState[capacity];
+            versions = new long[capacity];
+            vectors = new double[capacity][][];
+        }
+    }
+
+    /**
+     * @param features   - the feature vector to cache
+     * @param capacity   - the number of states remembered by each thread (rounded up to a power of two)
+     * @param allPlayers - if true, then compute the vectors for all players whenever a state is first seen
+     */
+    public CachedStateFeatures(IStateFeatureVector features, int capacity, boolean allPlayers) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        this.features = features;
+        this.allPlayers = allPlayers;
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size *= 2;
+        this.mask = size - 1;
+        int finalSize = size;
+        this.slots = ThreadLocal.withInitial(() -> new Slots(finalSize));
+    }
+
+    /**
+     * @return features wrapped in a cache with the default settings, unless it already is cached (or is null)
+     */
+    public static IStateFeatureVector wrap(IStateFeatureVector features) {
+        if (features == null || features instanceof CachedStateFeatures)
+            return features;
+        return new CachedStateFeatures(features, DEFAULT_CAPACITY, false);
+    }
+
+    private double[][] vectorsFor(AbstractGameState state) {
+        Slots s = slots.get();
+        long version = state.getVersion();
+        int slot = (System.identityHashCode(state) ^ (int) (version * 0x9E3779B97F4A7C15L >>> 32)) & mask;
+        if (s.states[slot] != state || s.versions[slot] != version) {
+            s.states[slot] = state;
+            s.versions[slot] = version;
+            s.vectors[slot] = new double[state.getNPlayers()][];
+        }
+        return s.vectors[slot];
+    }
+
+    @Override
+    public double[] featureVector(AbstractGameState state, int playerID) {
+        double[][] vectors = vectorsFor(state);
+        if (vectors[playerID] == null) {
+            if (allPlayers) {
+                double[][] all = features.featureVectors(state);
+                System.arraycopy(all, 0, vectors, 0, vectors.length);
+            } else {
+                vectors[playerID] = features.featureVector(state, playerID);
+            }
+        }
+        return vectors[playerID];
+    }
+
+    @Override
+    public double[][] featureVectors(AbstractGameState state) {
+        double[][] vectors = vectorsFor(state);
+        for (int p = 0; p < vectors.length; p++) {
+            if (vectors[p] == null) {
+                double[][] all = features.featureVectors(state);
+                System.arraycopy(all, 0, vectors, 0, vectors.length);
+                break;
+            }
+        }
+        return vectors.clone();
+    }
+
+    /**
+     * Forgets everything cached by the current thread.
+     */
+    public void clear() {
+        slots.remove();
+    }
+
+    @Override
+    public String[] names() {
+        return features.names();
+    }
+
+    // Keys are whatever the wrapped features give, as some override these
+
+    @Override
+    public Integer getKey(AbstractGameState state, int playerId) {
+        return features.getKey(state, playerId);
+    }
+
+    @Override
+    public Object getKey(AbstractGameState state) {
+        return features.getKey(state);
+    }
+}
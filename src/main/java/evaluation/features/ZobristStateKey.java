@@ -0,0 +1,19 @@
+package evaluation.features;
+
+import core.AbstractGameState;
+import core.interfaces.IStateKey;
+import core.interfaces.IZobristState;
+
+/**
+ * Uses the hash maintained by an IZobristState as the key, so the key of a state is found in constant time.
+ * The key is the same for all players, so this is for games of perfect information.
+ */
+public class ZobristStateKey implements IStateKey {
+
+    @Override
+    public Long getKey(AbstractGameState state, int playerId) {
+        if (!(state instanceof IZobristState zobristState))
+            throw new IllegalArgumentException(state.getGameType() + " does not maintain a Zobrist hash");
+        return zobristState.getZobristHash();
+    }
+}
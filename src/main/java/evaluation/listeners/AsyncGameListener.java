@@ -0,0 +1,214 @@
+package evaluation.listeners;
+
+import core.Game;
+import core.interfaces.IGameEvent;
+import evaluation.metrics.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+import static evaluation.metrics.Event.GameEvent.ACTION_CHOSEN;
+
+/**
+ * Passes the events of a game to another listener on a background thread, so that the game thread does not wait
+ * while (for example) metrics are computed. To use it, add it to the Game in place of the listener it wraps:
+ * <pre>    game.addListener(new AsyncGameListener(new MetricsGameListener(...), 1024, 64));</pre>
+ * <p>
+ * On the game thread, each event the wrapped listener listens to (see {@link IGameListener#listensTo(IGameEvent)})
+ * is given a snapshot of the state (and of the action, if this is the live action of ACTION_CHOSEN), and put on a
+ * bounded queue. Events the listener does not listen to are dropped without taking a snapshot. The background thread
+ * takes events off the queue in batches of up to batchSize, and passes them to the listener in order. If the queue is
+ * full, the game thread waits until there is space, so a slow listener slows the game down rather than using more
+ * and more memory.
+ * <p>
+ * Calls to setGame(), init() and reset() are queued in the same way, so that they happen in order with the events.
+ * report() and setOutputDirectory() wait for everything queued to be processed, as does {@link #flush()}.
+ * As report() is called once all the games are done, it then stops the background thread (see {@link #close()});
+ * if anything is queued after that a new one is started.
+ * As with a parallel tournament, anything the listener reads from the Game itself (rather than from the event),
+ * such as timings or the internals of an agent, is as at the time the event is processed, not when it happened.
+ * An exception thrown by the wrapped listener is rethrown on the game thread the next time this is called.
+ */
+public class AsyncGameListener implements IGameListener {
+
+    final IGameListener listener;
+    final int batchSize;
+    private final BlockingQueue<Runnable> queue;
+    private Thread consumer;
+    private volatile Throwable error;
+    private Game game;
+
+    /**
+     * @param listener  - the listener to pass the events to
+     * @param capacity  - the maximum number of events waiting to be processed
+     * @param batchSize - the maximum number of events taken from the queue at once
+     */
+    public AsyncGameListener(IGameListener listener, int capacity, int batchSize) {
+        if (capacity < 1 || batchSize < 1)
+            throw new IllegalArgumentException("capacity and batchSize must be positive");
+        this.listener = listener;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        startConsumer();
+    }
+
+    private synchronized void startConsumer() {
+        if (consumer != null)
+            return;
+        consumer = new Thread(this::consume, "AsyncGameListener-" + listener.getClass().getSimpleName());
+        // this must not keep the JVM running if close() is never called
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    private void consume() {
+        List<Runnable> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                for (Runnable task : batch) {
+                    if (task == STOP) {
+                        // only close() queues this, and nothing is queued after it until the thread has ended
+                        return;
+                    } else if (error == null) {
+                        try {
+                            task.run();
+                        } catch (Throwable t) {
+                            error = t;
+                        }
+                    } else if (task instanceof Flush) {
+                        // whoever is waiting must be told, even if we have stopped passing on events
+                        task.run();
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // nothing else interrupts this thread, but if something does there is no one to pass events on to
+        }
+    }
+
+    // Marks the end of the queue, for close()
+    private static final Runnable STOP = () -> {
+    };
+
+    // Marks the point in the queue that a flush() waits for
+    private record Flush(CountDownLatch latch) implements Runnable {
+        @Override
+        public void run() {
+            latch.countDown();
+        }
+    }
+
+    private void submit(Runnable task) {
+        checkError();
+        startConsumer();
+        try {
+            queue.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while queueing a game event", e);
+        }
+    }
+
+    private void checkError() {
+        if (error != null)
+            throw new RuntimeException("Error in listener " + listener.getClass().getSimpleName(), error);
+    }
+
+    /**
+     * Waits until everything queued so far has been passed to the listener.
+     */
+    public void flush() {
+        CountDownLatch latch = new CountDownLatch(1);
+        submit(new Flush(latch));
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for game events to be processed", e);
+        }
+        checkError();
+    }
+
+    /**
+     * Waits until everything queued so far has been passed to the listener, and then stops the background thread.
+     * This is called by report(); anything queued later starts a new thread.
+     */
+    public synchronized void close() {
+        if (consumer == null)
+            return;
+        try {
+            // not submit(), as we stop even if the listener has failed
+            queue.put(STOP);
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for game events to be processed", e);
+        } finally {
+            if (!consumer.isAlive())
+                consumer = null;
+        }
+        checkError();
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        if (!listener.listensTo(event.type))
+            return;
+        // The live state (and the action about to be taken) keep changing after this, so we keep a snapshot.
+        // Game already passes a copy of the action for ACTION_TAKEN, and the actions of other events are LogEvents.
+        Event snapshot = Event.createEvent(event.type, event.state == null ? null : event.state.snapshot(),
+                event.type == ACTION_CHOSEN && event.action != null ? event.action.copy() : event.action, event.playerID,
+                event.actionIndex);
+        submit(() -> listener.onEvent(snapshot));
+    }
+
+    @Override
+    public boolean listensTo(IGameEvent eventType) {
+        return listener.listensTo(eventType);
+    }
+
+    @Override
+    public void report() {
+        flush();
+        listener.report();
+        close();
+    }
+
+    @Override
+    public boolean setOutputDirectory(String... nestedDirectories) {
+        flush();
+        return listener.setOutputDirectory(nestedDirectories);
+    }
+
+    @Override
+    public void setGame(Game game) {
+        this.game = game;
+        submit(() -> listener.setGame(game));
+    }
+
+    @Override
+    public Game getGame() {
+        return game;
+    }
+
+    @Override
+    public void reset() {
+        submit(listener::reset);
+    }
+
+    @Override
+    public void init(Game game, int nPlayersPerGame, Set<String> playerNames) {
+        submit(() -> listener.init(game, nPlayersPerGame, playerNames));
+    }
+
+    public IGameListener getListener() {
+        return listener;
+    }
+}
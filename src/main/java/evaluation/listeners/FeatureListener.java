@@ -2,6 +2,7 @@ package evaluation.listeners;
 
 import core.*;
 import core.actions.AbstractAction;
+import core.interfaces.IGameEvent;
 import core.interfaces.IStatisticLogger;
 import evaluation.loggers.FileStatsLogger;
 import evaluation.metrics.Event;
@@ -54,6 +55,11 @@ public abstract class FeatureListener implements IGameListener {
         }
     }
 
+    @Override
+    public boolean listensTo(IGameEvent eventType) {
+        return eventType == frequency || eventType == Event.GameEvent.GAME_OVER;
+    }
+
     @Override
     public boolean setOutputDirectory(String... nestedDirectories) {
 
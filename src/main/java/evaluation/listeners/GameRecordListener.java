@@ -0,0 +1,82 @@
+package evaluation.listeners;
+
+import core.AbstractGameState;
+import core.Game;
+import core.GameRecord;
+import core.actions.ActionSpace;
+import core.interfaces.IGameEvent;
+import evaluation.metrics.Event;
+import utilities.Utils;
+
+import java.io.*;
+
+import static evaluation.metrics.Event.GameEvent.*;
+
+/**
+ * Records each game played as a {@link GameRecord}, and appends it to a file when the game is over.
+ * The file can then be read back with GameRecord.readAll(), and any state of any of the games rebuilt with
+ * GameRecord.replay().
+ */
+public class GameRecordListener implements IGameListener {
+
+    String fileName;
+    String destDir = "";
+    GameRecord record;
+    Game game;
+
+    public GameRecordListener(String fileName) {
+        this.fileName = fileName;
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        AbstractGameState state = event.state;
+        if (event.type == ABOUT_TO_START) {
+            // Game computes each player's actions in their own action space, so the record must do the same
+            ActionSpace[] actionSpaces = new ActionSpace[state.getNPlayers()];
+            for (int p = 0; p < actionSpaces.length; p++) {
+                actionSpaces[p] = game != null && p < game.getPlayers().size() ?
+                        game.getPlayers().get(p).getParameters().actionSpace : ActionSpace.Default;
+            }
+            record = new GameRecord(state.getGameType(), state.getGameParameters(),
+                    state.getGameParameters().getRandomSeed(), actionSpaces);
+        } else if (event.type == ACTION_CHOSEN && record != null) {
+            // the index in the list the player was given, which may have been computed from their copy of the state
+            record.addAction(event.actionIndex);
+        } else if (event.type == GAME_OVER && record != null) {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(destDir + fileName, true)))) {
+                record.write(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            record = null;
+        }
+    }
+
+    @Override
+    public boolean listensTo(IGameEvent eventType) {
+        return eventType == ABOUT_TO_START || eventType == ACTION_CHOSEN || eventType == GAME_OVER;
+    }
+
+    @Override
+    public boolean setOutputDirectory(String... nestedDirectories) {
+        destDir = new File(Utils.createDirectory(nestedDirectories)).getAbsolutePath() + File.separator;
+        return true;
+    }
+
+    @Override
+    public void report() {
+        // each game is written to the file as soon as it is over
+    }
+
+    @Override
+    public void setGame(Game game) {
+        this.game = game;
+    }
+
+    @Override
+    public Game getGame() {
+        return game;
+    }
+}
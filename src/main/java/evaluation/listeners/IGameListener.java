@@ -1,6 +1,7 @@
 package evaluation.listeners;
 
 import core.Game;
+import core.interfaces.IGameEvent;
 import evaluation.metrics.AbstractMetric;
 import evaluation.metrics.Event;
 import evaluation.metrics.GameMetrics;
@@ -24,6 +25,17 @@ public interface IGameListener {
      */
     void onEvent(Event event);
 
+    /**
+     * The events this listener does something with. Events of other types may still be passed to onEvent(), but
+     * {@link AsyncGameListener} uses this to avoid taking snapshots of the state for events that would be ignored.
+     *
+     * @param eventType - type of the event
+     * @return - true if this listener needs to be told about events of this type (by default, all of them)
+     */
+    default boolean listensTo(IGameEvent eventType) {
+        return true;
+    }
+
 
     /**
      * This is called when all processing is finished, for example after running a sequence of games
@@ -7,6 +7,7 @@ import evaluation.metrics.Event;
 import evaluation.metrics.IDataLogger;
 import evaluation.metrics.IMetricsCollection;
 import evaluation.metrics.tablessaw.DataTableSaw;
+import evaluation.metrics.tablessaw.StreamingDataTableSaw;
 import utilities.Utils;
 
 import java.io.File;
@@ -57,11 +58,21 @@ public class MetricsGameListener implements IGameListener {
     }
 
     public MetricsGameListener(IDataLogger.ReportDestination logTo, IDataLogger.ReportType[] dataTypes, AbstractMetric[] metrics) {
+        this(logTo, dataTypes, metrics, 0);
+    }
+
+    /**
+     * @param chunkRows - if positive, each metric streams its data to a file in the output directory, in chunks of this
+     *                  many rows, rather than holding all of it in memory until the report (see
+     *                  {@link StreamingDataTableSaw}). In JSON this is the optional fourth argument, after the metrics
+     *                  (see json/listeners/streaminglistener.json).
+     */
+    public MetricsGameListener(IDataLogger.ReportDestination logTo, IDataLogger.ReportType[] dataTypes, AbstractMetric[] metrics, int chunkRows) {
         reportDestinations = Collections.singletonList(logTo);
         this.reportTypes = Arrays.asList(dataTypes);
         this.metrics = new LinkedHashMap<>();
         for (AbstractMetric m : metrics) {
-            m.setDataLogger(new DataTableSaw(m)); //todo this logger needs to be read from JSON
+            m.setDataLogger(chunkRows > 0 ? new StreamingDataTableSaw(m, destDir, chunkRows) : new DataTableSaw(m));
             this.metrics.put(m.getName(), m);
             eventsOfInterest.addAll(m.getEventTypes());
         }
@@ -92,6 +103,12 @@ public class MetricsGameListener implements IGameListener {
         }
     }
 
+    @Override
+    public boolean listensTo(IGameEvent eventType) {
+        // without metrics, a subclass is handling the events itself
+        return metrics == null || eventsOfInterest.contains(eventType);
+    }
+
     @Override
     public boolean setOutputDirectory(String... nestedDirectories) {
 
@@ -102,6 +119,12 @@ public class MetricsGameListener implements IGameListener {
             String folder = Utils.createDirectory(nestedDirectories);
             destDir = new File(folder).getAbsolutePath() + File.separator;
         }
+        if (metrics != null) {
+            for (AbstractMetric metric : metrics.values()) {
+                if (metric.getDataLogger() instanceof StreamingDataTableSaw streaming)
+                    streaming.setDirectory(destDir);
+            }
+        }
         return success;
     }
 
@@ -147,6 +170,13 @@ public class MetricsGameListener implements IGameListener {
                 }
             }
         }
+
+        // The streamed data was read back once for all the reports above, and is not needed in memory now; the
+        // files are complete, so their names can be used by later runs
+        for (AbstractMetric metric : metrics.values()) {
+            if (metric.getDataLogger() instanceof StreamingDataTableSaw streaming)
+                streaming.close();
+        }
     }
 
     private String eventToIndexingColumn(IGameEvent e) {
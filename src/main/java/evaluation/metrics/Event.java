@@ -42,6 +42,8 @@ public class Event
     public AbstractGameState state;
     public AbstractAction action;
     public int playerID;
+    // For ACTION_CHOSEN, the index of the action in the list of actions the player chose from (otherwise -1)
+    public int actionIndex = -1;
 
     public static Event createEvent(IGameEvent type,
                                     AbstractGameState gameState,
@@ -56,6 +58,17 @@ public class Event
         return e;
     }
 
+    public static Event createEvent(IGameEvent type,
+                                    AbstractGameState gameState,
+                                    AbstractAction action,
+                                    int playerID,
+                                    int actionIndex)
+    {
+        Event e = createEvent(type, gameState, action, playerID);
+        e.actionIndex = actionIndex;
+        return e;
+    }
+
     public static Event createEvent(IGameEvent type)
     {
         return Event.createEvent(type, null, null, -1);
@@ -24,11 +24,18 @@ public class DataTableSaw implements IDataLogger {
         this.metric = metric;
         this.data = Table.create(metric.getName());
     }
-    private DataTableSaw(AbstractMetric metric, Table data) {
+    DataTableSaw(AbstractMetric metric, Table data) {
         this.metric = metric;
         this.data = data;
     }
 
+    /**
+     * @return - the table holding all the data recorded
+     */
+    Table getData() {
+        return data;
+    }
+
     /**
      * Builds a column using name and type, e.g. DoubleColumn.create("MyColumn")
      * !! Don't use constructor (new DoubleColumn("MyColumn")) as this is private
@@ -153,7 +160,7 @@ public class DataTableSaw implements IDataLogger {
         // TODO: Apply same filtering for all other data processing, separate table into different events before reporting
         Map<AbstractMetric, Table> metricTables = new HashMap<>();
         for (AbstractMetric m : metricGroup) {
-            Table metricData = ((DataTableSaw)m.getDataLogger()).data;
+            Table metricData = ((DataTableSaw)m.getDataLogger()).getData();
             if (m.filterByEventTypeWhenReporting()) {
                 metricTables.put(m, metricData.where(metricData.stringColumn("Event").isEqualTo(event.name())));
             } else {
@@ -0,0 +1,342 @@
+package evaluation.metrics.tablessaw;
+
+import core.Game;
+import evaluation.metrics.AbstractMetric;
+import evaluation.metrics.IDataLogger;
+import tech.tablesaw.api.*;
+import tech.tablesaw.columns.Column;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A DataTableSaw that only keeps the most recent rows in memory. Once chunkRows complete rows have been recorded they
+ * are appended to a file as one chunk, and the table is cleared, so memory use while games are run is bounded however
+ * many games there are. The file is named after the metric (for example FinalScore.tagc), in the output directory of
+ * the listener, and is kept when the run ends, so the rows of every chunk written survive a crash.
+ * <p>
+ * {@link #getData()} reads all the chunks back into a single table (in the same column types as DataTableSaw uses),
+ * so TableSawDataProcessor can report on it in the same way. The table read is kept until more data is added, so
+ * producing all the reports of a run reads the file once; {@link #close()} drops it when the reports are done.
+ * Note that this means memory is only bounded while the games are run: reporting needs all the rows of the run in
+ * memory at once, just as DataTableSaw does.
+ * <p>
+ * The file is columnar. It starts with a header (MAGIC, VERSION), and each chunk then holds:
+ * <ul>
+ *     <li>int number of rows, int number of columns</li>
+ *     <li>for each column: its name (UTF) and type (byte, see the constants below)</li>
+ *     <li>for each column, all its values: int (Integer.MIN_VALUE if missing), double (NaN if missing),
+ *     byte for booleans (1, 0, or Byte.MIN_VALUE if missing); strings are dictionary encoded: int number of distinct
+ *     values, each as int length and UTF-8 bytes, then an int index into these for each row (-1 if missing)</li>
+ * </ul>
+ * Each chunk records its own columns, so columns added later (e.g. for new players) are missing in the earlier rows.
+ */
+public class StreamingDataTableSaw extends DataTableSaw {
+
+    static final int MAGIC = 0x54414743;  // "TAGC"
+    static final int VERSION = 1;
+    static final byte INT = 0, DOUBLE = 1, BOOLEAN = 2, STRING = 3;
+    static final String EXTENSION = ".tagc";
+
+    // Files in use by loggers that have not been closed, so that two loggers for the same metric (e.g. one per matchup)
+    // do not share one
+    private static final Set<String> filesInUse = ConcurrentHashMap.newKeySet();
+
+    private String directory;
+    private File file;  // decided when the first chunk is written, unless given
+    final int chunkRows;
+    private int nAppends;  // values added since the last chunk was written
+    private boolean written;  // whether the file has been started since the last reset
+    private Table loaded;  // all the data, as last read back by getData()
+
+    /**
+     * Streams the data to a file named after the metric, in the given directory.
+     */
+    public StreamingDataTableSaw(AbstractMetric metric, String directory, int chunkRows) {
+        this(metric, Table.create(metric.getName()), directory, null, chunkRows);
+    }
+
+    public StreamingDataTableSaw(AbstractMetric metric, File file, int chunkRows) {
+        this(metric, Table.create(metric.getName()), null, file, chunkRows);
+    }
+
+    private StreamingDataTableSaw(AbstractMetric metric, Table data, String directory, File file, int chunkRows) {
+        super(metric, data);
+        if (chunkRows < 1)
+            throw new IllegalArgumentException("chunkRows must be positive: " + chunkRows);
+        this.directory = directory;
+        this.file = file;
+        this.chunkRows = chunkRows;
+    }
+
+    /**
+     * Sets the directory the file is written to, if it has not yet been started.
+     */
+    public void setDirectory(String directory) {
+        if (file == null)
+            this.directory = directory;
+    }
+
+    /**
+     * @return the file the data is streamed to, or null if no chunk has yet been written to it
+     */
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        nAppends = 0;
+        written = false;
+        loaded = null;
+    }
+
+    @Override
+    public void init(Game game, int nPlayersPerGame, Set<String> playerNames) {
+        // New columns only line up with the old ones from the start of a chunk
+        Set<String> columns = new HashSet<>(metric.getDefaultColumns().keySet());
+        columns.addAll(metric.getColumns(nPlayersPerGame, playerNames).keySet());
+        if (!data.columnNames().containsAll(columns))
+            writeChunk();
+        super.init(game, nPlayersPerGame, playerNames);
+        loaded = null;
+    }
+
+    @Override
+    public void addData(String columnName, Object data) {
+        super.addData(columnName, data);
+        loaded = null;
+        nAppends++;
+        // Every column has a value for each row, so this is the point at which chunkRows rows are complete
+        if (nAppends >= chunkRows * this.data.columnCount())
+            writeChunk();
+    }
+
+    /**
+     * Appends the rows in memory to the file as a chunk, and clears them.
+     */
+    public void flush() {
+        writeChunk();
+    }
+
+    /**
+     * @return all the rows recorded since the last reset, read back from the file
+     */
+    @Override
+    Table getData() {
+        if (loaded != null)
+            return loaded;
+        Table retValue = written ? read(file, data.name()) : Table.create(data.name());
+        // and those not yet written
+        appendRows(retValue, data);
+        loaded = retValue;
+        return retValue;
+    }
+
+    /**
+     * Reads a file written by a StreamingDataTableSaw, for example one left by a run that did not finish.
+     *
+     * @param file - the file to read
+     * @param name - the name to give the table
+     * @return all the rows in the file
+     */
+    public static Table read(File file, String name) {
+        Table retValue = Table.create(name);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new AssertionError("Not a metrics file: " + file);
+            while (in.available() > 0)
+                readChunk(in, retValue);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return retValue;
+    }
+
+    /**
+     * Drops the table read back by getData(), once the reports on it are done.
+     */
+    public void release() {
+        loaded = null;
+    }
+
+    /**
+     * Writes any rows still in memory, drops the table read back by getData(), and frees the name of the file, so a
+     * logger created later (e.g. by another run in this JVM) can use it. The data can still be read with getData();
+     * adding more claims the file again.
+     */
+    public void close() {
+        writeChunk();
+        release();
+        if (file != null)
+            filesInUse.remove(file.getAbsolutePath());
+    }
+
+    @Override
+    public IDataLogger copy() {
+        return new DataTableSaw(metric, getData().copy());
+    }
+
+    @Override
+    public IDataLogger emptyCopy() {
+        return new StreamingDataTableSaw(metric, data.emptyCopy(), directory, null, chunkRows);
+    }
+
+    @Override
+    public IDataLogger create() {
+        return new StreamingDataTableSaw(metric, Table.create(metric.getName()), directory, null, chunkRows);
+    }
+
+    // The metric's name, with a number added if another logger in this run already uses that
+    private File chooseFile() {
+        File dir = new File(directory == null ? "metrics/out/" : directory);
+        if (!dir.exists() && !dir.mkdirs())
+            throw new UncheckedIOException(new IOException("Cannot create directory " + dir));
+        for (int i = 1; ; i++) {
+            File retValue = new File(dir, metric.getName() + (i == 1 ? "" : "_" + i) + EXTENSION);
+            if (filesInUse.add(retValue.getAbsolutePath()))
+                return retValue;
+        }
+    }
+
+    private void writeHeader() {
+        if (file == null)
+            file = chooseFile();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeChunk() {
+        int nRows = data.rowCount();
+        if (nRows == 0)
+            return;
+        if (!written) {
+            writeHeader();
+            written = true;
+        } else {
+            // in case this was closed since the last chunk
+            filesInUse.add(file.getAbsolutePath());
+        }
+        for (Column<?> c : data.columns())
+            if (c.size() != nRows)
+                throw new AssertionError("Column " + c.name() + " has " + c.size() + " rows, expected " + nRows);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)))) {
+            out.writeInt(nRows);
+            out.writeInt(data.columnCount());
+            for (Column<?> c : data.columns()) {
+                out.writeUTF(c.name());
+                out.writeByte(typeOf(c));
+            }
+            for (Column<?> c : data.columns()) {
+                if (c instanceof IntColumn ic) {
+                    for (int i = 0; i < nRows; i++)
+                        out.writeInt(ic.getInt(i));
+                } else if (c instanceof DoubleColumn dc) {
+                    for (int i = 0; i < nRows; i++)
+                        out.writeDouble(dc.getDouble(i));
+                } else if (c instanceof BooleanColumn bc) {
+                    for (int i = 0; i < nRows; i++)
+                        out.writeByte(bc.getByte(i));
+                } else {
+                    StringColumn sc = (StringColumn) c;
+                    Map<String, Integer> dictionary = new LinkedHashMap<>();
+                    int[] codes = new int[nRows];
+                    for (int i = 0; i < nRows; i++)
+                        codes[i] = sc.isMissing(i) ? -1 : dictionary.computeIfAbsent(sc.get(i), s -> dictionary.size());
+                    out.writeInt(dictionary.size());
+                    for (String s : dictionary.keySet()) {
+                        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                        out.writeInt(bytes.length);
+                        out.write(bytes);
+                    }
+                    for (int code : codes)
+                        out.writeInt(code);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        data.clear();
+        nAppends = 0;
+    }
+
+    private static byte typeOf(Column<?> c) {
+        if (c instanceof IntColumn) return INT;
+        if (c instanceof DoubleColumn) return DOUBLE;
+        if (c instanceof BooleanColumn) return BOOLEAN;
+        if (c instanceof StringColumn) return STRING;
+        throw new AssertionError("Unknown column type");
+    }
+
+    private static void readChunk(DataInputStream in, Table table) throws IOException {
+        int nRows = in.readInt();
+        Column<?>[] chunk = new Column<?>[in.readInt()];
+        for (int c = 0; c < chunk.length; c++) {
+            String name = in.readUTF();
+            chunk[c] = switch (in.readByte()) {
+                case INT -> IntColumn.create(name);
+                case DOUBLE -> DoubleColumn.create(name);
+                case BOOLEAN -> BooleanColumn.create(name);
+                case STRING -> StringColumn.create(name);
+                default -> throw new AssertionError("Unknown column type");
+            };
+        }
+        for (Column<?> c : chunk) {
+            if (c instanceof IntColumn ic) {
+                for (int i = 0; i < nRows; i++)
+                    ic.append(in.readInt());
+            } else if (c instanceof DoubleColumn dc) {
+                for (int i = 0; i < nRows; i++)
+                    dc.append(in.readDouble());
+            } else if (c instanceof BooleanColumn bc) {
+                for (int i = 0; i < nRows; i++)
+                    bc.append(in.readByte());
+            } else {
+                StringColumn sc = (StringColumn) c;
+                String[] dictionary = new String[in.readInt()];
+                for (int d = 0; d < dictionary.length; d++) {
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    dictionary[d] = new String(bytes, StandardCharsets.UTF_8);
+                }
+                for (int i = 0; i < nRows; i++) {
+                    int code = in.readInt();
+                    if (code < 0) sc.appendMissing();
+                    else sc.append(dictionary[code]);
+                }
+            }
+        }
+        appendRows(table, Table.create(table.name(), chunk));
+    }
+
+    /**
+     * Appends the rows of chunk to table, adding any columns the table does not have yet (missing in its earlier rows)
+     */
+    @SuppressWarnings("unchecked")
+    private static void appendRows(Table table, Table chunk) {
+        int nRows = table.columnCount() == 0 ? 0 : table.rowCount();
+        for (Column<?> c : chunk.columns()) {
+            if (!table.containsColumn(c.name())) {
+                Column<?> newColumn = c.emptyCopy();
+                for (int i = 0; i < nRows; i++)
+                    newColumn.appendMissing();
+                table.addColumns(newColumn);
+            }
+        }
+        for (Column<?> c : table.columns()) {
+            if (chunk.containsColumn(c.name())) {
+                ((Column<Object>) c).append((Column<Object>) chunk.column(c.name()));
+            } else {
+                for (int i = 0; i < chunk.rowCount(); i++)
+                    c.appendMissing();
+            }
+        }
+    }
+}
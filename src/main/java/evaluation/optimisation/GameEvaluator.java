@@ -13,6 +13,8 @@ import games.GameType;
 import players.IAnyTimePlayer;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.DoubleSupplier;
 import java.util.stream.IntStream;
 
 import static evaluation.optimisation.NTBEAParameters.Mode.CoopNTBEA;
@@ -95,6 +97,54 @@ public class GameEvaluator implements SolutionEvaluator {
      */
     @Override
     public double evaluate(int[] settings) {
+        return prepareEvaluation(settings).getAsDouble();
+    }
+
+    /**
+     * Evaluates each of the settings, playing the games of up to nThreads evaluations at the same time.
+     * <p>
+     * Everything that uses the state of this evaluator (the random seeds, the position of the tuned agent and the
+     * creation of the agents) is done on this thread, in the order of the settings, so the results are the same as
+     * calling evaluate() on each in turn (if the agents behave identically for a given seed).
+     *
+     * @return the score of each of the settings, in the same order
+     */
+    public double[] evaluate(List<int[]> settings, int nThreads) {
+        double[] retValue = new double[settings.size()];
+        if (nThreads <= 1) {
+            for (int i = 0; i < retValue.length; i++)
+                retValue[i] = evaluate(settings.get(i));
+            return retValue;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        Deque<Future<Double>> inFlight = new ArrayDeque<>();
+        int next = 0;
+        try {
+            for (int i = 0; i < retValue.length; i++) {
+                // Only a few evaluations are prepared ahead of the one we are waiting for, as each has its own Game
+                while (next < retValue.length && inFlight.size() < 2 * nThreads) {
+                    DoubleSupplier evaluation = prepareEvaluation(settings.get(next++));
+                    inFlight.add(executor.submit(evaluation::getAsDouble));
+                }
+                retValue[i] = inFlight.poll().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running NTBEA evaluations", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error running NTBEA evaluation", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return retValue;
+    }
+
+    /**
+     * Sets up one evaluation of the settings: the seed, the Game and all the players. This must be called on the
+     * thread that owns this evaluator. The returned function then plays the games and returns the score; it uses
+     * nothing shared with other evaluations, so it can be run on any thread.
+     */
+    private DoubleSupplier prepareEvaluation(int[] settings) {
         if (debug)
             System.out.printf("Starting evaluation %d of %s at %tT%n", nEvals,
                     Arrays.toString(settings), System.currentTimeMillis());
@@ -102,7 +152,9 @@ public class GameEvaluator implements SolutionEvaluator {
         boolean tuningPlayer = configuredThing instanceof AbstractPlayer;
         boolean tuningGame = configuredThing instanceof Game;
 
-        Game newGame = tuningGame ? (Game) configuredThing : game.createGameInstance(nPlayers, gameParams);
+        // Each game has its own copy of the parameters, as the random seed is set on them at reset()
+        Game newGame = tuningGame ? (Game) configuredThing
+                : game.createGameInstance(nPlayers, gameParams == null ? null : gameParams.copy());
         // we assign one player to each team (the default for a game is each player being their own team of 1)
         int nTeams = newGame.getGameState().getNTeams();
 
@@ -117,29 +169,35 @@ public class GameEvaluator implements SolutionEvaluator {
             throw new AssertionError("StableNTBEA mode requires tuning of player");
         int gamesToRun = params.mode == StableNTBEA ? nTeams : 1;
         long seed = rnd.nextLong();
-        double retValue = 0.0;
+        List<List<AbstractPlayer>> playersPerGame = new ArrayList<>(gamesToRun);
         for (int loop = 0; loop < gamesToRun; loop++) {
             int thisTeamIndex = teamIndex == -99 ? -99 : (teamIndex + loop) % nTeams;
-            List<AbstractPlayer> allPlayers = setupPlayers(thisTeamIndex, nTeams, settings);
+            playersPerGame.add(setupPlayers(thisTeamIndex, nTeams, settings));
+        }
+        nEvals++;
 
-            // always reset the random seed for each new game
-            newGame.reset(allPlayers, seed);
-            newGame.run();
+        return () -> {
+            double retValue = 0.0;
+            for (int loop = 0; loop < gamesToRun; loop++) {
+                int thisTeamIndex = teamIndex == -99 ? -99 : (teamIndex + loop) % nTeams;
 
-            int playerOnTeam = -1;
-            for (int p = 0; p < newGame.getGameState().getNPlayers(); p++) {
-                if (newGame.getGameState().getTeam(p) == thisTeamIndex) {
-                    playerOnTeam = p;
+                // always reset the random seed for each new game
+                newGame.reset(playersPerGame.get(loop), seed);
+                newGame.run();
+
+                int playerOnTeam = -1;
+                for (int p = 0; p < newGame.getGameState().getNPlayers(); p++) {
+                    if (newGame.getGameState().getTeam(p) == thisTeamIndex) {
+                        playerOnTeam = p;
+                    }
                 }
+                if (tuningPlayer && playerOnTeam == -1)
+                    throw new AssertionError("No Player found on team " + thisTeamIndex);
+                retValue += tuningGame ? gameHeuristic.evaluateGame(newGame) : stateHeuristic.evaluateState(newGame.getGameState(), playerOnTeam);
             }
-            if (tuningPlayer && playerOnTeam == -1)
-                throw new AssertionError("No Player found on team " + thisTeamIndex);
-            retValue += tuningGame ? gameHeuristic.evaluateGame(newGame) : stateHeuristic.evaluateState(newGame.getGameState(), playerOnTeam);
-        }
-        //    System.out.println("GameEvaluator: " + retValue);
-
-        nEvals++;
-        return retValue;
+            //    System.out.println("GameEvaluator: " + retValue);
+            return retValue;
+        };
     }
 
     private List<AbstractPlayer> setupPlayers(int teamIndex, int nTeams, int[] settings) {
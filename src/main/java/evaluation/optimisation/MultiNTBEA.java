@@ -6,6 +6,7 @@ import ntbea.MultiNTupleBanditEA;
 import ntbea.NTupleSystem;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.toMap;
@@ -31,8 +32,8 @@ public class MultiNTBEA extends NTBEA {
     }
 
     @Override
-    protected void runIteration() {
-        super.runIteration();
+    protected void recordIteration() {
+        super.recordIteration();
         printDiversityResults(landscapeModel, params.kExplore);
     }
 
@@ -42,6 +43,52 @@ public class MultiNTBEA extends NTBEA {
         searchFramework.runTrial(multiPlayerEvaluator, params.iterationsPerRun);
     }
 
+    /**
+     * With more than one thread the repeats are independent runs of NTBEA, each with its own landscape model and
+     * evaluator, so up to nThreads of them are run at the same time. Their results are then recorded in order.
+     * Run one after another, the repeats share one evaluator (seeded with params.seed), so each carries on from
+     * the games of the one before; in parallel each repeat's evaluator instead has a seed drawn in order from
+     * params.seed. The games are therefore seeded differently from a run with one thread (which is unchanged), but
+     * in the same way for any number of threads above one.
+     */
+    @Override
+    protected void runRepeats() {
+        if (params.nThreads <= 1 || params.repeats <= 1) {
+            super.runRepeats();
+            return;
+        }
+        Random seeds = new Random(params.seed);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(params.nThreads, params.repeats));
+        try {
+            List<Future<NTupleSystem>> repeats = new ArrayList<>();
+            for (int i = 0; i < params.repeats; i++) {
+                long seed = seeds.nextLong();
+                repeats.add(executor.submit(() -> runIndependentRepeat(seed)));
+            }
+            for (currentIteration = 0; currentIteration < params.repeats; currentIteration++) {
+                landscapeModel = repeats.get(currentIteration).get();
+                recordIteration();
+                writeRecommendation();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running MultiNTBEA repeats", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error running MultiNTBEA repeat", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private NTupleSystem runIndependentRepeat(long seed) {
+        NTupleSystem model = createLandscapeModel();
+        MultiNTupleBanditEA search = new MultiNTupleBanditEA(model, params.kExplore, params.neighbourhoodSize, nPlayers);
+        GameMultiPlayerEvaluator repeatEvaluator = new GameMultiPlayerEvaluator(game, params.searchSpace, nPlayers,
+                stateHeuristic, seed);
+        search.runTrial(repeatEvaluator, params.iterationsPerRun);
+        return model;
+    }
+
 
     private static List<int[]> generate(List<int[]> previous, int cardinality) {
         List<int[]> retValue = new ArrayList<>();
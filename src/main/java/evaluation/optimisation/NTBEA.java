@@ -56,11 +56,10 @@ public class NTBEA {
     public NTBEA(NTBEAParameters parameters, GameType game, int nPlayers) {
         // Now initialise the other bits and pieces needed for the NTBEA package
         this.params = parameters;
-        landscapeModel = new NTupleSystem(params.searchSpace);
-        landscapeModel.setUse3Tuple(params.useThreeTuples);
-        landscapeModel.addTuples();
+        landscapeModel = createLandscapeModel();
 
-        searchFramework = new NTupleBanditEA(landscapeModel, params.kExplore, params.neighbourhoodSize);
+        searchFramework = new ParallelNTupleBanditEA(landscapeModel, params.kExplore, params.neighbourhoodSize,
+                params.nThreads, params.seed);
         this.game = game;
         this.nPlayers = nPlayers;
         // Set up opponents
@@ -137,11 +136,7 @@ public class NTBEA {
      */
     public Pair<Object, int[]> run() {
 
-        for (currentIteration = 0; currentIteration < params.repeats; currentIteration++) {
-            runIteration();
-            writeAgentJSON(winnerSettings.get(winnerSettings.size() - 1),
-                    params.destDir + File.separator + "Recommended_" + currentIteration + ".json");
-        }
+        runRepeats();
 
         // After all runs are complete, if tournamentGames are specified, then we allow all the
         // winners from each iteration to play in a tournament and pick the winner of this tournament
@@ -233,6 +228,28 @@ public class NTBEA {
         return new Pair<>(params.searchSpace.getAgent(bestResult.b), bestResult.b);
     }
 
+    /**
+     * Runs each of the NTBEA repeats in turn (see runIteration()), writing out the recommended agent from each
+     */
+    protected void runRepeats() {
+        for (currentIteration = 0; currentIteration < params.repeats; currentIteration++) {
+            runIteration();
+            writeRecommendation();
+        }
+    }
+
+    protected void writeRecommendation() {
+        writeAgentJSON(winnerSettings.get(winnerSettings.size() - 1),
+                params.destDir + File.separator + "Recommended_" + currentIteration + ".json");
+    }
+
+    protected NTupleSystem createLandscapeModel() {
+        NTupleSystem retValue = new NTupleSystem(params.searchSpace);
+        retValue.setUse3Tuple(params.useThreeTuples);
+        retValue.addTuples();
+        return retValue;
+    }
+
     protected void runTrials() {
         evaluator.reset();
         searchFramework.runTrial(evaluator, params.iterationsPerRun);
@@ -243,6 +260,13 @@ public class NTBEA {
 
         runTrials();
 
+        recordIteration();
+    }
+
+    /**
+     * Picks the winner of the NTBEA run that has just finished (using landscapeModel), evaluates it, and records it
+     */
+    protected void recordIteration() {
         if (params.verbose)
             logResults();
 
@@ -274,8 +298,7 @@ public class NTBEA {
 
     protected Pair<Double, Double> evaluateWinner(int[] winnerSettings) {
 
-        double[] results = IntStream.range(0, params.evalGames)
-                .mapToDouble(answer -> evaluator.evaluate(winnerSettings)).toArray();
+        double[] results = evaluator.evaluate(Collections.nCopies(params.evalGames, winnerSettings), params.nThreads);
 
         double avg = Arrays.stream(results).average().orElse(0.0);
         double stdErr = Math.sqrt(Arrays.stream(results)
@@ -31,6 +31,7 @@ public class NTBEAParameters {
     public double kExplore;
     public int tournamentGames;
     public int neighbourhoodSize;
+    public int nThreads;
     public String opponentDescriptor;
     public long seed;
     public String evalMethod;
@@ -57,6 +58,7 @@ public class NTBEAParameters {
         if (evalGames == -1) evalGames = iterationsPerRun / 5;
         kExplore = (double) args.get(RunArg.kExplore);
         neighbourhoodSize = (int) args.get(RunArg.neighbourhood);
+        nThreads = (int) args.getOrDefault(RunArg.nThreads, 1);
         opponentDescriptor = (String) args.get(RunArg.opponent);
         budget = (int) args.get(RunArg.budget);
         evalMethod = (String) args.get(RunArg.evalMethod);
@@ -0,0 +1,115 @@
+package evaluation.optimisation;
+
+import evodef.BanditLandscapeModel;
+import evodef.DefaultMutator;
+import evodef.SearchSpace;
+import evodef.SearchSpaceUtil;
+import evodef.SolutionEvaluator;
+import ntbea.NTupleBanditEA;
+
+import java.util.*;
+
+/**
+ * NTBEA that evaluates a batch of settings at a time, with the games of the batch played in parallel.
+ * <p>
+ * The standard algorithm evaluates the current point, generates its neighbours, and moves to the neighbour with the
+ * highest UCB value in the landscape model. Here the nThreads neighbours with the highest UCB values (all distinct)
+ * are evaluated together, and added to the model in that order; the next neighbours are then generated around
+ * whichever of them has the highest mean estimate in the model once they have all been added. With nThreads = 1 this
+ * is the standard algorithm.
+ * <p>
+ * This needs a GameEvaluator to play the games in parallel; with any other SolutionEvaluator the standard
+ * (sequential) algorithm is used.
+ */
+public class ParallelNTupleBanditEA extends NTupleBanditEA {
+
+    final int nThreads;
+    final int neighbourhoodSize;
+    final Random rnd;
+
+    public ParallelNTupleBanditEA(BanditLandscapeModel model, double kExplore, int neighbourhoodSize, int nThreads, long seed) {
+        super(model, kExplore, neighbourhoodSize);
+        this.neighbourhoodSize = neighbourhoodSize;
+        this.nThreads = nThreads;
+        this.rnd = new Random(seed);
+    }
+
+    @Override
+    public double[] runTrial(SolutionEvaluator evaluator, int nTrials) {
+        if (nThreads <= 1 || !(evaluator instanceof GameEvaluator gameEvaluator))
+            return super.runTrial(evaluator, nTrials);
+
+        SearchSpace searchSpace = evaluator.searchSpace();
+        DefaultMutator mutator = new DefaultMutator(searchSpace);
+        // the same neighbourhood size as NTupleBanditEA uses
+        int nNeighbours = Math.max(5, (int) Math.min(neighbourhoodSize, SearchSpaceUtil.size(searchSpace) / 4));
+
+        // the first batch is the starting point plus some of its neighbours, as there is nothing in the model yet
+        int[] start = seed == null ? SearchSpaceUtil.randomPoint(searchSpace) : seed;
+        List<int[]> batch = new ArrayList<>();
+        batch.add(start);
+        batch.addAll(bestNeighbours(start, mutator, nNeighbours, nThreads - 1));
+        int trials = 0;
+        while (trials < nTrials) {
+            if (batch.size() > nTrials - trials)
+                batch = batch.subList(0, nTrials - trials);
+
+            List<int[]> toEvaluate = new ArrayList<>(batch.size() * nSamples);
+            for (int[] point : batch)
+                for (int s = 0; s < nSamples; s++)
+                    toEvaluate.add(point);
+            double[] results = gameEvaluator.evaluate(toEvaluate, nThreads);
+            for (int i = 0; i < batch.size(); i++) {
+                double fitness = 0.0;
+                for (int s = 0; s < nSamples; s++)
+                    fitness += results[i * nSamples + s];
+                banditLandscapeModel.addPoint(batch.get(i), fitness / nSamples);
+            }
+            trials += batch.size();
+
+            // we move to whichever point of the batch the model now rates highest, and try its neighbours next
+            batch = bestNeighbours(bestEvaluated(batch), mutator, nNeighbours, nThreads);
+        }
+        return banditLandscapeModel.getBestOfSampled();
+    }
+
+    /**
+     * @return - the point of the batch with the highest mean estimate in the landscape model (the first of any ties)
+     */
+    private int[] bestEvaluated(List<int[]> batch) {
+        int[] retValue = batch.get(0);
+        double bestValue = banditLandscapeModel.getMeanEstimate(retValue);
+        for (int[] point : batch) {
+            double value = banditLandscapeModel.getMeanEstimate(point);
+            if (value > bestValue) {
+                bestValue = value;
+                retValue = point;
+            }
+        }
+        return retValue;
+    }
+
+    /**
+     * Generates nNeighbours distinct neighbours of the point, and returns the n with the highest UCB values in
+     * descending order (fewer if the point does not have that many distinct neighbours).
+     */
+    private List<int[]> bestNeighbours(int[] point, DefaultMutator mutator, int nNeighbours, int n) {
+        List<int[]> neighbours = new ArrayList<>(nNeighbours);
+        Set<List<Integer>> seen = new HashSet<>();
+        // we give up after a number of attempts, in case the neighbourhood is small
+        for (int attempt = 0; attempt < nNeighbours * 10 && neighbours.size() < nNeighbours; attempt++) {
+            int[] neighbour = mutator.randMut(point);
+            if (seen.add(Arrays.stream(neighbour).boxed().toList()))
+                neighbours.add(neighbour);
+        }
+        Map<int[], Double> ucb = new HashMap<>();
+        for (int[] neighbour : neighbours) {
+            // a little noise to break ties at random
+            ucb.put(neighbour, banditLandscapeModel.getMeanEstimate(neighbour)
+                    + kExplore * banditLandscapeModel.getExplorationEstimate(neighbour)
+                    + rnd.nextDouble() * 1e-6);
+        }
+        neighbours.sort(Comparator.comparingDouble(ucb::get).reversed());
+        return new ArrayList<>(neighbours.subList(0, Math.min(n, neighbours.size())));
+    }
+}
@@ -0,0 +1,62 @@
+package evaluation.tournaments;
+
+import core.AbstractGameState;
+import core.CoreConstants.GameResult;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * What the tournament needs to know about a finished game: for each player the result, the ordinal position and
+ * the team. This can be written as a single line of text, so that games can be played by other processes
+ * (see {@link WorkQueue}) and their results recorded exactly as if they had been played locally.
+ */
+class GameOutcome {
+
+    final GameResult[] results;
+    final int[] ordinalPositions;
+    final int[] teams;
+
+    GameOutcome(GameResult[] results, int[] ordinalPositions, int[] teams) {
+        if (ordinalPositions.length != results.length || teams.length != results.length)
+            throw new IllegalArgumentException("Need a result, position and team for each player");
+        this.results = results;
+        this.ordinalPositions = ordinalPositions;
+        this.teams = teams;
+    }
+
+    static GameOutcome of(AbstractGameState finalState) {
+        int nPlayers = finalState.getNPlayers();
+        int[] ordinalPositions = new int[nPlayers];
+        int[] teams = new int[nPlayers];
+        for (int p = 0; p < nPlayers; p++) {
+            ordinalPositions[p] = finalState.getOrdinalPosition(p);
+            teams[p] = finalState.getTeam(p);
+        }
+        return new GameOutcome(finalState.getPlayerResults().clone(), ordinalPositions, teams);
+    }
+
+    int nPlayers() {
+        return results.length;
+    }
+
+    /**
+     * The inverse of toString(), for example "WIN_GAME,LOSE_GAME 1,2 0,1"
+     */
+    static GameOutcome parse(String line) {
+        String[] parts = line.trim().split(" ");
+        if (parts.length != 3)
+            throw new IllegalArgumentException("Not a game outcome: " + line);
+        GameResult[] results = Arrays.stream(parts[0].split(",")).map(GameResult::valueOf).toArray(GameResult[]::new);
+        int[] ordinalPositions = Arrays.stream(parts[1].split(",")).mapToInt(Integer::parseInt).toArray();
+        int[] teams = Arrays.stream(parts[2].split(",")).mapToInt(Integer::parseInt).toArray();
+        return new GameOutcome(results, ordinalPositions, teams);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.stream(results).map(Enum::name).collect(Collectors.joining(",")) + " " +
+                Arrays.stream(ordinalPositions).mapToObj(String::valueOf).collect(Collectors.joining(",")) + " " +
+                Arrays.stream(teams).mapToObj(String::valueOf).collect(Collectors.joining(","));
+    }
+}
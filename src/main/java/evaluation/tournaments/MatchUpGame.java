@@ -0,0 +1,83 @@
+package evaluation.tournaments;
+
+import core.AbstractParameters;
+import core.AbstractPlayer;
+import core.Game;
+import evaluation.listeners.IGameListener;
+import evaluation.metrics.Event;
+import games.GameType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single game of a tournament that is played on a worker thread.
+ * <p>
+ * Each MatchUpGame has its own Game instance and its own copies of the players, so that nothing is shared
+ * with games running on other threads. If the tournament has listeners, then every event raised during the game
+ * is recorded (with a snapshot of the state at that point) so that the listeners can be given the events later,
+ * on the tournament thread, in the same order as a serial run.
+ */
+class MatchUpGame implements IGameListener {
+
+    // Indices of the agents (in the tournament list) in each position of this game
+    final List<Integer> agentIDs;
+    final long seed;
+    // true if this is the first game of a new match-up (used to trigger match-up level reporting)
+    final boolean firstOfMatchUp;
+    final List<Event> recordedEvents = new ArrayList<>();
+    Game game;
+
+    MatchUpGame(List<Integer> agentIDs, long seed, boolean firstOfMatchUp) {
+        this.agentIDs = agentIDs;
+        this.seed = seed;
+        this.firstOfMatchUp = firstOfMatchUp;
+    }
+
+    /**
+     * Plays the game to completion. This is run on a worker thread.
+     *
+     * @param gameType         - the game to play
+     * @param nPlayers         - number of players in the game
+     * @param gameParams       - parameters for the game, this must not be shared with any other game
+     * @param players          - the players for this game, which must not be shared with any other game
+     * @param recordEvents     - if true, then all game events are recorded for later processing by listeners
+     * @param randomGameParams - if true, then the game parameters are randomised for this game
+     * @return this MatchUpGame, with the finished Game
+     */
+    MatchUpGame play(GameType gameType, int nPlayers, AbstractParameters gameParams, List<AbstractPlayer> players,
+                     boolean recordEvents, boolean randomGameParams) {
+        game = gameType.createGameInstance(nPlayers, gameParams);
+        if (recordEvents)
+            game.addListener(this);
+        game.reset(players, seed);
+        if (randomGameParams) {
+            game.getGameState().getGameParameters().randomize();
+            System.out.println("Game parameters: " + game.getGameState().getGameParameters());
+        }
+        game.run();
+        return this;
+    }
+
+    @Override
+    public void onEvent(Event event) {
+        // The live state keeps changing after this, so we keep a snapshot
+        recordedEvents.add(Event.createEvent(event.type, event.state.snapshot(),
+                event.action == null ? null : event.action.copy(), event.playerID));
+    }
+
+    @Override
+    public void report() {
+        // nothing to report; the recorded events are passed to the tournament listeners
+    }
+
+    @Override
+    public void setGame(Game game) {
+        this.game = game;
+    }
+
+    @Override
+    public Game getGame() {
+        return game;
+    }
+}
@@ -5,6 +5,7 @@ import core.AbstractPlayer;
 import evaluation.RunArg;
 import evaluation.listeners.IGameListener;
 import evaluation.listeners.TournamentMetricsGameListener;
+import evaluation.metrics.Event;
 import games.GameType;
 import org.apache.commons.math3.linear.EigenDecomposition;
 import org.apache.commons.math3.linear.MatrixUtils;
@@ -14,7 +15,13 @@ import utilities.*;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -55,6 +62,15 @@ public class RoundRobinTournament extends AbstractTournament {
     String seedFile;
     Random seedRnd;
 
+    // Number of threads used to run games; if more than one, then games are queued by evaluateMatchUp()
+    // and then played in parallel by runQueuedGames()
+    protected int nThreads;
+    List<MatchUpGame> queuedGames = new ArrayList<>();
+    // If set, then the queued games are instead played by worker processes sharing this queue; see runDistributedGames()
+    WorkQueue workQueue;
+    int gamesPerUnit = 10;
+    private int nBatches;
+
     /**
      * Create a round robin tournament, which plays all agents against all others.
      *
@@ -142,6 +158,12 @@ public class RoundRobinTournament extends AbstractTournament {
         this.randomSeed = ((Number) config.getOrDefault(RunArg.seed, System.currentTimeMillis())).longValue();
         this.seedRnd = new Random(randomSeed);
         this.randomGameParams = (boolean) config.getOrDefault(RunArg.randomGameParams, false);
+        this.nThreads = (int) config.getOrDefault(RunArg.nThreads, 1);
+        String workDir = (String) config.getOrDefault(RunArg.workDir, "");
+        if (!workDir.isEmpty()) {
+            this.workQueue = new WorkQueue(workDir);
+            workQueue.start();
+        }
 
         this.name = String.format("Game: %s, Players: %d, Mode: %s, TotalGames: %d, GamesPerMatchup: %d",
                 gameToPlay.name(), playersPerGame, tournamentMode, actualGames, gamesPerMatchup);
@@ -182,6 +204,7 @@ public class RoundRobinTournament extends AbstractTournament {
                 gameSeeds = IntStream.range(0, gamesPerMatchup).mapToObj(i -> seedRnd.nextInt()).collect(toList());
             }
             createAndRunMatchUp(matchUp);
+            runQueuedGames();
         }
         reportResults();
 
@@ -292,12 +315,21 @@ public class RoundRobinTournament extends AbstractTournament {
 
     /**
      * Evaluates one combination of players.
+     * If we are running with more than one thread, or with worker processes, then the games are only queued here,
+     * and are played (and their results recorded) by runQueuedGames().
      *
      * @param agentIDsInThisGame - IDs of agents participating in this run.
      */
     protected void evaluateMatchUp(List<Integer> agentIDsInThisGame, int nGames, List<Integer> seeds) {
         if (seeds.size() < nGames)
             throw new AssertionError("Not enough seeds for the number of games requested");
+        if (nThreads > 1 || workQueue != null) {
+            // we take a copy of the IDs, as in EXHAUSTIVE mode the list is modified as we recurse through the matchups
+            List<Integer> agentIDs = new ArrayList<>(agentIDsInThisGame);
+            for (int i = 0; i < nGames; i++)
+                queuedGames.add(new MatchUpGame(agentIDs, seeds.get(i), i == 0));
+            return;
+        }
         if (debug)
             System.out.printf("Evaluate %s at %tT%n", agentIDsInThisGame.toString(), System.currentTimeMillis());
         LinkedList<AbstractPlayer> matchUpPlayers = new LinkedList<>();
@@ -307,6 +339,30 @@ public class RoundRobinTournament extends AbstractTournament {
         for (int agentID : agentIDsInThisGame)
             matchUpPlayers.add(tournamentMode == EXHAUSTIVE_SELF_PLAY ? this.agents.get(agentID).copy() : this.agents.get(agentID));
 
+        startMatchUp(agentIDsInThisGame, matchUpPlayers);
+
+        // Run the game N = gamesPerMatchUp times with these players
+        for (int i = 0; i < nGames; i++) {
+            // if tournamentSeeds > 0, then we are running this many tournaments, each with a different random seed fixed for the whole tournament
+            // so we override the standard random seeds
+            game.reset(matchUpPlayers, seeds.get(i));
+
+            // Randomize parameters
+            if (randomGameParams) {
+                game.getGameState().getGameParameters().randomize();
+                System.out.println("Game parameters: " + game.getGameState().getGameParameters());
+            }
+
+            game.run();  // Always running tournaments without visuals
+            recordResults(agentIDsInThisGame, GameOutcome.of(game.getGameState()));
+        }
+        totalGamesRun += nGames;
+    }
+
+    /**
+     * Reporting and listener initialisation needed at the start of each new matchup.
+     */
+    private void startMatchUp(List<Integer> agentIDsInThisGame, Collection<AbstractPlayer> matchUpPlayers) {
         if (verbose) {
             StringBuffer sb = new StringBuffer();
             sb.append("[");
@@ -323,81 +379,217 @@ public class RoundRobinTournament extends AbstractTournament {
                 ((TournamentMetricsGameListener) listener).tournamentInit(game, nPlayers, agentNames, new HashSet<>(matchUpPlayers));
             }
         }
+    }
 
-        // Run the game N = gamesPerMatchUp times with these players
-        for (int i = 0; i < nGames; i++) {
-            // if tournamentSeeds > 0, then we are running this many tournaments, each with a different random seed fixed for the whole tournament
-            // so we override the standard random seeds
-            game.reset(matchUpPlayers, seeds.get(i));
-
-            // Randomize parameters
-            if (randomGameParams) {
-                game.getGameState().getGameParameters().randomize();
-                System.out.println("Game parameters: " + game.getGameState().getGameParameters());
+    /**
+     * Plays all the games queued by evaluateMatchUp(), using nThreads worker threads.
+     * <p>
+     * Each game gets its own Game instance and its own copies of the players, so results do not depend on which
+     * thread a game runs on or in what order the games finish. The results (and any events for the listeners) are then
+     * merged on this thread in the order the games were queued, which is the order in which a serial run would play them.
+     * The matchups and seeds are exactly those of a serial run, so if the agents behave identically for a given seed
+     * (for example if they reset their random seed each game), then the tournament results are identical too.
+     * <p>
+     * Listeners are given the events of each game only once it has finished, with a snapshot of the state at the time
+     * of each event. Anything they read from the Game itself (such as timings, or the internals of an agent) will
+     * therefore be as at the end of the game.
+     */
+    protected void runQueuedGames() {
+        if (queuedGames.isEmpty())
+            return;
+        if (workQueue != null) {
+            runDistributedGames();
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        Deque<Future<MatchUpGame>> inFlight = new ArrayDeque<>();
+        Iterator<MatchUpGame> pending = queuedGames.iterator();
+        boolean recordEvents = !listeners.isEmpty();
+        try {
+            while (pending.hasNext() || !inFlight.isEmpty()) {
+                // We only keep a limited number of games ahead of the one we are waiting for, so that finished games
+                // (and their recorded events) do not pile up in memory
+                while (pending.hasNext() && inFlight.size() < 2 * nThreads) {
+                    MatchUpGame matchUpGame = pending.next();
+                    // Player copies are made here (and not on the worker thread) so that they are always made in the same order
+                    List<AbstractPlayer> players = matchUpGame.agentIDs.stream()
+                            .map(id -> agents.get(id).copy())
+                            .collect(toList());
+                    AbstractParameters params = game.getGameState().getGameParameters().copy();
+                    inFlight.add(executor.submit(() -> matchUpGame.play(game.getGameType(), nPlayers, params, players,
+                            recordEvents, randomGameParams)));
+                }
+                MatchUpGame finished = inFlight.poll().get();
+                if (finished.firstOfMatchUp) {
+                    startMatchUp(finished.agentIDs, finished.agentIDs.stream().map(id -> (AbstractPlayer) agents.get(id)).collect(toList()));
+                }
+                for (IGameListener listener : listeners) {
+                    listener.setGame(finished.game);
+                    for (Event event : finished.recordedEvents)
+                        listener.onEvent(event);
+                    listener.setGame(game);
+                }
+                recordResults(finished.agentIDs, GameOutcome.of(finished.game.getGameState()));
+                totalGamesRun++;
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running tournament games", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error running tournament game", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            queuedGames.clear();
+        }
+    }
 
-            game.run();  // Always running tournaments without visuals
-            GameResult[] results = game.getGameState().getPlayerResults();
-
-            int numDraws = 0;
-            for (int j = 0; j < matchUpPlayers.size(); j++) {
-                nGamesPlayed[agentIDsInThisGame.get(j)] += 1;
-                for (int k = 0; k < matchUpPlayers.size(); k++) {
-                    if (k != j) {
-                        nGamesPlayedPerOpponent[agentIDsInThisGame.get(j)][agentIDsInThisGame.get(k)] += 1;
+    /**
+     * Puts all the games queued by evaluateMatchUp() on the work queue, in units of gamesPerUnit games, and records
+     * their results as the worker processes report them (see WorkQueue and TournamentWorker).
+     * <p>
+     * The results are recorded in the order they arrive rather than the order the games were queued, which makes no
+     * difference to the final statistics. Each game has an index, so that a game played twice (because its worker was
+     * slow rather than dead when the games were put back on the queue) is only recorded once.
+     * Listeners are not given any events, as the games are played elsewhere.
+     */
+    protected void runDistributedGames() {
+        if (!listeners.isEmpty() && nBatches == 0)
+            System.out.println("Listeners are not given game events when the games are played by workers");
+        String batch = Long.toString(System.currentTimeMillis(), 36) + "-" + nBatches++;
+        String header = String.format("%s %d %b %d %d", game.getGameType().name(), nPlayers, randomGameParams,
+                game.getGameState().getGameParameters().hashCode(), TournamentWorker.agentsHash(agents));
+        List<MatchUpGame> games = queuedGames;
+        boolean[] recorded = new boolean[games.size()];
+        Map<String, List<Integer>> units = new HashMap<>();
+        try {
+            for (int start = 0; start < games.size(); start += gamesPerUnit) {
+                List<Integer> indices = IntStream.range(start, Math.min(start + gamesPerUnit, games.size())).boxed().collect(toList());
+                submitUnit(batch, header, units, indices);
+            }
+            System.out.printf("Waiting for workers to play %d games from %s%n", games.size(), workQueue.directory);
+            int nRecorded = 0;
+            while (nRecorded < games.size()) {
+                List<String> results = workQueue.readResults(batch + "-");
+                for (String line : results) {
+                    int space = line.indexOf(' ');
+                    int index = Integer.parseInt(line.substring(0, space));
+                    if (recorded[index])
+                        continue;
+                    recorded[index] = true;
+                    nRecorded++;
+                    MatchUpGame matchUpGame = games.get(index);
+                    if (matchUpGame.firstOfMatchUp) {
+                        startMatchUp(matchUpGame.agentIDs, matchUpGame.agentIDs.stream().map(id -> (AbstractPlayer) agents.get(id)).collect(toList()));
                     }
+                    recordResults(matchUpGame.agentIDs, GameOutcome.parse(line.substring(space + 1)));
+                    totalGamesRun++;
                 }
-
-                // now we need to be careful if we have a team game, as the agents are indexed by Team, not player
-                if (byTeam) {
-                    for (int player = 0; player < game.getGameState().getNPlayers(); player++) {
-                        if (game.getGameState().getTeam(player) == j) {
-                            numDraws += updatePoints(results, agentIDsInThisGame, agentIDsInThisGame.get(j), player);
-                            break; // we stop after one player on the team to avoid double counting
-                        }
+                for (File stale : workQueue.staleUnits()) {
+                    List<Integer> indices = units.get(WorkQueue.unitName(stale));
+                    if (indices == null || !workQueue.release(stale))
+                        continue;  // not one of ours, or the worker has just finished it
+                    List<Integer> remaining = indices.stream().filter(i -> !recorded[i]).collect(toList());
+                    if (!remaining.isEmpty()) {
+                        System.out.printf("Worker for %s has stopped; putting its %d unfinished games back on the queue%n",
+                                stale.getName(), remaining.size());
+                        submitUnit(batch, header, units, remaining);
                     }
-                } else {
-                    numDraws += updatePoints(results, agentIDsInThisGame, agentIDsInThisGame.get(j), j);
                 }
+                if (results.isEmpty())
+                    Thread.sleep(workQueue.pollMillis);
             }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for tournament games", e);
+        } finally {
+            workQueue.cancel(batch + "-");
+            workQueue.deleteResults(batch + "-");
+            queuedGames.clear();
+        }
+    }
+
+    private void submitUnit(String batch, String header, Map<String, List<Integer>> units, List<Integer> indices) throws IOException {
+        // zero-padded so that the workers take the units in the order they were queued
+        String unitName = String.format("%s-%05d", batch, units.size());
+        List<String> lines = new ArrayList<>();
+        lines.add(header);
+        for (int index : indices) {
+            MatchUpGame matchUpGame = queuedGames.get(index);
+            lines.add(index + " " + matchUpGame.seed + " " +
+                    matchUpGame.agentIDs.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+        units.put(unitName, indices);
+        workQueue.submit(unitName, lines);
+    }
+
+    /**
+     * Updates the tournament statistics with the results of one finished game.
+     *
+     * @param agentIDsInThisGame - IDs of the agents in each position of the game
+     * @param outcome            - the results of the game, see GameOutcome.of()
+     */
+    private void recordResults(List<Integer> agentIDsInThisGame, GameOutcome outcome) {
+        GameResult[] results = outcome.results;
 
-            if (numDraws > 0) {
-                double pointsPerDraw = 1.0 / numDraws;
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDsInThisGame.get(j)] += pointsPerDraw;
-                    if (results[j] == GameResult.DRAW_GAME)
-                        pointsPerPlayerSquared[agentIDsInThisGame.get(j)] += pointsPerDraw * pointsPerDraw;
+        int numDraws = 0;
+        for (int j = 0; j < agentIDsInThisGame.size(); j++) {
+            nGamesPlayed[agentIDsInThisGame.get(j)] += 1;
+            for (int k = 0; k < agentIDsInThisGame.size(); k++) {
+                if (k != j) {
+                    nGamesPlayedPerOpponent[agentIDsInThisGame.get(j)][agentIDsInThisGame.get(k)] += 1;
                 }
             }
 
-            if (verbose) {
-                StringBuffer sb = new StringBuffer();
-                sb.append("[");
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    for (int player = 0; player < game.getGameState().getNPlayers(); player++) {
-                        if (game.getGameState().getTeam(player) == j) {
-                            sb.append(results[player]).append(",");
-                            break; // we stop after one player on the team to avoid double counting
-                        }
+            // now we need to be careful if we have a team game, as the agents are indexed by Team, not player
+            if (byTeam) {
+                for (int player = 0; player < outcome.nPlayers(); player++) {
+                    if (outcome.teams[player] == j) {
+                        numDraws += updatePoints(outcome, agentIDsInThisGame, agentIDsInThisGame.get(j), player);
+                        break; // we stop after one player on the team to avoid double counting
                     }
                 }
-                sb.setCharAt(sb.length() - 1, ']');
-                System.out.println(sb);
+            } else {
+                numDraws += updatePoints(outcome, agentIDsInThisGame, agentIDsInThisGame.get(j), j);
             }
+        }
 
+        if (numDraws > 0) {
+            double pointsPerDraw = 1.0 / numDraws;
+            for (int j = 0; j < agentIDsInThisGame.size(); j++) {
+                if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDsInThisGame.get(j)] += pointsPerDraw;
+                if (results[j] == GameResult.DRAW_GAME)
+                    pointsPerPlayerSquared[agentIDsInThisGame.get(j)] += pointsPerDraw * pointsPerDraw;
+            }
+        }
+
+        if (verbose) {
+            StringBuffer sb = new StringBuffer();
+            sb.append("[");
+            for (int j = 0; j < agentIDsInThisGame.size(); j++) {
+                for (int player = 0; player < outcome.nPlayers(); player++) {
+                    if (outcome.teams[player] == j) {
+                        sb.append(results[player]).append(",");
+                        break; // we stop after one player on the team to avoid double counting
+                    }
+                }
+            }
+            sb.setCharAt(sb.length() - 1, ']');
+            System.out.println(sb);
         }
-        totalGamesRun += nGames;
     }
 
-    private int updatePoints(GameResult[] results, List<Integer> matchUpPlayers, int j, int player) {
+    private int updatePoints(GameOutcome outcome, List<Integer> matchUpPlayers, int j, int player) {
         // j is the index of the agent in the matchup; player is the corresponding player number in the game
-        int ordinalPos = game.getGameState().getOrdinalPosition(player);
+        GameResult[] results = outcome.results;
+        int ordinalPos = outcome.ordinalPositions[player];
         rankPerPlayer[j] += ordinalPos;
         rankPerPlayerSquared[j] += ordinalPos * ordinalPos;
 
-        for (int playerPos = 0; playerPos < game.getGameState().getNPlayers(); playerPos++) {
+        for (int playerPos = 0; playerPos < outcome.nPlayers(); playerPos++) {
             if (playerPos != player) {
-                int ordinalOther = game.getGameState().getOrdinalPosition(playerPos);
+                int ordinalOther = outcome.ordinalPositions[playerPos];
                 ordinalDeltaPerOpponent[j][matchUpPlayers.get(playerPos)] += ordinalOther - ordinalPos;
             }
         }
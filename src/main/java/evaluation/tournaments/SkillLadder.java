@@ -41,6 +41,8 @@ public class SkillLadder {
         }
 
         // Config
+        if (argsList.stream().anyMatch(arg -> arg.startsWith(RunArg.workDir.name() + "=") || arg.startsWith(RunArg.worker.name() + "=")))
+            throw new IllegalArgumentException("SkillLadder plays all its games locally, so cannot use workDir or worker");
         Map<RunArg, Object> config = parseConfig(args, List.of(Usage.ParameterSearch, Usage.SkillLadder));
 
         String setupFile = config.getOrDefault(RunArg.config, "").toString();
@@ -0,0 +1,147 @@
+package evaluation.tournaments;
+
+import core.AbstractParameters;
+import core.AbstractPlayer;
+import core.interfaces.IGameRunner;
+import evaluation.RunArg;
+import games.GameType;
+import players.IAnyTimePlayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Plays the games of a tournament that is being run with a shared work directory (see {@link WorkQueue}).
+ * <p>
+ * A worker is started with the same arguments as the tournament (RunGames with worker=true), so that it creates
+ * the same agents in the same order, and can refer to them by their index in the list. It then claims units of work
+ * from the queue, plays each game with its own copies of the agents, and writes the result of each game as soon as
+ * it is over. It exits once the tournament writes the STOP file.
+ */
+public class TournamentWorker implements IGameRunner {
+
+    private static final AtomicInteger workerCount = new AtomicInteger();
+
+    final List<? extends AbstractPlayer> agents;
+    final WorkQueue queue;
+    final String workerId;
+    final String gameParamsFile;
+    final Map<GameType, AbstractParameters> gameParams = new HashMap<>();
+    int gamesPlayed;
+
+    public TournamentWorker(List<? extends AbstractPlayer> agents, Map<RunArg, Object> config) {
+        this(agents, new WorkQueue((String) config.get(RunArg.workDir)), (String) config.getOrDefault(RunArg.gameParams, ""));
+        int budget = (int) config.getOrDefault(RunArg.budget, 0);
+        if (budget > 0) {
+            // as the tournament does
+            for (AbstractPlayer player : agents) {
+                if (player instanceof IAnyTimePlayer) {
+                    ((IAnyTimePlayer) player).setBudget(budget);
+                }
+            }
+        }
+    }
+
+    TournamentWorker(List<? extends AbstractPlayer> agents, WorkQueue queue, String gameParamsFile) {
+        this.agents = agents;
+        this.queue = queue;
+        this.gameParamsFile = gameParamsFile;
+        // the JVM name is pid@host, and the count distinguishes workers in the same JVM
+        this.workerId = ManagementFactory.getRuntimeMXBean().getName().replace(WorkQueue.WORKER_SEPARATOR, '-')
+                + "-" + workerCount.incrementAndGet();
+    }
+
+    /**
+     * A hash of the agents' names, used to check that the workers have the same agents as the tournament.
+     */
+    static int agentsHash(List<? extends AbstractPlayer> agents) {
+        return agents.stream().map(Object::toString).collect(toList()).hashCode();
+    }
+
+    @Override
+    public void run() {
+        System.out.printf("Worker %s waiting for games in %s%n", workerId, queue.directory);
+        AtomicReference<File> current = new AtomicReference<>();
+        ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Heartbeat-" + workerId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        // a single game may take longer than the tournament will wait, so we keep touching the unit in the background
+        heartbeat.scheduleAtFixedRate(() -> {
+            File unit = current.get();
+            if (unit != null)
+                queue.heartbeat(unit);
+        }, queue.heartbeatMillis, queue.heartbeatMillis, TimeUnit.MILLISECONDS);
+        try {
+            while (!queue.isStopped()) {
+                File unit = queue.claim(workerId);
+                if (unit == null) {
+                    Thread.sleep(queue.pollMillis);
+                    continue;
+                }
+                current.set(unit);
+                playUnit(unit);
+                current.set(null);
+                queue.release(unit);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            heartbeat.shutdownNow();
+        }
+        System.out.printf("Worker %s stopped after %d games%n", workerId, gamesPlayed);
+    }
+
+    /**
+     * Plays the games of one unit. The first line of a unit is: game, number of players, randomGameParams,
+     * hash of the game parameters, hash of the agents. Each following line is one game: index (in the tournament),
+     * seed, and a comma-separated list of the agent in each position.
+     */
+    private void playUnit(File unit) throws IOException {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(unit.toPath(), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return; // the tournament has already given up on this unit
+        }
+        String[] header = lines.get(0).split(" ");
+        GameType gameType = GameType.valueOf(header[0]);
+        int nPlayers = Integer.parseInt(header[1]);
+        boolean randomGameParams = Boolean.parseBoolean(header[2]);
+        AbstractParameters params = gameParams.computeIfAbsent(gameType, gt -> gameParamsFile.isEmpty() ?
+                gt.createParameters(0) : AbstractParameters.createFromFile(gt, gameParamsFile));
+        if (params.hashCode() != Integer.parseInt(header[3]))
+            throw new IllegalArgumentException("The game parameters of this worker are not those of the tournament: " + params);
+        if (agentsHash(agents) != Integer.parseInt(header[4]))
+            throw new IllegalArgumentException("The agents of this worker are not those of the tournament: " + agents);
+
+        for (String line : lines.subList(1, lines.size())) {
+            if (!queue.heartbeat(unit))
+                return;  // the tournament has given up on us, and put the games back on the queue
+            String[] parts = line.split(" ");
+            long seed = Long.parseLong(parts[1]);
+            List<Integer> agentIDs = Arrays.stream(parts[2].split(",")).map(Integer::valueOf).collect(toList());
+            List<AbstractPlayer> players = agentIDs.stream().map(id -> (AbstractPlayer) agents.get(id).copy()).collect(toList());
+            MatchUpGame matchUpGame = new MatchUpGame(agentIDs, seed, false)
+                    .play(gameType, nPlayers, params.copy(), players, false, randomGameParams);
+            queue.appendResult(unit, parts[0] + " " + GameOutcome.of(matchUpGame.game.getGameState()));
+            gamesPlayed++;
+        }
+    }
+}
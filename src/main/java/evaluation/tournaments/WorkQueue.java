@@ -0,0 +1,210 @@
+package evaluation.tournaments;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * A queue of tournament games in a shared directory, so that the games can be played by worker processes
+ * (see {@link TournamentWorker}) on this machine, or on any other machine that can see the directory.
+ * <p>
+ * The tournament puts units of work (a few games each) into queue/. A worker claims a unit by moving it into
+ * running/ with its own id added to the name, and keeps touching that file while it plays the games. The result of
+ * each game is appended to the worker's file in results/ as soon as the game is over, so that the tournament can
+ * record them as they arrive, and the unit is deleted from running/ once all its games are played.
+ * If a worker dies then its file in running/ stops being touched, and once this is stale the tournament puts the
+ * games of the unit that have no result yet back on the queue. When the tournament is finished a STOP file tells
+ * the workers to exit.
+ * <p>
+ * Units are written to a temporary file and then renamed, so a unit is never seen half written; and a rename is
+ * also how a unit is claimed, so only one worker can claim each unit.
+ */
+public class WorkQueue {
+
+    static final String STOP = "STOP";
+    // separates the unit name from the worker id in the names of the running and results files
+    static final char WORKER_SEPARATOR = '@';
+
+    final File directory, queueDir, runningDir, resultsDir, stopFile;
+    // how often a worker touches the unit it is playing
+    long heartbeatMillis = 2000;
+    // how long after the last touch the tournament gives up on the worker
+    long staleMillis = 30000;
+    // how often the tournament and idle workers look for new files
+    long pollMillis = 200;
+    // how far we have read each results file
+    private final Map<String, Long> resultOffsets = new HashMap<>();
+
+    public WorkQueue(String directory) {
+        this.directory = new File(directory);
+        this.queueDir = new File(directory, "queue");
+        this.runningDir = new File(directory, "running");
+        this.resultsDir = new File(directory, "results");
+        this.stopFile = new File(directory, STOP);
+        for (File dir : new File[]{queueDir, runningDir, resultsDir}) {
+            if (!dir.isDirectory() && !dir.mkdirs())
+                throw new UncheckedIOException(new IOException("Could not create directory " + dir));
+        }
+    }
+
+    /**
+     * Removes any STOP file left from a previous tournament. Workers started before this will have already exited.
+     */
+    public void start() {
+        if (stopFile.exists() && !stopFile.delete())
+            throw new UncheckedIOException(new IOException("Could not delete " + stopFile));
+    }
+
+    /**
+     * Tells all the workers to exit once they have finished the unit they are playing.
+     */
+    public void stop() {
+        try {
+            Files.write(stopFile.toPath(), new byte[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean isStopped() {
+        return stopFile.exists();
+    }
+
+    void submit(String unitName, List<String> lines) throws IOException {
+        if (unitName.indexOf(WORKER_SEPARATOR) >= 0)
+            throw new IllegalArgumentException("Unit names cannot contain " + WORKER_SEPARATOR + ": " + unitName);
+        Path tmp = new File(directory, unitName + ".tmp").toPath();
+        Files.write(tmp, lines, StandardCharsets.UTF_8);
+        Files.move(tmp, new File(queueDir, unitName).toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Claims the first unit on the queue (in name order).
+     *
+     * @return the claimed unit, now in running/, or null if the queue is empty
+     */
+    File claim(String workerId) {
+        String[] names = queueDir.list();
+        if (names == null)
+            return null;
+        Arrays.sort(names);
+        for (String name : names) {
+            File running = new File(runningDir, name + WORKER_SEPARATOR + workerId);
+            try {
+                Files.move(new File(queueDir, name).toPath(), running.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (NoSuchFileException e) {
+                continue; // another worker got there first
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // the rename keeps the time the unit was written, which may already look stale
+            running.setLastModified(System.currentTimeMillis());
+            return running;
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the unit is still ours (the tournament has not given up on it)
+     */
+    boolean heartbeat(File running) {
+        return running.setLastModified(System.currentTimeMillis());
+    }
+
+    void appendResult(File running, String line) throws IOException {
+        Files.writeString(new File(resultsDir, running.getName()).toPath(), line + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @return the units being played whose worker has not touched them for staleMillis
+     */
+    List<File> staleUnits() {
+        File[] files = runningDir.listFiles();
+        if (files == null)
+            return Collections.emptyList();
+        long cutOff = System.currentTimeMillis() - staleMillis;
+        List<File> retValue = new ArrayList<>();
+        for (File file : files)
+            if (file.lastModified() < cutOff)
+                retValue.add(file);
+        return retValue;
+    }
+
+    /**
+     * Removes a unit from running/. As only one caller can delete the file, this also decides a race between the
+     * tournament giving up on a unit and its worker finishing it.
+     *
+     * @return true if this call removed it
+     */
+    boolean release(File running) {
+        return running.delete();
+    }
+
+    static String unitName(File file) {
+        String name = file.getName();
+        int index = name.lastIndexOf(WORKER_SEPARATOR);
+        return index < 0 ? name : name.substring(0, index);
+    }
+
+    /**
+     * Reads the results appended since the last call, for units whose name starts with prefix.
+     * Only complete lines are returned; the rest of a line that is still being written is read next time.
+     */
+    List<String> readResults(String prefix) throws IOException {
+        String[] names = resultsDir.list();
+        if (names == null)
+            return Collections.emptyList();
+        Arrays.sort(names);
+        List<String> retValue = new ArrayList<>();
+        for (String name : names) {
+            if (!name.startsWith(prefix))
+                continue;
+            long offset = resultOffsets.getOrDefault(name, 0L);
+            try (RandomAccessFile file = new RandomAccessFile(new File(resultsDir, name), "r")) {
+                if (file.length() <= offset)
+                    continue;
+                byte[] bytes = new byte[(int) (file.length() - offset)];
+                file.seek(offset);
+                file.readFully(bytes);
+                int end = bytes.length;
+                while (end > 0 && bytes[end - 1] != '\n')
+                    end--;
+                if (end == 0)
+                    continue;
+                String text = new String(bytes, 0, end, StandardCharsets.UTF_8);
+                retValue.addAll(Arrays.asList(text.split("\n")));
+                resultOffsets.put(name, offset + end);
+            }
+        }
+        return retValue;
+    }
+
+    /**
+     * Removes any units whose name starts with prefix that are still on the queue; for example a unit of games that
+     * were put back on the queue for a worker that turned out to be slow rather than dead, and then finished them.
+     */
+    void cancel(String prefix) {
+        File[] files = queueDir.listFiles((dir, name) -> name.startsWith(prefix));
+        if (files != null)
+            for (File file : files)
+                file.delete();
+    }
+
+    /**
+     * Deletes the results files of units whose name starts with prefix, once the tournament has recorded them.
+     */
+    void deleteResults(String prefix) {
+        File[] files = resultsDir.listFiles((dir, name) -> name.startsWith(prefix));
+        if (files == null)
+            return;
+        for (File file : files) {
+            file.delete();
+            resultOffsets.remove(file.getName());
+        }
+    }
+}
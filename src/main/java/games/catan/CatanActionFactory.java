@@ -3,6 +3,7 @@ package games.catan;
 import core.actions.AbstractAction;
 import core.actions.ActionSpace;
 import core.actions.DoNothing;
+import core.actions.LazyActionList;
 import core.components.Counter;
 import core.components.Deck;
 import core.components.Edge;
@@ -22,7 +23,6 @@ import utilities.Utils;
 import java.util.*;
 
 import static games.catan.CatanConstants.HEX_SIDES;
-import static games.catan.components.Building.Type.Settlement;
 
 public class CatanActionFactory {
     /**
@@ -91,11 +91,11 @@ public class CatanActionFactory {
 
             // Or counter-offer, if we've not already done too many steps
             if (gs.nTradesThisTurn < ((CatanParameters)gs.getGameParameters()).max_negotiation_count) {
-                actions.addAll(CatanActionFactory.getPlayerTradeOfferActions(gs, actionSpace, player, opt));
+                return LazyActionList.concat(List.of(actions, CatanActionFactory.getPlayerTradeOfferActions(gs, actionSpace, player, opt)));
             }
         } else if (gs.getNResourcesInHand(player) > 0) {
             // Create a new offer
-            actions.addAll(getPlayerTradeOfferActions(gs, actionSpace, player, null));
+            return getPlayerTradeOfferActions(gs, actionSpace, player, null);
         }
         return actions;
     }
@@ -108,7 +108,7 @@ public class CatanActionFactory {
      * @param actionSpace - action space type
      * @param playerID - active player actions are computed for (and has visibility of their own resources)
      * @param tradeOffer - current trade offer to reply to. If null, a new one will be created from scratch.
-     * @return - ArrayList of OfferPlayerTrade actions
+     * @return - OfferPlayerTrade actions; in the flat action space these are only built when looked at
      */
     public static List<AbstractAction> getPlayerTradeOfferActions(CatanGameState gs, ActionSpace actionSpace, int playerID, OfferPlayerTrade tradeOffer) {
         ArrayList<AbstractAction> actions = new ArrayList<>();
@@ -116,7 +116,7 @@ public class CatanActionFactory {
         int n_players = gs.getNPlayers();
         if (tradeOffer == null) {
             // Construct new offer
-            List<AbstractAction> offers = new ArrayList<>();
+            List<List<AbstractAction>> offers = new ArrayList<>();
             for (int playerIndex = 0; playerIndex < n_players; playerIndex++) { // loop through players
                 if (playerIndex != playerID && gs.getNResourcesInHand(playerIndex) > 0) { // exclude current player and players with no resources in hand
                     for (CatanParameters.Resource resToOffer : CatanParameters.Resource.values()) {
@@ -128,7 +128,7 @@ public class CatanActionFactory {
                                 if (resToRequest != resToOffer) {
                                     int maxToRequest = ((CatanParameters) gs.getGameParameters()).max_resources_request_trade;
                                     if (maxToRequest > 0) { // exclude the currently offered resource
-                                        offers.addAll(createTradeOfferActions(playerID, playerIndex, resToOffer, resToRequest, maxToOffer, maxToRequest, -1, -1, OfferPlayerTrade.Stage.Offer));
+                                        offers.add(createTradeOfferActions(playerID, playerIndex, resToOffer, resToRequest, maxToOffer, maxToRequest, -1, -1, OfferPlayerTrade.Stage.Offer));
                                     }
                                 }
                             }
@@ -137,7 +137,7 @@ public class CatanActionFactory {
                 }
             }
             if (actionSpace.structure != ActionSpace.Structure.Deep) {  // Default is flat
-                actions.addAll(offers);
+                return LazyActionList.concat(offers);
             } else if (offers.size() > 0) {
                 // Deep new offer construct
                 actions.add(new DeepConstructNewOffer(playerID));
@@ -155,7 +155,7 @@ public class CatanActionFactory {
             }
             if (!allCounterOffers.isEmpty()) {
                 if (actionSpace.structure != ActionSpace.Structure.Deep) {  // Default is flat
-                    actions.addAll(allCounterOffers);
+                    return allCounterOffers;
                 } else {
                     // Deep counter-offer construct. Only add if there exists a counter-offer, we still need to calculate all options
                     actions.add(new DeepCounterOffer(tradeOffer.stage, playerID));
@@ -182,15 +182,18 @@ public class CatanActionFactory {
                                                 CatanParameters.Resource resourceToRequest,
                                                 int maxToOffer, int maxToRequest,
                                                 int nOffered, int nRequested, OfferPlayerTrade.Stage stage) {
-        List<AbstractAction> actions = new ArrayList<>();
-        for (int offerQuantity = 1; offerQuantity <= maxToOffer; offerQuantity++) {
-            for (int requestQuantity = 1; requestQuantity <= maxToRequest; requestQuantity++) {
-                if (nOffered != offerQuantity || nRequested != requestQuantity) {
-                    actions.add(new OfferPlayerTrade(stage, resourceToOffer, offerQuantity, resourceToRequest, requestQuantity, offeringPlayer, otherPlayer));
-                }
+        // The offer already made (if any) is left out
+        boolean previous = nOffered >= 1 && nOffered <= maxToOffer && nRequested >= 1 && nRequested <= maxToRequest;
+        int previousIndex = previous ? (nOffered - 1) * maxToRequest + nRequested - 1 : -1;
+        return new LazyActionList(maxToOffer * maxToRequest - (previous ? 1 : 0)) {
+            @Override
+            protected AbstractAction build(int index) {
+                if (previous && index >= previousIndex) index++;
+                int offerQuantity = index / maxToRequest + 1;
+                int requestQuantity = index % maxToRequest + 1;
+                return new OfferPlayerTrade(stage, resourceToOffer, offerQuantity, resourceToRequest, requestQuantity, offeringPlayer, otherPlayer);
             }
-        }
-        return actions;
+        };
     }
 
     /**
@@ -233,33 +236,28 @@ public class CatanActionFactory {
      */
     static List<AbstractAction> getRobberActions(CatanGameState gs, ActionSpace actionSpace, int player, boolean knight) {
         ArrayList<AbstractAction> actions = new ArrayList<>();
-        CatanTile[][] board = gs.getBoard();
-        for (int x = 0; x < board.length; x++) {
-            for (int y = 0; y < board[x].length; y++) {
-                CatanTile tile = board[x][y];
-                if (!(tile.getTileType().equals(CatanTile.TileType.SEA))) {
-                    if (actionSpace.structure != ActionSpace.Structure.Deep) { // Flat is default
-                        Set<Integer> targets = new LinkedHashSet<>();
-                        Building[] settlements = gs.getBuildings(tile);
-                        for (Building settlement : settlements) {
-                            if (settlement.getOwnerId() != -1 && settlement.getOwnerId() != gs.getCurrentPlayer()) {
-                                targets.add(settlement.getOwnerId());
-                            }
-                        }
-                        for (int target : targets) {
-                            if (knight) actions.add(new PlayKnightCard(x, y, player, target));
-                            else actions.add(new MoveRobberAndSteal(x, y, player, target));
-                        }
-                        if (targets.isEmpty()) {
-                            if (knight) actions.add(new PlayKnightCard(x, y, player, -1));
-                            else actions.add(new MoveRobberAndSteal(x, y, player, -1));
-                        }
-                    } else {
-                        // Deep: first move, then steal
-                        if (knight) actions.add(new PlayKnightCardDeep(x, y, player));
-                        else actions.add(new MoveRobber(x, y, player));
+        for (int[] spot : gs.topology.robberSpots()) {
+            int x = spot[0], y = spot[1];
+            if (actionSpace.structure != ActionSpace.Structure.Deep) { // Flat is default
+                Set<Integer> targets = new LinkedHashSet<>();
+                for (int i = 0; i < HEX_SIDES; i++) {
+                    int owner = gs.vertexOwner[gs.topology.vertex(x, y, i)];
+                    if (owner != -1 && owner != gs.getCurrentPlayer()) {
+                        targets.add(owner);
                     }
                 }
+                for (int target : targets) {
+                    if (knight) actions.add(new PlayKnightCard(x, y, player, target));
+                    else actions.add(new MoveRobberAndSteal(x, y, player, target));
+                }
+                if (targets.isEmpty()) {
+                    if (knight) actions.add(new PlayKnightCard(x, y, player, -1));
+                    else actions.add(new MoveRobberAndSteal(x, y, player, -1));
+                }
+            } else {
+                // Deep: first move, then steal
+                if (knight) actions.add(new PlayKnightCardDeep(x, y, player));
+                else actions.add(new MoveRobber(x, y, player));
             }
         }
         return actions;
@@ -310,25 +308,23 @@ public class CatanActionFactory {
         ArrayList<AbstractAction> actions = new ArrayList<>();
         if (free || gs.checkCost(catanParameters.costMapping.get(BuyAction.BuyType.Road), player)
                 && !gs.playerTokens.get(player).get(BuyAction.BuyType.Road).isMaximum()) {
-            Set<Integer> roadsAdded = new HashSet<>();
-            CatanTile[][] board = gs.getBoard();
-            for (int x = 0; x < board.length; x++) {
-                for (int y = 0; y < board[x].length; y++) {
-                    CatanTile tile = board[x][y];
-                    for (int i = 0; i < HEX_SIDES; i++) {
-                        Building settlement = gs.getBuilding(tile, i);
-                        // Roads
-                        Edge edge = gs.getRoad(settlement, tile, i);
-                        if (edge == null || roadsAdded.contains(edge.getComponentID())) continue;
-                        roadsAdded.add(edge.getComponentID());
-
-                        if (!(tile.getTileType().equals(CatanTile.TileType.SEA) || tile.getTileType().equals(CatanTile.TileType.DESERT))
-                                && gs.checkRoadPlacement(i, tile, gs.getCurrentPlayer())) {
-                            actions.add(new BuildRoad(x, y, i, player, free));
-                        }
-                    }
+            // A road may be built next to one of the player's buildings or roads
+            CatanTopology topology = gs.topology;
+            int current = gs.getCurrentPlayer();
+            BitSet reached = new BitSet(topology.nVertices());
+            reached.or(gs.roadEnds[current]);
+            reached.or(gs.settlements[current]);
+            reached.or(gs.cities[current]);
+            BitSet roads = new BitSet(topology.nEdges());
+            for (int v = reached.nextSetBit(0); v >= 0; v = reached.nextSetBit(v + 1)) {
+                for (int e : topology.edges(v)) {
+                    if (gs.edgeOwner[e] == -1 && topology.edgeOnLand(e)) roads.set(e);
                 }
             }
+            for (int e = roads.nextSetBit(0); e >= 0; e = roads.nextSetBit(e + 1)) {
+                int[] spot = topology.edgeSpot(e);
+                actions.add(new BuildRoad(spot[0], spot[1], spot[2], player, free));
+            }
         }
         return actions;
     }
@@ -338,47 +334,46 @@ public class CatanActionFactory {
         CatanParameters catanParameters = (CatanParameters) gs.getGameParameters();
         if (gs.checkCost(catanParameters.costMapping.get(BuyAction.BuyType.Settlement), player)
                 && !gs.playerTokens.get(player).get(BuyAction.BuyType.Settlement).isMaximum()) {
-            Set<Integer> settlementsAdded = new HashSet<>();
-            CatanTile[][] board = gs.getBoard();
-            for (int x = 0; x < board.length; x++) {
-                for (int y = 0; y < board[x].length; y++) {
-                    CatanTile tile = board[x][y];
-                    for (int i = 0; i < HEX_SIDES; i++) {
-                        Building settlement = gs.getBuilding(tile, i);
-                        if (settlementsAdded.contains(settlement.getComponentID())) continue;
-                        settlementsAdded.add(settlement.getComponentID());
-
-                        // legal to place?
-                        if (!(tile.getTileType().equals(CatanTile.TileType.SEA) || tile.getTileType().equals(CatanTile.TileType.DESERT))
-                                && gs.checkSettlementPlacement(settlement, gs.getCurrentPlayer())) {
-                            actions.add(new BuildSettlement(x, y, i, player, false));
-                        }
-                    }
+            // Outside setup, a settlement may only be built at the end of one of the player's roads
+            CatanTopology topology = gs.topology;
+            int current = gs.getCurrentPlayer();
+            boolean setup = gs.getGamePhase() == CatanGameState.CatanGamePhase.Setup;
+            BitSet spots = gs.roadEnds[current];
+            if (setup) {
+                spots = new BitSet(topology.nVertices());
+                spots.set(0, topology.nVertices());
+            }
+            for (int v = spots.nextSetBit(0); v >= 0; v = spots.nextSetBit(v + 1)) {
+                if (topology.vertexOnLand(v) && canSettle(gs, v)) {
+                    int[] spot = topology.vertexSpot(v);
+                    actions.add(new BuildSettlement(spot[0], spot[1], spot[2], player, false));
                 }
             }
         }
         return actions;
     }
 
+    /**
+     * @return true if the vertex and all its neighbours are free (the distance rule), as checkSettlementPlacement()
+     * checks before the rule on roads
+     */
+    private static boolean canSettle(CatanGameState gs, int vertex) {
+        if (gs.vertexOwner[vertex] != -1) return false;
+        for (int n : gs.topology.neighbours(vertex)) {
+            if (gs.vertexOwner[n] != -1) return false;
+        }
+        return true;
+    }
+
     public static List<AbstractAction> getBuyCityActions(CatanGameState gs, int player) {
         CatanParameters catanParameters = (CatanParameters) gs.getGameParameters();
         ArrayList<AbstractAction> actions = new ArrayList<>();
         if (gs.checkCost(catanParameters.costMapping.get(BuyAction.BuyType.City), player)
                 && !gs.playerTokens.get(player).get(BuyAction.BuyType.City).isMaximum()) {
-            Set<Integer> settlementsAdded = new HashSet<>();
-            CatanTile[][] board = gs.getBoard();
-            for (int x = 0; x < board.length; x++) {
-                for (int y = 0; y < board[x].length; y++) {
-                    CatanTile tile = board[x][y];
-                    for (int i = 0; i < HEX_SIDES; i++) {
-                        Building settlement = gs.getBuilding(tile, i);
-                        if (settlementsAdded.contains(settlement.getComponentID())) continue;
-                        settlementsAdded.add(settlement.getComponentID());
-                        if (settlement.getOwnerId() == player && settlement.getBuildingType() == Settlement) {
-                            actions.add(new BuildCity(x, y, i, player));
-                        }
-                    }
-                }
+            BitSet settlements = gs.settlements[player];
+            for (int v = settlements.nextSetBit(0); v >= 0; v = settlements.nextSetBit(v + 1)) {
+                int[] spot = gs.topology.vertexSpot(v);
+                actions.add(new BuildCity(spot[0], spot[1], spot[2], player));
             }
         }
         return actions;
@@ -6,6 +6,7 @@ import core.StandardForwardModel;
 import core.actions.AbstractAction;
 import core.actions.ActionSpace;
 import core.actions.DoNothing;
+import core.actions.LazyActionList;
 import core.components.Counter;
 import core.components.Deck;
 import core.components.Edge;
@@ -39,6 +40,7 @@ public class CatanForwardModel extends StandardForwardModel {
 
         state.setBoard(generateBoard(params, state.getRnd()));
         state.setGraph(extractGraphFromBoard(state.getBoard(), params, state.getRnd()));
+        state.setTopology(new CatanTopology(state.getBoard(), state.getGraph()));
 
         state.scores = new int[state.getNPlayers()];
         state.victoryPoints = new int[state.getNPlayers()];
@@ -254,34 +256,35 @@ public class CatanForwardModel extends StandardForwardModel {
             return CatanActionFactory.getRobberActions(cgs, actionSpace, player, false);
         }
         // Main phase: trade, build (road, city, dev card), or play dev card
-        List<AbstractAction> mainActions = new ArrayList<>();
+        // The lists are joined without copying, as player trades can be many more than are ever looked at
+        List<List<AbstractAction>> mainActions = new ArrayList<>();
 
         if (cgs.tradeOffer != null) {
             // Only replies allowed
-            mainActions.addAll(CatanActionFactory.getPlayerTradeActions(cgs, actionSpace, player));
+            return CatanActionFactory.getPlayerTradeActions(cgs, actionSpace, player);
 
         } else {
 
             // Trade With the bank / ports
-            mainActions.addAll(CatanActionFactory.getDefaultTradeActions(cgs, actionSpace, player));
+            mainActions.add(CatanActionFactory.getDefaultTradeActions(cgs, actionSpace, player));
 
             // Trade With other players, unless already too many trades this turn
             if (cp.tradingAllowed && cgs.nTradesThisTurn < cp.max_trade_actions_allowed) {
-                mainActions.addAll(CatanActionFactory.getPlayerTradeActions(cgs, actionSpace, player));
+                mainActions.add(CatanActionFactory.getPlayerTradeActions(cgs, actionSpace, player));
             }
 
             // Build
-            mainActions.addAll(CatanActionFactory.getBuyActions(cgs, actionSpace, player));
+            mainActions.add(CatanActionFactory.getBuyActions(cgs, actionSpace, player));
 
             // Dev cards
             if (cgs.noDevelopmentCardPlayed()) {
-                mainActions.addAll(CatanActionFactory.getDevCardActions(cgs, actionSpace, player));
+                mainActions.add(CatanActionFactory.getDevCardActions(cgs, actionSpace, player));
             }
 
-            mainActions.add(new DoNothing());  // End turn
+            mainActions.add(List.of(new DoNothing()));  // End turn
         }
 
-        return mainActions;
+        return LazyActionList.concat(mainActions);
     }
 
     private CatanTile[][] generateBoard(CatanParameters params, Random rnd) {
@@ -40,6 +40,13 @@ public class CatanGameState extends AbstractGameState {
     public int negotiationStepsCount;
     public int nTradesThisTurn;
 
+    // Shape of the board, shared by all copies of the state, and what has been built on it (by vertex and edge
+    // number, see CatanTopology), kept in step with the graph by buildRoad(), buildSettlement() and buildCity()
+    CatanTopology topology;
+    int[] vertexOwner, edgeOwner;
+    BitSet[] roadEnds;  // vertices at either end of the roads of each player
+    BitSet[] settlements, cities;
+
     public AbstractAction getTradeOffer() {
         return tradeOffer;
     }
@@ -399,6 +406,17 @@ public class CatanGameState extends AbstractGameState {
         copy.gamePhase = gamePhase;
         copy.board = copyBoard();
         copy.catanGraph = catanGraph.copy();
+        copy.topology = topology;
+        copy.vertexOwner = vertexOwner.clone();
+        copy.edgeOwner = edgeOwner.clone();
+        copy.roadEnds = new BitSet[nPlayers];
+        copy.settlements = new BitSet[nPlayers];
+        copy.cities = new BitSet[nPlayers];
+        for (int i = 0; i < nPlayers; i++) {
+            copy.roadEnds[i] = (BitSet) roadEnds[i].clone();
+            copy.settlements[i] = (BitSet) settlements[i].clone();
+            copy.cities[i] = (BitSet) cities[i].clone();
+        }
 
         copy.gameStatus = gameStatus;
         copy.playerResults = playerResults.clone();
@@ -561,6 +579,47 @@ public class CatanGameState extends AbstractGameState {
         return resourcePool;
     }
 
+    void setTopology(CatanTopology topology) {
+        this.topology = topology;
+        vertexOwner = new int[topology.nVertices()];
+        Arrays.fill(vertexOwner, -1);
+        edgeOwner = new int[topology.nEdges()];
+        Arrays.fill(edgeOwner, -1);
+        roadEnds = new BitSet[nPlayers];
+        settlements = new BitSet[nPlayers];
+        cities = new BitSet[nPlayers];
+        for (int i = 0; i < nPlayers; i++) {
+            roadEnds[i] = new BitSet(topology.nVertices());
+            settlements[i] = new BitSet(topology.nVertices());
+            cities[i] = new BitSet(topology.nVertices());
+        }
+    }
+
+    public void buildRoad(int x, int y, int edge, int player) {
+        getRoad(board[x][y], edge, edge).setOwnerId(player);
+        int e = topology.edge(x, y, edge);
+        edgeOwner[e] = player;
+        for (int v : topology.ends(e)) {
+            roadEnds[player].set(v);
+        }
+    }
+
+    public void buildSettlement(int x, int y, int vertex, int player) {
+        getBuilding(board[x][y], vertex).setOwnerId(player);
+        int v = topology.vertex(x, y, vertex);
+        vertexOwner[v] = player;
+        settlements[player].set(v);
+    }
+
+    public void buildCity(int x, int y, int vertex) {
+        Building building = getBuilding(board[x][y], vertex);
+        if (building.upgrade()) {
+            int v = topology.vertex(x, y, vertex);
+            settlements[building.getOwnerId()].clear(v);
+            cities[building.getOwnerId()].set(v);
+        }
+    }
+
     public Building getBuilding(CatanTile tile, int vertex) {
         return (Building) catanGraph.getNodeByID(tile.getVerticesBoardNodeIDs()[vertex]);
     }
@@ -0,0 +1,155 @@
+package games.catan;
+
+import core.components.BoardNodeWithEdges;
+import core.components.Edge;
+import core.components.GraphBoardWithEdges;
+import games.catan.components.CatanTile;
+
+import java.util.*;
+
+import static games.catan.CatanConstants.HEX_SIDES;
+
+/**
+ * The shape of a Catan board: which settlement spots (vertices) and road spots (edges) there are, and how they
+ * connect. This never changes during a game, so it is worked out once in setup, and all copies of the game state
+ * share it.
+ * <p>
+ * Vertices and edges are numbered in the order in which a scan of the board (by x, then y, then vertex or edge of
+ * the tile) first meets them, and each is placed from the tile and index where it is first met. Listing spots in
+ * order of their number therefore gives actions in the same order as scanning the whole board.
+ */
+final class CatanTopology {
+
+    private final int[][][] tileVertices;  // [x][y][vertex] -> vertex number
+    private final int[][][] tileEdges;  // [x][y][edge] -> edge number, or -1 if the road is not on the board
+    private final int[][] vertexNeighbours;  // vertex -> vertices one road away
+    private final int[][] vertexEdges;  // vertex -> edges that end there
+    private final int[][] edgeEnds;  // edge -> the vertices at its ends
+    private final int[][] vertexSpots, edgeSpots;  // {x, y, index} of the tile where each is first met
+    private final boolean[] vertexOnLand, edgeOnLand;  // whether that tile is one that may be built on
+    private final int[][] robberSpots;  // {x, y} of the tiles the robber can move to, in board order
+
+    CatanTopology(CatanTile[][] board, GraphBoardWithEdges graph) {
+        Map<Integer, Integer> vertexNumbers = new HashMap<>();
+        Map<Integer, Integer> edgeNumbers = new HashMap<>();
+        List<int[]> vSpots = new ArrayList<>(), eSpots = new ArrayList<>(), rSpots = new ArrayList<>();
+        List<Boolean> vLand = new ArrayList<>(), eLand = new ArrayList<>();
+        List<int[]> ends = new ArrayList<>();
+
+        tileVertices = new int[board.length][][];
+        tileEdges = new int[board.length][][];
+        for (int x = 0; x < board.length; x++) {
+            tileVertices[x] = new int[board[x].length][HEX_SIDES];
+            tileEdges[x] = new int[board[x].length][HEX_SIDES];
+            for (int y = 0; y < board[x].length; y++) {
+                CatanTile tile = board[x][y];
+                boolean land = !(tile.getTileType() == CatanTile.TileType.SEA || tile.getTileType() == CatanTile.TileType.DESERT);
+                if (tile.getTileType() != CatanTile.TileType.SEA) rSpots.add(new int[]{x, y});
+                for (int i = 0; i < HEX_SIDES; i++) {
+                    BoardNodeWithEdges origin = graph.getNodeByID(tile.getVerticesBoardNodeIDs()[i]);
+                    if (!vertexNumbers.containsKey(origin.getComponentID())) {
+                        vertexNumbers.put(origin.getComponentID(), vertexNumbers.size());
+                        vSpots.add(new int[]{x, y, i});
+                        vLand.add(land);
+                    }
+                    tileVertices[x][y][i] = vertexNumbers.get(origin.getComponentID());
+
+                    // The road along edge i of the tile starts at vertex i
+                    Edge edge = origin.getEdgeByID(tile.getEdgeIDs()[i]);
+                    if (edge == null) {
+                        tileEdges[x][y][i] = -1;
+                        continue;
+                    }
+                    if (!edgeNumbers.containsKey(edge.getComponentID())) {
+                        edgeNumbers.put(edge.getComponentID(), edgeNumbers.size());
+                        eSpots.add(new int[]{x, y, i});
+                        eLand.add(land);
+                        ends.add(new int[]{origin.getComponentID(), origin.getNeighbour(edge).getComponentID()});
+                    }
+                    tileEdges[x][y][i] = edgeNumbers.get(edge.getComponentID());
+                }
+            }
+        }
+
+        vertexSpots = vSpots.toArray(new int[0][]);
+        edgeSpots = eSpots.toArray(new int[0][]);
+        robberSpots = rSpots.toArray(new int[0][]);
+        vertexOnLand = new boolean[vLand.size()];
+        for (int v = 0; v < vertexOnLand.length; v++) vertexOnLand[v] = vLand.get(v);
+        edgeOnLand = new boolean[eLand.size()];
+        for (int e = 0; e < edgeOnLand.length; e++) edgeOnLand[e] = eLand.get(e);
+
+        edgeEnds = new int[ends.size()][];
+        for (int e = 0; e < edgeEnds.length; e++) {
+            edgeEnds[e] = new int[]{vertexNumbers.get(ends.get(e)[0]), vertexNumbers.get(ends.get(e)[1])};
+        }
+        vertexNeighbours = new int[vertexSpots.length][];
+        vertexEdges = new int[vertexSpots.length][];
+        for (Map.Entry<Integer, Integer> v : vertexNumbers.entrySet()) {
+            Map<Edge, BoardNodeWithEdges> neighbours = graph.getNodeByID(v.getKey()).getNeighbourEdgeMapping();
+            List<Integer> nodes = new ArrayList<>(), edges = new ArrayList<>();
+            for (Map.Entry<Edge, BoardNodeWithEdges> n : neighbours.entrySet()) {
+                nodes.add(vertexNumbers.get(n.getValue().getComponentID()));
+                // Roads never met in the scan of the board cannot be built, so are left out
+                if (edgeNumbers.containsKey(n.getKey().getComponentID()))
+                    edges.add(edgeNumbers.get(n.getKey().getComponentID()));
+            }
+            vertexNeighbours[v.getValue()] = nodes.stream().mapToInt(Integer::intValue).toArray();
+            vertexEdges[v.getValue()] = edges.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    int nVertices() {
+        return vertexSpots.length;
+    }
+
+    int nEdges() {
+        return edgeSpots.length;
+    }
+
+    int vertex(int x, int y, int vertex) {
+        return tileVertices[x][y][vertex];
+    }
+
+    int edge(int x, int y, int edge) {
+        return tileEdges[x][y][edge];
+    }
+
+    int[] neighbours(int vertex) {
+        return vertexNeighbours[vertex];
+    }
+
+    int[] edges(int vertex) {
+        return vertexEdges[vertex];
+    }
+
+    int[] ends(int edge) {
+        return edgeEnds[edge];
+    }
+
+    /**
+     * @return {x, y, vertex} of the tile to place a building at this vertex from
+     */
+    int[] vertexSpot(int vertex) {
+        return vertexSpots[vertex];
+    }
+
+    /**
+     * @return {x, y, edge} of the tile to place a road at this edge from
+     */
+    int[] edgeSpot(int edge) {
+        return edgeSpots[edge];
+    }
+
+    boolean vertexOnLand(int vertex) {
+        return vertexOnLand[vertex];
+    }
+
+    boolean edgeOnLand(int edge) {
+        return edgeOnLand[edge];
+    }
+
+    int[][] robberSpots() {
+        return robberSpots;
+    }
+}
@@ -44,7 +44,7 @@ public class BuildCity extends AbstractAction {
             // if player builds a city it gets back the settlement token
             Counter settleTokens = cgs.getPlayerTokens().get(playerID).get(BuyAction.BuyType.Settlement);
             settleTokens.decrement();
-            settlement.upgrade();
+            cgs.buildCity(row, col, vertex);
             cgs.addScore(playerID, cp.buildingValue.get(Building.Type.City));
             cgs.addScore(playerID, -cp.buildingValue.get(Building.Type.Settlement));
 
@@ -47,7 +47,7 @@ public class BuildRoad extends AbstractAction {
                 }
             }
             roadTokens.increment();
-            edgeObj.setOwnerId(playerID);
+            cgs.buildRoad(x, y, edge, playerID);
 
             // Check longest road
             int new_length = cgs.getRoadDistance(x, y, edge);
@@ -181,6 +181,29 @@ public class CCForwardModel extends StandardForwardModel {
             endPlayerTurn(state);
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
+    @Override
+    protected Object _saveForUndo(AbstractGameState currentState, AbstractAction action) {
+        CCGameState state = (CCGameState) currentState;
+        return state.starBoard.getBoardNodes().get(((MovePeg) action).getFrom()).getOccupiedPeg().getInDestination();
+    }
+
+    @Override
+    protected void _undo(AbstractGameState currentState, AbstractAction action, Object savedData) {
+        CCGameState state = (CCGameState) currentState;
+        MovePeg move = (MovePeg) action;
+        CCNode nodeStart = state.starBoard.getBoardNodes().get(move.getFrom());
+        CCNode nodeDestination = state.starBoard.getBoardNodes().get(move.getTo());
+        Peg peg = nodeDestination.getOccupiedPeg();
+        nodeDestination.setOccupiedPeg(null);
+        nodeStart.setOccupiedPeg(peg);
+        peg.setInDestination((Boolean) savedData);
+    }
+
     private boolean checkWinCondition(CCGameState state, Peg.Colour colour) {
         CCParameters params = (CCParameters) state.getGameParameters();
         int[] colourIndices = params.colourIndices.get(colour);
@@ -61,6 +61,29 @@ public class Connect4ForwardModel extends SequentialActionForwardModel {
         super._afterAction(currentState, action);
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
+    @Override
+    protected Object _saveForUndo(AbstractGameState currentState, AbstractAction action) {
+        SetGridValueAction<?> move = (SetGridValueAction<?>) action;
+        Connect4GameState c4gs = (Connect4GameState) currentState;
+        return new Pair<>(c4gs.gridBoard.getElement(move.getX(), move.getY()), c4gs.winnerCells);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void _undo(AbstractGameState currentState, AbstractAction action, Object savedData) {
+        SetGridValueAction<?> move = (SetGridValueAction<?>) action;
+        Connect4GameState c4gs = (Connect4GameState) currentState;
+        Pair<Token, LinkedList<Pair<Integer, Integer>>> saved = (Pair<Token, LinkedList<Pair<Integer, Integer>>>) savedData;
+        c4gs.gridBoard.setElement(move.getX(), move.getY(), saved.a);
+        // a winning move replaces the list of winning cells, rather than changing it
+        c4gs.winnerCells = saved.b;
+    }
+
     /**
      * Checks if the game ended.
      *
@@ -178,4 +178,11 @@ public class DominionForwardModel extends StandardForwardModel {
                 throw new AssertionError("Unknown Game Phase " + state.getGamePhase());
         }
     }
+
+    @Override
+    public boolean computesActionsWithoutSideEffects() {
+        // The actions (including those of any card being played) only use what the current player can see, and
+        // nothing is changed in computing them
+        return true;
+    }
 }
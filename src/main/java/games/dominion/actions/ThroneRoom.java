@@ -47,7 +47,7 @@ public class ThroneRoom extends DominionAction implements IExtendedSequence {
                     .collect(toList());
             if (options.isEmpty()) {
                 // this is possible if we throne room a throne room (etc.) and then have no action cards
-                executionCount = 2; // and we are done
+                // (and we are done once this is played, see _afterAction())
                 options.add(new EndPhase(DominionGameState.DominionGamePhase.Play));
             }
             return options;
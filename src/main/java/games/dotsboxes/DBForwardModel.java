@@ -15,6 +15,7 @@ public class DBForwardModel extends StandardForwardModel {
         DBParameters dbp = (DBParameters) firstState.getGameParameters();
 
         dbgs.lastActionDidNotScore = false;
+        dbgs.edgeHash = 0;
         // Generate edge to cell mapping and all cell objects with appropriate constructor
         dbgs.edgeToCellMap = new HashMap<>();
         dbgs.cellToEdgesMap = new HashMap<>();
@@ -62,6 +63,30 @@ public class DBForwardModel extends StandardForwardModel {
         }
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
+    @Override
+    protected Object _saveForUndo(AbstractGameState currentState, AbstractAction action) {
+        return ((DBGameState) currentState).lastActionDidNotScore;
+    }
+
+    @Override
+    protected void _undo(AbstractGameState currentState, AbstractAction action, Object savedData) {
+        DBGameState dbgs = (DBGameState) currentState;
+        DBEdge edge = ((AddGridCellEdge) action).edge;
+        dbgs.edgeHash ^= DBGameState.edgeHash(edge, dbgs.edgeToOwnerMap.remove(edge));
+        // A cell is completed by its last edge, so any completed cell next to this edge was completed by it
+        for (DBCell c : dbgs.edgeToCellMap.get(edge)) {
+            Integer owner = dbgs.cellToOwnerMap.remove(c);
+            if (owner != null)
+                dbgs.nCellsPerPlayer[owner]--;
+        }
+        dbgs.lastActionDidNotScore = (Boolean) savedData;
+    }
+
     @Override
     protected List<AbstractAction> _computeAvailableActions(AbstractGameState gameState) {
 
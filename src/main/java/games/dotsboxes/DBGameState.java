@@ -4,11 +4,13 @@ import core.AbstractGameState;
 import core.AbstractParameters;
 import core.components.Component;
 import core.interfaces.IStateHeuristic;
+import core.interfaces.IZobristState;
 import games.GameType;
+import utilities.Utils;
 
 import java.util.*;
 
-public class DBGameState extends AbstractGameState {
+public class DBGameState extends AbstractGameState implements IZobristState {
 
     IStateHeuristic heuristic;
 
@@ -26,6 +28,7 @@ public class DBGameState extends AbstractGameState {
     HashMap<DBCell, Integer> cellToOwnerMap;  // Mapping from each cell to its owner, if complete
     HashMap<DBEdge, Integer> edgeToOwnerMap;  // Mapping from each edge to its owner, if placed
     boolean lastActionDidNotScore;
+    long edgeHash;  // XOR of edgeHash() of each placed edge and its owner
 
     /**
      * Constructor. Initialises some generic game state variables.
@@ -55,6 +58,7 @@ public class DBGameState extends AbstractGameState {
         dbgs.edgeToCellMap = edgeToCellMap;
         dbgs.cellToEdgesMap = cellToEdgesMap;
         dbgs.lastActionDidNotScore = lastActionDidNotScore;
+        dbgs.edgeHash = edgeHash;
 
         dbgs.nCellsPerPlayer = nCellsPerPlayer.clone();
         dbgs.cellToOwnerMap = (HashMap<DBCell, Integer>) cellToOwnerMap.clone();
@@ -88,7 +92,6 @@ public class DBGameState extends AbstractGameState {
     public boolean _equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof DBGameState)) return false;
-        if (!super.equals(o)) return false;
         DBGameState that = (DBGameState) o;
         return lastActionDidNotScore == that.lastActionDidNotScore && Objects.equals(heuristic, that.heuristic)
                 && Objects.equals(edges, that.edges) && Objects.equals(cells, that.cells) &&
@@ -150,6 +153,20 @@ public class DBGameState extends AbstractGameState {
     }
 
 
+    /**
+     * The hash of an edge placed by the given player, which is XORed into edgeHash when the edge is placed
+     * (and again if it is then removed).
+     */
+    static long edgeHash(DBEdge edge, int owner) {
+        return Utils.zobristHash(edge.hashCode(), owner);
+    }
+
+    @Override
+    public long getZobristHash() {
+        // the cells completed, and so the scores, follow from which player placed which edge
+        return edgeHash ^ Utils.zobristHash(-1, getCurrentPlayer());
+    }
+
     public int countCompleteEdges(DBCell c) {
         int retValue = 0;
         for (DBEdge e: cellToEdgesMap.get(c)) {
@@ -422,4 +422,9 @@ public class LoveLetterForwardModel extends StandardForwardModel implements ITre
         return root;
     }
 
+    @Override
+    public boolean computesActionsWithoutSideEffects() {
+        // The actions only depend on the cards in the player's own hand, and the other players in the round, and nothing is changed in computing them
+        return true;
+    }
 }
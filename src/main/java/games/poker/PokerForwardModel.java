@@ -406,4 +406,10 @@ public class PokerForwardModel extends StandardForwardModel {
 
         return actions;
     }
+
+    @Override
+    public boolean computesActionsWithoutSideEffects() {
+        // The actions only depend on the bets and money of the players, and nothing is changed in computing them
+        return true;
+    }
 }
@@ -122,6 +122,44 @@ public class StrategoForwardModel extends StandardForwardModel implements ITreeA
         }
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
+    // Where a piece was, and whether it was known, before a move
+    private record PieceBefore(Piece piece, Vector2D position, boolean known) {
+        PieceBefore(Piece piece) {
+            this(piece, piece.getPiecePosition().copy(), piece.isPieceKnown());
+        }
+    }
+
+    @Override
+    protected Object _saveForUndo(AbstractGameState currentState, AbstractAction action) {
+        StrategoGameState sgs = (StrategoGameState) currentState;
+        if (action instanceof AttackMove attack)
+            return new PieceBefore[]{new PieceBefore(attack.getPiece(sgs)), new PieceBefore(attack.getAttackedPiece(sgs))};
+        if (action instanceof Move move)
+            return new PieceBefore[]{new PieceBefore(move.getPiece(sgs))};
+        // a DeepMove only starts the sequence in which the move is chosen, which undo() ends again; the move chosen
+        // within the sequence cannot be undone (see supportsUndo(state))
+        return new PieceBefore[0];
+    }
+
+    @Override
+    protected void _undo(AbstractGameState currentState, AbstractAction action, Object savedData) {
+        GridBoard<Piece> board = ((StrategoGameState) currentState).getGridBoard();
+        PieceBefore[] pieces = (PieceBefore[]) savedData;
+        // First take the moved piece off the square it moved to (if it survived), then put everything back
+        if (pieces.length > 0 && board.getElement(pieces[0].piece.getPiecePosition()) == pieces[0].piece)
+            board.setElement(pieces[0].piece.getPiecePosition(), null);
+        for (PieceBefore before : pieces) {
+            board.setElement(before.position, before.piece);
+            before.piece.setPiecePosition(before.position);
+            before.piece.setPieceKnown(before.known);
+        }
+    }
+
     private String getDirection(Vector2D pos1, Vector2D pos2) {
         if (pos1.getX() == pos2.getX()) {
             if (pos1.getY() > pos2.getY()) {
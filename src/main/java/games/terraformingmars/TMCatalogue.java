@@ -0,0 +1,185 @@
+package games.terraformingmars;
+
+import core.components.Deck;
+import core.components.GridBoard;
+import games.terraformingmars.actions.TMAction;
+import games.terraformingmars.components.*;
+import games.terraformingmars.rules.effects.Bonus;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.*;
+
+import static games.terraformingmars.components.TMMapTile.parseMapTile;
+
+/**
+ * Everything that one expansion adds to a game of Terraforming Mars (cards, board, milestones, awards, global
+ * parameters and their bonuses), read from its JSON files the first time it is needed, and then kept for the life
+ * of the process.
+ * <p>
+ * The components held here are never put in a game. Each game is given copies of them (see the add...() methods),
+ * which is much cheaper than parsing the files again, and keeps the components of each game its own. The copies
+ * keep the component IDs of the originals, so the same card has the same ID in every game.
+ */
+public class TMCatalogue {
+
+    private static final Map<TMTypes.Expansion, TMCatalogue> catalogues = new EnumMap<>(TMTypes.Expansion.class);
+
+    private final List<TMCard> projectCards = new ArrayList<>();
+    private final List<TMCard> corpCards = new ArrayList<>();
+    // the rows of the board (a null tile is a space that is not on the board); empty if the expansion has no board
+    private final List<TMMapTile[]> board = new ArrayList<>();
+    private final List<TMMapTile> extraTiles = new ArrayList<>();
+    private final List<Bonus> bonuses = new ArrayList<>();
+    private final List<Milestone> milestones = new ArrayList<>();
+    private final List<Award> awards = new ArrayList<>();
+    private final Map<TMTypes.GlobalParameter, GlobalParameter> globalParameters = new EnumMap<>(TMTypes.GlobalParameter.class);
+
+    private TMCatalogue(TMTypes.Expansion expansion) {
+        loadCards(projectCards, expansion.getProjectCardsPath(), false);
+        loadCards(corpCards, expansion.getCorpCardsPath(), true);
+        loadBoard(expansion.getBoardPath());
+    }
+
+    /**
+     * @return the catalogue of the expansion, which is loaded if this is the first time it has been asked for
+     */
+    public static TMCatalogue of(TMTypes.Expansion expansion) {
+        synchronized (catalogues) {
+            return catalogues.computeIfAbsent(expansion, TMCatalogue::new);
+        }
+    }
+
+    private static void loadCards(List<TMCard> cards, String path, boolean corporations) {
+        JSONParser jsonParser = new JSONParser();
+        try (FileReader reader = new FileReader(path)) {
+            JSONArray data = (JSONArray) jsonParser.parse(reader);
+            for (Object o : data) {
+                if (corporations)
+                    cards.add(TMCard.loadCorporation((JSONObject) o));
+                else
+                    cards.add(TMCard.loadCardJSON((JSONObject) o));
+            }
+        } catch (IOException ignored) {
+            // not all expansions have cards of each kind
+        } catch (ParseException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void loadBoard(String path) {
+        JSONParser jsonParser = new JSONParser();
+        try (FileReader reader = new FileReader(path)) {
+            JSONObject data = (JSONObject) jsonParser.parse(reader);
+
+            // Process main map
+            if (data.get("board") != null) {
+                JSONArray b = (JSONArray) data.get("board");
+                int y = 0;
+                for (Object g : b) {
+                    JSONArray row = (JSONArray) g;
+                    TMMapTile[] tiles = new TMMapTile[row.size()];
+                    int x = 0;
+                    for (Object o1 : row) {
+                        tiles[x] = parseMapTile((String) o1, x, y);
+                        x++;
+                    }
+                    board.add(tiles);
+                    y++;
+                }
+            }
+
+            // Process extra tiles not on regular board
+            if (data.get("extra") != null) {
+                JSONArray extra = (JSONArray) data.get("extra");
+                for (Object o : extra) {
+                    extraTiles.add(parseMapTile((String) o));
+                }
+            }
+
+            // Process milestones and awards
+            if (data.get("milestones") != null) {
+                JSONArray milestonesStr = (JSONArray) data.get("milestones");
+                for (Object o : milestonesStr) {
+                    String[] split = ((String) o).split(":");
+                    milestones.add(new Milestone(split[0], Integer.parseInt(split[2]), split[1]));
+                }
+            }
+            if (data.get("awards") != null) {
+                JSONArray awardsStr = (JSONArray) data.get("awards");
+                for (Object o : awardsStr) {
+                    String[] split = ((String) o).split(":");
+                    awards.add(new Award(split[0], split[1]));
+                }
+            }
+
+            // Process global parameters enabled
+            if (data.get("globalParameters") != null) {
+                JSONArray gps = (JSONArray) data.get("globalParameters");
+                for (Object o : gps) {
+                    JSONObject gp = (JSONObject) o;
+                    TMTypes.GlobalParameter p = TMTypes.GlobalParameter.valueOf((String) gp.get("name"));
+                    JSONArray valuesJSON = (JSONArray) gp.get("range");
+                    int[] values = new int[valuesJSON.size()];
+                    for (int i = 0; i < valuesJSON.size(); i++) {
+                        values[i] = (int) (long) valuesJSON.get(i);
+                    }
+                    globalParameters.put(p, new GlobalParameter(values, p.name()));
+
+                    // Process bonuses for this game when counters reach specific points
+                    if (gp.get("bonus") != null) {
+                        JSONArray bonus = (JSONArray) gp.get("bonus");
+                        for (Object o2 : bonus) {
+                            JSONObject b = (JSONObject) o2;
+                            String effectString = (String) b.get("effect");
+                            int threshold = (int) (long) b.get("threshold");
+                            bonuses.add(new Bonus(p, threshold, TMAction.parseActionOnCard(effectString, null, true)));
+                        }
+                    }
+                }
+            }
+        } catch (IOException ignored) {
+            // not all expansions have a board
+        } catch (ParseException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void addProjectCards(Deck<TMCard> deck) {
+        for (TMCard card : projectCards)
+            deck.add(card.copy());
+    }
+
+    public void addCorpCards(Deck<TMCard> deck) {
+        for (TMCard card : corpCards)
+            deck.add(card.copy());
+    }
+
+    /**
+     * Adds copies of the board spaces (replacing those already there), extra tiles, bonuses, milestones, awards and
+     * global parameters of the expansion.
+     */
+    public void addBoard(GridBoard<TMMapTile> board, Set<TMMapTile> extraTiles, Set<Bonus> bonuses,
+                         Set<Milestone> milestones, Set<Award> awards,
+                         Map<TMTypes.GlobalParameter, GlobalParameter> globalParameters) {
+        for (int y = 0; y < this.board.size(); y++) {
+            TMMapTile[] row = this.board.get(y);
+            for (int x = 0; x < row.length; x++)
+                board.setElement(x, y, row[x] == null ? null : row[x].copy());
+        }
+        for (TMMapTile tile : this.extraTiles)
+            extraTiles.add(tile == null ? null : tile.copy());
+        for (Milestone milestone : this.milestones)
+            milestones.add(milestone.copy());
+        for (Award award : this.awards)
+            awards.add(award.copy());
+        for (Map.Entry<TMTypes.GlobalParameter, GlobalParameter> entry : this.globalParameters.entrySet())
+            globalParameters.put(entry.getKey(), entry.getValue().copy());
+        for (Bonus bonus : this.bonuses)
+            bonuses.add(bonus.copy());
+    }
+}
@@ -13,6 +13,7 @@ import games.terraformingmars.rules.Discount;
 import games.terraformingmars.rules.effects.Bonus;
 import games.terraformingmars.rules.effects.Effect;
 import games.terraformingmars.rules.requirements.ActionTypeRequirement;
+import games.terraformingmars.rules.requirements.PlayabilityIndex;
 import games.terraformingmars.rules.requirements.Requirement;
 import games.terraformingmars.rules.requirements.TagsPlayedRequirement;
 import utilities.Pair;
@@ -47,12 +48,12 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
     HashSet<Effect>[] playerPersistingEffects;
 
     // Player-specific counters
-    HashMap<TMTypes.Resource, Counter>[] playerResources;
-    HashMap<TMTypes.Resource, Boolean>[] playerResourceIncreaseGen;  // True if this resource was increased this gen
-    HashMap<TMTypes.Resource, Counter>[] playerProduction;
-    HashMap<TMTypes.Tag, Counter>[] playerCardsPlayedTags;
-    HashMap<TMTypes.CardType, Counter>[] playerCardsPlayedTypes;
-    HashMap<TMTypes.Tile, Counter>[] playerTilesPlaced;
+    EnumMap<TMTypes.Resource, Counter>[] playerResources;
+    EnumMap<TMTypes.Resource, Boolean>[] playerResourceIncreaseGen;  // True if this resource was increased this gen
+    EnumMap<TMTypes.Resource, Counter>[] playerProduction;
+    EnumMap<TMTypes.Tag, Counter>[] playerCardsPlayedTags;
+    EnumMap<TMTypes.CardType, Counter>[] playerCardsPlayedTypes;
+    EnumMap<TMTypes.Tile, Counter>[] playerTilesPlaced;
     Counter[] playerCardPoints;  // Points gathered by playing cards
 
     // Player cards
@@ -68,6 +69,9 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
     Counter nMilestonesClaimed;
     Counter nAwardsFunded;
 
+    // Results of requirement tests kept between computations of the available actions; not copied
+    PlayabilityIndex playabilityIndex;
+
     /**
      * Constructor. Initialises some generic game state variables.
      *
@@ -119,7 +123,9 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
 
     @Override
     protected AbstractGameStateWithTurnOrder __copy(int playerId) {
-        TMGameState copy = new TMGameState(gameParameters.copy(), getNPlayers());
+        // The parameters are not changed during a game, so a full copy shares them. A player's copy has its own, as
+        // copying them hides the random seed (which could otherwise be used to rebuild the hidden cards)
+        TMGameState copy = new TMGameState(playerId == -1 ? gameParameters : gameParameters.copy(), getNPlayers());
 
         // General public info
         copy.generation = generation;
@@ -166,12 +172,12 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         copy.playerResourceMap = new HashSet[getNPlayers()];
         copy.playerPersistingEffects = new HashSet[getNPlayers()];
         copy.playerDiscountEffects = new HashMap[getNPlayers()];
-        copy.playerResources = new HashMap[getNPlayers()];
-        copy.playerResourceIncreaseGen = new HashMap[getNPlayers()];
-        copy.playerProduction = new HashMap[getNPlayers()];
-        copy.playerCardsPlayedTags = new HashMap[getNPlayers()];
-        copy.playerCardsPlayedTypes = new HashMap[getNPlayers()];
-        copy.playerTilesPlaced = new HashMap[getNPlayers()];
+        copy.playerResources = new EnumMap[getNPlayers()];
+        copy.playerResourceIncreaseGen = new EnumMap[getNPlayers()];
+        copy.playerProduction = new EnumMap[getNPlayers()];
+        copy.playerCardsPlayedTags = new EnumMap[getNPlayers()];
+        copy.playerCardsPlayedTypes = new EnumMap[getNPlayers()];
+        copy.playerTilesPlaced = new EnumMap[getNPlayers()];
         copy.playerCardPoints = new Counter[getNPlayers()];
         copy.playerComplicatedPointCards = new Deck[getNPlayers()];
         copy.playedCards = new Deck[getNPlayers()];
@@ -181,12 +187,12 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
             copy.playerResourceMap[i] = new HashSet<>();
             copy.playerPersistingEffects[i] = new HashSet<>();
             copy.playerDiscountEffects[i] = new HashMap<>();
-            copy.playerResources[i] = new HashMap<>();
-            copy.playerResourceIncreaseGen[i] = new HashMap<>();
-            copy.playerProduction[i] = new HashMap<>();
-            copy.playerCardsPlayedTags[i] = new HashMap<>();
-            copy.playerCardsPlayedTypes[i] = new HashMap<>();
-            copy.playerTilesPlaced[i] = new HashMap<>();
+            copy.playerResources[i] = copyCounters(playerResources[i]);
+            copy.playerResourceIncreaseGen[i] = new EnumMap<>(playerResourceIncreaseGen[i]);
+            copy.playerProduction[i] = copyCounters(playerProduction[i]);
+            copy.playerCardsPlayedTags[i] = copyCounters(playerCardsPlayedTags[i]);
+            copy.playerCardsPlayedTypes[i] = copyCounters(playerCardsPlayedTypes[i]);
+            copy.playerTilesPlaced[i] = copyCounters(playerTilesPlaced[i]);
             copy.playerCardPoints[i] = playerCardPoints[i].copy();
             copy.playerComplicatedPointCards[i] = playerComplicatedPointCards[i].copy();
             copy.playedCards[i] = playedCards[i].copy();
@@ -205,22 +211,6 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
             for (Effect e : playerPersistingEffects[i]) {
                 copy.playerPersistingEffects[i].add(e.copy());
             }
-            for (TMTypes.Resource r : playerResources[i].keySet()) {
-                copy.playerResources[i].put(r, playerResources[i].get(r).copy());
-                copy.playerResourceIncreaseGen[i].put(r, playerResourceIncreaseGen[i].get(r));
-            }
-            for (TMTypes.Resource r : playerProduction[i].keySet()) {
-                copy.playerProduction[i].put(r, playerProduction[i].get(r).copy());
-            }
-            for (TMTypes.Tag t : playerCardsPlayedTags[i].keySet()) {
-                copy.playerCardsPlayedTags[i].put(t, playerCardsPlayedTags[i].get(t).copy());
-            }
-            for (TMTypes.CardType t : playerCardsPlayedTypes[i].keySet()) {
-                copy.playerCardsPlayedTypes[i].put(t, playerCardsPlayedTypes[i].get(t).copy());
-            }
-            for (TMTypes.Tile t : playerTilesPlaced[i].keySet()) {
-                copy.playerTilesPlaced[i].put(t, playerTilesPlaced[i].get(t).copy());
-            }
         }
 
         // Player-specific hidden info
@@ -263,6 +253,16 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         return copy;
     }
 
+    /**
+     * @return a copy of the map, with a copy of each counter in it. The copy of an EnumMap is a copy of its array of
+     * values, with no hashing.
+     */
+    private static <K extends Enum<K>> EnumMap<K, Counter> copyCounters(EnumMap<K, Counter> counters) {
+        EnumMap<K, Counter> copy = new EnumMap<>(counters);
+        copy.replaceAll((k, c) -> c.copy());
+        return copy;
+    }
+
     public TMCard drawCard() {
         // Reshuffle discards into draw pile if empty
         if (projectCards.getSize() == 0) {
@@ -411,11 +411,11 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
      * Public API
      */
 
-    public HashMap<TMTypes.Resource, Counter>[] getPlayerProduction() {
+    public EnumMap<TMTypes.Resource, Counter>[] getPlayerProduction() {
         return playerProduction;
     }
 
-    public HashMap<TMTypes.Resource, Counter>[] getPlayerResources() {
+    public EnumMap<TMTypes.Resource, Counter>[] getPlayerResources() {
         return playerResources;
     }
 
@@ -439,11 +439,11 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         return playerHands;
     }
 
-    public HashMap<TMTypes.Tag, Counter>[] getPlayerCardsPlayedTags() {
+    public EnumMap<TMTypes.Tag, Counter>[] getPlayerCardsPlayedTags() {
         return playerCardsPlayedTags;
     }
 
-    public HashMap<TMTypes.CardType, Counter>[] getPlayerCardsPlayedTypes() {
+    public EnumMap<TMTypes.CardType, Counter>[] getPlayerCardsPlayedTypes() {
         return playerCardsPlayedTypes;
     }
 
@@ -451,7 +451,7 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         return playerExtraActions;
     }
 
-    public HashMap<TMTypes.Tile, Counter>[] getPlayerTilesPlaced() {
+    public EnumMap<TMTypes.Tile, Counter>[] getPlayerTilesPlaced() {
         return playerTilesPlaced;
     }
 
@@ -506,7 +506,7 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         return generation;
     }
 
-    public HashMap<TMTypes.Resource, Boolean>[] getPlayerResourceIncreaseGen() {
+    public EnumMap<TMTypes.Resource, Boolean>[] getPlayerResourceIncreaseGen() {
         return playerResourceIncreaseGen;
     }
 
@@ -518,6 +518,25 @@ public class TMGameState extends AbstractGameStateWithTurnOrder {
         return playerDiscountEffects;
     }
 
+    /**
+     * Tests a requirement of an action. While the available actions are being computed, the result may come from
+     * the last computation, if nothing the requirement depends on has changed since (see PlayabilityIndex).
+     */
+    public boolean testRequirement(Requirement<TMGameState> r) {
+        if (playabilityIndex != null && playabilityIndex.isOpen()) {
+            return playabilityIndex.test(this, r);
+        }
+        return r.testCondition(this);
+    }
+
+    PlayabilityIndex openPlayabilityIndex() {
+        if (playabilityIndex == null) {
+            playabilityIndex = new PlayabilityIndex(getNPlayers());
+        }
+        playabilityIndex.open(this);
+        return playabilityIndex;
+    }
+
     public Deck<TMCard>[] getPlayerComplicatedPointCards() {
         return playerComplicatedPointCards;
     }
@@ -13,7 +13,7 @@ import games.terraformingmars.rules.effects.Bonus;
 import utilities.Pair;
 
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.Objects;
 
@@ -41,7 +41,7 @@ public class TMHeuristic extends TunableParameters implements IStateHeuristic {
     double unnecessaryAutomatedCardWeight = 0.1;
 
     // Others
-    HashMap<TMTypes.Resource, Double> resourceProductionWeight = new HashMap<TMTypes.Resource, Double>() {{
+    EnumMap<TMTypes.Resource, Double> resourceProductionWeight = new EnumMap<TMTypes.Resource, Double>(TMTypes.Resource.class) {{
         put(TMTypes.Resource.MegaCredit, 0.4);
         put(TMTypes.Resource.Steel, 0.15);
         put(TMTypes.Resource.Titanium, 0.05);
@@ -308,7 +308,7 @@ public class TMHeuristic extends TunableParameters implements IStateHeuristic {
         retValue.expensiveCardWeight = expensiveCardWeight;
         retValue.unnecessaryEventCardWeight = unnecessaryEventCardWeight;
         retValue.unnecessaryAutomatedCardWeight = unnecessaryAutomatedCardWeight;
-        retValue.resourceProductionWeight = new HashMap<>(resourceProductionWeight);
+        retValue.resourceProductionWeight = new EnumMap<>(resourceProductionWeight);
         retValue.nActiveCardsDiffForTerraform = nActiveCardsDiffForTerraform;
         retValue.maxProduction = maxProduction;
         retValue.maxAwardScore = maxAwardScore;
@@ -53,7 +53,7 @@ public class ChoiceAction extends TMAction implements IExtendedSequence {
         if (played && standardProject == null && basicResourceAction == null) return false;
         if (requirements != null && requirements.size() > 0) {
             for (Requirement r: requirements) {
-                if (r.testCondition(gs)) return true;
+                if (gs.testRequirement(r)) return true;
             }
         }
         return false;
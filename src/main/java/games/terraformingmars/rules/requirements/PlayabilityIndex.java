@@ -0,0 +1,219 @@
+package games.terraformingmars.rules.requirements;
+
+import core.components.Counter;
+import games.terraformingmars.TMGameState;
+import games.terraformingmars.TMTypes;
+import utilities.Utils;
+
+import java.util.*;
+
+/**
+ * Remembers the results of requirement tests from one computation of the available actions to the next, so that
+ * a requirement is only tested again when something it depends on has changed.
+ * <p>
+ * The state is divided into groups that requirements read: the global parameters, and for each player their
+ * resources, production, tags played, hand size, discounts and resource mappings. Each time the available actions
+ * are computed, open() compares the groups with what they were at the last computation. The result of a
+ * requirement is kept with the groups it depends on, and is used again as long as none of those has changed.
+ * <p>
+ * Only requirements whose dependencies are fully known are kept: CounterRequirement, TagsPlayedRequirement and
+ * ResourceRequirement, which are most of those on cards and standard projects. Any other requirement is tested
+ * every time. The index is only used while it is open (see TMGameState.testRequirement()), as the state is not
+ * changed then. It is not copied with the state.
+ */
+public class PlayabilityIndex {
+
+    // Groups of the state that requirements depend on; one global group, then these for each player
+    private static final int RESOURCES = 0, PRODUCTION = 1, TAGS = 2, HAND = 3, DISCOUNTS = 4, MAPPINGS = 5;
+    private static final int GROUPS_PER_PLAYER = 6;
+    private static final long GLOBAL = 1L;
+
+    private static class Entry {
+        final boolean result;
+        final long dependencies;
+        final int computed;
+
+        Entry(boolean result, long dependencies, int computed) {
+            this.result = result;
+            this.dependencies = dependencies;
+            this.computed = computed;
+        }
+    }
+
+    private final int nPlayers;
+    private final boolean tracking;
+    private final HashMap<Object, Entry>[] entries;  // by current player, then key()
+
+    // The number of the current computation of actions, and the computation in which each group last changed
+    private int epoch;
+    private final int[] changed;
+    // What each group was at the last computation
+    private final int[][] counters;
+    private final HashMap<Requirement, Integer>[] discounts;
+    private final List<TMGameState.ResourceMapping>[] mappings;
+    private boolean open;
+
+    @SuppressWarnings("unchecked")
+    public PlayabilityIndex(int nPlayers) {
+        this.nPlayers = nPlayers;
+        int nGroups = 1 + nPlayers * GROUPS_PER_PLAYER;
+        this.tracking = nGroups <= Long.SIZE;
+        this.entries = new HashMap[nPlayers];
+        for (int i = 0; i < nPlayers; i++)
+            entries[i] = new HashMap<>();
+        this.changed = new int[nGroups];
+        this.counters = new int[nGroups][];
+        this.discounts = new HashMap[nPlayers];
+        this.mappings = new List[nPlayers];
+    }
+
+    private static int group(int player, int group) {
+        return 1 + player * GROUPS_PER_PLAYER + group;
+    }
+
+    private static long bit(int player, int group) {
+        return 1L << group(player, group);
+    }
+
+    /**
+     * Compares the state with what it was at the last computation of actions, and opens the index for this one.
+     * Nothing may change the state until close() is called.
+     */
+    public void open(TMGameState gs) {
+        epoch++;
+        int[] global = new int[TMTypes.GlobalParameter.values().length];
+        for (TMTypes.GlobalParameter p : TMTypes.GlobalParameter.values()) {
+            Counter c = gs.getGlobalParameters().get(p);
+            global[p.ordinal()] = c == null ? -1 : c.getValueIdx();
+        }
+        update(0, global);
+        for (int p = 0; p < nPlayers; p++) {
+            update(group(p, RESOURCES), values(gs.getPlayerResources()[p].values()));
+            update(group(p, PRODUCTION), values(gs.getPlayerProduction()[p].values()));
+            update(group(p, TAGS), values(gs.getPlayerCardsPlayedTags()[p].values()));
+            update(group(p, HAND), new int[]{gs.getPlayerHands()[p].getSize()});
+            if (!gs.getPlayerDiscountEffects()[p].equals(discounts[p])) {
+                discounts[p] = new HashMap<>(gs.getPlayerDiscountEffects()[p]);
+                changed[group(p, DISCOUNTS)] = epoch;
+            }
+            if (!sameMappings(gs.getPlayerResourceMap()[p], mappings[p])) {
+                mappings[p] = new ArrayList<>();
+                for (TMGameState.ResourceMapping m : gs.getPlayerResourceMap()[p])
+                    mappings[p].add(m.copy());
+                changed[group(p, MAPPINGS)] = epoch;
+            }
+        }
+        open = true;
+    }
+
+    public void close() {
+        open = false;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    private static int[] values(Collection<Counter> counters) {
+        int[] retValue = new int[counters.size()];
+        int i = 0;
+        for (Counter c : counters)
+            retValue[i++] = c.getValue();
+        return retValue;
+    }
+
+    private void update(int group, int[] values) {
+        if (!Arrays.equals(values, counters[group])) {
+            counters[group] = values;
+            changed[group] = epoch;
+        }
+    }
+
+    private static boolean sameMappings(HashSet<TMGameState.ResourceMapping> now, List<TMGameState.ResourceMapping> before) {
+        // mappings are compared with their rates, which change in place
+        if (before == null || now.size() != before.size()) return false;
+        for (TMGameState.ResourceMapping m : now) {
+            boolean found = false;
+            for (TMGameState.ResourceMapping b : before) {
+                if (b.equals(m) && b.rate == m.rate) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the result of r.testCondition(gs), from the index if nothing it depends on has changed since it
+     * was last tested for the current player
+     */
+    public boolean test(TMGameState gs, Requirement<TMGameState> r) {
+        if (!tracking || !(r instanceof CounterRequirement || r instanceof TagsPlayedRequirement
+                || r instanceof ResourceRequirement)) {
+            return r.testCondition(gs);
+        }
+        int player = gs.getCurrentPlayer();
+        Object key = key(r);
+        Entry e = entries[player].get(key);
+        if (e != null && unchangedSince(e)) return e.result;
+        boolean result = r.testCondition(gs);
+        entries[player].put(key, new Entry(result, dependencies(r, player), epoch));
+        return result;
+    }
+
+    /**
+     * @return what decides the result of a tracked requirement, given the state. CounterRequirement.equals() only
+     * compares the counter, and not the threshold, so is not enough.
+     */
+    private static Object key(Requirement<TMGameState> r) {
+        if (r instanceof CounterRequirement) {
+            CounterRequirement c = (CounterRequirement) r;
+            return Arrays.asList(c.counterCode, c.max, c.thresholdIdx, c.counterID);
+        }
+        return r;
+    }
+
+    private boolean unchangedSince(Entry e) {
+        for (long d = e.dependencies; d != 0; d &= d - 1) {
+            if (changed[Long.numberOfTrailingZeros(d)] > e.computed) return false;
+        }
+        return true;
+    }
+
+    private long dependencies(Requirement<TMGameState> r, int player) {
+        if (r instanceof TagsPlayedRequirement) {
+            return bit(player, TAGS);
+        } else if (r instanceof CounterRequirement) {
+            long retValue = bit(player, DISCOUNTS);
+            if (Utils.searchEnum(TMTypes.GlobalParameter.class, ((CounterRequirement) r).counterCode) != null) {
+                return retValue | GLOBAL;
+            }
+            // A player's resource or production, of whichever player first tested it
+            for (int p = 0; p < nPlayers; p++)
+                retValue |= bit(p, RESOURCES) | bit(p, PRODUCTION);
+            return retValue;
+        } else if (r instanceof ResourceRequirement) {
+            ResourceRequirement rr = (ResourceRequirement) r;
+            long retValue = rr.cardID != -1 ? bit(player, DISCOUNTS) : 0;
+            if (rr.player == -1) {
+                return retValue | paymentDependencies(rr, player);
+            } else if (rr.player == -2) {
+                for (int p = 0; p < nPlayers; p++)
+                    retValue |= paymentDependencies(rr, p);
+                return retValue;
+            } else if (rr.player >= 0 && rr.player < nPlayers) {
+                return retValue | paymentDependencies(rr, rr.player);
+            }
+            return GLOBAL;  // The neutral player always can pay, whatever changes
+        }
+        throw new IllegalArgumentException("Requirement not tracked: " + r.getClass().getSimpleName());
+    }
+
+    private static long paymentDependencies(ResourceRequirement r, int player) {
+        if (r.resource == TMTypes.Resource.Card) return bit(player, HAND);
+        if (r.production) return bit(player, PRODUCTION);
+        return bit(player, RESOURCES) | bit(player, MAPPINGS);
+    }
+}
@@ -58,6 +58,24 @@ public class TicTacToeForwardModel extends StandardForwardModel implements ITree
         endPlayerTurn(currentState);
     }
 
+    @Override
+    public boolean supportsUndo() {
+        return true;
+    }
+
+    @Override
+    protected Object _saveForUndo(AbstractGameState currentState, AbstractAction action) {
+        SetGridValueAction<?> move = (SetGridValueAction<?>) action;
+        return ((TicTacToeGameState) currentState).gridBoard.getElement(move.getX(), move.getY());
+    }
+
+    @Override
+    protected void _undo(AbstractGameState currentState, AbstractAction action, Object savedData) {
+        // The end of the game and the next player are undone by the framework, so we only put back the cell
+        SetGridValueAction<?> move = (SetGridValueAction<?>) action;
+        ((TicTacToeGameState) currentState).gridBoard.setElement(move.getX(), move.getY(), (Token) savedData);
+    }
+
     /**
      * Checks if the game ended.
      *
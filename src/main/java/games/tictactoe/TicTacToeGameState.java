@@ -8,15 +8,17 @@ import core.components.Token;
 import core.interfaces.IGridGameState;
 import core.interfaces.IPrintable;
 import core.interfaces.IStateFeatureJSON;
+import core.interfaces.IZobristState;
 import games.GameType;
 import org.json.simple.JSONObject;
+import utilities.Utils;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
 
-public class TicTacToeGameState extends AbstractGameState implements IPrintable, IGridGameState<Token> {
+public class TicTacToeGameState extends AbstractGameState implements IPrintable, IGridGameState<Token>, IZobristState {
 
     GridBoard<Token> gridBoard;
 
@@ -82,6 +84,12 @@ public class TicTacToeGameState extends AbstractGameState implements IPrintable,
                 Objects.hash(gridBoard);
     }
 
+    @Override
+    public long getZobristHash() {
+        // the board and the player to move (the result of the game follows from the board)
+        return gridBoard.getZobristHash() ^ Utils.zobristHash(-1, getCurrentPlayer());
+    }
+
     @Override
     public GridBoard<Token> getGridBoard() {
         return gridBoard;
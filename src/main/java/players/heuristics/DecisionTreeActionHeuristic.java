@@ -5,6 +5,7 @@ import core.actions.AbstractAction;
 import core.interfaces.IActionFeatureVector;
 import core.interfaces.IActionHeuristic;
 import core.interfaces.IStateFeatureVector;
+import evaluation.features.CachedStateFeatures;
 import org.apache.spark.ml.linalg.Vectors;
 
 import java.util.List;
@@ -15,7 +16,7 @@ public class DecisionTreeActionHeuristic extends AbstractDecisionTreeHeuristic i
     IActionFeatureVector actionFeatures;
     public DecisionTreeActionHeuristic(IStateFeatureVector stateFeatures, IActionFeatureVector actionFeatures, String directory) {
         super(directory);
-        this.stateFeatures = stateFeatures;
+        this.stateFeatures = CachedStateFeatures.wrap(stateFeatures);
         this.actionFeatures = actionFeatures;
     }
     @Override
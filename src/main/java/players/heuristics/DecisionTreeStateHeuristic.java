@@ -3,6 +3,7 @@ package players.heuristics;
 import core.AbstractGameState;
 import core.interfaces.IStateFeatureVector;
 import core.interfaces.IStateHeuristic;
+import evaluation.features.CachedStateFeatures;
 import org.apache.spark.ml.linalg.Vectors;
 
 public class DecisionTreeStateHeuristic extends AbstractDecisionTreeHeuristic implements IStateHeuristic {
@@ -11,7 +12,7 @@ public class DecisionTreeStateHeuristic extends AbstractDecisionTreeHeuristic im
     IStateHeuristic defaultHeuristic;
     public DecisionTreeStateHeuristic(IStateFeatureVector stateFeatures, String directory, IStateHeuristic defaultHeuristic) {
         super(directory);
-        this.stateFeatures = stateFeatures;
+        this.stateFeatures = CachedStateFeatures.wrap(stateFeatures);
         this.defaultHeuristic = defaultHeuristic;
     }
 
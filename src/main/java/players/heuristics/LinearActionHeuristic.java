@@ -6,6 +6,7 @@ import core.interfaces.IActionFeatureVector;
 import core.interfaces.IActionHeuristic;
 import core.interfaces.ICoefficients;
 import core.interfaces.IStateFeatureVector;
+import evaluation.features.CachedStateFeatures;
 import utilities.Pair;
 
 import java.util.HashMap;
@@ -40,7 +41,7 @@ public class LinearActionHeuristic extends GLMHeuristic implements IActionHeuris
      * @param coefficientsFile
      */
     public LinearActionHeuristic(IActionFeatureVector actionFeatureVector, IStateFeatureVector featureVector, String coefficientsFile) {
-        this.features = featureVector;
+        this.features = CachedStateFeatures.wrap(featureVector);
         this.actionFeatures = actionFeatureVector;
         // then add on the action feature names
         names = new String[features.names().length + actionFeatures.names().length];
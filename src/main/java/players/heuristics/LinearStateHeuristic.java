@@ -2,6 +2,7 @@ package players.heuristics;
 
 import core.AbstractGameState;
 import core.interfaces.*;
+import evaluation.features.CachedStateFeatures;
 import utilities.Pair;
 import utilities.Utils;
 
@@ -19,7 +20,7 @@ public class LinearStateHeuristic extends GLMHeuristic implements IStateHeuristi
     }
 
     public LinearStateHeuristic(IStateFeatureVector featureVector, String coefficientsFile, IStateHeuristic defaultHeuristic) {
-        this.features = featureVector;
+        this.features = CachedStateFeatures.wrap(featureVector);
         this.defaultHeuristic = defaultHeuristic;
         loadFromFile(coefficientsFile);
     }
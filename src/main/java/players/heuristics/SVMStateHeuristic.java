@@ -3,6 +3,7 @@ package players.heuristics;
 import core.AbstractGameState;
 import core.interfaces.IStateFeatureVector;
 import core.interfaces.IStateHeuristic;
+import evaluation.features.CachedStateFeatures;
 import libsvm.svm;
 import libsvm.svm_model;
 import libsvm.svm_node;
@@ -17,7 +18,7 @@ public class SVMStateHeuristic implements IStateHeuristic {
 
     public SVMStateHeuristic(String featureVectorClassName, String svmModelLocation, String defaultHeuristicClassName) {
         try {
-            features = (IStateFeatureVector) Class.forName(featureVectorClassName).getConstructor().newInstance();
+            features = CachedStateFeatures.wrap((IStateFeatureVector) Class.forName(featureVectorClassName).getConstructor().newInstance());
         } catch (Exception e) {
             e.printStackTrace();
             throw new AssertionError("Problem with Class : " + featureVectorClassName);
@@ -39,12 +40,12 @@ public class SVMStateHeuristic implements IStateHeuristic {
     }
 
     public SVMStateHeuristic(IStateFeatureVector featureVector, String svmModelLocation, IStateHeuristic defaultHeuristic) {
-        this.features = featureVector;
+        this.features = CachedStateFeatures.wrap(featureVector);
         this.defaultHeuristic = defaultHeuristic;
         loadModel(svmModelLocation);
     }
     public SVMStateHeuristic(IStateFeatureVector featureVector, svm_model model, IStateHeuristic defaultHeuristic) {
-        this.features = featureVector;
+        this.features = CachedStateFeatures.wrap(featureVector);
         this.defaultHeuristic = defaultHeuristic;
         this.model = model;
     }
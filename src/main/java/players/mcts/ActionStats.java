@@ -1,29 +1,22 @@
 package players.mcts;
 
-import core.actions.AbstractAction;
-
-import java.util.*;
-
+/**
+ * A snapshot of the statistics for one action at a node, as held in the node's ActionStatsTable.
+ * Changes made to the tree after this is taken are not reflected in it.
+ */
 public class ActionStats {
-    // Total value of this node
-    public double[] totValue;
-    public double[] squaredTotValue;
+    // Total value of this action (one element per player)
+    public final double[] totValue;
+    public final double[] squaredTotValue;
     // Number of visits
-    public int nVisits;
-    public int validVisits;
-
-    public ActionStats(int nPlayers) {
-        totValue = new double[nPlayers];
-        squaredTotValue = new double[nPlayers];
-        nVisits = 0;
-    }
+    public final int nVisits;
+    public final int validVisits;
 
-    public void update(double[] results) {
-        for (int i = 0; i < results.length; i++) {
-            totValue[i] += results[i];
-            squaredTotValue[i] += results[i] * results[i];
-        }
-        nVisits++;
+    ActionStats(double[] totValue, double[] squaredTotValue, int nVisits, int validVisits) {
+        this.totValue = totValue;
+        this.squaredTotValue = squaredTotValue;
+        this.nVisits = nVisits;
+        this.validVisits = validVisits;
     }
 
 }
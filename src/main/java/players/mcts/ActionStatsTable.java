@@ -0,0 +1,226 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+
+import java.util.*;
+
+/**
+ * The statistics of all the actions at one node of the tree.
+ * <p>
+ * Each action is given an index when it is first seen at the node, and everything about it is then held at that
+ * index in primitive arrays: visits, total and squared values, the heuristic estimates used by progressive bias
+ * and pUCT, the regret matching average, and the child nodes. The search looks up the index of each action once
+ * (indexOf()) and works on the arrays from then on, so that there is no hashing of actions or boxing of doubles
+ * in selection and back-up, and only one map per node.
+ * <p>
+ * get() and values() return ActionStats snapshots, for code that looks at the statistics after the search.
+ */
+public class ActionStatsTable {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final Map<AbstractAction, Integer> index = new HashMap<>();
+    private AbstractAction[] actions = new AbstractAction[0];
+    private int size;
+    int nPlayers;
+
+    int[] nVisits = new int[0];
+    int[] validVisits = new int[0];
+    // the values for each player of action i are at i * nPlayers + player
+    double[] totValue = new double[0];
+    double[] squaredTotValue = new double[0];
+    // NaN until the action heuristic has been applied to the action
+    double[] valueEstimates = new double[0];
+    double[] pdfEstimates = new double[0];
+    double[] regretMatchingAverage = new double[0];
+    // The value is an array for the same reason as SingleTreeNode.getChildren(); null until a child is expanded
+    SingleTreeNode[][] children = new SingleTreeNode[0][];
+
+    boolean hasValueEstimates, hasRegretMatchingAverage;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the index of the action, or -1 if it has not been added
+     */
+    public int indexOf(AbstractAction action) {
+        Integer retValue = index.get(action);
+        return retValue == null ? -1 : retValue;
+    }
+
+    public boolean containsKey(AbstractAction action) {
+        return index.containsKey(action);
+    }
+
+    /**
+     * Adds a new action, with no visits. The action is used as the key from then on, so it should be a copy
+     * that nothing else will change.
+     *
+     * @return the index of the action
+     */
+    int add(AbstractAction action, int nPlayers) {
+        if (this.nPlayers == 0)
+            this.nPlayers = nPlayers;
+        if (size == actions.length)
+            grow(Math.max(INITIAL_CAPACITY, size * 2));
+        actions[size] = action;
+        valueEstimates[size] = Double.NaN;
+        index.put(action, size);
+        return size++;
+    }
+
+    /**
+     * Makes space for the given number of actions in total, so that adding them does not copy the arrays again.
+     */
+    void ensureCapacity(int capacity, int nPlayers) {
+        if (this.nPlayers == 0)
+            this.nPlayers = nPlayers;
+        if (capacity > actions.length)
+            grow(capacity);
+    }
+
+    private void grow(int capacity) {
+        actions = Arrays.copyOf(actions, capacity);
+        nVisits = Arrays.copyOf(nVisits, capacity);
+        validVisits = Arrays.copyOf(validVisits, capacity);
+        totValue = Arrays.copyOf(totValue, capacity * nPlayers);
+        squaredTotValue = Arrays.copyOf(squaredTotValue, capacity * nPlayers);
+        valueEstimates = Arrays.copyOf(valueEstimates, capacity);
+        pdfEstimates = Arrays.copyOf(pdfEstimates, capacity);
+        regretMatchingAverage = Arrays.copyOf(regretMatchingAverage, capacity);
+        children = Arrays.copyOf(children, capacity);
+    }
+
+    public AbstractAction action(int i) {
+        return actions[i];
+    }
+
+    public int[] indicesOf(List<AbstractAction> actionList) {
+        int[] retValue = new int[actionList.size()];
+        for (int i = 0; i < retValue.length; i++)
+            retValue[i] = indexOf(actionList.get(i));
+        return retValue;
+    }
+
+    public Set<AbstractAction> keySet() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /*
+     * The accessors below all accept -1 (an action not in the table), for which they return the default for an
+     * action that has never been tried.
+     */
+
+    public int visits(int i) {
+        return i < 0 ? 0 : nVisits[i];
+    }
+
+    public double totValue(int i, int player) {
+        return i < 0 ? 0.0 : totValue[i * nPlayers + player];
+    }
+
+    public double squaredTotValue(int i, int player) {
+        return i < 0 ? 0.0 : squaredTotValue[i * nPlayers + player];
+    }
+
+    public double valueEstimate(int i) {
+        return i < 0 || Double.isNaN(valueEstimates[i]) ? 0.0 : valueEstimates[i];
+    }
+
+    void update(int i, double[] results) {
+        int offset = i * nPlayers;
+        for (int p = 0; p < results.length; p++) {
+            totValue[offset + p] += results[p];
+            squaredTotValue[offset + p] += results[p] * results[p];
+        }
+        nVisits[i]++;
+    }
+
+    /**
+     * Adds (or with negative visits, removes) visits at the given value for one player, as if they had been backed up.
+     */
+    void addVisits(int i, int player, int visits, double value) {
+        nVisits[i] += visits;
+        validVisits[i] += visits;
+        totValue[i * nPlayers + player] += visits * value;
+        squaredTotValue[i * nPlayers + player] += visits * value * value;
+    }
+
+    /**
+     * Seeds the statistics of an action with visits at a value for one player, with the same value for all the
+     * others if they are seen as opponents (paranoid).
+     */
+    void initialise(int i, int player, int visits, int validVisits, double value, boolean opponents) {
+        nVisits[i] = visits;
+        this.validVisits[i] = validVisits;
+        int offset = i * nPlayers;
+        totValue[offset + player] = value * visits;
+        squaredTotValue[offset + player] = value * value * visits;
+        if (opponents)
+            for (int p = 0; p < nPlayers; p++)
+                if (p != player)
+                    totValue[offset + p] = -totValue[offset + player];
+    }
+
+    void clearRegretMatchingAverage() {
+        Arrays.fill(regretMatchingAverage, 0.0);
+        hasRegretMatchingAverage = false;
+    }
+
+    /**
+     * Adds in the statistics from another search (used to merge the root nodes of independent trees)
+     */
+    void merge(ActionStatsTable other) {
+        for (int j = 0; j < other.size; j++) {
+            int i = indexOf(other.actions[j]);
+            if (i < 0)
+                i = add(other.actions[j], other.nPlayers);
+            for (int p = 0; p < nPlayers; p++) {
+                totValue[i * nPlayers + p] += other.totValue[j * nPlayers + p];
+                squaredTotValue[i * nPlayers + p] += other.squaredTotValue[j * nPlayers + p];
+            }
+            nVisits[i] += other.nVisits[j];
+            validVisits[i] += other.validVisits[j];
+            regretMatchingAverage[i] += other.regretMatchingAverage[j];
+        }
+        hasRegretMatchingAverage |= other.hasRegretMatchingAverage;
+    }
+
+    /**
+     * @return the child nodes after taking the action, or null if there are none
+     */
+    public SingleTreeNode[] children(AbstractAction action) {
+        int i = indexOf(action);
+        return i < 0 ? null : children[i];
+    }
+
+    /**
+     * @return a snapshot of the statistics for the action, or null if it has not been added
+     */
+    public ActionStats get(AbstractAction action) {
+        int i = indexOf(action);
+        return i < 0 ? null : get(i);
+    }
+
+    public ActionStats get(int i) {
+        int offset = i * nPlayers;
+        return new ActionStats(Arrays.copyOfRange(totValue, offset, offset + nPlayers),
+                Arrays.copyOfRange(squaredTotValue, offset, offset + nPlayers), nVisits[i], validVisits[i]);
+    }
+
+    /**
+     * @return snapshots of the statistics for all the actions, in the order they were added
+     */
+    public List<ActionStats> values() {
+        List<ActionStats> retValue = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            retValue.add(get(i));
+        return retValue;
+    }
+}
@@ -0,0 +1,88 @@
+package players.mcts;
+
+import core.AbstractGameState;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Determinisations of the root state for Information Set MCTS, made ahead of time on a background thread, so that
+ * the search does not have to redeterminise (copy the state, and shuffle everything hidden from the player) at the
+ * start of each iteration. See MCTSParams.determinisationPool.
+ * <p>
+ * The background thread keeps up to size determinisations ready. Each determinisation (from copy(player), which
+ * reshuffles what the player cannot see) is recycled for reuse iterations: the later ones are plain copies of it
+ * (copy(), which does not reshuffle anything), as an iteration changes the state it is given. If none is ready
+ * when the search asks, then the search redeterminises for itself rather than wait.
+ * <p>
+ * The root state must not be changed while the pool is open; nor is it during a search. next() may be called by
+ * several threads at once (as it is by tree parallelisation).
+ */
+class DeterminisationPool implements AutoCloseable {
+
+    private final AbstractGameState rootState;
+    private final int player;
+    private final int reuse;
+    private final BlockingQueue<AbstractGameState> ready;
+    private final Thread producer;
+
+    /**
+     * @param rootState - the state to determinise
+     * @param player    - the player whose information set the determinisations are from
+     * @param size      - the number of determinisations to keep ready
+     * @param reuse     - the number of iterations each determinisation is used for
+     */
+    DeterminisationPool(AbstractGameState rootState, int player, int size, int reuse) {
+        if (size < 1 || reuse < 1)
+            throw new IllegalArgumentException("Pool size and reuse must be positive: " + size + ", " + reuse);
+        this.rootState = rootState;
+        this.player = player;
+        this.reuse = reuse;
+        this.ready = new ArrayBlockingQueue<>(size);
+        this.producer = new Thread(this::produce, "DeterminisationPool");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    private void produce() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                AbstractGameState determinisation = rootState.copy(player);
+                for (int i = 1; i < reuse; i++)
+                    ready.put(determinisation.copy());
+                ready.put(determinisation);
+            }
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    /**
+     * @return a determinisation of the root state, that the caller is free to change
+     */
+    AbstractGameState next() {
+        AbstractGameState retValue = ready.poll();
+        return retValue == null ? rootState.copy(player) : retValue;
+    }
+
+    /**
+     * @return the number of determinisations ready
+     */
+    int available() {
+        return ready.size();
+    }
+
+    /**
+     * Stops the background thread, and waits for it to finish with the root state
+     */
+    @Override
+    public void close() {
+        producer.interrupt();
+        try {
+            producer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ready.clear();
+    }
+}
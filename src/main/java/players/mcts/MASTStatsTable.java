@@ -0,0 +1,158 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+
+import java.util.Arrays;
+
+/**
+ * MAST (Move-Average Sampling Technique) statistics: for each player, the number of times each action (or action key,
+ * see IActionKey) has been taken, and the total value of the trajectories it was taken in.
+ * <p>
+ * This is an open-addressing hash table (with linear probing) over (player, key), with the visits and total values
+ * held in primitive arrays, so that updating and reading the statistics allocates nothing once a key has been seen.
+ * The same table is shared by the search that updates it and by whatever uses it (MASTActionHeuristic, and so
+ * MASTPlayer for rollouts), and can be kept from one decision to the next with decay() applied in between.
+ */
+public class MASTStatsTable {
+
+    private static final int INITIAL_CAPACITY = 64;  // must be a power of two
+
+    private final int nPlayers;
+    // a null key is an empty slot
+    private Object[] keys;
+    private int[] players;
+    private int[] visits;
+    private double[] totValues;
+    private int size;
+
+    public MASTStatsTable(int nPlayers) {
+        this.nPlayers = nPlayers;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        players = new int[capacity];
+        visits = new int[capacity];
+        totValues = new double[capacity];
+    }
+
+    public int nPlayers() {
+        return nPlayers;
+    }
+
+    /**
+     * @return the number of (player, key) entries
+     */
+    public int size() {
+        return size;
+    }
+
+    private int slotOf(int player, Object key) {
+        int h = key.hashCode() * 31 + player;
+        h ^= h >>> 16;  // as HashMap does, so that keys that only differ in their high bits are spread out
+        return h & (keys.length - 1);
+    }
+
+    /**
+     * @return the slot of the key, or -1 if it is not in the table
+     */
+    private int find(int player, Object key) {
+        int mask = keys.length - 1;
+        for (int slot = slotOf(player, key); keys[slot] != null; slot = (slot + 1) & mask) {
+            if (players[slot] == player && keys[slot].equals(key))
+                return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds one visit, with the given value, to the key for the player.
+     * An AbstractAction key is copied when it is first added, as the action may be changed later.
+     */
+    public void update(int player, Object key, double value) {
+        int mask = keys.length - 1;
+        int slot = slotOf(player, key);
+        while (keys[slot] != null && !(players[slot] == player && keys[slot].equals(key)))
+            slot = (slot + 1) & mask;
+        if (keys[slot] == null) {
+            keys[slot] = key instanceof AbstractAction action ? action.copy() : key;
+            players[slot] = player;
+            size++;
+            visits[slot] = 1;
+            totValues[slot] = value;
+            // we keep the load factor at most 1/2, so that probes stay short
+            if (size * 2 > keys.length)
+                rehash(keys.length * 2);
+        } else {
+            visits[slot]++;
+            totValues[slot] += value;
+        }
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldKeys = keys;
+        int[] oldPlayers = players, oldVisits = visits;
+        double[] oldTotValues = totValues;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null)
+                continue;
+            int slot = slotOf(oldPlayers[i], oldKeys[i]);
+            while (keys[slot] != null)
+                slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            players[slot] = oldPlayers[i];
+            visits[slot] = oldVisits[i];
+            totValues[slot] = oldTotValues[i];
+        }
+    }
+
+    public boolean contains(int player, Object key) {
+        return find(player, key) >= 0;
+    }
+
+    public int visits(int player, Object key) {
+        int slot = find(player, key);
+        return slot < 0 ? 0 : visits[slot];
+    }
+
+    public double totValue(int player, Object key) {
+        int slot = find(player, key);
+        return slot < 0 ? 0.0 : totValues[slot];
+    }
+
+    /**
+     * @return the mean value of the key for the player, or defaultValue if it has no visits
+     */
+    public double meanValue(int player, Object key, double defaultValue) {
+        int slot = find(player, key);
+        if (slot < 0 || visits[slot] == 0)
+            return defaultValue;
+        return totValues[slot] / visits[slot];
+    }
+
+    /**
+     * Decays all the statistics by gamma (if this is in [0, 1)), as Utils.decay() does: the visits are multiplied by
+     * gamma (rounding down), and the total value is scaled to keep the same mean. Keys are kept even if their visits
+     * fall to zero.
+     */
+    public void decay(double gamma) {
+        if (gamma < 0.0 || gamma >= 1.0)
+            return;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] == null)
+                continue;
+            int oldCount = visits[slot];
+            int newCount = (int) (oldCount * gamma);
+            totValues[slot] = oldCount == 0 ? 0.0 : totValues[slot] * newCount / oldCount;
+            visits[slot] = newCount;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+}
@@ -41,6 +41,13 @@ public class MCTSEnums {
         // END_TURN|ROUND is triggered when the game round/turn changes
     }
 
+    public enum Parallelism {
+        Root, Tree
+        // Only used if nThreads > 1
+        // Root runs an independent tree on each thread (with its share of the budget), and sums the statistics at the root
+        // Tree has all threads search one shared tree, with rollouts run in parallel and a virtual loss on the path of each thread
+    }
+
     public enum OpponentTreePolicy {
         SelfOnly(true), OneTree(false),
         MultiTree(true),
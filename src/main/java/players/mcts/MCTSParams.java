@@ -14,7 +14,7 @@ import java.util.Random;
 
 import static players.mcts.MCTSEnums.Information.*;
 import static players.mcts.MCTSEnums.MASTType.*;
-import static players.mcts.MCTSEnums.OpponentTreePolicy.OneTree;
+import static players.mcts.MCTSEnums.OpponentTreePolicy.*;
 import static players.mcts.MCTSEnums.RolloutTermination.DEFAULT;
 import static players.mcts.MCTSEnums.SelectionPolicy.SIMPLE;
 import static players.mcts.MCTSEnums.Strategies.*;
@@ -72,6 +72,16 @@ public class MCTSParams extends PlayerParameters {
     public double backupLambda = 1.0;
     public int maxBackupThreshold = 1000000;
     public Class<?> instantiationClass;
+    public int nThreads = 1;  // number of threads to search with; see parallelism for how they share the work
+    public MCTSEnums.Parallelism parallelism = MCTSEnums.Parallelism.Root;
+    public int virtualLoss = 1;  // (Tree parallelism only) visits (at the lowest reward seen) added to an action while a thread is rolling out below it
+    public int determinisationPool = 0;  // (Information_Set only) determinisations made in advance on a background thread; zero is off
+    public int determinisationReuse = 1;  // the number of iterations that use each determinisation from the pool
+    public String openingBook = "";  // file of root statistics carried from one game (and run) to the next; see OpeningBook
+    public IStateKey openingBookKey;  // the key of a position in the opening book
+    public int openingBookSize = 65536;  // the number of positions in a new opening book
+    public int openingBookVisits = 100;  // the most visits a new root is seeded with from the opening book
+    private OpeningBook book;
 
     public MCTSParams() {
         addTunableParameter("K", Math.sqrt(2), Arrays.asList(0.0, 0.1, 1.0, Math.sqrt(2), 3.0, 10.0));
@@ -120,6 +130,15 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("backupLambda", 1.0);
         addTunableParameter("maxBackupThreshold", 1000000);
         addTunableParameter("instantiationClass", "players.mcts.MCTSPlayer");
+        addTunableParameter("nThreads", 1);
+        addTunableParameter("parallelism", MCTSEnums.Parallelism.Root, Arrays.asList(MCTSEnums.Parallelism.values()));
+        addTunableParameter("virtualLoss", 1, Arrays.asList(0, 1, 3, 10));
+        addTunableParameter("determinisationPool", 0, Arrays.asList(0, 4, 16, 64));
+        addTunableParameter("determinisationReuse", 1, Arrays.asList(1, 2, 4, 8));
+        addTunableParameter("openingBook", "");
+        addTunableParameter("openingBookKey", IStateKey.class);
+        addTunableParameter("openingBookSize", 65536);
+        addTunableParameter("openingBookVisits", 100, Arrays.asList(0, 10, 30, 100, 300));
     }
 
     @Override
@@ -174,6 +193,16 @@ public class MCTSParams extends PlayerParameters {
         backupPolicy = (MCTSEnums.BackupPolicy) getParameterValue("backupPolicy");
         backupLambda = (double) getParameterValue("backupLambda");
         maxBackupThreshold = (int) getParameterValue("maxBackupThreshold");
+        nThreads = (int) getParameterValue("nThreads");
+        parallelism = (MCTSEnums.Parallelism) getParameterValue("parallelism");
+        virtualLoss = (int) getParameterValue("virtualLoss");
+        determinisationPool = (int) getParameterValue("determinisationPool");
+        determinisationReuse = (int) getParameterValue("determinisationReuse");
+        openingBook = (String) getParameterValue("openingBook");
+        openingBookKey = (IStateKey) getParameterValue("openingBookKey");
+        openingBookSize = (int) getParameterValue("openingBookSize");
+        openingBookVisits = (int) getParameterValue("openingBookVisits");
+        book = null;
         try {
             instantiationClass = Class.forName((String) getParameterValue("instantiationClass"));
         } catch (ClassNotFoundException e) {
@@ -229,6 +258,15 @@ public class MCTSParams extends PlayerParameters {
         };
     }
 
+    /**
+     * @return the opening book in the openingBook file (shared with every other user of the file), or null if there is none
+     */
+    public OpeningBook getOpeningBook() {
+        if (book == null && !openingBook.isEmpty())
+            book = OpeningBook.open(openingBook, openingBookSize);
+        return book;
+    }
+
     public IStateHeuristic getHeuristic() {
         return heuristic;
     }
@@ -238,6 +276,20 @@ public class MCTSParams extends PlayerParameters {
         if (!useMAST && (useMASTAsActionHeuristic || rolloutType == MCTSEnums.Strategies.MAST)) {
             throw new AssertionError("MAST data not being collected, but MAST is being used as the rollout policy or as the action heuristic. Set MAST parameter.");
         }
+        if (!openingBook.isEmpty()) {
+            if (openingBookKey == null)
+                throw new AssertionError("An openingBookKey is needed to use an opening book");
+            if (opponentTreePolicy == MultiTree)
+                throw new AssertionError("An opening book is not supported with a MultiTree opponentTreePolicy");
+        }
+        if (nThreads > 1) {
+            if (opponentTreePolicy == MultiTree)
+                throw new AssertionError("Parallel search is not supported with a MultiTree opponentTreePolicy");
+            if (parallelism == MCTSEnums.Parallelism.Tree && opponentTreePolicy != OneTree && opponentTreePolicy != SelfOnly)
+                throw new AssertionError("Tree parallelism is only supported with OneTree or SelfOnly opponentTreePolicy");
+            if (parallelism == MCTSEnums.Parallelism.Tree && (rolloutType == MCTSEnums.Strategies.MAST || oppModelType == MCTSEnums.Strategies.MAST))
+                throw new AssertionError("Tree parallelism does not support MAST rollouts, as the MAST statistics change while rollouts are running");
+        }
         if (instantiationClass == null || instantiationClass == MCTSPlayer.class)
             return new MCTSPlayer((MCTSParams) this.copy());
         else {
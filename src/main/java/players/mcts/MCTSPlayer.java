@@ -10,14 +10,18 @@ import core.interfaces.IStateHeuristic;
 import evaluation.metrics.Event;
 import players.IAnyTimePlayer;
 import utilities.Pair;
-import utilities.Utils;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static players.PlayerConstants.BUDGET_TIME;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.*;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.MultiTree;
 
@@ -27,8 +31,14 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
     protected boolean debug = false;
     protected SingleTreeNode root;
     protected Pair<Integer, AbstractAction> lastAction;
-    List<Map<Object, Pair<Integer, Double>>> MASTStats;
+    MASTStatsTable MASTStats;
     protected Map<Object, Integer> oldGraphKeys = new HashMap<>();
+    // true if the root was created for this decision (rather than reused)
+    protected boolean newTree;
+    // the position of the root in the opening book, and the visits and values it was seeded with from there
+    private Object bookKey;
+    private int[] bookVisits;
+    private double[] bookValues;
 
     public MCTSPlayer() {
         this(new MCTSParams());
@@ -216,8 +226,9 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
                     nextActionPlayer = selfOnly ? rootPlayer : nextActionPlayer;
                     if (debug)
                         System.out.println("\tAction: " + action.toString() + "\t Next Player: " + nextActionPlayer);
-                    if (newRoot.children != null && newRoot.children.get(action) != null)
-                        newRoot = newRoot.children.get(action)[nextActionPlayer];
+                    SingleTreeNode[] nodeArray = newRoot.actionValues.children(action);
+                    if (nodeArray != null)
+                        newRoot = nodeArray[nextActionPlayer];
                     else
                         newRoot = null;
                     if (newRoot == null)
@@ -236,6 +247,7 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
 
     protected void createRootNode(AbstractGameState gameState) {
         SingleTreeNode newRoot = newRootNode(gameState);
+        newTree = newRoot == null;
         if (newRoot == null) {
             if (getParameters().opponentTreePolicy == MultiTree)
                 root = new MultiTreeNode(this, gameState, rnd);
@@ -244,10 +256,11 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         } else {
             root = newRoot;
         }
-        if (MASTStats != null && getParameters().MASTGamma > 0.0)
-            root.MASTStatistics = MASTStats.stream()
-                    .map(m -> Utils.decay(m, getParameters().MASTGamma))
-                    .collect(Collectors.toList());
+        if (MASTStats != null && getParameters().MASTGamma > 0.0) {
+            // the statistics from the last decision are decayed in place, and carried on with
+            MASTStats.decay(getParameters().MASTGamma);
+            root.MASTStatistics = MASTStats;
+        }
 
         if (getParameters().getRolloutStrategy() instanceof IMASTUser) {
             ((IMASTUser) getParameters().getRolloutStrategy()).setStats(root.MASTStatistics);
@@ -262,9 +275,13 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         // Search for best action from the root
         long currentTimeNano = System.nanoTime();
         createRootNode(gameState);
+        seedFromOpeningBook(gameState);
         long timeTaken = System.nanoTime() - currentTimeNano;
 
-        root.mctsSearch(timeTaken / 1000000);
+        if (getParameters().nThreads > 1)
+            parallelSearch(gameState, timeTaken / 1000000);
+        else
+            root.mctsSearch(timeTaken / 1000000);
 
         if (getParameters().actionHeuristic instanceof ITreeProcessor)
             ((ITreeProcessor) getParameters().actionHeuristic).process(root);
@@ -282,15 +299,129 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
                 System.out.println(root);
         }
         MASTStats = root.MASTStatistics;
+        recordInOpeningBook();
 
-        if (root.children.size() > 3 * actions.size() && !(root instanceof MCGSNode) && !getParameters().reuseTree && !getParameters().actionSpace.equals(gameState.getCoreGameParameters().actionSpace))
-            throw new AssertionError(String.format("Unexpectedly large number of children: %d with action size of %d", root.children.size(), actions.size()));
+        if (root.actionValues.size() > 3 * actions.size() && !(root instanceof MCGSNode) && !getParameters().reuseTree && !getParameters().actionSpace.equals(gameState.getCoreGameParameters().actionSpace))
+            throw new AssertionError(String.format("Unexpectedly large number of children: %d with action size of %d", root.actionValues.size(), actions.size()));
         lastAction = new Pair<>(gameState.getCurrentPlayer(), root.bestAction());
         return lastAction.b.copy();
     }
 
+    /**
+     * Seeds a new root with the statistics of the position in the opening book (if there is one), as visits to each
+     * action at its mean value for the player deciding. These are scaled down so that there are at most
+     * openingBookVisits in all. A reused root is left alone, as it already has statistics from this game.
+     */
+    protected void seedFromOpeningBook(AbstractGameState gameState) {
+        MCTSParams params = getParameters();
+        OpeningBook book = params.getOpeningBook();
+        bookKey = null;
+        if (book == null || !newTree)
+            return;
+        bookKey = params.openingBookKey.getKey(gameState);
+        ActionStatsTable stats = root.actionValues;
+        bookVisits = new int[stats.size()];
+        bookValues = new double[stats.size()];
+        int total = book.totalVisits(bookKey);
+        if (total == 0)
+            return;
+        double scale = Math.min(1.0, params.openingBookVisits / (double) total);
+        int player = root.decisionPlayer;
+        for (int i = 0; i < stats.size(); i++) {
+            int visits = (int) Math.round(book.visits(bookKey, stats.action(i)) * scale);
+            if (visits == 0)
+                continue;
+            double value = book.meanValue(bookKey, stats.action(i), 0.0);
+            if (params.normaliseRewards) {
+                if (value > root.highReward) root.highReward = value;
+                if (value < root.lowReward) root.lowReward = value;
+            }
+            stats.addVisits(i, player, visits, value);
+            root.nVisits += visits;
+            bookVisits[i] = visits;
+            bookValues[i] = value;
+        }
+    }
+
+    /**
+     * Adds the statistics of the search just made at the root to the opening book, without the visits it was seeded with
+     */
+    protected void recordInOpeningBook() {
+        if (bookKey == null)
+            return;
+        ActionStatsTable stats = root.actionValues;
+        List<AbstractAction> actions = new ArrayList<>(stats.size());
+        int[] visits = new int[stats.size()];
+        double[] values = new double[stats.size()];
+        for (int i = 0; i < stats.size(); i++) {
+            actions.add(stats.action(i));
+            int seeded = i < bookVisits.length ? bookVisits[i] : 0;
+            visits[i] = stats.visits(i) - seeded;
+            if (visits[i] > 0)
+                values[i] = (stats.totValue(i, root.decisionPlayer) - (i < bookValues.length ? bookValues[i] : 0.0) * seeded) / visits[i];
+        }
+        getParameters().getOpeningBook().record(bookKey, actions, visits, values);
+        bookKey = null;
+    }
+
+    /**
+     * Runs the search from root on nThreads threads, using either root or tree parallelisation (see MCTSEnums.Parallelism).
+     * Every thread gets its own worker (a copy of this player with a new random seed and forward model), so that
+     * rollout policies, opponent models and forward models are never shared between threads.
+     */
+    protected void parallelSearch(AbstractGameState gameState, long initialisationTime) {
+        MCTSParams params = getParameters();
+        boolean treeParallel = params.parallelism == MCTSEnums.Parallelism.Tree;
+        // with root parallelisation the first thread searches our own tree, so does not need a worker
+        List<MCTSPlayer> workers = new ArrayList<>();
+        for (int i = treeParallel ? 0 : 1; i < params.nThreads; i++)
+            workers.add(searchWorker(gameState));
+        ExecutorService executor = Executors.newFixedThreadPool(params.nThreads);
+        try {
+            if (treeParallel) {
+                new TreeParallelSearch(root).search(initialisationTime, workers, executor);
+                return;
+            }
+            // Root parallelisation: each of the other threads searches an independent tree from a worker.
+            // The budget (unless it is time) is split between the trees.
+            int budget = params.budgetType == BUDGET_TIME ? params.budget : Math.max(1, params.budget / params.nThreads);
+            List<SingleTreeNode> roots = new ArrayList<>();
+            roots.add(root);
+            for (MCTSPlayer worker : workers) {
+                worker.createRootNode(gameState);
+                roots.add(worker.root);
+            }
+            List<Future<?>> running = new ArrayList<>();
+            for (SingleTreeNode treeRoot : roots)
+                running.add(executor.submit(() -> treeRoot.mctsSearch(initialisationTime, budget)));
+            for (Future<?> future : running)
+                future.get();
+            for (int i = 1; i < roots.size(); i++)
+                root.mergeRootStatistics(roots.get(i));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during parallel MCTS search", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error in parallel MCTS search", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private MCTSPlayer searchWorker(AbstractGameState gameState) {
+        MCTSParams workerParams = (MCTSParams) getParameters().copy();
+        // seeds are drawn from our own random number generator, so that a search is reproducible from our seed
+        workerParams.setRandomSeed(rnd.nextLong());
+        MCTSPlayer retValue = new MCTSPlayer(workerParams);
+        retValue.setForwardModel(getForwardModel().copy());
+        retValue.initializePlayer(gameState);
+        return retValue;
+    }
+
     @Override
     public void finalizePlayer(AbstractGameState state) {
+        if (getParameters().getOpeningBook() != null)
+            getParameters().getOpeningBook().flush();
         getParameters().getRolloutStrategy().onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
         getParameters().getOpponentModel().onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
         if (getParameters().heuristic instanceof IGameListener)
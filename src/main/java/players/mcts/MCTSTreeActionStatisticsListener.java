@@ -115,7 +115,7 @@ public class MCTSTreeActionStatisticsListener extends ActionFeatureListener {
                 processStateWithTargets(node.state, bestAction, actionTargets);
 
             // add children of current node to queue if they meet the criteria
-            for (SingleTreeNode child : node.children.values().stream()
+            for (SingleTreeNode child : node.getChildren().values().stream()
                     .filter(Objects::nonNull)
                     .flatMap(Arrays::stream)
                     .filter(Objects::nonNull)
@@ -0,0 +1,343 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A size-bounded cache of the root statistics from earlier searches, keyed by position (the key of an IStateKey),
+ * that MCTSPlayer uses to seed the root of a new search (see MCTSParams.openingBook). As the same opening positions
+ * come up in game after game, their statistics build up, and the search starts with what was learned before.
+ * <p>
+ * The book is a fixed number of entries, held in a ByteBuffer: an open-addressing hash table with linear probing.
+ * Each entry has a position key, and the visits and mean value (for the player deciding) of up to ACTIONS_PER_ENTRY
+ * actions, keeping those with the most visits. When a new position finds no space within PROBE_LIMIT slots of
+ * its own, it replaces the entry in that window with the fewest visits, if that has fewer than the new one. So the
+ * book never grows, and the positions that are searched most often (the openings) are the ones that stay.
+ * <p>
+ * Opened from a file (open()) the buffer is the file mapped into memory, so loading is immediate and updates are
+ * written back by the operating system; flush() forces them to disk. Positions and actions are stored as 64-bit
+ * hashes, as keys and actions have no serialised form: a Number key is used as it is, and anything else (and every
+ * action) by the hash of its toString(). A book is only valid across runs if those are stable, as they are for
+ * ZobristStateKey and for actions whose toString() does not include an identity hash code.
+ * <p>
+ * All methods are synchronized, as the same book is shared by all players (and copies of players) that open the
+ * same file. Separate processes should not write to the same file.
+ */
+public class OpeningBook {
+
+    public static final int ACTIONS_PER_ENTRY = 8;
+    static final int PROBE_LIMIT = 8;
+    private static final int MAGIC = 0x54414742;  // "TAGB"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int ACTION_BYTES = 16;  // long hash, int visits, float mean value
+    private static final int ENTRY_BYTES = 16 + ACTIONS_PER_ENTRY * ACTION_BYTES;  // long key, int total visits, int nActions
+    // visits are halved once an entry has this many, so that they never overflow
+    private static final int MAX_VISITS = 1 << 30;
+
+    private static final Map<String, OpeningBook> openBooks = new HashMap<>();
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private int size;
+
+    /**
+     * An opening book held only in memory
+     */
+    public OpeningBook(int capacity) {
+        this(ByteBuffer.allocate(HEADER_BYTES + capacity * ENTRY_BYTES), capacity);
+        writeHeader();
+    }
+
+    private OpeningBook(ByteBuffer buffer, int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        this.buffer = buffer;
+        this.capacity = capacity;
+        for (int slot = 0; slot < capacity; slot++)
+            if (key(slot) != 0)
+                size++;
+    }
+
+    /**
+     * Opens the book in the file, creating it with the given capacity if it does not exist. An existing book keeps
+     * its own capacity. The same file always gives the same OpeningBook within a JVM.
+     */
+    public static synchronized OpeningBook open(String fileName, int capacity) {
+        File file = new File(fileName);
+        String path = file.getAbsoluteFile().toPath().normalize().toString();
+        OpeningBook retValue = openBooks.get(path);
+        if (retValue == null) {
+            retValue = map(file, capacity);
+            openBooks.put(path, retValue);
+        }
+        return retValue;
+    }
+
+    private static OpeningBook map(File file, int capacity) {
+        if (file.getParentFile() != null)
+            file.getParentFile().mkdirs();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean existing = channel.size() > 0;
+            if (existing) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                channel.read(header, 0);
+                header.flip();
+                if (channel.size() < HEADER_BYTES || header.getInt(0) != MAGIC || header.getInt(4) != FORMAT
+                        || header.getInt(12) != ACTIONS_PER_ENTRY)
+                    throw new IllegalArgumentException(file + " is not an opening book");
+                capacity = header.getInt(8);
+                if (channel.size() != HEADER_BYTES + (long) capacity * ENTRY_BYTES)
+                    throw new IllegalArgumentException(file + " is not a complete opening book");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * ENTRY_BYTES);
+            // the mapping stays valid once the channel is closed
+            OpeningBook retValue = new OpeningBook(buffer, capacity);
+            if (!existing)
+                retValue.writeHeader();
+            return retValue;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open opening book " + file, e);
+        }
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT);
+        buffer.putInt(8, capacity);
+        buffer.putInt(12, ACTIONS_PER_ENTRY);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of positions in the book
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Writes any changes to disk (if the book is in a file)
+     */
+    public synchronized void flush() {
+        if (buffer instanceof MappedByteBuffer mapped)
+            mapped.force();
+    }
+
+    static long hash(Object o) {
+        if (o instanceof Number n)
+            return mix(n.longValue());
+        // FNV-1a, as String.hashCode() is only 32 bits
+        long h = 0xcbf29ce484222325L;
+        for (byte b : o.toString().getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        // the finaliser of SplitMix64, so that similar keys are spread over the table; zero marks an empty slot
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        h ^= h >>> 31;
+        return h == 0 ? 1 : h;
+    }
+
+    private int offset(int slot) {
+        return HEADER_BYTES + slot * ENTRY_BYTES;
+    }
+
+    private long key(int slot) {
+        return buffer.getLong(offset(slot));
+    }
+
+    private int totalVisits(int slot) {
+        return buffer.getInt(offset(slot) + 8);
+    }
+
+    private int nActions(int slot) {
+        return buffer.getInt(offset(slot) + 12);
+    }
+
+    private int actionOffset(int slot, int a) {
+        return offset(slot) + 16 + a * ACTION_BYTES;
+    }
+
+    private int startSlot(long key) {
+        return (int) ((key >>> 1) % capacity);
+    }
+
+    /**
+     * @return the slot holding the key, or -1 if it is not in the book
+     */
+    private int find(long key) {
+        int slot = startSlot(key);
+        for (int probe = 0; probe < PROBE_LIMIT; probe++) {
+            long k = key(slot);
+            if (k == key)
+                return slot;
+            if (k == 0)
+                return -1;
+            slot = (slot + 1) % capacity;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index of the action in the entry at slot, or -1 if it is not there
+     */
+    private int findAction(int slot, long actionHash) {
+        int n = nActions(slot);
+        for (int a = 0; a < n; a++)
+            if (buffer.getLong(actionOffset(slot, a)) == actionHash)
+                return a;
+        return -1;
+    }
+
+    public synchronized boolean contains(Object key) {
+        return find(hash(key)) >= 0;
+    }
+
+    /**
+     * @return the visits recorded for all the actions from the position
+     */
+    public synchronized int totalVisits(Object key) {
+        int slot = find(hash(key));
+        return slot < 0 ? 0 : totalVisits(slot);
+    }
+
+    public synchronized int visits(Object key, AbstractAction action) {
+        int slot = find(hash(key));
+        int a = slot < 0 ? -1 : findAction(slot, hash(action));
+        return a < 0 ? 0 : buffer.getInt(actionOffset(slot, a) + 8);
+    }
+
+    /**
+     * @return the mean value of the action for the player deciding, or defaultValue if it is not in the book
+     */
+    public synchronized double meanValue(Object key, AbstractAction action, double defaultValue) {
+        int slot = find(hash(key));
+        int a = slot < 0 ? -1 : findAction(slot, hash(action));
+        return a < 0 ? defaultValue : buffer.getFloat(actionOffset(slot, a) + 12);
+    }
+
+    /**
+     * Adds the statistics of a search from the position to the book. Actions already in the book for the position
+     * have their visits added, and their mean values combined; others are added if there is space, or if they
+     * have more visits than the least visited action there.
+     *
+     * @param visits     - the visits to each action in this search
+     * @param meanValues - the mean value of each action to the player deciding
+     */
+    public synchronized void record(Object key, List<AbstractAction> actions, int[] visits, double[] meanValues) {
+        long keyHash = hash(key);
+        int slot = find(keyHash);
+        if (slot < 0) {
+            int total = 0;
+            for (int v : visits)
+                total += Math.max(v, 0);
+            slot = insert(keyHash, total);
+            if (slot < 0)
+                return;
+        }
+        int base = offset(slot);
+        for (int i = 0; i < actions.size(); i++) {
+            if (visits[i] <= 0)
+                continue;
+            long actionHash = hash(actions.get(i));
+            int a = findAction(slot, actionHash);
+            if (a >= 0) {
+                int at = actionOffset(slot, a);
+                int oldVisits = buffer.getInt(at + 8);
+                double oldValue = buffer.getFloat(at + 12);
+                int newVisits = oldVisits + visits[i];
+                buffer.putInt(at + 8, newVisits);
+                buffer.putFloat(at + 12, (float) ((oldValue * oldVisits + meanValues[i] * visits[i]) / newVisits));
+                continue;
+            }
+            int n = nActions(slot);
+            if (n < ACTIONS_PER_ENTRY) {
+                a = n;
+                buffer.putInt(base + 12, n + 1);
+            } else {
+                // replace the least visited action, if this one has had more
+                a = 0;
+                for (int other = 1; other < n; other++)
+                    if (buffer.getInt(actionOffset(slot, other) + 8) < buffer.getInt(actionOffset(slot, a) + 8))
+                        a = other;
+                if (buffer.getInt(actionOffset(slot, a) + 8) >= visits[i])
+                    continue;
+            }
+            int at = actionOffset(slot, a);
+            buffer.putLong(at, actionHash);
+            buffer.putInt(at + 8, visits[i]);
+            buffer.putFloat(at + 12, (float) meanValues[i]);
+        }
+        updateTotal(slot);
+    }
+
+    /**
+     * Finds space for a new position, within PROBE_LIMIT slots of where it hashes to.
+     *
+     * @return the (now empty) slot for the key, or -1 if every entry there has had more visits
+     */
+    private int insert(long key, int visits) {
+        int slot = startSlot(key);
+        int weakest = -1;
+        for (int probe = 0; probe < PROBE_LIMIT; probe++) {
+            if (key(slot) == 0) {
+                weakest = slot;
+                size++;
+                break;
+            }
+            if (weakest < 0 || totalVisits(slot) < totalVisits(weakest))
+                weakest = slot;
+            slot = (slot + 1) % capacity;
+        }
+        if (key(weakest) != 0 && totalVisits(weakest) >= visits)
+            return -1;
+        int base = offset(weakest);
+        buffer.putLong(base, key);
+        buffer.putInt(base + 8, 0);
+        buffer.putInt(base + 12, 0);
+        return weakest;
+    }
+
+    private void updateTotal(int slot) {
+        int n = nActions(slot);
+        long total = 0;
+        for (int a = 0; a < n; a++)
+            total += buffer.getInt(actionOffset(slot, a) + 8);
+        if (total >= MAX_VISITS) {
+            total = 0;
+            for (int a = 0; a < n; a++) {
+                int at = actionOffset(slot, a) + 8;
+                buffer.putInt(at, buffer.getInt(at) / 2);
+                total += buffer.getInt(at);
+            }
+        }
+        buffer.putInt(offset(slot) + 8, (int) total);
+    }
+
+    public synchronized void clear() {
+        for (int slot = 0; slot < capacity; slot++)
+            buffer.putLong(offset(slot), 0L);
+        size = 0;
+    }
+}
@@ -4,7 +4,6 @@ import core.*;
 import core.actions.AbstractAction;
 import core.actions.DoNothing;
 import core.interfaces.IActionHeuristic;
-import players.PlayerConstants;
 import utilities.*;
 
 import java.util.*;
@@ -14,6 +13,7 @@ import java.util.stream.IntStream;
 import static java.util.stream.Collectors.*;
 import static players.PlayerConstants.*;
 import static players.mcts.MCTSEnums.Information.Closed_Loop;
+import static players.mcts.MCTSEnums.Information.Information_Set;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.*;
 import static players.mcts.MCTSEnums.RolloutTermination.DEFAULT;
 import static players.mcts.MCTSEnums.SelectionPolicy.*;
@@ -46,8 +46,6 @@ public class SingleTreeNode {
     // (specifically when using SelfOnly trees, with START/END_TURN/ROUND rollout termination conditions
     protected int roundAtStartOfRollout, turnAtStartOfRollout, lastActorInRollout;
     List<AbstractAction> actionsFromOpenLoopState = new ArrayList<>();
-    Map<AbstractAction, Double> actionValueEstimates = new HashMap<>();
-    Map<AbstractAction, Double> actionPDFEstimates = new HashMap<>();
     // Depth of this node
     protected int depth;
     // the id of the player who makes the decision at this node
@@ -59,18 +57,14 @@ public class SingleTreeNode {
     double initialisationTimeTaken;
     protected double highReward = Double.NEGATIVE_INFINITY;
     protected double lowReward = Double.POSITIVE_INFINITY;
-    protected Map<AbstractAction, Double> regretMatchingAverage = new HashMap<>();
     protected int nodeClash;
     // Root node of tree
     protected SingleTreeNode root;
     // Parent of this node
     SingleTreeNode parent;
-    // Children of this node. The value is an Array because we have to cater for the possibility that the next decision
-    // could be by any player - each of which would transition to a different Node OpenLoop search. (Closed Loop will
-    // only ever have one position in the array populated: and similarly if we are using a SelfOnly tree).
-    Map<AbstractAction, SingleTreeNode[]> children = new LinkedHashMap<>();
-    Map<AbstractAction, ActionStats> actionValues = new HashMap<>();
-    List<Map<Object, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
+    // Statistics, heuristic estimates and children for each action taken from this node
+    ActionStatsTable actionValues = new ActionStatsTable();
+    MASTStatsTable MASTStatistics; // for each player, Action -> (visits, totValue)
     // ToDoubleBiFunction<AbstractAction, AbstractGameState> MASTFunction;
     // The total value of all trajectories through this node (one element per player)
     private Supplier<? extends SingleTreeNode> factory;
@@ -91,9 +85,7 @@ public class SingleTreeNode {
         retValue.forwardModel = player.getForwardModel();
         retValue.rnd = rnd;
         // only root node maintains MAST statistics
-        retValue.MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            retValue.MASTStatistics.add(new HashMap<>());
+        retValue.MASTStatistics = new MASTStatsTable(state.getNPlayers());
         if (retValue.params.useMASTAsActionHeuristic)
             retValue.params.actionHeuristic = new MASTActionHeuristic(retValue.MASTStatistics, retValue.params.MASTActionKey, retValue.params.MASTDefaultValue);
         retValue.instantiate(null, null, state);
@@ -156,15 +148,14 @@ public class SingleTreeNode {
         highReward = template.highReward;
         lowReward = template.lowReward;
         inheritedVisits = nVisits;
-        MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < template.MASTStatistics.size(); i++)
-            MASTStatistics.add(new HashMap<>());
+        MASTStatistics = new MASTStatsTable(template.MASTStatistics.nPlayers());
     }
 
     protected void resetDepth(SingleTreeNode newRoot) {
         depth = parent == null ? 0 : parent.depth + 1;
         root = newRoot;
-        for (SingleTreeNode[] childArray : children.values()) {
+        for (int i = 0; i < actionValues.size(); i++) {
+            SingleTreeNode[] childArray = actionValues.children[i];
             if (childArray == null) continue;
             for (SingleTreeNode child : childArray) {
                 if (child != null) child.resetDepth(newRoot);
@@ -202,6 +193,21 @@ public class SingleTreeNode {
             if (actionsFromOpenLoopState.size() != actionsFromOpenLoopState.stream().distinct().count())
                 throw new AssertionError("Duplicate actions found in action list: " +
                         actionsFromOpenLoopState.stream().map(a -> "\t" + a.toString() + "\n").collect(joining()));
+            // First we find the index of each action, adding any we have not seen before
+            int knownActions = actionValues.size();
+            actionValues.ensureCapacity(actionsFromOpenLoopState.size(), actionState.getNPlayers());
+            int[] actionIndices = new int[actionsFromOpenLoopState.size()];
+            for (int i = 0; i < actionIndices.length; i++) {
+                AbstractAction action = actionsFromOpenLoopState.get(i);
+                int index = actionValues.indexOf(action);
+                if (index < 0) {
+                    index = actionValues.add(action.copy(), actionState.getNPlayers()); // mark a new node to be expanded
+                    // This *does* rely on a good equals method being implemented for Actions
+                    if (actionValues.indexOf(action) != index)
+                        throw new AssertionError("We have an action that does not obey the equals/hashcode contract" + action);
+                }
+                actionIndices[i] = index;
+            }
             if ((params.actionHeuristic != IActionHeuristic.nullReturn && nVisits < actionsFromOpenLoopState.size())
                     || params.pUCT || params.progressiveBias > 0 || params.initialiseVisits > 0 || params.progressiveWideningConstant >= 1.0) {
                 // We only need to calculate actionValueEstimates if we are going to be using the data in one of these variants
@@ -212,17 +218,18 @@ public class SingleTreeNode {
                 // change over the course of the search. Setting it to 1 will update it on every visit; but possibly
                 // at a high additional computational cost.
                 if (params.actionHeuristic != IActionHeuristic.nullReturn) {
-                    if (actionValueEstimates.isEmpty() || nVisits % params.actionHeuristicRecalculationThreshold == 0) {
+                    if (!actionValues.hasValueEstimates || nVisits % params.actionHeuristicRecalculationThreshold == 0) {
                         // in this case we initialise all action values
-                        double[] actionValues = params.actionHeuristic.evaluateAllActions(actionsFromOpenLoopState, actionState);
-                        for (int i = 0; i < actionsFromOpenLoopState.size(); i++) {
-                            actionValueEstimates.put(actionsFromOpenLoopState.get(i), actionValues[i]);
+                        double[] estimates = params.actionHeuristic.evaluateAllActions(actionsFromOpenLoopState, actionState);
+                        for (int i = 0; i < actionIndices.length; i++) {
+                            actionValues.valueEstimates[actionIndices[i]] = estimates[i];
                         }
+                        actionValues.hasValueEstimates = true;
                     } else {
                         // we just initialise the new actions
-                        for (AbstractAction action : actionsFromOpenLoopState) {
-                            if (!actionValueEstimates.containsKey(action)) {
-                                actionValueEstimates.put(action, params.actionHeuristic.evaluateAction(action, actionState, actionsFromOpenLoopState));
+                        for (int i = 0; i < actionIndices.length; i++) {
+                            if (Double.isNaN(actionValues.valueEstimates[actionIndices[i]])) {
+                                actionValues.valueEstimates[actionIndices[i]] = params.actionHeuristic.evaluateAction(actionsFromOpenLoopState.get(i), actionState, actionsFromOpenLoopState);
                             }
                         }
                     }
@@ -237,54 +244,44 @@ public class SingleTreeNode {
                 // Generally if using pUCT we would expect FPU to also be used to give effective pruning, rather than the
                 // explicit pruning of Progressive Widening.
                 double[] pdf;
-                actionPDFEstimates = new HashMap<>();
+                double[] estimates = new double[actionIndices.length];
                 if (params.pUCTTemperature > 0.0) {
                     // in this case we construct a Boltzmann
-                    double[] actionValues = actionsFromOpenLoopState.stream().
-                            mapToDouble(a -> actionValueEstimates.getOrDefault(a, 0.0)).toArray();
-                    pdf = pdf(exponentiatePotentials(actionValues, params.pUCTTemperature));
+                    for (int i = 0; i < actionIndices.length; i++)
+                        estimates[i] = actionValues.valueEstimate(actionIndices[i]);
+                    pdf = pdf(exponentiatePotentials(estimates, params.pUCTTemperature));
 
                 } else {
                     // in this case, we first set any negative values to zero, and then construct the pdf directly
-                    double[] actionValues = actionsFromOpenLoopState.stream().
-                            mapToDouble(a -> Math.max(0.0, actionValueEstimates.getOrDefault(a, 0.0))).toArray();
-                    pdf = pdf(actionValues);
+                    for (int i = 0; i < actionIndices.length; i++)
+                        estimates[i] = Math.max(0.0, actionValues.valueEstimate(actionIndices[i]));
+                    pdf = pdf(estimates);
                 }
-                for (int i = 0; i < actionsFromOpenLoopState.size(); i++) {
-                    actionPDFEstimates.put(actionsFromOpenLoopState.get(i), pdf[i]);
+                for (int i = 0; i < actionIndices.length; i++) {
+                    actionValues.pdfEstimates[actionIndices[i]] = pdf[i];
                 }
             }
-            for (AbstractAction action : actionsFromOpenLoopState) {
-                if (!actionValues.containsKey(action)) {
-                    actionValues.put(action, new ActionStats(actionState.getNPlayers()));
-                    children.put(action.copy(), null); // mark a new node to be expanded
-                    // This *does* rely on a good equals method being implemented for Actions
-                    if (!children.containsKey(action))
-                        throw new AssertionError("We have an action that does not obey the equals/hashcode contract" + action);
-                    // Then we seed the statistics with heuristic biases (if so parameterised)
-                    // This assumes that we have had params.initialiseVisits trials of each action before we start
-                    if (params.initialiseVisits > 0) {
-                        // This also ignores Progressive widening and initialises all possible actions
-                        // As with pUCT, this won't cause any major issues, but will mean that the effective node visits
-                        // will be higher than the visits of the considered actions.
-                        ActionStats stats = actionValues.get(action);
-                        double actionEstimate = actionValueEstimates.getOrDefault(action, 0.0);
-                        if (params.normaliseRewards) {
-                            if (actionEstimate > root.highReward) root.highReward = actionEstimate;
-                            if (actionEstimate < root.lowReward) root.lowReward = actionEstimate;
-                        }
-                        int nActions = Math.max(actionValues.size(), actionsFromOpenLoopState.size());
-                        stats.nVisits = params.initialiseVisits;
-                        stats.validVisits = params.initialiseVisits * nActions;
-                        stats.totValue[decisionPlayer] = actionEstimate * params.initialiseVisits;
-                        stats.squaredTotValue[decisionPlayer] = actionEstimate * actionEstimate * params.initialiseVisits;
-                        if (params.paranoid) // default to zero for other players, unless we're paranoid
-                            for (int i = 0; i < actionState.getNPlayers(); i++)
-                                if (i != decisionPlayer)
-                                    stats.totValue[i] = -stats.totValue[decisionPlayer];
-                        if (nVisits < params.initialiseVisits * nActions) {
-                            nVisits = params.initialiseVisits * nActions;
-                        }
+            if (params.initialiseVisits > 0) {
+                // Then we seed the statistics of new actions with heuristic biases (if so parameterised)
+                // This assumes that we have had params.initialiseVisits trials of each action before we start
+                for (int index : actionIndices) {
+                    if (index < knownActions)
+                        continue;
+                    // This also ignores Progressive widening and initialises all possible actions
+                    // As with pUCT, this won't cause any major issues, but will mean that the effective node visits
+                    // will be higher than the visits of the considered actions.
+                    double actionEstimate = actionValues.valueEstimate(index);
+                    if (params.normaliseRewards) {
+                        if (actionEstimate > root.highReward) root.highReward = actionEstimate;
+                        if (actionEstimate < root.lowReward) root.lowReward = actionEstimate;
+                    }
+                    // the number of actions known at the point this one was added
+                    int nActions = Math.max(index + 1, actionsFromOpenLoopState.size());
+                    // default to zero for other players, unless we're paranoid
+                    actionValues.initialise(index, decisionPlayer, params.initialiseVisits, params.initialiseVisits * nActions,
+                            actionEstimate, params.paranoid);
+                    if (nVisits < params.initialiseVisits * nActions) {
+                        nVisits = params.initialiseVisits * nActions;
                     }
                 }
             }
@@ -299,19 +296,23 @@ public class SingleTreeNode {
         initialisationTimeTaken = 0.0;
         nodeClash = 0;
         rolloutActionsTaken = 0;
-        regretMatchingAverage.clear();
+        actionValues.clearRegretMatchingAverage();
     }
 
     /**
      * Performs full MCTS search, using the defined budget limits.
      */
     public void mctsSearch(long initialisationTime) {
+        mctsSearch(initialisationTime, params.budget);
+    }
+
+    /**
+     * Performs full MCTS search, with the budget given in place of params.budget.
+     * This is used by root parallelisation, where each tree gets its share of the budget.
+     */
+    public void mctsSearch(long initialisationTime, int budget) {
         initialiseRootMetrics();
         initialisationTimeTaken = initialisationTime;
-        // Variables for tracking time budget
-        double avgTimeTaken;
-        long remaining;
-        int remainingLimit = params.breakMS;
         ElapsedCpuTimer elapsedTimer = new ElapsedCpuTimer();
         if (params.budgetType == BUDGET_TIME) {
             elapsedTimer.setMaxTimeMillis(params.budget - initialisationTime);
@@ -320,56 +321,112 @@ public class SingleTreeNode {
         // Tracking number of iterations for iteration budget
         int numIters = 0;
         boolean stop = false;
-        while (!stop) {
-            switch (params.information) {
-                case Closed_Loop:
-                    setActionsFromOpenLoopState(state);
-                    break;
-                case Open_Loop:
-                    setActionsFromOpenLoopState(state.copy());
-                    copyCount++;
-                    break;
-                case Information_Set:
-                    if (redeterminisationPlayer == -1)
-                        redeterminisationPlayer = decisionPlayer;
-                    setActionsFromOpenLoopState(state.copy(redeterminisationPlayer));
-                    copyCount++;
-                    break;
-            }
+        if (params.information == Information_Set && redeterminisationPlayer == -1)
+            redeterminisationPlayer = decisionPlayer;
+        DeterminisationPool pool = determinisationPool();
+        try {
+            while (!stop) {
+                switch (params.information) {
+                    case Closed_Loop:
+                        setActionsFromOpenLoopState(state);
+                        break;
+                    case Open_Loop:
+                        setActionsFromOpenLoopState(state.copy());
+                        copyCount++;
+                        break;
+                    case Information_Set:
+                        setActionsFromOpenLoopState(pool == null ? state.copy(redeterminisationPlayer) : pool.next());
+                        copyCount++;
+                        break;
+                }
 
-            // New timer for this iteration
-            //      ElapsedCpuTimer elapsedTimerIteration = new ElapsedCpuTimer();
+                // New timer for this iteration
+                //      ElapsedCpuTimer elapsedTimerIteration = new ElapsedCpuTimer();
 
-            //   System.out.println("Starting MCTS Search iteration " + numIters);
+                //   System.out.println("Starting MCTS Search iteration " + numIters);
 
-            // Selection + expansion: navigate tree until a node not fully expanded is found, add a new node to the tree
-            oneSearchIteration();
+                // Selection + expansion: navigate tree until a node not fully expanded is found, add a new node to the tree
+                oneSearchIteration();
 
-            // Finished iteration
-            numIters++;
-            //       System.out.printf("MCTS Iteration %d, timeLeft: %d\n", numIters, elapsedTimer.remainingTimeMillis());
-            // Check stopping condition
-            PlayerConstants budgetType = params.budgetType;
-            if (budgetType == BUDGET_TIME) {
-                // Time budget
-                remaining = elapsedTimer.remainingTimeMillis();
-                avgTimeTaken = (double) elapsedTimer.elapsedMillis() / numIters;
-                stop = remaining <= 2 * avgTimeTaken || remaining <= remainingLimit;
-            } else if (budgetType == BUDGET_ITERATIONS) {
-                // Iteration budget
-                stop = numIters >= params.budget;
-            } else if (budgetType == BUDGET_FM_CALLS) {
-                // FM calls budget
-                stop = fmCallsCount > params.budget || numIters > params.budget;
-            } else if (budgetType == BUDGET_COPY_CALLS) {
-                stop = copyCount > params.budget || numIters > params.budget;
-            } else if (budgetType == BUDGET_FMANDCOPY_CALLS) {
-                stop = (copyCount + fmCallsCount) > params.budget || numIters > params.budget;
+                // Finished iteration
+                numIters++;
+                //       System.out.printf("MCTS Iteration %d, timeLeft: %d\n", numIters, elapsedTimer.remainingTimeMillis());
+                // Check stopping condition
+                stop = budgetExhausted(elapsedTimer, numIters, numIters, budget);
             }
+        } finally {
+            if (pool != null)
+                pool.close();
         }
         timeTaken = elapsedTimer.elapsedMillis();
     }
 
+    /**
+     * @return a pool of determinisations of the root state for the search to use, or null if they are made as needed
+     */
+    DeterminisationPool determinisationPool() {
+        if (params.information != Information_Set || params.determinisationPool <= 0)
+            return null;
+        return new DeterminisationPool(state, redeterminisationPlayer, params.determinisationPool, params.determinisationReuse);
+    }
+
+    /**
+     * Checks the stopping condition for the search from this (root) node.
+     *
+     * @param elapsedTimer - timer for the thread doing the checking (only used for BUDGET_TIME)
+     * @param timerIters   - iterations run by that thread, to estimate the time one more iteration will take
+     * @param numIters     - total iterations run on this tree
+     * @param budget       - the budget for this tree
+     * @return true if the search should stop
+     */
+    protected boolean budgetExhausted(ElapsedCpuTimer elapsedTimer, int timerIters, int numIters, int budget) {
+        return switch (params.budgetType) {
+            case BUDGET_TIME -> {
+                // Time budget
+                long remaining = elapsedTimer.remainingTimeMillis();
+                double avgTimeTaken = timerIters == 0 ? 0.0 : (double) elapsedTimer.elapsedMillis() / timerIters;
+                yield remaining <= 2 * avgTimeTaken || remaining <= params.breakMS;
+            }
+            // Iteration budget
+            case BUDGET_ITERATIONS -> numIters >= budget;
+            // FM calls budget
+            case BUDGET_FM_CALLS -> fmCallsCount > budget || numIters > budget;
+            case BUDGET_COPY_CALLS -> copyCount > budget || numIters > budget;
+            case BUDGET_FMANDCOPY_CALLS -> (copyCount + fmCallsCount) > budget || numIters > budget;
+        };
+    }
+
+    /**
+     * Adds the root statistics of another tree, searched independently from the same state, to this one.
+     * This is how root parallelisation combines its trees before bestAction() is called; only the root is merged.
+     */
+    public void mergeRootStatistics(SingleTreeNode other) {
+        actionValues.merge(other.actionValues);
+        nVisits += other.nVisits;
+        fmCallsCount += other.fmCallsCount;
+        copyCount += other.copyCount;
+        rolloutActionsTaken += other.rolloutActionsTaken;
+        highReward = Math.max(highReward, other.highReward);
+        lowReward = Math.min(lowReward, other.lowReward);
+    }
+
+    /**
+     * Tree parallelisation runs its rollouts away from the shared tree (see TreeParallelSearch).
+     * This creates a detached node for one worker to do this, with the worker's own parameters (and hence rollout
+     * policy and opponent model) and forward model. As the node is its own root, all the rollout bookkeeping
+     * (actionsInRollout, fmCallsCount, copyCount) stays local to the worker.
+     */
+    SingleTreeNode rolloutNode(MCTSPlayer worker) {
+        SingleTreeNode retValue = new SingleTreeNode();
+        retValue.root = retValue;
+        retValue.params = worker.getParameters();
+        retValue.forwardModel = worker.getForwardModel();
+        retValue.rnd = worker.getRnd();
+        retValue.factory = factory;
+        retValue.decisionPlayer = decisionPlayer;
+        return retValue;
+    }
+
     /**
      * oneSearchIteration() implements the strategy for tree search (plus expansion, rollouts, backup and so on)
      * Its result is purely stored in the tree generated from root
@@ -416,49 +473,33 @@ public class SingleTreeNode {
         }
     }
 
-    /**
-     * Uses plain java loop instead of streams for performance
-     * (this is called often enough it can make a measurable difference)
-     */
     public int actionVisits(AbstractAction action) {
-        ActionStats stats = actionValues.get(action);
-        return stats == null ? 0 : stats.nVisits;
+        return actionValues.visits(actionValues.indexOf(action));
     }
 
-    private int validVisitsFor(AbstractAction action) {
+    private int validVisitsFor(int index) {
         if (params.information == Closed_Loop)
             return nVisits;
-        ActionStats stats = actionValues.get(action);
-        return stats == null ? 1 : stats.validVisits;
+        return index < 0 ? 1 : actionValues.validVisits[index];
     }
 
-    /**
-     * Uses plain java loop instead of streams for performance
-     * (this is called often enough it can make a measurable difference)
-     */
     public double actionTotValue(AbstractAction action, int playerId) {
-        ActionStats stats = actionValues.get(action);
-        return stats == null ? 0.0 : stats.totValue[playerId];
+        return actionValues.totValue(actionValues.indexOf(action), playerId);
     }
 
     public double nodeValue(int playerId) {
         if (nVisits == 0) return 0.0;
-        return actionValues.values().stream().mapToDouble(s -> s.totValue[playerId]).sum() / nVisits;
-    }
-
-    private double actionSquaredValue(AbstractAction action, int playerId) {
-        ActionStats stats = actionValues.get(action);
-        return stats == null ? 0.0 : stats.squaredTotValue[playerId];
+        double total = 0.0;
+        for (int i = 0; i < actionValues.size(); i++)
+            total += actionValues.totValue(i, playerId);
+        return total / nVisits;
     }
 
     /**
      * Uses only by TreeStatistics and bestAction() after mctsSearch()
-     * For this reason not converted to old-style java loop as there would be no performance gain
      */
     int[] actionVisits() {
-        return actionValues.values().stream()
-                .mapToInt(a -> a.nVisits)
-                .toArray();
+        return Arrays.copyOf(actionValues.nVisits, actionValues.size());
     }
 
     /**
@@ -517,8 +558,10 @@ public class SingleTreeNode {
             // depending on the advantage heuristic used.
             // However, we do break ties in favour of already expanded actions
             List<AbstractAction> sortedActions = new ArrayList<>(allAvailable);
-            sortedActions.sort(Comparator.comparingDouble(a -> -actionValueEstimates.getOrDefault(a, 0.0) -
-                    actionValues.getOrDefault(a, new ActionStats(1)).nVisits * 1e-6));
+            sortedActions.sort(Comparator.comparingDouble(a -> {
+                int index = actionValues.indexOf(a);
+                return -actionValues.valueEstimate(index) - actionValues.visits(index) * 1e-6;
+            }));
             return new ArrayList<>(sortedActions.subList(0, actionsToConsider));
         }
         return new ArrayList<>(allAvailable);
@@ -530,11 +573,14 @@ public class SingleTreeNode {
         int nextPlayer = params.opponentTreePolicy.selfOnlyTree ? decisionPlayer : nextState.getCurrentPlayer();
         SingleTreeNode tn = createChildNode(actionCopy, nextState);
         // It is possible that we are expanding a node because a different player is the next to act
-        SingleTreeNode[] newNodeArray = children.get(actionCopy);
+        int index = actionValues.indexOf(actionCopy);
+        if (index < 0)
+            index = actionValues.add(actionCopy.copy(), nextState.getNPlayers());
+        SingleTreeNode[] newNodeArray = actionValues.children[index];
         if (newNodeArray == null)
             newNodeArray = new SingleTreeNode[nextState.getNPlayers()];
         newNodeArray[nextPlayer] = tn; // we store this by id of the player who will take their turn next
-        children.put(actionCopy, newNodeArray);
+        actionValues.children[index] = newNodeArray;
         return tn;
     }
 
@@ -639,11 +685,10 @@ public class SingleTreeNode {
                     // Find child with highest UCB value
                     AbstractAction bestAction = null;
                     double bestValue = -Double.MAX_VALUE;
-                    for (AbstractAction availableAction : availableActions) {
-                        double uctValue = ucbValue(availableAction);
-                        if (uctValue > bestValue) {
-                            bestValue = uctValue;
-                            bestAction = availableAction;
+                    for (int i = 0; i < availableActions.size(); i++) {
+                        if (actionValues[i] > bestValue) {
+                            bestValue = actionValues[i];
+                            bestAction = availableActions.get(i);
                         }
                     }
                     yield bestAction;
@@ -679,7 +724,7 @@ public class SingleTreeNode {
         // We check to see if we have finished. This is true if the gameState is terminal; or if
         // this is a selfOnly tree and it is terminal for the root decision player
 
-        SingleTreeNode[] nodeArray = children.get(actionChosen);
+        SingleTreeNode[] nodeArray = actionValues.children(actionChosen);
         if (nodeArray == null) return null;
         if (params.information == Closed_Loop) {
             // in this case we have determinism...there should just be a single child node in the array...so we get that
@@ -702,35 +747,45 @@ public class SingleTreeNode {
     // Returns the values according to the selection policy (UCB, EXP3, etc.)
     // This is stage 1 of processing, before we use these to pick an action to take
     protected double[] actionValues(List<AbstractAction> actionsToConsider) {
-        double[] retValue = new double[actionsToConsider.size()];
-        for (int i = 0; i < actionsToConsider.size(); i++) {
-            AbstractAction action = actionsToConsider.get(i);
+        return actionValues(actionValues.indicesOf(actionsToConsider));
+    }
+
+    /**
+     * As actionValues(List), for the actions at the given indices in actionValues
+     * (-1 for any not yet seen at this node).
+     */
+    protected double[] actionValues(int[] actionIndices) {
+        double[] retValue = new double[actionIndices.length];
+        // this is the same for all actions, so we only calculate it once
+        double nodeValue = params.treePolicy == RegretMatching || params.treePolicy == EXP3 ? nodeValue(decisionPlayer) : 0.0;
+        for (int i = 0; i < actionIndices.length; i++) {
+            int index = actionIndices[i];
             retValue[i] = switch (params.treePolicy) {
                 case Uniform -> 1.0;
-                case Greedy -> getFullValue(action);
-                case UCB, AlphaGo, UCB_Tuned -> ucbValue(action);
-                case RegretMatching -> rmValue(action);
-                case EXP3 -> exp3Value(action);
+                case Greedy -> getFullValue(index);
+                case UCB, AlphaGo, UCB_Tuned -> ucbValue(index);
+                case RegretMatching -> rmValue(index, nodeValue);
+                case EXP3 -> exp3Value(index, nodeValue);
             };
         }
         return retValue;
     }
 
-    private double getFullValue(AbstractAction action) {
-        double value = getActionValue(action);
-        int actionVisits = actionVisits(action);
+    private double getFullValue(int index) {
+        double value = getActionValue(index);
+        int actionVisits = actionValues.visits(index);
         if (params.normaliseRewards && actionVisits > 0) {
             value = normalise(value, root.lowReward, root.highReward);
         }
         if (params.progressiveBias > 0)
-            value += getBiasValue(action);
+            value += getBiasValue(index);
         // apply OMA
-        value = getOMAValue(action, value);
+        value = getOMAValue(index, value);
         return value;
     }
 
-    private double getOMAValue(AbstractAction action, double childValue) {
-        int actionVisits = actionVisits(action);
+    private double getOMAValue(int index, double childValue) {
+        int actionVisits = actionValues.visits(index);
         double retValue = childValue;
         // consider OMA term
         if (params.omaVisits > 0 && (params.opponentTreePolicy == OMA_All || params.opponentTreePolicy == OMA)) {
@@ -755,7 +810,7 @@ public class SingleTreeNode {
                         throw new AssertionError("We have somehow failed to find the OMA node for this action");
                     }
                 } else {
-                    OMATreeNode.OMAStats stats = tmp.get(action);
+                    OMATreeNode.OMAStats stats = index < 0 ? null : tmp.get(actionValues.action(index));
                     if (stats != null && stats.OMAVisits > 0) {
                         double omaValue = stats.OMATotValue / stats.OMAVisits;
                         retValue = (1.0 - beta) * childValue + beta * omaValue;
@@ -766,15 +821,15 @@ public class SingleTreeNode {
         return retValue;
     }
 
-    private double ucbValue(AbstractAction action) {
+    private double ucbValue(int index) {
 
         // Find 'UCB' value - this is the base to which we then add exploration
-        double childValue = getFullValue(action);
-        int actionVisits = actionVisits(action);
+        double childValue = getFullValue(index);
+        int actionVisits = actionValues.visits(index);
 
         // Now for the exploration term
         // default to standard UCB
-        int effectiveTotalVisits = validVisitsFor(action);
+        int effectiveTotalVisits = validVisitsFor(index);
         // use first play urgency as replacement for exploration term if action not previously taken
         // we add in the second term based on the AlphaGo selection rule, so that the exploration term is monotonically increasing with N
         // this will come into play for small values of FPU and acts as soft-pruning rather than the harder form if FPU is a fixed constant
@@ -784,13 +839,13 @@ public class SingleTreeNode {
                 case UCB_Tuned -> {
                     double range = root.highReward - root.lowReward;
                     if (range < 1e-6) range = 1e-6;
-                    double meanSq = actionSquaredValue(action, decisionPlayer) / actionVisits;
+                    double meanSq = actionValues.squaredTotValue(index, decisionPlayer) / actionVisits;
                     double standardVar = 0.25;
                     if (params.normaliseRewards) {
                         // we also need to standardise the sum of squares to calculate the variance
                         meanSq = (meanSq
                                 + root.lowReward * root.lowReward
-                                - 2 * root.lowReward * actionTotValue(action, decisionPlayer) / actionVisits
+                                - 2 * root.lowReward * actionValues.totValue(index, decisionPlayer) / actionVisits
                         ) / (range * range);
                     } else {
                         // we need to modify the standard variance as it is not on a 0..1 basis (which is where 0.25 comes from)
@@ -807,7 +862,7 @@ public class SingleTreeNode {
         if (params.pUCT) {
             // in this case we multiply the exploration term by the pUCT factor (the probability that the action would be taken by
             // our actionHeuristic). These were calculated in setActionsFromOpenLoopState
-            explorationTerm *= actionPDFEstimates.get(action);
+            explorationTerm *= actionValues.pdfEstimates[index];
         }
 
         // Paranoid/SelfOnly control determines childValue here
@@ -823,22 +878,26 @@ public class SingleTreeNode {
     }
 
     public double exp3Value(AbstractAction action) {
-        double actionValue = getActionValue(action);
-        int actionVisits = actionVisits(action);
+        return exp3Value(actionValues.indexOf(action), nodeValue(decisionPlayer));
+    }
+
+    private double exp3Value(int index, double nodeValue) {
+        double actionValue = getActionValue(index);
+        int actionVisits = actionValues.visits(index);
         // we then normalise to [0, 1], or we subtract the mean action value to get an advantage (and reduce risk of
         // NaN or Infinities when we exponentiate)
         if (actionVisits > 0) {
             if (params.normaliseRewards)
                 actionValue = normalise(actionValue, root.lowReward, root.highReward);
             else
-                actionValue = actionValue - nodeValue(decisionPlayer);
+                actionValue = actionValue - nodeValue;
         }
         if (params.progressiveBias > 0)
-            actionValue += getBiasValue(action);
+            actionValue += getBiasValue(index);
         double retValue = Math.exp(actionValue / params.exp3Boltzmann);
 
         if (Double.isNaN(retValue) || Double.isInfinite(retValue)) {
-            System.out.printf("We have a non-number %s in EXP3 (from %.0f) somewhere from %s %n", retValue, actionValue, action);
+            System.out.printf("We have a non-number %s in EXP3 (from %.0f) somewhere from %s %n", retValue, actionValue, index < 0 ? null : actionValues.action(index));
             retValue = 1e6;  // to avoid numeric issues later
         }
         // We add FPU after exponentiation for safety (as it likely a large number)
@@ -849,15 +908,18 @@ public class SingleTreeNode {
     }
 
     public double rmValue(AbstractAction action) {
-        double actionValue = getActionValue(action);
+        return rmValue(actionValues.indexOf(action), nodeValue(decisionPlayer));
+    }
+
+    private double rmValue(int index, double nodeValue) {
+        double actionValue = getActionValue(index);
         if (params.progressiveBias > 0)
-            actionValue += getBiasValue(action);
-        double nodeValue = nodeValue(decisionPlayer);
+            actionValue += getBiasValue(index);
         // potential value is our estimate of our accumulated reward if we had always taken this action
         double potentialValue = actionValue * nVisits;
         double regret = potentialValue - nodeValue * nVisits;
         // We add FPU after all the exponentiation for safety
-        int actionVisits = actionVisits(action);
+        int actionVisits = actionValues.visits(index);
         if (actionVisits == 0) {
             regret += params.firstPlayUrgency;
         }
@@ -865,15 +927,15 @@ public class SingleTreeNode {
     }
 
 
-    private double getActionValue(AbstractAction action) {
-        int actionVisits = actionVisits(action);
+    private double getActionValue(int index) {
+        int actionVisits = actionValues.visits(index);
         // if we are at 'expansion' phase, then we break ties by expansion policy (which is the same actionHeuristic as progressive bias)
-        return actionVisits > 0 ? actionTotValue(action, decisionPlayer) / actionVisits : 0.0;
+        return actionVisits > 0 ? actionValues.totValue(index, decisionPlayer) / actionVisits : 0.0;
     }
 
-    private double getBiasValue(AbstractAction action) {
-        int actionVisits = actionVisits(action);
-        return params.progressiveBias * actionValueEstimates.getOrDefault(action, 0.0) / (actionVisits + 1);
+    private double getBiasValue(int index) {
+        int actionVisits = actionValues.visits(index);
+        return params.progressiveBias * actionValues.valueEstimate(index) / (actionVisits + 1);
     }
 
     /**
@@ -1020,38 +1082,44 @@ public class SingleTreeNode {
         List<AbstractAction> actionsToConsider = actionsToConsider(actionsFromOpenLoopState);
 
         // then we update the statistics for the action taken
-        if (!actionsToConsider.contains(actionTaken)) {
+        int taken = actionValues.indexOf(actionTaken);
+        int[] considered = actionValues.indicesOf(actionsToConsider);
+        boolean actionWasValid = false;
+        for (int index : considered)
+            if (index == taken && taken >= 0) actionWasValid = true;
+        if (!actionWasValid) {
             if (params.opponentTreePolicy != MCGS && params.opponentTreePolicy != MCGSSelfOnly)
                 throw new AssertionError("We have somehow failed to find the action taken in the list of valid actions");
 
             // If MCGS, then this is possible if we have looped in the graph, so that OpenLoopState refers
             // to a different state than the one for which the action was taken. This is awkward.
             // In the absence of any good information, we just increment the valid visits of all actions
-            for (ActionStats stats : actionValues.values()) {
-                stats.validVisits++;
+            for (int i = 0; i < actionValues.size(); i++) {
+                actionValues.validVisits[i]++;
             }
         } else {
-            for (AbstractAction action : actionsToConsider) {
-                if (!actionValues.containsKey(action))
-                    actionValues.put(action, new ActionStats(result.length));
-                actionValues.get(action).validVisits++;
+            for (int i = 0; i < considered.length; i++) {
+                if (considered[i] < 0)
+                    considered[i] = actionValues.add(actionsToConsider.get(i).copy(), result.length);
+                actionValues.validVisits[considered[i]]++;
             }
         }
-        ActionStats stats = actionValues.get(actionTaken);
-        if (stats == null)
+        if (taken < 0)
             throw new AssertionError("We have somehow failed to find the action taken in the list of actions");
-        if (stats.validVisits == 0)
+        if (actionValues.validVisits[taken] == 0)
             throw new AssertionError("We have somehow failed to find the action taken in the list of valid actions");
 
-        stats.update(result);
+        actionValues.update(taken, result);
 
         if (params.treePolicy == RegretMatching && nVisits >= actionsToConsider.size() && nVisits % Math.max(actionsToConsider.size(), 10) == 0) {
             // we update the average policy each time we have had the opportunity to take each action once (or every 10 visits, if that is greater)
-            double[] av = actionValues(actionsToConsider);
+            double[] av = actionValues(considered);
             double[] pdf = pdf(av);
-            for (int i = 0; i < actionsToConsider.size(); i++) {
-                regretMatchingAverage.merge(actionsToConsider.get(i), pdf[i], Double::sum);
+            for (int i = 0; i < considered.length; i++) {
+                if (considered[i] >= 0)
+                    actionValues.regretMatchingAverage[considered[i]] += pdf[i];
             }
+            actionValues.hasRegretMatchingAverage = true;
         }
 
         if (params.backupPolicy == MCTSEnums.BackupPolicy.MonteCarlo)
@@ -1059,10 +1127,11 @@ public class SingleTreeNode {
 
         // otherwise we do some more complex backup
         double resultToPropagateUpwards[] = result.clone();
-        AbstractAction bestAction = bestAction(actionsToConsider);
-        double[] maxValue = actionValues.get(bestAction).totValue.clone();
+        int best = bestActionIndex(considered);
+        int maxIndex = best < 0 ? taken : best;
+        double[] maxValue = new double[result.length];
         for (int i = 0; i < maxValue.length; i++) {
-            maxValue[i] /= actionValues.get(bestAction).nVisits;
+            maxValue[i] = actionValues.totValue(maxIndex, i) / actionValues.visits(maxIndex);
         }
         return switch (params.backupPolicy) {
             case MonteCarlo:
@@ -1070,7 +1139,7 @@ public class SingleTreeNode {
             case Lambda:
                 // SARSA-style on-policy update. We weight the action average by 1 - lambda
                 for (int i = 0; i < result.length; i++) {
-                    resultToPropagateUpwards[i] = params.backupLambda * result[i] + (1.0 - params.backupLambda) * stats.totValue[i] / stats.nVisits;
+                    resultToPropagateUpwards[i] = params.backupLambda * result[i] + (1.0 - params.backupLambda) * actionValues.totValue(taken, i) / actionValues.visits(taken);
                 }
                 yield resultToPropagateUpwards;
             case MaxLambda:
@@ -1083,12 +1152,12 @@ public class SingleTreeNode {
                 if (nVisits > params.maxBackupThreshold) {
                     // in this case we mix in a max backup
                     // *if* we took an action other than the one with the current best estimate
-                    if (bestAction == null) {
+                    if (best < 0) {
                         // this can happen for low maxBackupCounts with no actions available
                         // we default to ignoring Max functionality
-                        bestAction = actionTaken;
+                        best = taken;
                     }
-                    if (!bestAction.equals(actionTaken)) {
+                    if (best != taken) {
                         double maxWeight = (nVisits - params.maxBackupThreshold) / (double) nVisits;
                         // we mix for all players, based on the counterfactual decision of the acting player
                         for (int i = 0; i < result.length; i++) {
@@ -1104,20 +1173,29 @@ public class SingleTreeNode {
     }
 
     public AbstractAction bestAction(List<AbstractAction> actionsToConsider) {
-        AbstractAction bestAction = null;
+        int best = bestActionIndex(actionValues.indicesOf(actionsToConsider));
+        return best < 0 ? null : actionValues.action(best);
+    }
+
+    /**
+     * @return the index of the action with the highest mean value to the decision player (or a random one if none
+     * have been visited), or -1 if there are no actions
+     */
+    private int bestActionIndex(int[] actionIndices) {
+        int best = -1;
         double maxValue = -Double.MAX_VALUE;
-        for (AbstractAction action : actionsToConsider) {
-            ActionStats temp = actionValues.get(action);
-            double value = temp.nVisits == 0 ? -Double.MAX_VALUE :
-                    temp.totValue[decisionPlayer] / temp.nVisits;
+        for (int index : actionIndices) {
+            int visits = actionValues.visits(index);
+            double value = visits == 0 ? -Double.MAX_VALUE :
+                    actionValues.totValue(index, decisionPlayer) / visits;
             if (value > maxValue) {
                 maxValue = value;
-                bestAction = action;
+                best = index;
             }
         }
-        if (bestAction == null)
-            return actionsToConsider.get(rnd.nextInt(actionsToConsider.size()));
-        return bestAction;
+        if (best < 0 && actionIndices.length > 0)
+            return actionIndices[rnd.nextInt(actionIndices.length)];
+        return best;
     }
 
 
@@ -1125,11 +1203,9 @@ public class SingleTreeNode {
         for (Pair<Integer, AbstractAction> pair : rolloutActions) {
             AbstractAction action = pair.b;
             int player = pair.a;
-            Object actionKey = params.MASTActionKey == null ? action.copy() : params.MASTActionKey.key(action);
-            Pair<Integer, Double> stats = MASTStatistics.get(player).getOrDefault(actionKey, new Pair<>(0, 0.0));
-            stats.a++;  // visits
-            stats.b += delta[player];   // value
-            MASTStatistics.get(player).put(actionKey, stats);
+            // the table copies the action if it is new to it
+            Object actionKey = params.MASTActionKey == null ? action : params.MASTActionKey.key(action);
+            MASTStatistics.update(player, actionKey, delta[player]);
         }
     }
 
@@ -1153,7 +1229,7 @@ public class SingleTreeNode {
         if (params.treePolicy == EXP3) {
             // EXP3 uses the tree policy (without exploration)
             bestAction = treePolicyAction(false);
-        } else if (params.treePolicy == RegretMatching && !regretMatchingAverage.isEmpty()) {
+        } else if (params.treePolicy == RegretMatching && actionValues.hasRegretMatchingAverage) {
             // RM uses a special policy as the average of all previous root policies
             bestAction = regretMatchingAverage();
         } else {
@@ -1169,23 +1245,21 @@ public class SingleTreeNode {
                 availableActions = actionsToConsider(forwardModel.computeAvailableActions(state, params.actionSpace));
             }
             for (AbstractAction action : availableActions) {
-                if (!actionValues.containsKey(action)) {
+                int index = actionValues.indexOf(action);
+                if (index < 0) {
                     throw new AssertionError("Hashcode / equals contract issue for " + action);
                 }
-                if (actionValues.get(action) != null) {
-                    ActionStats stats = actionValues.get(action);
-                    double childValue = stats.nVisits; // if ROBUST
-                    if (policy == SIMPLE)
-                        childValue = stats.totValue[decisionPlayer] / (stats.nVisits + params.noiseEpsilon);
-
-                    // Apply small noise to break ties randomly
-                    childValue = noise(childValue, params.noiseEpsilon, rnd.nextDouble());
-
-                    // Save best value
-                    if (childValue > bestValue) {
-                        bestValue = childValue;
-                        bestAction = action;
-                    }
+                double childValue = actionValues.nVisits[index]; // if ROBUST
+                if (policy == SIMPLE)
+                    childValue = actionValues.totValue(index, decisionPlayer) / (actionValues.nVisits[index] + params.noiseEpsilon);
+
+                // Apply small noise to break ties randomly
+                childValue = noise(childValue, params.noiseEpsilon, rnd.nextDouble());
+
+                // Save best value
+                if (childValue > bestValue) {
+                    bestValue = childValue;
+                    bestAction = action;
                 }
             }
         }
@@ -1193,7 +1267,9 @@ public class SingleTreeNode {
         if (bestAction == null) {
             if (nVisits < 2) {
 //                System.out.println("Only one visit to root node - insufficient information - hopefully due to JVM warming up");
-                bestAction = actionValues.keySet().stream().findFirst().orElseThrow(() -> new AssertionError("No children"));
+                if (actionValues.isEmpty())
+                    throw new AssertionError("No children");
+                bestAction = actionValues.action(0);
             } else
                 throw new AssertionError("Unexpected - no selection made.");
         }
@@ -1202,19 +1278,14 @@ public class SingleTreeNode {
     }
 
     protected AbstractAction regretMatchingAverage() {
-        double[] potentials = new double[regretMatchingAverage.size()];
-        int count = 0;
-        for (AbstractAction action : regretMatchingAverage.keySet()) {
-            if (actionsFromOpenLoopState.contains(action)) {
-                potentials[count] = regretMatchingAverage.get(action);
-            } else {
-                potentials[count] = 0.0;
-            }
-            count++;
+        // only the actions available in the current state are considered
+        double[] potentials = new double[actionValues.size()];
+        for (int index : actionValues.indicesOf(actionsFromOpenLoopState)) {
+            if (index >= 0)
+                potentials[index] = actionValues.regretMatchingAverage[index];
         }
         double[] pdf = pdf(potentials);
-        int index = sampleFrom(pdf, rnd.nextDouble());
-        return regretMatchingAverage.keySet().stream().skip(index).findFirst().orElseThrow(() -> new AssertionError("No action found"));
+        return actionValues.action(sampleFrom(pdf, rnd.nextDouble()));
     }
 
     public int getVisits() {
@@ -1229,8 +1300,19 @@ public class SingleTreeNode {
         redeterminisationPlayer = player;
     }
 
+    /**
+     * Children of this node. The value is an Array because we have to cater for the possibility that the next decision
+     * could be by any player - each of which would transition to a different Node OpenLoop search. (Closed Loop will
+     * only ever have one position in the array populated: and similarly if we are using a SelfOnly tree).
+     * The value is null for actions that have not been expanded.
+     * <p>
+     * This is built from the ActionStatsTable on each call, and is not updated as the tree grows.
+     */
     public Map<AbstractAction, SingleTreeNode[]> getChildren() {
-        return children;
+        Map<AbstractAction, SingleTreeNode[]> retValue = new LinkedHashMap<>();
+        for (int i = 0; i < actionValues.size(); i++)
+            retValue.put(actionValues.action(i), actionValues.children[i]);
+        return retValue;
     }
 
     public AbstractAction getActionToReach() {
@@ -1290,11 +1372,11 @@ public class SingleTreeNode {
         while (!nodeQueue.isEmpty()) {
             SingleTreeNode node = nodeQueue.poll();
             retValue.add(node);
-            nodeQueue.addAll(node.getChildren().values().stream()
-                    .filter(Objects::nonNull)
-                    .flatMap(Arrays::stream)
-                    .filter(Objects::nonNull)
-                    .collect(toList()));
+            for (int i = 0; i < node.actionValues.size(); i++) {
+                if (node.actionValues.children[i] == null) continue;
+                for (SingleTreeNode child : node.actionValues.children[i])
+                    if (child != null) nodeQueue.add(child);
+            }
         }
         return retValue;
     }
@@ -1313,7 +1395,8 @@ public class SingleTreeNode {
                     .collect(joining(", "));
         }
         retValue.append(String.format("%d total visits, value %s, with %d children, %d actions, depth %d, FMCalls %d: \n",
-                nVisits, valueString, children.size(), actionValues.size(), depth, fmCallsCount));
+                nVisits, valueString, (int) Arrays.stream(actionValues.children, 0, actionValues.size()).filter(Objects::nonNull).count(),
+                actionValues.size(), depth, fmCallsCount));
         // sort all actions by visit count
         List<AbstractAction> sortedActions = actionValues.keySet().stream()
                 .filter(Objects::nonNull)
@@ -1323,12 +1406,12 @@ public class SingleTreeNode {
         for (AbstractAction action : sortedActions) {
             String actionName = action.toString();
             int actionVisits = actionVisits(action);
-            int effectiveVisits = validVisitsFor(action);
+            int effectiveVisits = validVisitsFor(actionValues.indexOf(action));
             if (actionName.length() > 50)
                 actionName = actionName.substring(0, 50);
             valueString = String.format("%.2f", actionTotValue(action, decisionPlayer) / actionVisits);
             if (params.opponentTreePolicy == OneTree) {
-                int players = state == null ? children.get(action).length : state.getNPlayers();
+                int players = state == null ? actionValues.nPlayers : state.getNPlayers();
                 valueString = IntStream.range(0, players)
                         .mapToObj(p -> String.format("%.2f", actionTotValue(action, p) / actionVisits))
                         .collect(joining(", "));
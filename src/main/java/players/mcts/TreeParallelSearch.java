@@ -0,0 +1,178 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.actions.AbstractAction;
+import utilities.ElapsedCpuTimer;
+import utilities.Pair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static players.PlayerConstants.BUDGET_TIME;
+import static players.mcts.MCTSEnums.Information.Closed_Loop;
+import static players.mcts.MCTSEnums.TreePolicy.UCB_Tuned;
+
+/**
+ * Tree parallelisation of SingleTreeNode.mctsSearch(), in which several threads run iterations on one shared tree.
+ * <p>
+ * The tree is not thread-safe, so selection + expansion and back-propagation are done holding a single lock on the
+ * tree. The copy of the root state at the start of each iteration, and the rollout, are done without the lock, and
+ * these can run in parallel. Each rollout is run on a detached node (see SingleTreeNode.rolloutNode()) with the rollout
+ * policy, opponent model and forward model of that thread's worker, so that these are never shared between threads.
+ * <p>
+ * While a thread is rolling out, each action on its path through the tree has virtualLoss extra visits at the lowest
+ * reward seen so far. This makes the other threads less likely to follow the same path, and is removed before the
+ * real result is backed up.
+ * <p>
+ * The iteration, FM call and copy budgets are for the tree as a whole, and are counted on the root across all the threads.
+ * With a time budget each thread searches for the full time.
+ */
+class TreeParallelSearch {
+
+    private final SingleTreeNode root;
+    private final ReentrantLock treeLock = new ReentrantLock();
+    private int numIters;
+    // determinisations for Information_Set search, shared by all the threads (null if they make their own)
+    private DeterminisationPool pool;
+
+    TreeParallelSearch(SingleTreeNode root) {
+        this.root = root;
+    }
+
+    /**
+     * Runs the search, with one thread for each worker.
+     *
+     * @param initialisationTime - time already spent on this decision (in ms)
+     * @param workers            - one player per thread, each with its own copy of the parameters and forward model
+     * @param executor           - the threads to run the workers on
+     */
+    void search(long initialisationTime, List<MCTSPlayer> workers, ExecutorService executor) {
+        root.initialiseRootMetrics();
+        root.initialisationTimeTaken = initialisationTime;
+        if (root.redeterminisationPlayer == -1)
+            root.redeterminisationPlayer = root.decisionPlayer;
+        numIters = 0;
+        long startTime = System.nanoTime();
+
+        pool = root.determinisationPool();
+        List<Future<?>> running = new ArrayList<>();
+        for (MCTSPlayer worker : workers)
+            running.add(executor.submit(() -> runWorker(worker, initialisationTime)));
+        try {
+            for (Future<?> future : running)
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during parallel MCTS search", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error in parallel MCTS search", e.getCause());
+        } finally {
+            if (pool != null)
+                pool.close();
+        }
+        root.timeTaken = (System.nanoTime() - startTime) / 1e6;
+    }
+
+    private void runWorker(MCTSPlayer worker, long initialisationTime) {
+        MCTSParams params = root.params;
+        ElapsedCpuTimer elapsedTimer = new ElapsedCpuTimer();
+        if (params.budgetType == BUDGET_TIME) {
+            elapsedTimer.setMaxTimeMillis(params.budget - initialisationTime);
+        }
+        SingleTreeNode rolloutNode = root.rolloutNode(worker);
+        int workerIters = 0;
+
+        while (true) {
+            // the root state is not changed during the search, so each thread can take its own copy without the lock
+            AbstractGameState iterationState = switch (params.information) {
+                case Closed_Loop -> root.state;
+                case Open_Loop -> root.state.copy();
+                case Information_Set -> pool == null ? root.state.copy(root.redeterminisationPlayer) : pool.next();
+            };
+
+            SingleTreeNode selected;
+            List<SingleTreeNode> trajectory;
+            List<Pair<Integer, AbstractAction>> actionsInTree;
+            List<List<AbstractAction>> actionsAvailable = new ArrayList<>();
+            AbstractGameState leafState, leafMasterState;
+            int virtualVisits;
+            double loss;
+            treeLock.lock();
+            try {
+                if (root.budgetExhausted(elapsedTimer, workerIters, numIters, params.budget))
+                    break;
+                numIters++;
+                if (params.information != Closed_Loop)
+                    root.copyCount++;
+                root.actionsInTree = new ArrayList<>();
+                root.currentNodeTrajectory = new ArrayList<>();
+                root.actionsInRollout = new ArrayList<>();
+                root.setActionsFromOpenLoopState(iterationState);
+
+                selected = root.treePolicy();
+
+                // Other threads will move through the same nodes before we back up, so we keep everything that
+                // backUp() needs from this iteration
+                trajectory = root.currentNodeTrajectory;
+                actionsInTree = root.actionsInTree;
+                for (SingleTreeNode node : trajectory)
+                    actionsAvailable.add(node.actionsFromOpenLoopState);
+                leafState = selected.openLoopState;
+                leafMasterState = selected.state;
+                // If we track the range of rewards, then a loss is the lowest reward seen (and until the first
+                // result is backed up we do not know what that is, so we add no virtual loss). Otherwise it is zero.
+                boolean rewardsTracked = params.normaliseRewards || params.treePolicy == UCB_Tuned;
+                virtualVisits = rewardsTracked && Double.isInfinite(root.lowReward) ? 0 : params.virtualLoss;
+                loss = rewardsTracked ? root.lowReward : 0.0;
+                addVirtualLoss(trajectory, actionsInTree, virtualVisits, loss);
+            } finally {
+                treeLock.unlock();
+            }
+
+            int lastActorInTree = actionsInTree.isEmpty() ? root.decisionPlayer : actionsInTree.get(actionsInTree.size() - 1).a;
+            rolloutNode.openLoopState = leafState;
+            rolloutNode.state = leafMasterState;
+            rolloutNode.actionsInRollout = new ArrayList<>();
+            rolloutNode.fmCallsCount = 0;
+            rolloutNode.copyCount = 0;
+            double[] delta = rolloutNode.rollout(lastActorInTree);
+            workerIters++;
+
+            treeLock.lock();
+            try {
+                addVirtualLoss(trajectory, actionsInTree, -virtualVisits, loss);
+                for (int i = 0; i < trajectory.size(); i++)
+                    trajectory.get(i).actionsFromOpenLoopState = actionsAvailable.get(i);
+                root.actionsInTree = actionsInTree;
+                root.currentNodeTrajectory = trajectory;
+                root.actionsInRollout = rolloutNode.actionsInRollout;
+                root.fmCallsCount += rolloutNode.fmCallsCount;
+                root.copyCount += rolloutNode.copyCount;
+                root.rolloutActionsTaken += rolloutNode.actionsInRollout.size();
+
+                selected.backUp(delta);
+                root.updateMASTStatistics(actionsInTree, rolloutNode.actionsInRollout, delta);
+            } finally {
+                treeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Adds (or with negative visits, removes) visits at the given value to each action taken on the trajectory.
+     */
+    private void addVirtualLoss(List<SingleTreeNode> trajectory, List<Pair<Integer, AbstractAction>> actionsInTree,
+                                int visits, double loss) {
+        if (visits == 0)
+            return;
+        for (int i = 0; i < trajectory.size(); i++) {
+            SingleTreeNode node = trajectory.get(i);
+            int index = node.actionValues.indexOf(actionsInTree.get(i).b);
+            node.actionValues.addVisits(index, node.decisionPlayer, visits, loss);
+        }
+    }
+}
@@ -89,7 +89,7 @@ public class TreeRecorder {
                 fileWriter.write(output.toString());
 
                 // add children of current node to queue
-                for (SingleTreeNode child : node.children.values().stream()
+                for (SingleTreeNode child : node.getChildren().values().stream()
                         .filter(Objects::nonNull)
                         .flatMap(Arrays::stream)
                         .filter(Objects::nonNull)
@@ -39,8 +39,8 @@ public class TreeStatistics {
         meanActionsAtNode = transpositionMap.values().stream().mapToInt(n -> n.actionValues.size()).sum() / (double) totalNodes;
         meanActionsExpanded = transpositionMap.values().stream()
                 .mapToInt(
-                        n -> (int) n.actionValues.values().stream()
-                                .filter(stats -> stats.nVisits > root.params.initialiseVisits)
+                        n -> (int) Arrays.stream(n.actionVisits())
+                                .filter(visits -> visits > root.params.initialiseVisits)
                                 .count()
                 ).sum() / (double) Math.max(totalNodes - totalLeaves, 1);
         maxActionsAtNode = transpositionMap.values().stream().mapToInt(n -> n.actionValues.size()).max().orElse(0);
@@ -86,12 +86,12 @@ public class TreeStatistics {
                     gameTerminalNodesAtDepth[node.depth]++;
                 totalActions += node.actionValues.size();
                 // We have expanded an action if it has been visited more often than initialiseVisits
-                expandedActions += (int) node.actionValues.values().stream().filter(stats -> stats.nVisits > root.params.initialiseVisits).count();
+                expandedActions += (int) Arrays.stream(node.actionVisits()).filter(visits -> visits > root.params.initialiseVisits).count();
                 if (node.actionValues.size() == 1)
                     oneAction++;
                 if (node.actionValues.size() > maxActions)
                     maxActions = node.actionValues.size();
-                for (SingleTreeNode child : node.children.values().stream()
+                for (SingleTreeNode child : node.getChildren().values().stream()
                         .filter(Objects::nonNull)
                         .flatMap(Arrays::stream)
                         .filter(Objects::nonNull)
@@ -99,7 +99,7 @@ public class TreeStatistics {
                     if (child != null)
                         nodeQueue.add(child);
                 }
-                if (node.actionValues.values().stream().allMatch(stats -> stats.nVisits <= root.params.initialiseVisits))
+                if (Arrays.stream(node.actionVisits()).allMatch(visits -> visits <= root.params.initialiseVisits))
                     leavesAtDepth[node.depth]++;
             }
             if (node.depth > greatestDepth)
@@ -19,6 +19,7 @@ public class PythonAgent extends AbstractPlayer {
 
     @Override
     public AbstractPlayer copy() {
-        return null;
+        // there is nothing to copy, as the decisions are made in Python
+        return new PythonAgent();
     }
 }
@@ -29,6 +29,9 @@ public class MaxNSearchPlayer extends AbstractPlayer {
      *
      * Additionally, the BUDGET can be specified as a cutoff for the search. If this much time passes
      * without the search finishing, the best action found so far is returned (likely to be pretty random).
+     *
+     * If the forward model supports undo, then actions are applied to and undone on the one state,
+     * rather than each being applied to a new copy of the state.
      */
 
 
@@ -89,28 +92,37 @@ public class MaxNSearchPlayer extends AbstractPlayer {
         AbstractAction bestAction = null;
         // we shuffle the actions so that ties are broken at random
         Collections.shuffle(actions, getRnd());
+        AbstractForwardModel forwardModel = getForwardModel();
+        boolean undo = forwardModel.supportsUndo(state);
+        int currentPlayer = state.getCurrentPlayer();
+        int turnCounter = state.getTurnCounter();
         for (AbstractAction action : actions) {
-            AbstractGameState stateCopy = state.copy();
-            getForwardModel().next(stateCopy, action);
+            AbstractGameState nextState = undo ? state : state.copy();
+            UndoRecord undoRecord = null;
+            if (undo)
+                undoRecord = forwardModel.nextUndoable(nextState, action);
+            else
+                forwardModel.next(nextState, action);
             // if we are at the bottom, then save a bit of time by not calculating the valid actions (which we'll never try)
-            List<AbstractAction> nextActions = searchDepth > 0 ? getForwardModel().computeAvailableActions(stateCopy) : List.of();
+            List<AbstractAction> nextActions = searchDepth > 0 ? forwardModel.computeAvailableActions(nextState) : List.of();
 
             int newDepth = switch (params.searchUnit) {
                 case ACTION -> searchDepth - 1;
-                case MACRO_ACTION ->
-                        state.getCurrentPlayer() != stateCopy.getCurrentPlayer() ? searchDepth - 1 : searchDepth;
-                case TURN -> state.getTurnCounter() != stateCopy.getTurnCounter() ? searchDepth - 1 : searchDepth;
+                case MACRO_ACTION -> currentPlayer != nextState.getCurrentPlayer() ? searchDepth - 1 : searchDepth;
+                case TURN -> turnCounter != nextState.getTurnCounter() ? searchDepth - 1 : searchDepth;
             };
 
-            // recurse - we are here just interested in the value of stateCopy, and hence of taking action
-            // We are not interested in the best action from stateCopy
-            SearchResult result = expand(stateCopy, nextActions, newDepth);
+            // recurse - we are here just interested in the value of nextState, and hence of taking action
+            // We are not interested in the best action from nextState
+            SearchResult result = expand(nextState, nextActions, newDepth);
+            if (undo)
+                forwardModel.undo(state, undoRecord);
 
-            // we make the decision based on the actor at state, not the actor at stateCopy
-            if (result.value[state.getCurrentPlayer()]  > bestValue) {
+            // we make the decision based on the actor at state, not the actor at nextState
+            if (result.value[currentPlayer] > bestValue) {
                 bestAction = action;
                 bestValues = result.value;
-                bestValue = bestValues[state.getCurrentPlayer()];
+                bestValue = bestValues[currentPlayer];
             }
         }
         if (bestAction == null) {
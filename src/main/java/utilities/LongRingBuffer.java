@@ -0,0 +1,153 @@
+package utilities;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A list of primitive longs, held in a circular array in the same way as RingBufferList.
+ * <p>
+ * PartialObservableDeck uses this to hold the visibility of each of its components as a bitset (bit p is set if
+ * player p can see the component), kept in step with the components themselves.
+ */
+public class LongRingBuffer {
+
+    private long[] elements;
+    private int head;
+    private int size;
+
+    public LongRingBuffer() {
+        this(8);
+    }
+
+    public LongRingBuffer(int capacity) {
+        elements = new long[RingBufferList.arrayLength(capacity)];
+    }
+
+    public LongRingBuffer(LongRingBuffer other) {
+        this(other.size);
+        for (int j = 0; j < other.size; j++)
+            elements[j] = other.get(j);
+        size = other.size;
+    }
+
+    private int index(int i) {
+        return (head + i) & (elements.length - 1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long get(int i) {
+        Objects.checkIndex(i, size);
+        return elements[index(i)];
+    }
+
+    public void set(int i, long value) {
+        Objects.checkIndex(i, size);
+        elements[index(i)] = value;
+    }
+
+    public void swap(int i, int j) {
+        long tmp = get(i);
+        set(i, get(j));
+        set(j, tmp);
+    }
+
+    /**
+     * Sets every element to the same value
+     */
+    public void fill(long value) {
+        for (int j = 0; j < size; j++)
+            elements[index(j)] = value;
+    }
+
+    public void add(int i, long value) {
+        insert(i, 1);
+        elements[index(i)] = value;
+    }
+
+    /**
+     * Inserts n copies of value at index i
+     */
+    public void add(int i, int n, long value) {
+        insert(i, n);
+        for (int j = 0; j < n; j++)
+            elements[index(i + j)] = value;
+    }
+
+    /**
+     * Inserts the values (in order) at index i
+     */
+    public void addAll(int i, long[] values) {
+        insert(i, values.length);
+        for (int j = 0; j < values.length; j++)
+            elements[index(i + j)] = values[j];
+    }
+
+    // makes space for n new elements from index i, moving the shorter side
+    private void insert(int i, int n) {
+        Objects.checkIndex(i, size + 1);
+        if (size + n > elements.length) {
+            long[] newElements = new long[RingBufferList.arrayLength(size + n)];
+            for (int j = 0; j < size; j++)
+                newElements[j] = elements[index(j)];
+            elements = newElements;
+            head = 0;
+        }
+        if (i < size / 2) {
+            head = (head - n) & (elements.length - 1);
+            for (int j = 0; j < i; j++)
+                elements[index(j)] = elements[index(j + n)];
+        } else {
+            for (int j = size - 1; j >= i; j--)
+                elements[index(j + n)] = elements[index(j)];
+        }
+        size += n;
+    }
+
+    public long remove(int i) {
+        long retValue = get(i);
+        if (i < size / 2) {
+            for (int j = i; j > 0; j--)
+                elements[index(j)] = elements[index(j - 1)];
+            head = (head + 1) & (elements.length - 1);
+        } else {
+            for (int j = i; j < size - 1; j++)
+                elements[index(j)] = elements[index(j + 1)];
+        }
+        size--;
+        return retValue;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LongRingBuffer other) || other.size != size) return false;
+        for (int j = 0; j < size; j++)
+            if (get(j) != other.get(j))
+                return false;
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int retValue = 1;
+        for (int j = 0; j < size; j++)
+            retValue = 31 * retValue + Long.hashCode(get(j));
+        return retValue;
+    }
+
+    @Override
+    public String toString() {
+        long[] values = new long[size];
+        for (int j = 0; j < size; j++)
+            values[j] = get(j);
+        return Arrays.toString(values);
+    }
+}
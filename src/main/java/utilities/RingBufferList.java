@@ -0,0 +1,153 @@
+package utilities;
+
+import java.util.*;
+
+/**
+ * A List held in a circular array, so that adding or removing at either end is constant time (amortised), as is
+ * access by index. Adding or removing in the middle moves the elements on whichever side of the index is shorter.
+ * <p>
+ * This is used by Deck, which adds to the front (the top of the deck) and draws from the front, but which also needs
+ * fast access by index (to look at, pick or replace any card, and to shuffle).
+ */
+public class RingBufferList<T> extends AbstractList<T> implements RandomAccess {
+
+    private Object[] elements;
+    private int head;  // index in elements of the first element of the list
+    private int size;
+
+    public RingBufferList() {
+        this(8);
+    }
+
+    public RingBufferList(int capacity) {
+        elements = new Object[arrayLength(capacity)];
+    }
+
+    public RingBufferList(Collection<? extends T> other) {
+        this(other.size());
+        for (T t : other)
+            elements[size++] = t;
+    }
+
+    // the length of the array is always a power of two, so that wrapping round is a bit mask
+    static int arrayLength(int capacity) {
+        return Integer.highestOneBit(Math.max(capacity, 4) - 1) << 1;
+    }
+
+    private int index(int i) {
+        return (head + i) & (elements.length - 1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int i) {
+        Objects.checkIndex(i, size);
+        return (T) elements[index(i)];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T set(int i, T element) {
+        Objects.checkIndex(i, size);
+        int at = index(i);
+        T retValue = (T) elements[at];
+        elements[at] = element;
+        return retValue;
+    }
+
+    @Override
+    public boolean add(T element) {
+        ensureCapacity(size + 1);
+        elements[index(size)] = element;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int i, T element) {
+        Objects.checkIndex(i, size + 1);
+        ensureCapacity(size + 1);
+        if (i < size / 2) {
+            // move the first i elements one place towards the front
+            head = (head - 1) & (elements.length - 1);
+            for (int j = 0; j < i; j++)
+                elements[index(j)] = elements[index(j + 1)];
+        } else {
+            for (int j = size; j > i; j--)
+                elements[index(j)] = elements[index(j - 1)];
+        }
+        elements[index(i)] = element;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> other) {
+        return addAll(size, other);
+    }
+
+    @Override
+    public boolean addAll(int i, Collection<? extends T> other) {
+        Objects.checkIndex(i, size + 1);
+        Object[] toAdd = other.toArray();
+        int n = toAdd.length;
+        if (n == 0)
+            return false;
+        ensureCapacity(size + n);
+        if (i < size / 2) {
+            head = (head - n) & (elements.length - 1);
+            for (int j = 0; j < i; j++)
+                elements[index(j)] = elements[index(j + n)];
+        } else {
+            for (int j = size - 1; j >= i; j--)
+                elements[index(j + n)] = elements[index(j)];
+        }
+        for (int j = 0; j < n; j++)
+            elements[index(i + j)] = toAdd[j];
+        size += n;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public T remove(int i) {
+        T retValue = get(i);
+        if (i < size / 2) {
+            for (int j = i; j > 0; j--)
+                elements[index(j)] = elements[index(j - 1)];
+            elements[head] = null;
+            head = (head + 1) & (elements.length - 1);
+        } else {
+            for (int j = i; j < size - 1; j++)
+                elements[index(j)] = elements[index(j + 1)];
+            elements[index(size - 1)] = null;
+        }
+        size--;
+        modCount++;
+        return retValue;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(elements, null);
+        head = 0;
+        size = 0;
+        modCount++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > elements.length) {
+            Object[] newElements = new Object[arrayLength(capacity)];
+            for (int j = 0; j < size; j++)
+                newElements[j] = elements[index(j)];
+            elements = newElements;
+            head = 0;
+        }
+    }
+}
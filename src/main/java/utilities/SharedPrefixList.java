@@ -0,0 +1,241 @@
+package utilities;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A List that is (almost) only ever appended to, and which can be copied in constant time.
+ * <p>
+ * The elements are held in blocks of 32, in a tree with 32 children to a node (as in a persistent vector), and the
+ * last block (the tail) is held apart. Blocks and nodes in the tree are never changed once they are in it, so a
+ * copy shares the whole tree with the original, and only the tail is copied (at most 32 elements) when whichever
+ * list next changes it. Appending is then constant time for every copy, not only for the original: a full tail is
+ * put into the tree by copying the nodes on the path to it, which for a history of up to a million elements is at
+ * most four nodes. This is used for the game history, which grows all game and is carried over by every copy of the
+ * game state, but is then only added to.
+ * <p>
+ * truncate() drops elements from the end in the same way, so undoing an action (see AbstractForwardModel.undo()) and
+ * then taking another one does not copy the history. set() copies the path to the element. Inserting or removing
+ * anywhere but at the end copies the whole list.
+ * <p>
+ * Reads need no locking, so copies can be used on different threads, as long as each list is only changed by one.
+ */
+public class SharedPrefixList<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int BITS = 5, WIDTH = 1 << BITS, MASK = WIDTH - 1;
+
+    private int size;
+    private int shift = BITS;  // the bits of an index used below the root
+    private Object[] root = new Object[WIDTH];  // never changed once this list has been copied
+    private Object[] tail = new Object[WIDTH];  // the last 1 to 32 elements (none if empty)
+    private boolean ownsTail = true;  // if false, the tail may be shared, and is copied before it is changed
+
+    public SharedPrefixList() {
+    }
+
+    private SharedPrefixList(SharedPrefixList<T> other) {
+        size = other.size;
+        shift = other.shift;
+        root = other.root;
+        tail = other.tail;
+        ownsTail = false;
+    }
+
+    /**
+     * @return a copy of this list, which shares all the current elements
+     */
+    public SharedPrefixList<T> copy() {
+        ownsTail = false;
+        return new SharedPrefixList<>(this);
+    }
+
+    /**
+     * Removes all elements from newSize onwards.
+     *
+     * @param newSize - the number of elements to keep
+     */
+    public void truncate(int newSize) {
+        if (newSize < 0 || newSize > size)
+            throw new IndexOutOfBoundsException("Cannot truncate to " + newSize + " with size " + size);
+        if (newSize == 0) {
+            clear();
+            return;
+        }
+        while (size > newSize) removeLast();
+        modCount++;
+    }
+
+    // the index of the first element in the tail
+    private int tailOffset() {
+        return size == 0 ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] blockFor(int index) {
+        if (index >= tailOffset()) return tail;
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS)
+            node = (Object[]) node[(index >>> level) & MASK];
+        return node;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        return (T) blockFor(index)[index & MASK];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean add(T element) {
+        if (size - tailOffset() < WIDTH) {
+            if (!ownsTail) takeTail();
+            tail[size - tailOffset()] = element;
+        } else {
+            // the tail is full, so goes into the tree as it is, and a new one is started
+            if ((size >>> BITS) > (1 << shift)) {
+                Object[] newRoot = new Object[WIDTH];
+                newRoot[0] = root;
+                newRoot[1] = newPath(shift, tail);
+                root = newRoot;
+                shift += BITS;
+            } else {
+                root = pushTail(shift, root, tail);
+            }
+            tail = new Object[WIDTH];
+            tail[0] = element;
+            ownsTail = true;
+        }
+        size++;
+        modCount++;
+        return true;
+    }
+
+    private void takeTail() {
+        tail = tail.clone();
+        ownsTail = true;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] block) {
+        Object[] retValue = parent.clone();
+        int index = ((size - 1) >>> level) & MASK;
+        if (level == BITS) {
+            retValue[index] = block;
+        } else {
+            Object[] child = (Object[]) parent[index];
+            retValue[index] = child == null ? newPath(level - BITS, block) : pushTail(level - BITS, child, block);
+        }
+        return retValue;
+    }
+
+    private static Object[] newPath(int level, Object[] block) {
+        if (level == 0) return block;
+        Object[] retValue = new Object[WIDTH];
+        retValue[0] = newPath(level - BITS, block);
+        return retValue;
+    }
+
+    private void removeLast() {
+        if (size - tailOffset() > 1) {
+            if (ownsTail) tail[size - 1 - tailOffset()] = null;
+            size--;
+            return;
+        }
+        // the tail is emptied, so the last block in the tree becomes the tail
+        Object[] newTail = blockFor(size - 2);
+        Object[] newRoot = popTail(shift, root);
+        if (newRoot == null) newRoot = new Object[WIDTH];
+        if (shift > BITS && newRoot[1] == null) {
+            newRoot = (Object[]) newRoot[0];
+            shift -= BITS;
+        }
+        root = newRoot;
+        tail = newTail;
+        ownsTail = false;
+        size--;
+    }
+
+    private Object[] popTail(int level, Object[] node) {
+        int index = ((size - 2) >>> level) & MASK;
+        if (level > BITS) {
+            Object[] child = popTail(level - BITS, (Object[]) node[index]);
+            if (child == null && index == 0) return null;
+            Object[] retValue = node.clone();
+            retValue[index] = child;
+            return retValue;
+        }
+        if (index == 0) return null;
+        Object[] retValue = node.clone();
+        retValue[index] = null;
+        return retValue;
+    }
+
+    @Override
+    public T set(int index, T element) {
+        T retValue = get(index);
+        if (index >= tailOffset()) {
+            if (!ownsTail) takeTail();
+            tail[index & MASK] = element;
+        } else {
+            root = setInTree(shift, root, index, element);
+        }
+        return retValue;
+    }
+
+    private static Object[] setInTree(int level, Object[] node, int index, Object element) {
+        Object[] retValue = node.clone();
+        if (level == 0) {
+            retValue[index & MASK] = element;
+        } else {
+            int child = (index >>> level) & MASK;
+            retValue[child] = setInTree(level - BITS, (Object[]) node[child], index, element);
+        }
+        return retValue;
+    }
+
+    @Override
+    public void add(int index, T element) {
+        if (index == size) {
+            add(element);
+            return;
+        }
+        List<T> all = new ArrayList<>(this);
+        all.add(index, element);
+        replaceWith(all);
+    }
+
+    @Override
+    public T remove(int index) {
+        T retValue = get(index);
+        if (index == size - 1) {
+            truncate(index);
+        } else {
+            List<T> all = new ArrayList<>(this);
+            all.remove(index);
+            replaceWith(all);
+        }
+        return retValue;
+    }
+
+    private void replaceWith(List<T> elements) {
+        clear();
+        for (T t : elements) add(t);
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        shift = BITS;
+        root = new Object[WIDTH];
+        tail = new Object[WIDTH];
+        ownsTail = true;
+        modCount++;
+    }
+}
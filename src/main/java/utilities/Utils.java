@@ -242,6 +242,22 @@ public abstract class Utils {
         return value;
     }
 
+    /**
+     * A well-mixed 64-bit hash of a pair of values (the SplitMix64 finaliser applied to their combination).
+     * The hashes of the parts of a state can be XORed together to give a Zobrist-style hash of the whole, which
+     * can then be updated as each part changes (see IZobristState).
+     *
+     * @param position - which part of the state, for example the index of a cell
+     * @param value    - the value of that part, for example the hashCode() of the component in the cell
+     * @return - 64-bit hash of the pair
+     */
+    public static long zobristHash(long position, long value) {
+        long z = position * 0x9E3779B97F4A7C15L + value + 0x632BE59BD9B4E019L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
     /**
      * This decays statistics by gamma
      *
@@ -0,0 +1,37 @@
+package core;
+
+import core.components.Counter;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class ComponentIDs {
+
+    @Test
+    public void componentIDsAreUniqueAcrossThreads() throws Exception {
+        int nThreads = 8;
+        int perThread = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        List<Future<int[]>> futures = new ArrayList<>();
+        for (int t = 0; t < nThreads; t++) {
+            futures.add(executor.submit(() -> {
+                int[] ids = new int[perThread];
+                for (int i = 0; i < perThread; i++)
+                    ids[i] = new Counter(10, "c").getComponentID();
+                return ids;
+            }));
+        }
+        Set<Integer> allIDs = new HashSet<>();
+        for (Future<int[]> f : futures)
+            for (int id : f.get())
+                allIDs.add(id);
+        executor.shutdown();
+        assertEquals(nThreads * perThread, allIDs.size());
+    }
+}
@@ -0,0 +1,143 @@
+package core;
+
+import core.components.Deck;
+import core.components.PartialObservableDeck;
+import games.dominion.cards.CardType;
+import games.dominion.cards.DominionCard;
+import org.junit.Test;
+import utilities.RingBufferList;
+
+import java.util.*;
+
+import static core.CoreConstants.VisibilityMode.HIDDEN_TO_ALL;
+import static org.junit.Assert.*;
+
+public class DeckOperations {
+
+    Random rnd = new Random(1066);
+    CardType[] types = {CardType.COPPER, CardType.SILVER, CardType.GOLD, CardType.ESTATE, CardType.PROVINCE,
+            CardType.MILITIA, CardType.SMITHY, CardType.MOAT};
+
+    @Test
+    public void ringBufferMatchesArrayList() {
+        List<Integer> expected = new ArrayList<>();
+        List<Integer> actual = new RingBufferList<>();
+        for (int step = 0; step < 5000; step++) {
+            int size = expected.size();
+            switch (rnd.nextInt(7)) {
+                case 0, 1 -> {
+                    int index = rnd.nextInt(size + 1);
+                    expected.add(index, step);
+                    actual.add(index, step);
+                }
+                case 2 -> {
+                    expected.add(step);
+                    actual.add(step);
+                }
+                case 3 -> {
+                    if (size > 0) {
+                        int index = rnd.nextInt(size);
+                        assertEquals(expected.remove(index), actual.remove(index));
+                    }
+                }
+                case 4 -> {
+                    int index = rnd.nextInt(size + 1);
+                    List<Integer> toAdd = List.of(-step, -step - 1, -step - 2);
+                    expected.addAll(index, toAdd);
+                    actual.addAll(index, toAdd);
+                }
+                case 5 -> {
+                    if (size > 0) {
+                        int index = rnd.nextInt(size);
+                        assertEquals(expected.set(index, step), actual.set(index, step));
+                    }
+                }
+                case 6 -> {
+                    if (rnd.nextInt(50) == 0) {
+                        expected.clear();
+                        actual.clear();
+                    }
+                }
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void deckDrawsFromTheTopAfterManyAdditions() {
+        Deck<DominionCard> deck = new Deck<>("Test", HIDDEN_TO_ALL);
+        for (int i = 0; i < 100; i++)
+            deck.add(DominionCard.create(types[i % types.length]));
+        for (int i = 99; i >= 0; i--)
+            assertEquals(types[i % types.length], deck.draw().cardType());
+        assertEquals(0, deck.getSize());
+        assertNull(deck.draw());
+    }
+
+    @Test
+    public void visibilityFollowsTheComponents() {
+        // a reference model of each card and its visibility, checked against the deck after random operations
+        PartialObservableDeck<DominionCard> deck = new PartialObservableDeck<>("Test", 0, new boolean[]{true, false, false});
+        List<DominionCard> cards = new ArrayList<>();
+        List<boolean[]> visibility = new ArrayList<>();
+        for (int step = 0; step < 2000; step++) {
+            int size = cards.size();
+            switch (rnd.nextInt(6)) {
+                case 0, 1 -> {
+                    DominionCard card = DominionCard.create(types[rnd.nextInt(types.length)]);
+                    boolean[] vis = {rnd.nextBoolean(), rnd.nextBoolean(), rnd.nextBoolean()};
+                    int index = rnd.nextInt(size + 1);
+                    deck.add(card, index, vis);
+                    cards.add(index, card);
+                    visibility.add(index, vis);
+                }
+                case 2 -> {
+                    if (size > 0) {
+                        int index = rnd.nextInt(size);
+                        assertEquals(cards.remove(index), deck.pick(index));
+                        visibility.remove(index);
+                    }
+                }
+                case 3 -> {
+                    if (size > 0) {
+                        int index = rnd.nextInt(size);
+                        int player = rnd.nextInt(3);
+                        boolean value = rnd.nextBoolean();
+                        deck.setVisibilityOfComponent(index, player, value);
+                        visibility.get(index)[player] = value;
+                    }
+                }
+                case 4 -> {
+                    long seed = rnd.nextLong();
+                    deck.shuffleAndKeepVisibility(new Random(seed));
+                    // the same permutation as Collections.shuffle() gives with the same seed
+                    List<Integer> order = new ArrayList<>();
+                    for (int i = 0; i < size; i++) order.add(i);
+                    Collections.shuffle(order, new Random(seed));
+                    List<DominionCard> newCards = new ArrayList<>();
+                    List<boolean[]> newVisibility = new ArrayList<>();
+                    for (int i : order) {
+                        newCards.add(cards.get(i));
+                        newVisibility.add(visibility.get(i));
+                    }
+                    cards = newCards;
+                    visibility = newVisibility;
+                }
+                case 5 -> {
+                    PartialObservableDeck<DominionCard> copy = deck.copy();
+                    assertEquals(deck, copy);
+                    deck = copy;
+                    cards = new ArrayList<>(copy.getComponents());
+                }
+            }
+            assertEquals(cards, deck.getComponents());
+            for (int i = 0; i < cards.size(); i++)
+                assertArrayEquals(visibility.get(i), deck.getVisibilityOfComponent(i));
+            for (int p = 0; p < 3; p++) {
+                List<DominionCard> visible = deck.getVisibleComponents(p);
+                for (int i = 0; i < cards.size(); i++)
+                    assertEquals(visibility.get(i)[p] ? cards.get(i) : null, visible.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package core;
+
+import core.CoreConstants.GameResult;
+import core.actions.AbstractAction;
+import core.actions.ActionSpace;
+import evaluation.listeners.GameRecordListener;
+import games.GameType;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
+import players.simple.RandomPlayer;
+import utilities.Pair;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GameRecords {
+
+    @Test
+    public void replayRebuildsTheGames() throws IOException {
+        File file = File.createTempFile("games", ".tagr");
+        file.deleteOnExit();
+        for (GameType gameType : new GameType[]{GameType.LoveLetter, GameType.Dominion, GameType.Catan}) {
+            new FileOutputStream(file).close();
+            Game game = gameType.createGameInstance(3, 99);
+            GameRecordListener listener = new GameRecordListener(file.getName());
+            listener.setOutputDirectory(file.getParent());
+            game.addListener(listener);
+            List<List<Pair<Integer, AbstractAction>>> histories = new ArrayList<>();
+            List<GameResult[]> results = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                game.reset(List.of(new RandomPlayer(new Random(i)), new RandomPlayer(new Random(i + 10)),
+                        new RandomPlayer(new Random(i + 20))), 99 + i);
+                game.run();
+                histories.add(game.getGameState().getHistory());
+                results.add(game.getGameState().getPlayerResults());
+            }
+
+            List<GameRecord> records = GameRecord.readAll(file);
+            assertEquals(3, records.size());
+            for (int i = 0; i < 3; i++) {
+                GameRecord record = records.get(i);
+                assertEquals(gameType, record.gameType);
+                assertEquals(99 + i, record.seed);
+                assertEquals(3, record.nPlayers);
+                AbstractGameState replayed = record.replay(null, record.getNActions()).getGameState();
+                assertFalse(replayed.isNotTerminal());
+                assertEquals(histories.get(i), replayed.getHistory());
+                assertArrayEquals(results.get(i), replayed.getPlayerResults());
+            }
+
+            // and an intermediate state
+            GameRecord first = records.get(0);
+            int halfWay = first.getNActions() / 2;
+            AbstractGameState partial = first.replay(null, halfWay).getGameState();
+            assertEquals(histories.get(0).subList(0, halfWay), partial.getHistory());
+            int[] visited = new int[1];
+            first.replay(null, (state, action) -> visited[0]++);
+            assertEquals(first.getNActions(), visited[0]);
+        }
+    }
+
+    @Test
+    public void actionsAreRecordedInEachPlayersActionSpace() throws IOException {
+        File file = File.createTempFile("games", ".tagr");
+        file.deleteOnExit();
+        Game game = GameType.LoveLetter.createGameInstance(3, 99);
+        GameRecordListener listener = new GameRecordListener(file.getName());
+        listener.setOutputDirectory(file.getParent());
+        game.addListener(listener);
+        RandomPlayer deep = new RandomPlayer(new Random(1));
+        deep.getParameters().actionSpace = new ActionSpace(ActionSpace.Structure.Deep);
+        game.reset(List.of(new RandomPlayer(new Random(0)), deep, new RandomPlayer(new Random(2))), 99);
+        game.run();
+
+        GameRecord record = GameRecord.readAll(file).get(0);
+        assertEquals(ActionSpace.Default, record.getActionSpace(0));
+        assertEquals(deep.getParameters().actionSpace, record.getActionSpace(1));
+        AbstractGameState replayed = record.replay(null, record.getNActions()).getGameState();
+        assertEquals(game.getGameState().getHistory(), replayed.getHistory());
+        assertArrayEquals(game.getGameState().getPlayerResults(), replayed.getPlayerResults());
+    }
+
+    @Test
+    public void actionsAreRecordedFromTheListThePlayerWasGiven() throws IOException {
+        // MCTS reads its observation, so chooses from actions computed on its copy of the state
+        for (GameType gameType : new GameType[]{GameType.LoveLetter, GameType.ExplodingKittens}) {
+            File file = File.createTempFile("games", ".tagr");
+            file.deleteOnExit();
+            Game game = gameType.createGameInstance(2, 31);
+            GameRecordListener listener = new GameRecordListener(file.getName());
+            listener.setOutputDirectory(file.getParent());
+            game.addListener(listener);
+            MCTSParams params = new MCTSParams();
+            params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+            params.setParameterValue("budget", 20);
+            params.setParameterValue("randomSeed", 31);
+            game.reset(List.of(new MCTSPlayer(params), new RandomPlayer(new Random(32))), 31);
+            game.run();
+
+            GameRecord record = GameRecord.readAll(file).get(0);
+            AbstractGameState replayed = record.replay(null, record.getNActions()).getGameState();
+            // (the actions themselves may hold the player's copies of cards, and Game adds the final scores to the text)
+            List<String> replayedText = replayed.getHistoryAsText();
+            assertEquals(gameType.name(), game.getGameState().getHistoryAsText().subList(0, replayedText.size()), replayedText);
+            assertArrayEquals(game.getGameState().getPlayerResults(), replayed.getPlayerResults());
+        }
+    }
+
+    @Test
+    public void recordsRoundTrip() throws IOException {
+        GameRecord record = new GameRecord(GameType.TicTacToe, GameType.TicTacToe.createParameters(5), 5,
+                new ActionSpace[]{ActionSpace.Default, new ActionSpace(ActionSpace.Structure.Flat, ActionSpace.Flexibility.Elastic, ActionSpace.Context.Default)});
+        int[] indices = {0, 1, 127, 128, 300, 70000, Integer.MAX_VALUE};
+        for (int index : indices)
+            record.addAction(index);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            record.write(out);
+            record.write(out);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(record, GameRecord.read(in));
+        GameRecord copy = GameRecord.read(in);
+        assertEquals(record, copy);
+        assertNull(GameRecord.read(in));
+        for (int i = 0; i < indices.length; i++)
+            assertEquals(indices[i], copy.getAction(i));
+        assertEquals(record.getActionSpace(1), copy.getActionSpace(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void replayNeedsTheSameParameters() {
+        GameRecord record = new GameRecord(GameType.TicTacToe, GameType.TicTacToe.createParameters(5), 5, 2);
+        AbstractParameters other = GameType.TicTacToe.createParameters(5);
+        other.setMaxRounds(3);
+        record.replay(other, 0);
+    }
+}
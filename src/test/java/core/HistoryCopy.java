@@ -0,0 +1,117 @@
+package core;
+
+import core.actions.AbstractAction;
+import games.tictactoe.TicTacToeForwardModel;
+import games.tictactoe.TicTacToeGameParameters;
+import games.tictactoe.TicTacToeGameState;
+import org.junit.Test;
+import utilities.Pair;
+import utilities.SharedPrefixList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HistoryCopy {
+
+    @Test
+    public void copiesDoNotSeeEachOthersAppends() {
+        SharedPrefixList<String> original = new SharedPrefixList<>();
+        original.add("a");
+        original.add("b");
+        SharedPrefixList<String> first = original.copy();
+        SharedPrefixList<String> second = original.copy();
+        first.add("c");
+        second.add("d");
+        original.add("e");
+        assertEquals(List.of("a", "b", "e"), original);
+        assertEquals(List.of("a", "b", "c"), first);
+        assertEquals(List.of("a", "b", "d"), second);
+
+        second.set(0, "z");
+        assertEquals(List.of("z", "b", "d"), second);
+        assertEquals(List.of("a", "b", "c"), first);
+        first.clear();
+        assertTrue(first.isEmpty());
+        assertEquals(List.of("a", "b", "e"), original);
+    }
+
+    @Test
+    public void truncateDoesNotChangeCopies() {
+        SharedPrefixList<String> original = new SharedPrefixList<>();
+        original.addAll(List.of("a", "b", "c"));
+        SharedPrefixList<String> copy = original.copy();
+        original.add("d");
+        original.truncate(2);
+        original.add("x");
+        copy.add("e");
+        copy.truncate(3);
+        copy.add("f");
+        assertEquals(List.of("a", "b", "x"), original);
+        assertEquals(List.of("a", "b", "c", "f"), copy);
+
+        SharedPrefixList<String> later = original.copy();
+        original.truncate(1);
+        original.add("y");
+        assertEquals(List.of("a", "y"), original);
+        assertEquals(List.of("a", "b", "x"), later);
+    }
+
+    @Test
+    public void copiesBehaveAsSeparateLists() {
+        // many copies of long lists, each changed at random, against plain ArrayLists
+        Random rnd = new Random(77);
+        List<SharedPrefixList<Integer>> lists = new ArrayList<>();
+        List<List<Integer>> expected = new ArrayList<>();
+        lists.add(new SharedPrefixList<>());
+        expected.add(new ArrayList<>());
+        for (int step = 0; step < 20000; step++) {
+            int i = rnd.nextInt(lists.size());
+            SharedPrefixList<Integer> list = lists.get(i);
+            List<Integer> model = expected.get(i);
+            int choice = rnd.nextInt(100);
+            if (choice < 3 && lists.size() < 40) {
+                lists.add(list.copy());
+                expected.add(new ArrayList<>(model));
+            } else if (choice < 8 && !model.isEmpty()) {
+                int newSize = Math.max(0, model.size() - 1 - rnd.nextInt(70));
+                list.truncate(newSize);
+                model.subList(newSize, model.size()).clear();
+            } else if (choice < 10 && !model.isEmpty()) {
+                int index = rnd.nextInt(model.size());
+                list.set(index, -step);
+                model.set(index, -step);
+            } else {
+                list.add(step);
+                model.add(step);
+            }
+        }
+        for (int i = 0; i < lists.size(); i++) {
+            assertEquals(expected.get(i), lists.get(i));
+            assertEquals(expected.get(i), new ArrayList<>(lists.get(i)));
+        }
+    }
+
+    @Test
+    public void stateCopiesHaveIndependentHistories() {
+        TicTacToeForwardModel fm = new TicTacToeForwardModel();
+        TicTacToeGameState state = new TicTacToeGameState(new TicTacToeGameParameters(), 2);
+        fm.setup(state);
+        fm.next(state, fm.computeAvailableActions(state).get(0));
+
+        AbstractGameState copy = state.copy();
+        List<AbstractAction> actions = fm.computeAvailableActions(copy);
+        fm.next(copy, actions.get(0));
+        fm.next(state, actions.get(1));
+
+        List<Pair<Integer, AbstractAction>> stateHistory = state.getHistory();
+        List<Pair<Integer, AbstractAction>> copyHistory = copy.getHistory();
+        assertEquals(2, stateHistory.size());
+        assertEquals(2, copyHistory.size());
+        assertEquals(stateHistory.get(0), copyHistory.get(0));
+        assertEquals(actions.get(1), stateHistory.get(1).b);
+        assertEquals(actions.get(0), copyHistory.get(1).b);
+    }
+}
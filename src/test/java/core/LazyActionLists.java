@@ -0,0 +1,85 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.actions.DoNothing;
+import core.actions.LazyActionList;
+import core.actions.LogEvent;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class LazyActionLists {
+
+    private static LazyActionList events(String prefix, int n) {
+        return new LazyActionList(n) {
+            @Override
+            protected AbstractAction build(int index) {
+                return new LogEvent(prefix + index);
+            }
+        };
+    }
+
+    @Test
+    public void actionsAreOnlyBuiltWhenAskedFor() {
+        LazyActionList actions = events("a", 1000);
+        assertEquals(1000, actions.size());
+        assertEquals(0, actions.nBuilt());
+
+        AbstractAction sampled = actions.sample(new Random(8));
+        assertEquals(1, actions.nBuilt());
+        assertSame(sampled, actions.get(actions.indexOf(sampled)));
+        assertEquals(new LogEvent("a17"), actions.get(17));
+        assertEquals(1000, new ArrayList<>(actions).size());
+        assertEquals(1000, actions.nBuilt());
+    }
+
+    @Test
+    public void concatenationKeepsTheOrderOfTheParts() {
+        List<AbstractAction> fixed = List.of(new DoNothing(), new LogEvent("b"));
+        LazyActionList lazy = events("a", 3);
+        LazyActionList all = LazyActionList.concat(List.of(List.of(), lazy, List.of(), List.of(), fixed, events("c", 0)));
+
+        List<AbstractAction> expected = new ArrayList<>();
+        for (int i = 0; i < 3; i++) expected.add(new LogEvent("a" + i));
+        expected.addAll(fixed);
+        assertEquals(expected, all);
+        assertEquals(expected, new ArrayList<>(all));
+
+        assertEquals(new DoNothing(), LazyActionList.concat(List.of(events("a", 5), fixed)).get(5));
+        assertEquals(0, LazyActionList.concat(List.of()).size());
+    }
+
+    @Test
+    public void listsCanBeShuffledButNotResized() {
+        LazyActionList actions = events("a", 50);
+        Set<AbstractAction> before = new HashSet<>(actions);
+        Collections.shuffle(actions, new Random(3));
+        assertEquals(before, new HashSet<>(actions));
+        assertThrows(UnsupportedOperationException.class, () -> actions.add(new DoNothing()));
+        assertThrows(IndexOutOfBoundsException.class, () -> actions.get(50));
+    }
+
+    @Test
+    public void catanOnlyBuildsTheActionsPlayed() {
+        Game game = GameType.Catan.createGameInstance(4, 271);
+        AbstractGameState gs = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        Random rnd = new Random(271);
+        int lazy = 0;
+        for (int step = 0; step < 2000 && gs.isNotTerminal(); step++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(gs);
+            if (actions instanceof LazyActionList) {
+                AbstractAction action = ((LazyActionList) actions).sample(rnd);
+                assertEquals(1, ((LazyActionList) actions).nBuilt());
+                fm.next(gs, action);
+                lazy++;
+            } else {
+                fm.next(gs, actions.get(rnd.nextInt(actions.size())));
+            }
+        }
+        assertTrue(lazy > 100);
+    }
+}
@@ -0,0 +1,133 @@
+package core;
+
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LazyObservations {
+
+    // A RandomPlayer that is given a copy of the state for every decision, as any other player is
+    static class CopyingRandomPlayer extends RandomPlayer {
+        CopyingRandomPlayer(Random rnd) {
+            super(rnd);
+        }
+
+        @Override
+        public boolean needsObservation() {
+            return true;
+        }
+
+        @Override
+        public AbstractAction _getAction(AbstractGameState observation, List<AbstractAction> actions) {
+            assertNotNull(observation);
+            return super._getAction(observation, actions);
+        }
+    }
+
+    // Only asks for the observation on some decisions
+    static class SometimesLookingPlayer extends RandomPlayer {
+        Game game;
+        int looks;
+
+        SometimesLookingPlayer(Random rnd) {
+            super(rnd);
+        }
+
+        @Override
+        public AbstractAction _getAction(AbstractGameState observation, List<AbstractAction> actions) {
+            assertNull(observation);
+            if (actions.size() % 2 == 0) {
+                AbstractGameState view = getObservation();
+                assertNotSame(game.getGameState(), view);
+                assertSame(view, getObservation());
+                assertEquals(game.getGameState().getGameTick(), view.getGameTick());
+                assertEquals(getPlayerID(), view.getCurrentPlayer());
+                looks++;
+            }
+            return super._getAction(null, actions);
+        }
+    }
+
+    private List<String> play(GameType gameType, List<AbstractPlayer> players, long seed) {
+        Game game = gameType.createGameInstance(players.size(), seed);
+        for (AbstractPlayer p : players)
+            if (p instanceof SometimesLookingPlayer slp)
+                slp.game = game;
+        game.reset(players, seed);
+        game.run();
+        List<String> retValue = new ArrayList<>(game.getGameState().getHistoryAsText());
+        for (int p = 0; p < players.size(); p++)
+            retValue.add(String.valueOf(game.getGameState().getPlayerResults()[p]));
+        return retValue;
+    }
+
+    // the games whose forward models declare that computing actions changes nothing
+    private static List<GameType> gamesWithoutSideEffects() {
+        List<GameType> retValue = new ArrayList<>();
+        for (GameType gameType : GameType.values()) {
+            if (gameType != GameType.GameTemplate && gameType.createForwardModel(gameType.createParameters(0), 2).computesActionsWithoutSideEffects())
+                retValue.add(gameType);
+        }
+        return retValue;
+    }
+
+    @Test
+    public void gamesAreTheSameWithoutCopies() {
+        for (GameType gameType : gamesWithoutSideEffects()) {
+            for (long seed = 1; seed <= 3; seed++) {
+                List<String> withCopies = play(gameType, List.of(new CopyingRandomPlayer(new Random(seed)),
+                        new CopyingRandomPlayer(new Random(seed + 10)), new CopyingRandomPlayer(new Random(seed + 20))), seed);
+                List<String> withoutCopies = play(gameType, List.of(new RandomPlayer(new Random(seed)),
+                        new RandomPlayer(new Random(seed + 10)), new RandomPlayer(new Random(seed + 20))), seed);
+                assertEquals(gameType + " " + seed, withCopies, withoutCopies);
+            }
+        }
+    }
+
+    @Test
+    public void actionsAreComputedFromACopyUnlessTheGameAllowsOtherwise() {
+        // Pandemic changes the game phase when computing actions, so even a RandomPlayer is given a copy
+        assertFalse(GameType.Pandemic.createForwardModel(GameType.Pandemic.createParameters(0), 2).computesActionsWithoutSideEffects());
+        RandomPlayer player = new RandomPlayer(new Random(2)) {
+            @Override
+            public AbstractAction _getAction(AbstractGameState observation, List<AbstractAction> actions) {
+                assertNotNull(observation);
+                return super._getAction(observation, actions);
+            }
+        };
+        play(GameType.Pandemic, List.of(new CopyingRandomPlayer(new Random(1)), player), 5);
+    }
+
+    @Test
+    public void computingActionsDoesNotChangeTheState() {
+        for (GameType gameType : gamesWithoutSideEffects()) {
+            Game game = gameType.createGameInstance(3, 7);
+            AbstractForwardModel fm = game.getForwardModel();
+            AbstractGameState state = game.getGameState();
+            Random rnd = new Random(7);
+            for (int step = 0; step < 1000 && state.isNotTerminal(); step++) {
+                int before = state.hashCode();
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                assertEquals(gameType.name() + " at tick " + state.getGameTick(), before, state.hashCode());
+                assertEquals(gameType.name() + " actions at tick " + state.getGameTick(), actions, fm.computeAvailableActions(state.copy(state.getCurrentPlayer())));
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+            }
+        }
+    }
+
+    @Test
+    public void observationIsCopiedWhenAskedFor() {
+        SometimesLookingPlayer looker = new SometimesLookingPlayer(new Random(3));
+        play(GameType.LoveLetter, List.of(looker, new RandomPlayer(new Random(4))), 42);
+        assertTrue(looker.looks > 0);
+        // there is no observation once the decision is made
+        assertNull(looker.getObservation());
+    }
+}
@@ -0,0 +1,149 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.actions.ActionSpace;
+import games.GameType;
+import games.chinesecheckers.CCGameState;
+import games.stratego.actions.DeepMove;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.search.MaxNSearchParameters;
+import players.search.MaxNSearchPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+public class UndoActions {
+
+    private void playAndUndo(GameType gameType, long seed, int maxActions) {
+        playAndUndo(gameType, seed, maxActions, s -> s);
+    }
+
+    /**
+     * @param view - what to compare of the states before and after undo (which must have a working equals())
+     */
+    private void playAndUndo(GameType gameType, long seed, int maxActions, Function<AbstractGameState, Object> view) {
+        Game game = gameType.createGameInstance(2, seed);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        assertTrue(fm.supportsUndo());
+        Random rnd = new Random(seed);
+
+        List<AbstractGameState> statesBefore = new ArrayList<>();
+        List<Integer> historyBefore = new ArrayList<>();
+        List<UndoRecord> records = new ArrayList<>();
+        for (int i = 0; i < maxActions && state.isNotTerminal(); i++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            statesBefore.add(state.copy());
+            historyBefore.add(state.getHistory().size());
+            records.add(fm.nextUndoable(state, actions.get(rnd.nextInt(actions.size()))));
+        }
+        assertFalse(records.isEmpty());
+
+        for (int i = records.size() - 1; i >= 0; i--) {
+            fm.undo(state, records.get(i));
+            assertEquals(gameType + " after undoing action " + i, view.apply(statesBefore.get(i)), view.apply(state));
+            assertEquals(statesBefore.get(i).hashCode(), state.hashCode());
+            assertEquals((int) historyBefore.get(i), state.getHistory().size());
+            assertEquals(statesBefore.get(i).getHistoryAsText().size(), state.getHistoryAsText().size());
+        }
+
+        // and the state can then be played on as normal
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        assertEquals(fm.computeAvailableActions(statesBefore.get(0)), actions);
+        fm.next(state, actions.get(0));
+        assertEquals(1, state.getHistory().size() - historyBefore.get(0));
+    }
+
+    @Test
+    public void undoTicTacToe() {
+        for (long seed = 0; seed < 20; seed++)
+            playAndUndo(GameType.TicTacToe, seed, 20);
+    }
+
+    @Test
+    public void undoConnect4() {
+        for (long seed = 0; seed < 20; seed++)
+            playAndUndo(GameType.Connect4, seed, 200);
+    }
+
+    @Test
+    public void undoDotsAndBoxes() {
+        for (long seed = 0; seed < 10; seed++)
+            playAndUndo(GameType.DotsAndBoxes, seed, 200);
+    }
+
+    @Test
+    public void undoChineseCheckers() {
+        // CCGameState.equals() compares the board node by node, including each node's neighbours, and the copies
+        // of these are never equal; so we compare the pegs on each node instead
+        Function<AbstractGameState, Object> pegs = s -> List.of(s.getCurrentPlayer(), s.getGameStatus(),
+                List.of(s.getPlayerResults()), s.getGameTick(), s.getTurnCounter(), s.getRoundCounter(),
+                ((CCGameState) s).getStarBoard().getBoardNodes().stream()
+                        .map(n -> n.getOccupiedPeg() == null ? "-" : n.getOccupiedPeg().getColour() + ":" + n.getOccupiedPeg().getInDestination())
+                        .toList());
+        for (long seed = 0; seed < 5; seed++)
+            playAndUndo(GameType.ChineseCheckers, seed, 200, pegs);
+    }
+
+    @Test
+    public void undoStratego() {
+        for (long seed = 0; seed < 5; seed++)
+            playAndUndo(GameType.Stratego, seed, 500);
+    }
+
+    @Test
+    public void maxNSearchUndoesItsActions() {
+        Game game = GameType.Connect4.createGameInstance(2, 42);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        for (int i = 0; i < 6; i++)
+            fm.next(state, fm.computeAvailableActions(state).get(i % 3));
+
+        MaxNSearchParameters params = new MaxNSearchParameters();
+        params.setParameterValue("searchDepth", 3);
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_TIME);
+        params.setParameterValue("budget", 60000);
+        params._reset();
+        MaxNSearchPlayer player = new MaxNSearchPlayer(params);
+        player.setForwardModel(fm);
+        AbstractGameState before = state.copy();
+        int historyBefore = state.getHistory().size();
+
+        AbstractAction action = player._getAction(state, fm.computeAvailableActions(state));
+        assertNotNull(action);
+        assertEquals(before, state);
+        assertEquals(historyBefore, state.getHistory().size());
+    }
+
+    @Test
+    public void maxNSearchCopiesWhileADeepActionIsInProgress() {
+        // In Stratego's deep action space a DeepMove picks the piece, and the move is then chosen in the sequence it starts
+        Game game = GameType.Stratego.createGameInstance(2, 7);
+        AbstractGameState state = game.getGameState();
+        state.getCoreGameParameters().actionSpace = new ActionSpace(ActionSpace.Structure.Deep);
+        AbstractForwardModel fm = game.getForwardModel();
+
+        MaxNSearchParameters params = new MaxNSearchParameters();
+        params.setParameterValue("searchDepth", 3);
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_TIME);
+        params.setParameterValue("budget", 60000);
+        params._reset();
+        MaxNSearchPlayer player = new MaxNSearchPlayer(params);
+        player.setForwardModel(fm);
+        AbstractGameState before = state.copy();
+
+        List<AbstractAction> actions = fm.computeAvailableActions(state);
+        assertTrue(actions.get(0) instanceof DeepMove);
+        assertNotNull(player._getAction(state, actions));
+        assertEquals(before, state);
+
+        fm.next(state, actions.get(0));
+        assertFalse(fm.supportsUndo(state));
+        assertThrows(AssertionError.class, () -> fm.nextUndoable(state, fm.computeAvailableActions(state).get(0)));
+    }
+}
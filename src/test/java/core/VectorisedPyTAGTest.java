@@ -0,0 +1,54 @@
+package core;
+
+import games.GameType;
+import org.junit.Test;
+import players.python.PythonAgent;
+import players.simple.RandomPlayer;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class VectorisedPyTAGTest {
+
+    @Test
+    public void buffersMatchEachEnvironment() throws Exception {
+        List<AbstractPlayer> players = List.of(new PythonAgent(), new RandomPlayer(new Random(3)));
+        VectorisedPyTAG envs = new VectorisedPyTAG(GameType.TicTacToe, null, players, 4, 42, false);
+        assertEquals(9, envs.getObservationSpace());
+        assertEquals(9, envs.getActionSpace());
+        assertTrue(envs.getObservations().isDirect());
+
+        Random rnd = new Random(7);
+        int gamesFinished = 0;
+        for (int step = 0; step < 100; step++) {
+            for (int i = 0; i < envs.getNumEnvs(); i++) {
+                PyTAG env = envs.getEnv(i);
+                double[] observation = env.getObservationVector();
+                for (int j = 0; j < observation.length; j++)
+                    assertEquals(observation[j], envs.getObservations().asFloatBuffer().get(i * 9 + j), 1e-6);
+                int[] mask = env.getActionMask();
+                ByteBuffer masks = envs.getActionMasks();
+                for (int j = 0; j < mask.length; j++)
+                    assertEquals(mask[j], masks.get(i * 9 + j));
+                assertEquals(env.getPlayerID(), envs.getPlayerIDs().asIntBuffer().get(i));
+                envs.getActions().asIntBuffer().put(i, env.sampleRNDAction(mask, rnd));
+            }
+            envs.step();
+            for (int i = 0; i < envs.getNumEnvs(); i++) {
+                float reward = envs.getRewards().asFloatBuffer().get(i);
+                if (envs.getDones().get(i) == 1) {
+                    gamesFinished++;
+                    assertTrue(reward == 1.0f || reward == -1.0f || reward == 0.0f);
+                    // the finished game has been reset
+                    assertFalse(envs.getEnv(i).isDone());
+                } else {
+                    assertEquals(0.0f, reward, 0.0f);
+                }
+            }
+        }
+        assertTrue(gamesFinished > 20);
+    }
+}
@@ -0,0 +1,81 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.components.Component;
+import core.components.GridBoard;
+import core.interfaces.IGridGameState;
+import core.interfaces.IZobristState;
+import games.GameType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ZobristHashing {
+
+    private void playRandomGame(GameType gameType, long seed) {
+        Game game = gameType.createGameInstance(2, seed);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        Random rnd = new Random(seed);
+        List<Long> hashes = new ArrayList<>();
+        List<AbstractGameState> copies = new ArrayList<>();
+        List<UndoRecord> records = new ArrayList<>();
+        while (state.isNotTerminal()) {
+            long hash = ((IZobristState) state).getZobristHash();
+            assertEquals(hash, ((IZobristState) state.copy()).getZobristHash());
+            if (state instanceof IGridGameState<?> gridState) {
+                // getGridValues() is a copy, so changing it changes neither the board nor its hash
+                GridBoard<?> board = gridState.getGridBoard().copy();
+                long incremental = board.getZobristHash();
+                Component[][] values = board.getGridValues();
+                values[0][0] = null;
+                assertEquals(gridState.getGridBoard().getElement(0, 0), board.getElement(0, 0));
+                assertEquals(incremental, board.getZobristHash());
+            }
+            hashes.add(hash);
+            copies.add(state.copy());
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            records.add(fm.nextUndoable(state, actions.get(rnd.nextInt(actions.size()))));
+        }
+        // the copies are unchanged, and undo puts back the hash
+        for (int i = records.size() - 1; i >= 0; i--) {
+            assertEquals((long) hashes.get(i), ((IZobristState) copies.get(i)).getZobristHash());
+            fm.undo(state, records.get(i));
+            assertEquals((long) hashes.get(i), ((IZobristState) state).getZobristHash());
+        }
+    }
+
+    @Test
+    public void incrementalHashMatchesFullHash() {
+        for (long seed = 0; seed < 10; seed++) {
+            playRandomGame(GameType.TicTacToe, seed);
+            playRandomGame(GameType.Connect4, seed);
+            playRandomGame(GameType.DotsAndBoxes, seed);
+        }
+    }
+
+    @Test
+    public void transpositionsHaveTheSameHash() {
+        for (GameType gameType : List.of(GameType.TicTacToe, GameType.Connect4, GameType.DotsAndBoxes)) {
+            Game game = gameType.createGameInstance(2, 42);
+            AbstractForwardModel fm = game.getForwardModel();
+            AbstractGameState first = game.getGameState();
+            AbstractGameState second = first.copy();
+            // each player plays the same actions, in a different order (none of which end the turn early)
+            List<AbstractAction> actions = fm.computeAvailableActions(first);
+            AbstractAction a = actions.get(0), b = actions.get(1), c = actions.get(actions.size() - 1);
+            for (AbstractAction action : List.of(a, b, c))
+                fm.next(first, action);
+            for (AbstractAction action : List.of(c, b, a))
+                fm.next(second, action);
+            assertEquals(gameType.name(), ((IZobristState) first).getZobristHash(), ((IZobristState) second).getZobristHash());
+
+            fm.next(second, fm.computeAvailableActions(second).get(0));
+            assertNotEquals(gameType.name(), ((IZobristState) first).getZobristHash(), ((IZobristState) second).getZobristHash());
+        }
+    }
+}
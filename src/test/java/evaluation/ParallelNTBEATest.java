@@ -0,0 +1,67 @@
+package evaluation;
+
+import core.AbstractPlayer;
+import evaluation.optimisation.GameEvaluator;
+import evaluation.optimisation.NTBEAParameters;
+import evaluation.optimisation.ParallelNTupleBanditEA;
+import games.GameType;
+import ntbea.NTupleSystem;
+import org.junit.Before;
+import org.junit.Test;
+import players.heuristics.WinOnlyHeuristic;
+import players.simple.FirstActionPlayer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ParallelNTBEATest {
+
+    NTBEAParameters params;
+    List<AbstractPlayer> opponents = Collections.singletonList(new FirstActionPlayer());
+
+    @Before
+    public void setup() {
+        String[] args = {"game=TicTacToe", "nPlayers=2", "seed=1234",
+                "searchSpace=src/test/java/evaluation/MCTSSearch_Iterations.json"};
+        params = new NTBEAParameters(RunArg.parseConfig(args, Collections.singletonList(RunArg.Usage.ParameterSearch)));
+    }
+
+    private GameEvaluator evaluator() {
+        return new GameEvaluator(GameType.TicTacToe, params, 2, opponents, new WinOnlyHeuristic(), null, true);
+    }
+
+    @Test
+    public void parallelEvaluationMatchesSerial() {
+        // the agents reset their seed each game, so play identically for a given game seed
+        Random rnd = new Random(5);
+        List<int[]> settings = new ArrayList<>();
+        for (int i = 0; i < 12; i++)
+            settings.add(new int[]{rnd.nextInt(3), rnd.nextInt(3), rnd.nextInt(3)});
+
+        GameEvaluator serial = evaluator();
+        double[] expected = new double[settings.size()];
+        for (int i = 0; i < expected.length; i++)
+            expected[i] = serial.evaluate(settings.get(i));
+
+        GameEvaluator parallel = evaluator();
+        assertArrayEquals(expected, parallel.evaluate(settings, 4), 0.0);
+        assertEquals(settings.size(), parallel.nEvals());
+    }
+
+    @Test
+    public void batchedSearchRunsEachTrial() {
+        NTupleSystem model = new NTupleSystem(params.searchSpace);
+        model.addTuples();
+        ParallelNTupleBanditEA search = new ParallelNTupleBanditEA(model, params.kExplore, params.neighbourhoodSize, 3, params.seed);
+        double[] best = search.runTrial(evaluator(), 11);
+
+        assertEquals(11, model.numberOfSamples());
+        assertEquals(3, best.length);
+        for (double value : best)
+            assertTrue(value >= 0 && value < 3);
+    }
+}
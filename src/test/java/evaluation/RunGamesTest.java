@@ -5,6 +5,9 @@ import evaluation.tournaments.AbstractTournament;
 import evaluation.tournaments.RoundRobinTournament;
 import games.GameType;
 import org.junit.*;
+import players.PlayerConstants;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
 import players.simple.RandomPlayer;
 
 import java.io.File;
@@ -132,4 +135,46 @@ public class RunGamesTest {
         assertEquals(66, tournament.getNGamesPlayed()[3], 15);
     }
 
+    @Test
+    public void exhaustiveModeInParallel() {
+        config.put(RunArg.mode, "exhaustive");
+        config.put(RunArg.nThreads, 4);
+        tournament = new RoundRobinTournament(agents, GameType.Poker, 3, null, config);
+        tournament.run();
+
+        // We expect 96 games to be run; with each agent playing in 72 of them
+        for (int i = 0; i < agents.size(); i++)
+            assertEquals(72, tournament.getNGamesPlayed()[i]);
+    }
+
+    @Test
+    public void parallelResultsMatchSerial() {
+        // agents that reset their seed each game will play identically for the same game seed
+        agents = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            // set as tunable parameters so that they survive the copies made for each game
+            MCTSParams params = new MCTSParams();
+            params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+            params.setParameterValue("budget", 20 + 20 * i);
+            params.setParameterValue("resetSeedEachGame", true);
+            params.setParameterValue("randomSeed", 101 + i);
+            agents.add(new MCTSPlayer(params, "MCTS-" + i));
+        }
+        config.put(RunArg.mode, "exhaustive");
+        config.put(RunArg.matchups, 24);
+        config.put(RunArg.seed, 3894L);
+
+        RoundRobinTournament serial = new RoundRobinTournament(agents, GameType.TicTacToe, 2, null, config);
+        serial.run();
+        config.put(RunArg.nThreads, 3);
+        RoundRobinTournament parallel = new RoundRobinTournament(agents, GameType.TicTacToe, 2, null, config);
+        parallel.run();
+
+        assertArrayEquals(serial.getNGamesPlayed(), parallel.getNGamesPlayed());
+        for (int i = 0; i < agents.size(); i++) {
+            assertEquals(serial.getWinRate(i), parallel.getWinRate(i), 1e-9);
+            assertEquals(serial.getOrdinalRank(i), parallel.getOrdinalRank(i), 1e-9);
+        }
+    }
+
 }
@@ -0,0 +1,116 @@
+package evaluation.features;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.UndoRecord;
+import core.actions.AbstractAction;
+import core.interfaces.IStateFeatureVector;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CachedStateFeaturesTest {
+
+    // Counts the calls made, and gives the tick and player as the features
+    static class CountingFeatures implements IStateFeatureVector {
+        int singleCalls, allCalls;
+
+        @Override
+        public double[] featureVector(AbstractGameState state, int playerID) {
+            singleCalls++;
+            return new double[]{state.getGameTick(), playerID, state.getHistory().size()};
+        }
+
+        @Override
+        public double[][] featureVectors(AbstractGameState state) {
+            allCalls++;
+            return IStateFeatureVector.super.featureVectors(state);
+        }
+
+        @Override
+        public String[] names() {
+            return new String[]{"tick", "player", "history"};
+        }
+    }
+
+    CountingFeatures counting;
+    AbstractGameState state;
+    AbstractForwardModel forwardModel;
+
+    @Before
+    public void setup() {
+        counting = new CountingFeatures();
+        Game game = GameType.TicTacToe.createGameInstance(2, 31);
+        state = game.getGameState();
+        forwardModel = game.getForwardModel();
+    }
+
+    @Test
+    public void featuresAreOnlyComputedOncePerStateAndPlayer() {
+        CachedStateFeatures cached = new CachedStateFeatures(counting, 8, false);
+        double[] first = cached.featureVector(state, 0);
+        assertSame(first, cached.featureVector(state, 0));
+        cached.featureVector(state, 1);
+        cached.featureVector(state, 1);
+        assertEquals(2, counting.singleCalls);
+
+        // a copy is a different state
+        AbstractGameState copy = state.copy();
+        assertArrayEquals(first, cached.featureVector(copy, 0), 0.0);
+        assertEquals(3, counting.singleCalls);
+
+        // and so is the state once it has been changed
+        forwardModel.next(state, forwardModel.computeAvailableActions(state).get(0));
+        assertEquals(1.0, cached.featureVector(state, 0)[0], 0.0);
+        assertEquals(4, counting.singleCalls);
+        assertEquals(0.0, cached.featureVector(copy, 0)[0], 0.0);
+    }
+
+    @Test
+    public void undoingAnActionChangesTheState() {
+        CachedStateFeatures cached = new CachedStateFeatures(counting, 8, false);
+        List<AbstractAction> actions = forwardModel.computeAvailableActions(state);
+        UndoRecord record = forwardModel.nextUndoable(state, actions.get(0));
+        double[] afterFirst = cached.featureVector(state, 0);
+        forwardModel.undo(state, record);
+        forwardModel.next(state, actions.get(1));
+        // the same tick as before, but not the same state
+        double[] afterSecond = cached.featureVector(state, 0);
+        assertNotSame(afterFirst, afterSecond);
+        assertEquals(2, counting.singleCalls);
+    }
+
+    @Test
+    public void allPlayersAreComputedInOnePass() {
+        CachedStateFeatures cached = new CachedStateFeatures(counting, 8, true);
+        double[] forZero = cached.featureVector(state, 0);
+        double[] forOne = cached.featureVector(state, 1);
+        assertEquals(1, counting.allCalls);
+        assertEquals(0.0, forZero[1], 0.0);
+        assertEquals(1.0, forOne[1], 0.0);
+        double[][] all = cached.featureVectors(state);
+        assertSame(forOne, all[1]);
+        assertEquals(1, counting.allCalls);
+    }
+
+    @Test
+    public void theCacheHasAFixedSize() {
+        CachedStateFeatures cached = new CachedStateFeatures(counting, 4, false);
+        AbstractGameState[] states = new AbstractGameState[20];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = state.copy();
+            cached.featureVector(states[i], 0);
+        }
+        assertEquals(20, counting.singleCalls);
+        // at most four of them can still be cached
+        for (AbstractGameState s : states)
+            cached.featureVector(s, 0);
+        assertTrue(counting.singleCalls >= 36);
+        assertSame(cached, CachedStateFeatures.wrap(cached));
+    }
+}
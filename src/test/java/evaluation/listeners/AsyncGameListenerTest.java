@@ -0,0 +1,147 @@
+package evaluation.listeners;
+
+import core.AbstractPlayer;
+import core.Game;
+import core.interfaces.IGameEvent;
+import evaluation.metrics.Event;
+import games.GameType;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AsyncGameListenerTest {
+
+    static class RecordingListener implements IGameListener {
+        final List<String> events = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        final IGameEvent onlyEvent;
+        long delay;
+        Game game;
+        int reports;
+
+        RecordingListener(IGameEvent onlyEvent) {
+            this.onlyEvent = onlyEvent;
+        }
+
+        @Override
+        public void onEvent(Event event) {
+            if (!listensTo(event.type))
+                return;
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            events.add(event.type + ":" + event.state.getGameTick() + ":" + event.state.getGameScore(0) + ":" + event.action);
+            threads.add(Thread.currentThread());
+        }
+
+        @Override
+        public boolean listensTo(IGameEvent eventType) {
+            return onlyEvent == null || eventType == onlyEvent;
+        }
+
+        @Override
+        public void report() {
+            reports++;
+        }
+
+        @Override
+        public void setGame(Game game) {
+            this.game = game;
+        }
+
+        @Override
+        public Game getGame() {
+            return game;
+        }
+    }
+
+    private Game playGames(int nGames, IGameListener... listeners) {
+        List<AbstractPlayer> players = List.of(new RandomPlayer(new Random(1)), new RandomPlayer(new Random(2)));
+        Game game = GameType.TicTacToe.createGameInstance(2, 404);
+        for (IGameListener listener : listeners)
+            game.addListener(listener);
+        for (int i = 0; i < nGames; i++) {
+            game.reset(players, 404 + i);
+            game.run();
+        }
+        return game;
+    }
+
+    @Test
+    public void eventsArriveInOrderOnAnotherThread() {
+        RecordingListener direct = new RecordingListener(null);
+        RecordingListener wrapped = new RecordingListener(null);
+        // a tiny queue, so that the game keeps waiting for the listener
+        wrapped.delay = 1;
+        AsyncGameListener async = new AsyncGameListener(wrapped, 2, 2);
+        Game game = playGames(3, direct, async);
+        async.report();
+
+        assertEquals(1, wrapped.reports);
+        assertEquals(direct.events, wrapped.events);
+        assertTrue(wrapped.events.size() > 10);
+        assertTrue(wrapped.threads.stream().noneMatch(t -> t == Thread.currentThread()));
+        assertSame(game, wrapped.getGame());
+    }
+
+    @Test
+    public void onlyEventsListenedToAreQueued() {
+        RecordingListener direct = new RecordingListener(Event.GameEvent.GAME_OVER);
+        RecordingListener wrapped = new RecordingListener(Event.GameEvent.GAME_OVER);
+        AsyncGameListener async = new AsyncGameListener(wrapped, 64, 8);
+        playGames(4, direct, async);
+        async.flush();
+
+        assertEquals(4, wrapped.events.size());
+        assertEquals(direct.events, wrapped.events);
+        assertFalse(async.listensTo(Event.GameEvent.ACTION_TAKEN));
+    }
+
+    @Test
+    public void listenerErrorsAreRethrown() {
+        RecordingListener failing = new RecordingListener(null) {
+            @Override
+            public void onEvent(Event event) {
+                throw new IllegalStateException("broken");
+            }
+        };
+        AsyncGameListener async = new AsyncGameListener(failing, 16, 4);
+        try {
+            playGames(1, async);
+            async.flush();
+            fail("Expected the listener's exception");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void reportStopsTheBackgroundThread() {
+        RecordingListener wrapped = new RecordingListener(Event.GameEvent.GAME_OVER);
+        AsyncGameListener async = new AsyncGameListener(wrapped, 16, 4);
+        playGames(2, async);
+        async.flush();
+        Thread consumer = wrapped.threads.get(0);
+        assertTrue(consumer.isAlive());
+        async.report();
+        assertFalse(consumer.isAlive());
+        assertEquals(1, wrapped.reports);
+
+        // another run with the same listener starts a new thread, which is stopped in the same way
+        playGames(1, async);
+        async.report();
+        assertEquals(3, wrapped.events.size());
+        assertNotSame(consumer, wrapped.threads.get(2));
+        assertFalse(wrapped.threads.get(2).isAlive());
+        assertEquals(2, wrapped.reports);
+    }
+}
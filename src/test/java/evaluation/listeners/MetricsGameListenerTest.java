@@ -0,0 +1,48 @@
+package evaluation.listeners;
+
+import core.AbstractPlayer;
+import core.Game;
+import evaluation.metrics.AbstractMetric;
+import evaluation.metrics.tablessaw.StreamingDataTableSaw;
+import games.GameType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import players.simple.RandomPlayer;
+import utilities.JSONUtils;
+
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class MetricsGameListenerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void streamingIsSelectedInJSON() {
+        MetricsGameListener listener = JSONUtils.loadClassFromFile("json/listeners/streaminglistener.json");
+        listener.setOutputDirectory(folder.getRoot().getAbsolutePath());
+
+        Game game = GameType.TicTacToe.createGameInstance(2, 11);
+        game.addListener(listener);
+        List<AbstractPlayer> players = List.of(new RandomPlayer(new Random(1)), new RandomPlayer(new Random(2)));
+        listener.init(game, 2, Set.of("Random"));
+        for (int i = 0; i < 200; i++) {
+            game.reset(players, 11 + i);
+            game.run();
+        }
+        listener.report();
+
+        for (AbstractMetric metric : listener.metrics.values()) {
+            StreamingDataTableSaw logger = (StreamingDataTableSaw) metric.getDataLogger();
+            logger.flush();  // fewer rows than a chunk
+            assertEquals(new File(folder.getRoot(), metric.getName() + ".tagc"), logger.getFile());
+            assertTrue(new File(folder.getRoot(), metric.getName() + ".csv").exists());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package evaluation.metrics.tablessaw;
+
+import core.interfaces.IGameEvent;
+import evaluation.listeners.MetricsGameListener;
+import evaluation.metrics.AbstractMetric;
+import evaluation.metrics.Event;
+import evaluation.metrics.IDataLogger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tech.tablesaw.api.Table;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class StreamingDataTableSawTest {
+
+    static class TestMetric extends AbstractMetric {
+        @Override
+        protected boolean _run(MetricsGameListener listener, Event e, Map<String, Object> records) {
+            return false;
+        }
+
+        @Override
+        public Set<IGameEvent> getDefaultEventTypes() {
+            return Collections.singleton(Event.GameEvent.GAME_OVER);
+        }
+
+        @Override
+        public Map<String, Class<?>> getColumns(int nPlayersPerGame, Set<String> playerNames) {
+            Map<String, Class<?>> columns = new LinkedHashMap<>();
+            columns.put("Score", Double.class);
+            columns.put("Count", Integer.class);
+            columns.put("Won", Boolean.class);
+            columns.put("Card", String.class);
+            for (String name : playerNames)
+                columns.put("Card-" + name, String.class);
+            return columns;
+        }
+    }
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    Random rnd = new Random(42);
+
+    private void addRows(int nRows, Set<String> playerNames, IDataLogger... loggers) {
+        String[] cards = {"Copper", "Silver", "Gold", "Ünïcödé"};
+        for (int r = 0; r < nRows; r++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("GameID", String.valueOf(r / 10));
+            row.put("GameName", "Test");
+            row.put("PlayerCount", "2");
+            row.put("GameSeed", "1");
+            row.put("Tick", r);
+            row.put("Turn", rnd.nextBoolean() ? null : r / 2);
+            row.put("Round", r / 4);
+            row.put("Event", "GAME_OVER");
+            row.put("Score", rnd.nextBoolean() ? null : rnd.nextGaussian());
+            row.put("Count", rnd.nextInt(5) == 0 ? null : rnd.nextInt(100));
+            row.put("Won", rnd.nextInt(3) == 0 ? null : rnd.nextBoolean());
+            row.put("Card", rnd.nextInt(5) == 0 ? null : cards[rnd.nextInt(cards.length)]);
+            for (String name : playerNames)
+                row.put("Card-" + name, cards[rnd.nextInt(cards.length)]);
+            for (IDataLogger logger : loggers)
+                for (Map.Entry<String, Object> e : row.entrySet())
+                    logger.addData(e.getKey(), e.getValue());
+        }
+    }
+
+    private void assertSameData(Table expected, Table actual) {
+        assertEquals(expected.columnNames(), actual.columnNames());
+        assertEquals(expected.rowCount(), actual.rowCount());
+        for (String name : expected.columnNames()) {
+            assertEquals(expected.column(name).type(), actual.column(name).type());
+            assertEquals(name, expected.column(name).asList(), actual.column(name).asList());
+        }
+    }
+
+    @Test
+    public void dataReadBackMatchesTheTable() {
+        TestMetric metric = new TestMetric();
+        DataTableSaw inMemory = new DataTableSaw(metric);
+        StreamingDataTableSaw streaming = new StreamingDataTableSaw(metric, folder.getRoot().getPath(), 7);
+        inMemory.init(null, 2, Collections.emptySet());
+        streaming.init(null, 2, Collections.emptySet());
+
+        addRows(52, Collections.emptySet(), inMemory, streaming);
+        // only the rows since the last chunk are held in memory
+        assertEquals(52 % 7, streaming.data.rowCount());
+        assertSameData(inMemory.getData(), streaming.getData());
+
+        streaming.flush();
+        assertEquals(0, streaming.data.rowCount());
+        assertSameData(inMemory.getData(), streaming.getData());
+        assertSameData(inMemory.getData(), ((DataTableSaw) streaming.copy()).getData());
+
+        streaming.reset();
+        assertEquals(0, streaming.getData().rowCount());
+    }
+
+    @Test
+    public void columnsAddedLaterAreMissingInEarlierRows() {
+        TestMetric metric = new TestMetric();
+        StreamingDataTableSaw streaming = new StreamingDataTableSaw(metric, new File(folder.getRoot(), "data.tagc"), 5);
+        streaming.init(null, 2, Collections.singleton("Alice"));
+        addRows(8, Collections.singleton("Alice"), streaming);
+        Set<String> both = new LinkedHashSet<>(Arrays.asList("Alice", "Bob"));
+        streaming.init(null, 2, both);
+        addRows(4, both, streaming);
+
+        Table data = streaming.getData();
+        assertEquals(12, data.rowCount());
+        assertEquals(8, data.column("Card-Bob").countMissing());
+        assertEquals(0, data.column("Card-Alice").countMissing());
+        assertTrue(data.column("Card-Bob").isMissing(7));
+        assertFalse(data.column("Card-Bob").isMissing(8));
+    }
+
+    @Test
+    public void rowsWrittenAreKeptInANamedFile() {
+        TestMetric metric = new TestMetric();
+        DataTableSaw inMemory = new DataTableSaw(metric);
+        StreamingDataTableSaw streaming = new StreamingDataTableSaw(metric, folder.getRoot().getPath(), 10);
+        StreamingDataTableSaw another = (StreamingDataTableSaw) streaming.create();
+        inMemory.init(null, 2, Collections.emptySet());
+        streaming.init(null, 2, Collections.emptySet());
+        another.init(null, 2, Collections.emptySet());
+        assertNull(streaming.getFile());
+
+        addRows(35, Collections.emptySet(), inMemory, streaming);
+        addRows(10, Collections.emptySet(), another);
+        assertEquals(new File(folder.getRoot(), metric.getName() + ".tagc"), streaming.getFile());
+        assertEquals(new File(folder.getRoot(), metric.getName() + "_2.tagc"), another.getFile());
+
+        // what was written can be read without the logger, as after a crash
+        Table onDisk = StreamingDataTableSaw.read(streaming.getFile(), metric.getName());
+        assertEquals(30, onDisk.rowCount());
+        assertSameData(inMemory.getData().first(30), onDisk);
+    }
+
+    @Test
+    public void dataIsOnlyReadOnceUntilMoreIsAdded() {
+        TestMetric metric = new TestMetric();
+        StreamingDataTableSaw streaming = new StreamingDataTableSaw(metric, folder.getRoot().getPath(), 4);
+        streaming.init(null, 2, Collections.emptySet());
+        addRows(10, Collections.emptySet(), streaming);
+        Table data = streaming.getData();
+        assertSame(data, streaming.getData());
+        addRows(1, Collections.emptySet(), streaming);
+        assertNotSame(data, streaming.getData());
+        assertEquals(11, streaming.getData().rowCount());
+        streaming.release();
+        assertEquals(11, streaming.getData().rowCount());
+    }
+
+    @Test
+    public void closingFreesTheFileName() {
+        TestMetric metric = new TestMetric();
+        StreamingDataTableSaw first = new StreamingDataTableSaw(metric, folder.getRoot().getPath(), 10);
+        first.init(null, 2, Collections.emptySet());
+        addRows(15, Collections.emptySet(), first);
+        first.close();
+        assertEquals(new File(folder.getRoot(), metric.getName() + ".tagc"), first.getFile());
+        // the rows not yet in a chunk were written on closing
+        assertEquals(15, StreamingDataTableSaw.read(first.getFile(), metric.getName()).rowCount());
+        assertEquals(15, first.getData().rowCount());
+
+        // as in a second run in the same JVM
+        StreamingDataTableSaw second = new StreamingDataTableSaw(metric, folder.getRoot().getPath(), 10);
+        second.init(null, 2, Collections.emptySet());
+        addRows(10, Collections.emptySet(), second);
+        assertEquals(first.getFile(), second.getFile());
+        second.close();
+    }
+}
@@ -0,0 +1,146 @@
+package evaluation.tournaments;
+
+import core.AbstractPlayer;
+import evaluation.RunArg;
+import evaluation.RunGames;
+import games.GameType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class DistributedTournamentTest {
+
+    File workDir;
+    Map<RunArg, Object> config;
+
+    @Before
+    public void setup() throws IOException {
+        workDir = Files.createTempDirectory("tournament").toFile();
+        config = RunArg.parseConfig(new String[]{}, Collections.singletonList(RunArg.Usage.RunGames));
+        config.put(RunArg.mode, "exhaustive");
+        config.put(RunArg.matchups, 24);
+        config.put(RunArg.seed, 3894L);
+        config.put(RunArg.verbose, false);
+        config.put(RunArg.destDir, workDir.getPath());
+        config.put(RunArg.listener, new ArrayList<String>());
+    }
+
+    @After
+    public void teardown() {
+        deleteAll(workDir);
+    }
+
+    private void deleteAll(File file) {
+        File[] children = file.listFiles();
+        if (children != null)
+            for (File child : children)
+                deleteAll(child);
+        file.delete();
+    }
+
+    // agents that reset their seed each game will play identically for the same game seed, wherever they are
+    private List<AbstractPlayer> createAgents() {
+        List<AbstractPlayer> agents = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            MCTSParams params = new MCTSParams();
+            params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+            params.setParameterValue("budget", 20 + 20 * i);
+            params.setParameterValue("resetSeedEachGame", true);
+            params.setParameterValue("randomSeed", 101 + i);
+            agents.add(new MCTSPlayer(params, "MCTS-" + i));
+        }
+        return agents;
+    }
+
+    private Thread startWorker() {
+        WorkQueue queue = new WorkQueue(workDir.getPath());
+        queue.heartbeatMillis = 50;
+        queue.pollMillis = 10;
+        // each worker has its own agents, as it would in its own process
+        Thread thread = new Thread(new TournamentWorker(createAgents(), queue, "")::run);
+        thread.start();
+        return thread;
+    }
+
+    private void assertSameResults(RoundRobinTournament expected, RoundRobinTournament actual) {
+        assertArrayEquals(expected.getNGamesPlayed(), actual.getNGamesPlayed());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(expected.getWinRate(i), actual.getWinRate(i), 1e-9);
+            assertEquals(expected.getOrdinalRank(i), actual.getOrdinalRank(i), 1e-9);
+        }
+    }
+
+    @Test
+    public void workersGiveTheSameResultsAsSerial() throws InterruptedException {
+        RoundRobinTournament serial = new RoundRobinTournament(createAgents(), GameType.TicTacToe, 2, null, config);
+        serial.run();
+
+        config.put(RunArg.workDir, workDir.getPath());
+        RoundRobinTournament distributed = new RoundRobinTournament(createAgents(), GameType.TicTacToe, 2, null, config);
+        distributed.gamesPerUnit = 5;
+        distributed.workQueue.pollMillis = 10;
+        List<Thread> workers = List.of(startWorker(), startWorker());
+        distributed.run();
+        distributed.workQueue.stop();
+        for (Thread worker : workers)
+            worker.join(10000);
+
+        assertSameResults(serial, distributed);
+        assertTrue(workers.stream().noneMatch(Thread::isAlive));
+        assertEquals(0, new File(workDir, "queue").list().length);
+        assertEquals(0, new File(workDir, "running").list().length);
+        assertEquals(0, new File(workDir, "results").list().length);
+    }
+
+    @Test
+    public void gamesOfADeadWorkerArePlayedByAnother() throws InterruptedException {
+        RoundRobinTournament serial = new RoundRobinTournament(createAgents(), GameType.TicTacToe, 2, null, config);
+        serial.run();
+
+        config.put(RunArg.workDir, workDir.getPath());
+        RoundRobinTournament distributed = new RoundRobinTournament(createAgents(), GameType.TicTacToe, 2, null, config);
+        distributed.gamesPerUnit = 5;
+        distributed.workQueue.pollMillis = 10;
+        distributed.workQueue.staleMillis = 500;
+        Thread tournament = new Thread(distributed::run);
+        tournament.start();
+
+        // a worker claims the first unit, and then dies without a word
+        WorkQueue deadQueue = new WorkQueue(workDir.getPath());
+        File claimed = null;
+        for (int i = 0; i < 1000 && claimed == null; i++) {
+            claimed = deadQueue.claim("dead");
+            if (claimed == null)
+                Thread.sleep(10);
+        }
+        assertNotNull(claimed);
+
+        Thread worker = startWorker();
+        tournament.join(30000);
+        assertFalse(tournament.isAlive());
+        distributed.workQueue.stop();
+        worker.join(10000);
+
+        assertFalse(claimed.exists());
+        assertSameResults(serial, distributed);
+    }
+
+    @Test
+    public void sequentialModeCannotUseWorkers() {
+        for (String role : new String[]{"worker=false", "worker=true"}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> RunGames.main(new String[]{
+                    "game=TicTacToe", "nPlayers=2", "mode=sequential", "workDir=" + workDir.getPath(), role}));
+            assertTrue(e.getMessage().contains("sequential"));
+        }
+    }
+}
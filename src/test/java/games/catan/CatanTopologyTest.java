@@ -0,0 +1,75 @@
+package games.catan;
+
+import core.AbstractForwardModel;
+import core.Game;
+import core.actions.AbstractAction;
+import core.components.Edge;
+import games.GameType;
+import games.catan.actions.build.BuildRoad;
+import games.catan.actions.build.BuildSettlement;
+import games.catan.components.Building;
+import games.catan.components.CatanTile;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static games.catan.CatanConstants.HEX_SIDES;
+import static org.junit.Assert.*;
+
+public class CatanTopologyTest {
+
+    // What the state records as built must always be what is on the board
+    private void checkBuilt(CatanGameState gs) {
+        CatanTile[][] board = gs.getBoard();
+        for (int x = 0; x < board.length; x++) {
+            for (int y = 0; y < board[x].length; y++) {
+                for (int i = 0; i < HEX_SIDES; i++) {
+                    Building building = gs.getBuilding(board[x][y], i);
+                    int v = gs.topology.vertex(x, y, i);
+                    assertEquals(building.getOwnerId(), gs.vertexOwner[v]);
+                    if (building.getOwnerId() != -1) {
+                        boolean city = building.getBuildingType() == Building.Type.City;
+                        assertEquals(city, gs.cities[building.getOwnerId()].get(v));
+                        assertEquals(!city, gs.settlements[building.getOwnerId()].get(v));
+                    }
+                    Edge road = gs.getRoad(building, board[x][y], i);
+                    if (road != null) {
+                        assertEquals(road.getOwnerId(), gs.edgeOwner[gs.topology.edge(x, y, i)]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void placementsFollowTheBoard() {
+        Game game = GameType.Catan.createGameInstance(4, 613);
+        CatanGameState gs = (CatanGameState) game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        Random rnd = new Random(613);
+        for (int step = 0; step < 1000 && gs.isNotTerminal(); step++) {
+            checkBuilt(gs);
+            int player = gs.getCurrentPlayer();
+            for (AbstractAction a : CatanActionFactory.getBuyRoadActions(gs, player, true)) {
+                BuildRoad road = (BuildRoad) a;
+                assertTrue(gs.checkRoadPlacement(road.edge, gs.getBoard()[road.x][road.y], player));
+            }
+            for (AbstractAction a : CatanActionFactory.getBuySettlementActions(gs, player)) {
+                BuildSettlement settlement = (BuildSettlement) a;
+                assertTrue(gs.checkSettlementPlacement(gs.getBuilding(gs.getBoard()[settlement.x][settlement.y], settlement.vertex), player));
+            }
+
+            List<AbstractAction> actions = fm.computeAvailableActions(gs);
+            fm.next(gs, actions.get(rnd.nextInt(actions.size())));
+            if (step % 100 == 0) {
+                // copies share the board's shape, but not what is built on it
+                CatanGameState copy = (CatanGameState) gs.copy();
+                assertSame(gs.topology, copy.topology);
+                assertNotSame(gs.vertexOwner, copy.vertexOwner);
+                gs = copy;
+            }
+        }
+        checkBuilt(gs);
+    }
+}
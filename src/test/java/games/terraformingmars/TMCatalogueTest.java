@@ -0,0 +1,42 @@
+package games.terraformingmars;
+
+import core.components.Deck;
+import games.GameType;
+import games.terraformingmars.components.TMCard;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TMCatalogueTest {
+
+    private TMGameState setup(long seed) {
+        return (TMGameState) GameType.TerraformingMars.createGameInstance(2, seed).getGameState();
+    }
+
+    @Test
+    public void eachGameHasItsOwnCopyOfTheCards() {
+        TMGameState first = setup(72);
+        TMGameState second = setup(72);
+        Deck<TMCard> firstCards = first.getProjectCards();
+        Deck<TMCard> secondCards = second.getProjectCards();
+        assertTrue(firstCards.getSize() > 100);
+        assertEquals(firstCards.getSize(), secondCards.getSize());
+        for (int i = 0; i < firstCards.getSize(); i++) {
+            // the same seed deals the same cards, with the same IDs
+            assertEquals(firstCards.get(i).getComponentName(), secondCards.get(i).getComponentName());
+            assertEquals(firstCards.get(i).getComponentID(), secondCards.get(i).getComponentID());
+            assertNotSame(firstCards.get(i), secondCards.get(i));
+        }
+        firstCards.get(0).nResourcesOnCard = 5;
+        assertEquals(0, secondCards.get(0).nResourcesOnCard);
+        assertEquals(0, setup(72).getProjectCards().get(0).nResourcesOnCard);
+
+        assertNotSame(first.getBoard().getElement(3, 3), second.getBoard().getElement(3, 3));
+        assertEquals(first.getBoard().getElement(3, 3), second.getBoard().getElement(3, 3));
+    }
+
+    @Test
+    public void theCatalogueIsOnlyLoadedOnce() {
+        assertSame(TMCatalogue.of(TMTypes.Expansion.Base), TMCatalogue.of(TMTypes.Expansion.Base));
+    }
+}
@@ -0,0 +1,37 @@
+package games.terraformingmars;
+
+import games.GameType;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TMGameStateTest {
+
+    @Test
+    public void copiesDoNotShareCountersOrTheSeed() {
+        TMGameState state = (TMGameState) GameType.TerraformingMars.createGameInstance(2, 355).getGameState();
+        TMGameState copy = (TMGameState) state.copy();
+        assertEquals(state, copy);
+
+        // a player's copy must not reveal the seed
+        TMGameState observation = (TMGameState) state.copy(0);
+        assertNotSame(state.getGameParameters(), observation.getGameParameters());
+        assertNotEquals(state.getGameParameters().getRandomSeed(), observation.getGameParameters().getRandomSeed());
+
+        for (TMTypes.Resource r : TMTypes.Resource.values()) {
+            assertNotSame(state.playerResources[0].get(r), copy.playerResources[0].get(r));
+            assertEquals(state.playerResources[0].get(r).getComponentID(), copy.playerResources[0].get(r).getComponentID());
+        }
+        copy.playerResources[0].get(TMTypes.Resource.MegaCredit).increment(7);
+        copy.playerProduction[1].get(TMTypes.Resource.Heat).increment(2);
+        copy.playerCardsPlayedTags[0].get(TMTypes.Tag.Space).increment(1);
+        copy.playerTilesPlaced[1].get(TMTypes.Tile.City).increment(1);
+        copy.playerResourceIncreaseGen[0].put(TMTypes.Resource.Plant, true);
+        assertNotEquals(state, copy);
+        assertEquals(copy.playerResources[0].get(TMTypes.Resource.MegaCredit).getValue() - 7,
+                state.playerResources[0].get(TMTypes.Resource.MegaCredit).getValue());
+        assertEquals(0, state.playerCardsPlayedTags[0].get(TMTypes.Tag.Space).getValue());
+        assertEquals(0, state.playerTilesPlaced[1].get(TMTypes.Tile.City).getValue());
+        assertFalse(state.playerResourceIncreaseGen[0].get(TMTypes.Resource.Plant));
+    }
+}
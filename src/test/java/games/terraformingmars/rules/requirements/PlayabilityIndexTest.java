@@ -0,0 +1,58 @@
+package games.terraformingmars.rules.requirements;
+
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import games.terraformingmars.TMForwardModel;
+import games.terraformingmars.TMGameState;
+import games.terraformingmars.actions.PayForAction;
+import games.terraformingmars.actions.TMAction;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PlayabilityIndexTest {
+
+    // The actions computed without the index, testing every requirement
+    private List<AbstractAction> tested(TMForwardModel fm, TMGameState gs) {
+        List<AbstractAction> retValue = new ArrayList<>();
+        for (AbstractAction aa : fm.getAllActions(gs)) {
+            TMAction a = (TMAction) aa;
+            if (a != null && a.canBePlayed(gs)) {
+                retValue.add(a.getCost() != 0 ? new PayForAction(gs.getCurrentPlayer(), a) : a);
+            }
+        }
+        return retValue;
+    }
+
+    @Test
+    public void theIndexGivesTheSameActions() {
+        Game game = GameType.TerraformingMars.createGameInstance(3, 240);
+        TMGameState gs = (TMGameState) game.getGameState();
+        TMForwardModel fm = (TMForwardModel) game.getForwardModel();
+        Random rnd = new Random(240);
+        int steps = 0;
+        while (gs.isNotTerminal() && steps < 300) {
+            List<AbstractAction> actions = fm.computeAvailableActions(gs);
+            if (!gs.isActionInProgress()) {
+                assertEquals(tested(fm, gs), actions);
+            }
+            // Some actions still cannot be played in full, and some states have no actions at all (with random play
+            // the game does not always reach its end)
+            if (actions.isEmpty())
+                break;
+            AbstractAction action = actions.get(rnd.nextInt(actions.size()));
+            try {
+                fm.next(gs, action);
+            } catch (AssertionError e) {
+                break;
+            }
+            steps++;
+        }
+        assertTrue(steps > 50);
+    }
+}
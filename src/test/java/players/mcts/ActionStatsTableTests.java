@@ -0,0 +1,70 @@
+package players.mcts;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ActionStatsTableTests {
+
+    @Test
+    public void statisticsSurviveGrowingTheTable() {
+        ActionStatsTable table = new ActionStatsTable();
+        for (int i = 0; i < 20; i++) {
+            LMRAction action = new LMRAction("A" + i);
+            assertEquals(-1, table.indexOf(action));
+            assertEquals(i, table.add(action, 2));
+            table.update(i, new double[]{i, -i});
+            table.update(i, new double[]{1.0, 0.0});
+        }
+        assertEquals(20, table.size());
+        for (int i = 0; i < 20; i++) {
+            int index = table.indexOf(new LMRAction("A" + i));
+            assertEquals(i, index);
+            assertEquals(2, table.visits(index));
+            assertEquals(i + 1.0, table.totValue(index, 0), 1e-9);
+            assertEquals(-i, table.totValue(index, 1), 1e-9);
+            assertEquals(i * i + 1.0, table.squaredTotValue(index, 0), 1e-9);
+            assertEquals(0.0, table.valueEstimate(index), 0.0);
+        }
+        assertEquals(0, table.visits(-1));
+        assertNull(table.get(new LMRAction("Missing")));
+    }
+
+    @Test
+    public void snapshotsDoNotChange() {
+        ActionStatsTable table = new ActionStatsTable();
+        int index = table.add(new LMRAction("Left"), 3);
+        table.update(index, new double[]{0.5, 0.2, 0.1});
+        ActionStats before = table.get(new LMRAction("Left"));
+        table.update(index, new double[]{0.5, 0.2, 0.1});
+        assertEquals(1, before.nVisits);
+        assertEquals(0.5, before.totValue[0], 1e-9);
+        assertEquals(2, table.get(index).nVisits);
+        assertEquals(1.0, table.get(index).totValue[0], 1e-9);
+    }
+
+    @Test
+    public void mergeAddsStatisticsForEachAction() {
+        ActionStatsTable first = new ActionStatsTable();
+        first.add(new LMRAction("Left"), 2);
+        first.update(0, new double[]{1.0, 0.0});
+        ActionStatsTable second = new ActionStatsTable();
+        second.add(new LMRAction("Right"), 2);
+        second.add(new LMRAction("Left"), 2);
+        second.update(0, new double[]{0.0, 1.0});
+        second.update(1, new double[]{0.5, 0.5});
+        second.regretMatchingAverage[1] = 0.25;
+        second.hasRegretMatchingAverage = true;
+
+        first.merge(second);
+        assertEquals(2, first.size());
+        int left = first.indexOf(new LMRAction("Left"));
+        int right = first.indexOf(new LMRAction("Right"));
+        assertEquals(2, first.visits(left));
+        assertEquals(1.5, first.totValue(left, 0), 1e-9);
+        assertEquals(1, first.visits(right));
+        assertEquals(1.0, first.totValue(right, 1), 1e-9);
+        assertEquals(0.25, first.regretMatchingAverage[left], 1e-9);
+        assertTrue(first.hasRegretMatchingAverage);
+    }
+}
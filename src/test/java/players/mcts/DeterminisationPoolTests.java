@@ -0,0 +1,98 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import games.loveletter.LoveLetterGameState;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class DeterminisationPoolTests {
+
+    Game game;
+    LoveLetterGameState state;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        game = GameType.LoveLetter.createGameInstance(3, 4420);
+        state = (LoveLetterGameState) game.getGameState();
+        params = new MCTSParams();
+        params.setParameterValue("randomSeed", 5093);
+        params.setParameterValue("information", MCTSEnums.Information.Information_Set);
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", 200);
+        params.setParameterValue("determinisationPool", 8);
+        params.setParameterValue("determinisationReuse", 2);
+    }
+
+    private String hiddenCards(LoveLetterGameState determinisation) {
+        return determinisation.getDrawPile().getComponents().toString() + determinisation.getPlayerHandCards().get(1).getComponents();
+    }
+
+    private boolean poolThreadAlive() {
+        return Thread.getAllStackTraces().keySet().stream().anyMatch(t -> t.getName().equals("DeterminisationPool") && t.isAlive());
+    }
+
+    @Test
+    public void eachDeterminisationIsUsedReuseTimes() throws InterruptedException {
+        DeterminisationPool pool = new DeterminisationPool(state, 0, 30, 3);
+        for (int i = 0; i < 1000 && pool.available() < 30; i++)
+            Thread.sleep(5);
+        assertEquals(30, pool.available());
+
+        Set<String> seen = new HashSet<>();
+        for (int group = 0; group < 10; group++) {
+            LoveLetterGameState first = (LoveLetterGameState) pool.next();
+            assertNotSame(state, first);
+            for (int i = 1; i < 3; i++) {
+                LoveLetterGameState next = (LoveLetterGameState) pool.next();
+                assertNotSame(first, next);
+                assertEquals(hiddenCards(first), hiddenCards(next));
+            }
+            seen.add(hiddenCards(first));
+            // what player 0 can see is never changed
+            assertEquals(state.getPlayerHandCards().get(0).getComponents(), first.getPlayerHandCards().get(0).getComponents());
+        }
+        assertTrue(seen.size() > 1);
+
+        pool.close();
+        assertFalse(poolThreadAlive());
+        // once closed the pool still gives a determinisation, but makes it then
+        assertNotNull(pool.next());
+        assertEquals(0, pool.available());
+    }
+
+    private void search(MCTSParams params) {
+        MCTSPlayer player = new MCTSPlayer(params);
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        player.setForwardModel(forwardModel);
+        player.initializePlayer(state);
+        for (int move = 0; move < 3 && state.isNotTerminal(); move++) {
+            AbstractAction action = player._getAction(state, forwardModel.computeAvailableActions(state));
+            assertEquals(200, player.root.getVisits());
+            forwardModel.next(state, action);
+        }
+        assertFalse(poolThreadAlive());
+    }
+
+    @Test
+    public void searchWithAPool() {
+        search(params);
+    }
+
+    @Test
+    public void treeParallelSearchWithAPool() {
+        params.setParameterValue("nThreads", 3);
+        params.setParameterValue("parallelism", MCTSEnums.Parallelism.Tree);
+        search(params);
+    }
+}
@@ -0,0 +1,63 @@
+package players.mcts;
+
+import org.junit.Test;
+import utilities.Pair;
+import utilities.Utils;
+
+import static org.junit.Assert.*;
+
+public class MASTStatsTableTests {
+
+    @Test
+    public void statisticsSurviveGrowingTheTable() {
+        MASTStatsTable table = new MASTStatsTable(2);
+        for (int i = 0; i < 200; i++) {
+            table.update(0, new LMRAction("A" + i), i);
+            table.update(1, new LMRAction("A" + i), -i);
+            table.update(0, new LMRAction("A" + i), 1.0);
+        }
+        assertEquals(400, table.size());
+        for (int i = 0; i < 200; i++) {
+            LMRAction action = new LMRAction("A" + i);
+            assertEquals(2, table.visits(0, action));
+            assertEquals(i + 1.0, table.totValue(0, action), 1e-9);
+            assertEquals((i + 1.0) / 2.0, table.meanValue(0, action, -1.0), 1e-9);
+            assertEquals(1, table.visits(1, action));
+            assertEquals(-i, table.totValue(1, action), 1e-9);
+        }
+        assertFalse(table.contains(0, new LMRAction("Missing")));
+        assertEquals(0, table.visits(0, new LMRAction("Missing")));
+        assertEquals(0.7, table.meanValue(1, new LMRAction("Missing"), 0.7), 0.0);
+    }
+
+    @Test
+    public void decayMatchesUtilsDecay() {
+        MASTStatsTable table = new MASTStatsTable(1);
+        for (int i = 0; i < 7; i++)
+            table.update(0, "key", 0.3 * i);
+        table.update(0, "once", 2.0);
+        Pair<Integer, Double> expected = Utils.decay(new Pair<>(7, table.totValue(0, "key")), 0.6);
+        table.decay(0.6);
+        assertEquals((int) expected.a, table.visits(0, "key"));
+        assertEquals(expected.b, table.totValue(0, "key"), 1e-9);
+        // a key whose visits decay to zero is kept, but has no value
+        assertTrue(table.contains(0, "once"));
+        assertEquals(0, table.visits(0, "once"));
+        assertEquals(0.25, table.meanValue(0, "once", 0.25), 0.0);
+
+        // gamma of 1 (or more) leaves the statistics alone
+        table.decay(1.0);
+        assertEquals((int) expected.a, table.visits(0, "key"));
+    }
+
+    @Test
+    public void clearEmptiesTheTable() {
+        MASTStatsTable table = new MASTStatsTable(3);
+        table.update(2, "key", 1.0);
+        table.clear();
+        assertEquals(0, table.size());
+        assertFalse(table.contains(2, "key"));
+        table.update(2, "key", 0.5);
+        assertEquals(0.5, table.meanValue(2, "key", 0.0), 0.0);
+    }
+}
@@ -4,6 +4,7 @@ import core.AbstractPlayer;
 import core.Game;
 import evaluation.features.StateKeyFromFeatureVector;
 import evaluation.features.TurnAndPlayerOnly;
+import evaluation.features.ZobristStateKey;
 import games.GameType;
 import games.dotsboxes.*;
 import games.loveletter.LoveLetterParameters;
@@ -176,6 +177,27 @@ public class MCGSTests {
         } while (game.getGameState().isNotTerminal());
     }
 
+    @Test
+    public void DotsAndBoxesFullRunZobristKey() {
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.MCGS;
+        params.MCGSStateKey = new ZobristStateKey();
+        params.budget = 1000;
+        Game game = createDotsAndBoxes(params);
+        do {
+            int p = game.getGameState().getCurrentPlayer();
+            game.oneAction();
+            if (p == 0) {
+                MCGSNode root = (MCGSNode) mctsPlayer.getRoot(0);
+                if (root == null) continue;
+                assertEquals(params.budget, root.getVisits());
+                assertTrue(params.budget + 1 >= root.getTranspositionMap().size());
+                assertTrue(root.getTranspositionMap().keySet().stream().allMatch(k -> k instanceof Long));
+                List<SingleTreeNode> problemNodes = root.nonMatchingNodes(actionVisitsAddUp);
+                assertEquals(0, problemNodes.size());
+            }
+        } while (game.getGameState().isNotTerminal());
+    }
+
     @Test
     public void DotsAndBoxesFullRunActionVisitsSelfOnly() {
         // In this case we run through a whole game, relying on the predicate test
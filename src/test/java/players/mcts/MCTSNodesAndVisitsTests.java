@@ -131,7 +131,7 @@ public class MCTSNodesAndVisitsTests {
                     int timesActionTaken = mctsPlayer.getRoot(0).actionValues.get(child).nVisits;
                     if (timesActionTaken > 0)
                         assertEquals(timesActionTaken - 1,
-                                Arrays.stream(mctsPlayer.getRoot(0).children.get(child))
+                                Arrays.stream(mctsPlayer.getRoot(0).getChildren().get(child))
                                         .filter(Objects::nonNull)
                                         .mapToInt(SingleTreeNode::getVisits).sum());
                 }
@@ -0,0 +1,124 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import evaluation.features.ZobristStateKey;
+import games.GameType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OpeningBookTests {
+
+    File bookFile;
+
+    @Before
+    public void setup() throws IOException {
+        bookFile = Files.createTempFile("openingBook", ".bin").toFile();
+        bookFile.delete();
+    }
+
+    @After
+    public void teardown() {
+        bookFile.delete();
+    }
+
+    private List<AbstractAction> actions(String... names) {
+        List<AbstractAction> retValue = new ArrayList<>();
+        for (String name : names)
+            retValue.add(new LMRAction(name));
+        return retValue;
+    }
+
+    @Test
+    public void recordsAreCombinedForAPosition() {
+        OpeningBook book = new OpeningBook(16);
+        book.record(17L, actions("L", "M", "R"), new int[]{10, 0, 30}, new double[]{1.0, 5.0, 0.5});
+        book.record(17L, actions("L", "M"), new int[]{30, 5}, new double[]{0.0, 0.2});
+        assertEquals(1, book.size());
+        assertEquals(75, book.totalVisits(17L));
+        assertEquals(40, book.visits(17L, new LMRAction("L")));
+        assertEquals(0.25, book.meanValue(17L, new LMRAction("L"), -1.0), 1e-6);
+        assertEquals(0.2, book.meanValue(17L, new LMRAction("M"), -1.0), 1e-6);
+        assertEquals(-1.0, book.meanValue(17L, new LMRAction("X"), -1.0), 0.0);
+        assertEquals(0, book.totalVisits(18L));
+        assertFalse(book.contains("17"));
+    }
+
+    @Test
+    public void theBookIsBoundedAndKeepsTheMostVisitedPositions() {
+        OpeningBook book = new OpeningBook(8);
+        List<AbstractAction> actions = actions("L");
+        for (long key = 0; key < 100; key++)
+            book.record(key, actions, new int[]{(int) key + 1}, new double[]{0.5});
+        assertEquals(8, book.size());
+        // every position left has had more visits than any that was turned away
+        for (long key = 0; key < 92; key++)
+            assertFalse(book.contains(key));
+        for (long key = 92; key < 100; key++)
+            assertEquals(key + 1, book.totalVisits(key));
+    }
+
+    @Test
+    public void aBookFileIsReadBack() throws IOException {
+        OpeningBook book = OpeningBook.open(bookFile.getPath(), 32);
+        assertSame(book, OpeningBook.open(bookFile.getPath(), 32));
+        book.record("start", actions("L", "R"), new int[]{3, 4}, new double[]{0.25, 0.75});
+        book.flush();
+
+        // the same file always gives the same book, so we read a copy of it, as another run would
+        File copy = new File(bookFile.getPath() + ".copy");
+        Files.copy(bookFile.toPath(), copy.toPath());
+        try {
+            // the capacity given is ignored for an existing book
+            OpeningBook reopened = OpeningBook.open(copy.getPath(), 4);
+            assertEquals(32, reopened.capacity());
+            assertEquals(1, reopened.size());
+            assertEquals(7, reopened.totalVisits("start"));
+            assertEquals(0.75, reopened.meanValue("start", new LMRAction("R"), 0.0), 1e-6);
+        } finally {
+            copy.delete();
+        }
+    }
+
+    @Test
+    public void searchesSeedAndAddToTheBook() {
+        MCTSParams params = new MCTSParams();
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", 200);
+        params.setParameterValue("openingBook", bookFile.getPath());
+        params.setParameterValue("openingBookKey", new ZobristStateKey());
+        params.setParameterValue("openingBookVisits", 50);
+        params.setParameterValue("information", MCTSEnums.Information.Closed_Loop);
+        MCTSPlayer player = new MCTSPlayer(params);
+
+        Game game = GameType.TicTacToe.createGameInstance(2, 93);
+        AbstractGameState state = game.getGameState();
+        player.setForwardModel(game.getForwardModel());
+        player.initializePlayer(state);
+        List<AbstractAction> available = game.getForwardModel().computeAvailableActions(state);
+        player.getAction(state, available);
+
+        OpeningBook book = params.getOpeningBook();
+        Object key = new ZobristStateKey().getKey(state);
+        int recorded = book.totalVisits(key);
+        assertTrue(recorded > 0 && recorded <= 200);
+
+        // the next search from the same position starts from what is in the book
+        player.getAction(state, available);
+        assertEquals(200 + 50, player.root.getVisits(), 5);
+        // but only its own visits are added to the book
+        assertTrue(book.totalVisits(key) <= recorded + 200);
+        assertTrue(book.totalVisits(key) > recorded);
+    }
+}
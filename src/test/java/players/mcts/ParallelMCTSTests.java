@@ -0,0 +1,126 @@
+package players.mcts;
+
+import core.*;
+import core.actions.*;
+import games.GameType;
+import games.dominion.DominionForwardModel;
+import games.dominion.DominionGameState;
+import games.dominion.DominionParameters;
+import org.junit.*;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ParallelMCTSTests {
+
+    TestMCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        // parameters are set with setParameterValue, as each worker thread searches with a copy() of them
+        params = new MCTSParams();
+        params.setParameterValue("randomSeed", 9332);
+        params.setParameterValue("treePolicy", MCTSEnums.TreePolicy.UCB);
+        params.setParameterValue("opponentTreePolicy", MCTSEnums.OpponentTreePolicy.OneTree);
+        params.setParameterValue("information", MCTSEnums.Information.Information_Set);
+        params.setParameterValue("maxTreeDepth", 50);
+        params.setParameterValue("rolloutLength", 10);
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", 200);
+        params.setParameterValue("K", 1.0);
+        params.setParameterValue("nThreads", 4);
+    }
+
+    public Game createGame(MCTSParams params) {
+        params._reset();
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        players.add(new RandomPlayer(new Random(244)));
+        DominionParameters dp = new DominionParameters();
+        dp.setRandomSeed(330245);
+        return new Game(GameType.Dominion, players, new DominionForwardModel(), new DominionGameState(dp, players.size()));
+    }
+
+    @Test
+    public void rootParallel() {
+        params.setParameterValue("parallelism", MCTSEnums.Parallelism.Root);
+        Game game = createGame(params);
+        // each tree gets 50 iterations, and their root statistics are summed
+        runGame(game, 4, root -> {
+            assertEquals(200, root.getVisits());
+            assertEquals(200, root.actionValues.values().stream().mapToInt(s -> s.nVisits).sum());
+        });
+    }
+
+    @Test
+    public void treeParallel() {
+        params.setParameterValue("parallelism", MCTSEnums.Parallelism.Tree);
+        Game game = createGame(params);
+        runGame(game, 4, root -> {
+            assertEquals(200, root.getVisits());
+            checkVisitsAndVirtualLossRemoved(root);
+        });
+    }
+
+    @Test
+    public void treeParallelSelfOnly() {
+        params.setParameterValue("parallelism", MCTSEnums.Parallelism.Tree);
+        params.setParameterValue("opponentTreePolicy", MCTSEnums.OpponentTreePolicy.SelfOnly);
+        params.setParameterValue("virtualLoss", 3);
+        Game game = createGame(params);
+        runGame(game, 4, root -> {
+            assertEquals(200, root.getVisits());
+            checkVisitsAndVirtualLossRemoved(root);
+        });
+    }
+
+    @Test
+    public void treeParallelSharesFMCallBudget() {
+        params.setParameterValue("parallelism", MCTSEnums.Parallelism.Tree);
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_FM_CALLS);
+        params.setParameterValue("budget", 2000);
+        Game game = createGame(params);
+        runGame(game, 4, root -> {
+            assertTrue(root.fmCallsCount > 2000);
+            // each thread can overrun by at most the one iteration it is running when the budget runs out
+            assertTrue(root.fmCallsCount < 2000 + params.nThreads * 200);
+        });
+    }
+
+    private void checkVisitsAndVirtualLossRemoved(SingleTreeNode root) {
+        for (SingleTreeNode node : root.allNodesInTree()) {
+            int actionVisits = node.actionValues.values().stream().mapToInt(s -> s.nVisits).sum();
+            assertEquals(node.getVisits(), actionVisits);
+            for (AbstractAction action : node.actionValues.keySet()) {
+                int timesActionTaken = node.actionValues.get(action).nVisits;
+                if (timesActionTaken > 0 && node.getChildren().get(action) != null)
+                    assertEquals(timesActionTaken - 1,
+                            Arrays.stream(node.getChildren().get(action))
+                                    .filter(Objects::nonNull)
+                                    .mapToInt(SingleTreeNode::getVisits).sum());
+            }
+        }
+    }
+
+    private void runGame(Game game, int moves, java.util.function.Consumer<SingleTreeNode> check) {
+        int counter = 0;
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        do {
+            AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())
+                    ._getAction(state, forwardModel.computeAvailableActions(state));
+
+            if (state.getCurrentPlayer() == 0) {
+                check.accept(mctsPlayer.getRoot(0));
+                counter++;
+            }
+            forwardModel.next(state, actionChosen);
+        } while (counter < moves);
+    }
+}